@@ -0,0 +1,136 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Shortest travel times between all pairs of vertices via blocked <b>Floyd-Warshall</b>, meant for small and dense
+ * graphs, where {@code V} Dijkstra runs in {@code O(V * E log V)} lose against {@code O(V^3)} tight loops.
+ * <p>
+ * The matrix is split into square tiles of {@value #TILE} vertices. For every block of pivots
+ * <ol>
+ *   <li>the diagonal tile is relaxed via its own pivots</li>
+ *   <li>all tiles of the pivot rows and pivot columns are relaxed via the diagonal tile</li>
+ *   <li>all remaining tiles are relaxed via the pivot rows and columns, a plain min-plus product, in parallel</li>
+ * </ol>
+ * Every step is one call of a {@link MinPlusKernel} on a tile, small enough to stay inside the cache.
+ * <p>
+ * Like {@link DirectedWeightedGraph#calculateShortestRoute(Vertex, Vertex)}, the travel time from a vertex to itself
+ * is its shortest round trip, not {@code 0}.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Floyd%E2%80%93Warshall_algorithm">Wiki: Floyd-Warshall algorithm</a>
+ */
+final class AllPairsTravelTimes {
+
+  static final int TILE = 64;
+
+  private AllPairsTravelTimes() {
+    throw new UnsupportedOperationException(
+      String.format("No instance of '%s' allowed.", getClass())
+    );
+  }
+
+  /**
+   * <b>Note:</b> Negative cycles have to be rejected beforehand, e.g. via {@link JohnsonPotentials}.
+   *
+   * @param snapshot graph to compute the travel times for
+   * @param kernel kernel relaxing the tiles
+   * @return row major {@code V x V} travel times, {@link MinPlusKernel#INFINITY} for pairs without a route
+   * @throws IllegalStateException if the matrix does not fit into a single array
+   */
+  static int[] compute(EdgeStorage snapshot, MinPlusKernel kernel) {
+    int vertexCount = snapshot.vertexCount();
+    if ((long) vertexCount * vertexCount > Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException(
+        "Graph with " + vertexCount + " vertices is too large for all pairs."
+      );
+    }
+    int[] matrix = new int[vertexCount * vertexCount];
+    Arrays.fill(matrix, MinPlusKernel.INFINITY);
+    TargetRows rows = new TargetRows();
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      int rowOffset = vertex * vertexCount;
+      rows.decode(snapshot, 0, vertex);
+      for (
+        int e = snapshot.edgeStart(vertex);
+        e < snapshot.edgeEnd(vertex);
+        e++
+      ) {
+        int index = rowOffset + rows.target(0, e);
+        matrix[index] = Math.min(matrix[index], snapshot.weight(e));
+      }
+    }
+
+    int tileCount = (vertexCount + TILE - 1) / TILE;
+    for (int pivotTile = 0; pivotTile < tileCount; pivotTile++) {
+      int pivotFrom = pivotTile * TILE;
+      int pivotTo = Math.min(vertexCount, pivotFrom + TILE);
+      kernel.relax(
+        matrix,
+        vertexCount,
+        pivotFrom,
+        pivotTo,
+        pivotFrom,
+        pivotTo,
+        pivotFrom,
+        pivotTo
+      );
+      for (int tile = 0; tile < tileCount; tile++) {
+        if (tile == pivotTile) {
+          continue;
+        }
+        int from = tile * TILE;
+        int to = Math.min(vertexCount, from + TILE);
+        kernel.relax(
+          matrix,
+          vertexCount,
+          pivotFrom,
+          pivotTo,
+          from,
+          to,
+          pivotFrom,
+          pivotTo
+        );
+        kernel.relax(
+          matrix,
+          vertexCount,
+          from,
+          to,
+          pivotFrom,
+          pivotTo,
+          pivotFrom,
+          pivotTo
+        );
+      }
+      // pivot rows and columns are final, every row of tiles only writes its own rows
+      int currentPivotTile = pivotTile;
+      IntStream
+        .range(0, tileCount)
+        .parallel()
+        .filter(rowTile -> rowTile != currentPivotTile)
+        .forEach(
+          rowTile -> {
+            int rowFrom = rowTile * TILE;
+            int rowTo = Math.min(vertexCount, rowFrom + TILE);
+            for (int columnTile = 0; columnTile < tileCount; columnTile++) {
+              if (columnTile == currentPivotTile) {
+                continue;
+              }
+              int columnFrom = columnTile * TILE;
+              kernel.relax(
+                matrix,
+                vertexCount,
+                rowFrom,
+                rowTo,
+                columnFrom,
+                Math.min(vertexCount, columnFrom + TILE),
+                pivotFrom,
+                pivotTo
+              );
+            }
+          }
+        );
+    }
+    return matrix;
+  }
+}
@@ -0,0 +1,19 @@
+package com.github.anjeyy.traveldistance;
+
+/**
+ * Typed answer of a {@link Mode}, carrying primitive data like vertex ids, travel times and counts.
+ * <p>
+ * Formatting only happens in {@link Object#toString()}, at the very edge of the program, so that consumers reading
+ * the data never pay for building strings.
+ */
+interface Answer {
+  /**
+   * @return true if the search was limited by its {@link QueryBudget}
+   */
+  boolean isTruncated();
+
+  /**
+   * @return amount of results, e.g. routes, reachable vertices or travel times
+   */
+  long size();
+}
@@ -0,0 +1,144 @@
+package com.github.anjeyy.traveldistance;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary wire format of a {@link Query}, carrying vertex ids and integers directly instead of text.
+ * Every query is a length-prefixed frame, all numbers are big-endian:
+ * <ul>
+ *   <li>{@code int}: length of the frame in bytes, excluding this field</li>
+ *   <li>{@code byte}: {@link Mode#getNumber() number} of the mode</li>
+ *   <li>{@code int}: amount of sources, only for a {@link Query.Shape#MATRIX matrix}</li>
+ *   <li>{@code int}: amount of vertices, followed by one {@code int} id per vertex</li>
+ *   <li>{@code int}: the limit, only for {@link Query.Shape#isLimited() limited} modes</li>
+ * </ul>
+ * <p>
+ * <b>Note:</b> Vertex ids are the ids of the current {@link GraphSnapshot} of the graph, they are only valid till
+ * the graph is modified.
+ */
+final class BinaryQueryCodec {
+
+  private BinaryQueryCodec() {
+    throw new UnsupportedOperationException(
+      String.format("No instance of '%s' allowed.", getClass())
+    );
+  }
+
+  /**
+   * Writes the query as a single frame.
+   *
+   * @throws IllegalArgumentException if a vertex is not part of the graph
+   *
+   * @param query query to write
+   * @param graph graph providing the vertex ids
+   * @param buffer target, positioned behind the frame afterwards
+   */
+  static void encode(
+    Query query,
+    DirectedWeightedGraph graph,
+    ByteBuffer buffer
+  ) {
+    GraphSnapshot graphSnapshot = graph.snapshot();
+    Query.Shape shape = query.getMode().getShape();
+    int frameLength =
+      Byte.BYTES +
+      Integer.BYTES * (1 + query.vertexCount()) +
+      (shape == Query.Shape.MATRIX ? Integer.BYTES : 0) +
+      (shape.isLimited() ? Integer.BYTES : 0);
+
+    buffer.putInt(frameLength);
+    buffer.put((byte) query.getMode().getNumber());
+    if (shape == Query.Shape.MATRIX) {
+      buffer.putInt(query.sourceCount());
+    }
+    buffer.putInt(query.vertexCount());
+    for (int i = 0; i < query.vertexCount(); i++) {
+      int id = graphSnapshot.idOf(query.vertex(i));
+      if (id == GraphSnapshot.NO_VERTEX) {
+        throw new IllegalArgumentException(
+          "Vertex is not part of the graph: " + query.vertex(i)
+        );
+      }
+      buffer.putInt(id);
+    }
+    if (shape.isLimited()) {
+      buffer.putInt(query.getLimit());
+    }
+  }
+
+  /**
+   * Reads a single frame into the given query.
+   *
+   * @throws IllegalArgumentException if the frame is incomplete, malformed or refers to unknown vertex ids
+   *
+   * @param buffer source, positioned behind the frame afterwards
+   * @param graph graph resolving the vertex ids
+   * @param query query to fill, reused by the caller
+   * @return the filled query
+   */
+  static Query decode(
+    ByteBuffer buffer,
+    DirectedWeightedGraph graph,
+    Query query
+  ) {
+    if (buffer.remaining() < Integer.BYTES) {
+      throw new IllegalArgumentException("Binary query frame is incomplete.");
+    }
+    int frameLength = buffer.getInt();
+    if (frameLength < Byte.BYTES + Integer.BYTES) {
+      throw new IllegalArgumentException(
+        "Binary query frame is too short: " + frameLength
+      );
+    }
+    if (buffer.remaining() < frameLength) {
+      throw new IllegalArgumentException("Binary query frame is incomplete.");
+    }
+    int frameEnd = buffer.position() + frameLength;
+
+    GraphSnapshot graphSnapshot = graph.snapshot();
+    Mode mode = Mode.from(buffer.get());
+    Query.Shape shape = mode.getShape();
+    query.reset(mode);
+    int sourceCount = shape == Query.Shape.MATRIX ? buffer.getInt() : 0;
+    int vertexCount = buffer.getInt();
+    int maxVertexCount = (frameEnd - buffer.position()) / Integer.BYTES;
+    boolean invalid =
+      !shape.accepts(vertexCount) ||
+      vertexCount < 0 ||
+      vertexCount > maxVertexCount ||
+      sourceCount < 0 ||
+      sourceCount > vertexCount;
+    if (invalid) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Binary query frame of MODE '%s' has invalid vertex count %d or source count %d.",
+          mode,
+          vertexCount,
+          sourceCount
+        )
+      );
+    }
+    for (int i = 0; i < vertexCount; i++) {
+      if (i == sourceCount) {
+        query.markSources();
+      }
+      int id = buffer.getInt();
+      if (id < 0 || id >= graphSnapshot.vertexCount()) {
+        throw new IllegalArgumentException("Unknown vertex id: " + id);
+      }
+      query.addVertex(graphSnapshot.vertexOf(id));
+    }
+    if (sourceCount == vertexCount) {
+      query.markSources();
+    }
+    if (shape.isLimited()) {
+      query.setLimit(buffer.getInt());
+    }
+    if (buffer.position() != frameEnd) {
+      throw new IllegalArgumentException(
+        "Binary query frame length does not match its mode: " + mode
+      );
+    }
+    return query;
+  }
+}
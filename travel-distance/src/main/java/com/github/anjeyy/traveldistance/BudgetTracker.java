@@ -0,0 +1,162 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Mutable counterpart of a {@link QueryBudget}, tracking the spent work of exactly <b>one</b> search.
+ * <p>
+ * Searches call {@link #tryExpand()} once per expanded state and {@link #tryAcceptResult()} once per
+ * found result, pre-passes call {@link #tryPrepare()} once per step. Both methods are meant for the hot loop: counting is a simple increment, while the
+ * clock and the interruption flag are only consulted every {@value #CHECK_INTERVAL} calls.
+ * <p>
+ * <b>Note:</b> Not thread-safe, a tracker belongs to the thread executing the search.
+ */
+final class BudgetTracker {
+
+  /** Has to be a power of two, so that it can be used as a bit mask. */
+  private static final int CHECK_INTERVAL = 1024;
+
+  /**
+   * Reasons why a search did not run to completion.
+   */
+  enum Truncation {
+    DEADLINE_EXCEEDED("deadline exceeded"),
+    EXPANSION_LIMIT_REACHED("max expanded states reached"),
+    RESULT_LIMIT_REACHED("max results reached");
+
+    private final String description;
+
+    Truncation(String description) {
+      this.description = description;
+    }
+
+    String getDescription() {
+      return description;
+    }
+  }
+
+  private final boolean hasDeadline;
+  private final long deadlineNanos;
+  private final long maxExpandedStates;
+  private final int maxResults;
+
+  private long expandedStates;
+  private long preparationSteps;
+  private int results;
+  private Truncation truncation;
+
+  BudgetTracker(
+    boolean hasDeadline,
+    long deadlineNanos,
+    long maxExpandedStates,
+    int maxResults
+  ) {
+    this.hasDeadline = hasDeadline;
+    this.deadlineNanos = deadlineNanos;
+    this.maxExpandedStates = maxExpandedStates;
+    this.maxResults = maxResults;
+  }
+
+  /**
+   * Accounts for one more expanded state.
+   *
+   * @return true if the state may be expanded, false if the budget is exhausted and the search has to stop
+   * @throws CancellationException if the executing thread was interrupted, the interrupt flag stays set
+   */
+  boolean tryExpand() {
+    if (truncation != null) {
+      return false;
+    }
+    if (expandedStates == maxExpandedStates) {
+      truncation = Truncation.EXPANSION_LIMIT_REACHED;
+      return false;
+    }
+    expandedStates++;
+    return (expandedStates & (CHECK_INTERVAL - 1)) != 0 || checkDeadline();
+  }
+
+  /**
+   * Accounts for one more step of preparation, which does not expand a state, e.g. a pre-pass over all vertices.
+   * Steps do not count against the max expanded states, only the deadline and the interruption are checked.
+   *
+   * @return true if the preparation may go on, false if the budget is exhausted and the search has to stop
+   * @throws CancellationException if the executing thread was interrupted, the interrupt flag stays set
+   */
+  boolean tryPrepare() {
+    if (truncation != null) {
+      return false;
+    }
+    preparationSteps++;
+    return (preparationSteps & (CHECK_INTERVAL - 1)) != 0 || checkDeadline();
+  }
+
+  private boolean checkDeadline() {
+    checkInterruption();
+    if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+      truncation = Truncation.DEADLINE_EXCEEDED;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Accounts for one more found result.
+   *
+   * @return true if the result may be collected, false if the result limit is reached
+   */
+  boolean tryAcceptResult() {
+    if (results == maxResults) {
+      truncation = Truncation.RESULT_LIMIT_REACHED;
+      return false;
+    }
+    results++;
+    return true;
+  }
+
+  /**
+   * @return true if the search stopped before exploring everything
+   */
+  boolean isTruncated() {
+    return truncation != null;
+  }
+
+  /**
+   * @return reason of truncation, {@code null} if the search ran to completion
+   */
+  Truncation getTruncation() {
+    return truncation;
+  }
+
+  long getExpandedStates() {
+    return expandedStates;
+  }
+
+  /**
+   * Decorates an already formatted result with the truncation reason, if there is one.
+   *
+   * @param formattedResult result of a search
+   * @return unchanged result if complete, flagged result otherwise
+   */
+  String flag(String formattedResult) {
+    return flag(formattedResult, truncation);
+  }
+
+  /**
+   * Same as {@link #flag(String)}, for typed results which outlive their tracker.
+   *
+   * @param formattedResult result of a search
+   * @param truncation reason of truncation, {@code null} if the search ran to completion
+   * @return unchanged result if complete, flagged result otherwise
+   */
+  static String flag(String formattedResult, Truncation truncation) {
+    return truncation == null
+      ? formattedResult
+      : formattedResult + " (TRUNCATED: " + truncation.getDescription() + ")";
+  }
+
+  private static void checkInterruption() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("Query was cancelled by interruption.");
+    }
+  }
+}
@@ -0,0 +1,296 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.Arrays;
+
+/**
+ * Index of all <i>strongly connected components</i> of an {@link EdgeStorage}, together with
+ * their <i>condensation</i>, a directed acyclic graph where every component is collapsed to a single node.
+ * <p>
+ * Components are determined with an iterative version of <b>Tarjan's algorithm</b> in {@code O(V + E)}.
+ * Tarjan completes components in reverse topological order, which is used to assign every component a
+ * topological rank: an edge between two different components always points to a higher rank.
+ * <p>
+ * For small condensations the transitive closure is additionally stored as one bitset row per component, so that
+ * reachability is answered exactly in {@code O(1)}. For {@code C} components it takes {@code C² / 8} bytes and
+ * {@code O(E * C / 64)} to build, since every edge merges a row of {@code C / 64} words. Hence, it is bounded by
+ * the caller:
+ * <ul>
+ *   <li>{@value #MAX_LAZY_CLOSURE_COMPONENTS} components (128 KiB) if built lazily by the first query needing it</li>
+ *   <li>{@value #MAX_BACKGROUND_CLOSURE_COMPONENTS} components (8 MiB) if built in the background, where no query
+ *   waits for it</li>
+ * </ul>
+ * Bigger condensations fall back to the topological rank, which can only reject.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Tarjan%27s_strongly_connected_components_algorithm">Wiki: Tarjan's algorithm</a>
+ * @see <a href="https://en.wikipedia.org/wiki/Strongly_connected_component">Wiki: Strongly connected component</a>
+ */
+final class ComponentIndex {
+
+  /** Limits the transitive closure built by a waiting query to 128 KiB. */
+  static final int MAX_LAZY_CLOSURE_COMPONENTS = 1 << 10;
+  /** Limits the transitive closure built in the background to 8 MiB. */
+  static final int MAX_BACKGROUND_CLOSURE_COMPONENTS = 1 << 13;
+
+  private static final int UNVISITED = -1;
+
+  private final int[] componentOfVertex;
+  private final int[] componentSize;
+  private final int componentCount;
+  private final long[][] closure;
+
+  /**
+   * Computes components, topological ranks and - for up to {@value #MAX_LAZY_CLOSURE_COMPONENTS} components - the
+   * transitive closure, meant for a query waiting for the index.
+   *
+   * @param snapshot graph to index
+   * @return built index
+   */
+  static ComponentIndex build(EdgeStorage snapshot) {
+    return build(snapshot, MAX_LAZY_CLOSURE_COMPONENTS);
+  }
+
+  /**
+   * Computes components, topological ranks and - if small enough - the transitive closure.
+   *
+   * @param snapshot graph to index
+   * @param maxClosureComponents maximum amount of components to store the transitive closure for, e.g.
+   * {@link #MAX_BACKGROUND_CLOSURE_COMPONENTS}
+   * @return built index
+   */
+  static ComponentIndex build(EdgeStorage snapshot, int maxClosureComponents) {
+    int vertexCount = snapshot.vertexCount();
+    int[] index = new int[vertexCount];
+    int[] lowLink = new int[vertexCount];
+    boolean[] onStack = new boolean[vertexCount];
+    int[] stack = new int[vertexCount];
+    int[] callVertex = new int[vertexCount];
+    int[] callEdge = new int[vertexCount];
+    int[] componentOfVertex = new int[vertexCount];
+    TargetRows rows = new TargetRows(); // one decoded row per call, resumed after returning
+    Arrays.fill(index, UNVISITED);
+
+    int counter = 0;
+    int stackSize = 0;
+    int componentCount = 0;
+    for (int root = 0; root < vertexCount; root++) {
+      if (index[root] != UNVISITED) {
+        continue;
+      }
+      index[root] = counter;
+      lowLink[root] = counter++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+      callVertex[0] = root;
+      callEdge[0] = snapshot.edgeStart(root);
+      rows.decode(snapshot, 0, root);
+      int depth = 1;
+
+      // iterative depth first search, simulating the recursive call stack
+      while (depth > 0) {
+        int vertex = callVertex[depth - 1];
+        int edge = callEdge[depth - 1];
+        if (edge < snapshot.edgeEnd(vertex)) {
+          callEdge[depth - 1]++;
+          int neighbor = rows.target(depth - 1, edge);
+          if (index[neighbor] == UNVISITED) {
+            index[neighbor] = counter;
+            lowLink[neighbor] = counter++;
+            stack[stackSize++] = neighbor;
+            onStack[neighbor] = true;
+            callVertex[depth] = neighbor;
+            callEdge[depth] = snapshot.edgeStart(neighbor);
+            rows.decode(snapshot, depth, neighbor);
+            depth++;
+          } else if (onStack[neighbor]) {
+            lowLink[vertex] = Math.min(lowLink[vertex], index[neighbor]);
+          }
+          continue;
+        }
+
+        // all neighbors visited, vertex is root of a component
+        if (lowLink[vertex] == index[vertex]) {
+          int member;
+          do {
+            member = stack[--stackSize];
+            onStack[member] = false;
+            componentOfVertex[member] = componentCount;
+          } while (member != vertex);
+          componentCount++;
+        }
+        depth--;
+        if (depth > 0) {
+          int caller = callVertex[depth - 1];
+          lowLink[caller] = Math.min(lowLink[caller], lowLink[vertex]);
+        }
+      }
+    }
+
+    int[] componentSize = new int[componentCount];
+    for (int component : componentOfVertex) {
+      componentSize[component]++;
+    }
+    long[][] closure = componentCount <= maxClosureComponents
+      ? computeClosure(snapshot, componentOfVertex, componentSize)
+      : null;
+    return new ComponentIndex(
+      componentOfVertex,
+      componentSize,
+      componentCount,
+      closure
+    );
+  }
+
+  /**
+   * Index without any knowledge, where all vertices form a single cyclic component. Hence, every vertex may
+   * reach every other and nothing is pruned, e.g. while the real index is still being built.
+   *
+   * @param vertexCount amount of vertices
+   * @return index answering every reachability with <i>possibly reachable</i>
+   */
+  static ComponentIndex unknown(int vertexCount) {
+    return new ComponentIndex(
+      new int[vertexCount],
+      new int[] { vertexCount },
+      1,
+      null
+    );
+  }
+
+  /**
+   * Tarjan numbers sink components first, so every successor of component {@code c} has a
+   * smaller number and its closure row is already complete when row {@code c} is computed.
+   */
+  private static long[][] computeClosure(
+    EdgeStorage snapshot,
+    int[] componentOfVertex,
+    int[] componentSize
+  ) {
+    int componentCount = componentSize.length;
+    // group vertices by component via counting sort
+    int[] start = new int[componentCount + 1];
+    for (int c = 0; c < componentCount; c++) {
+      start[c + 1] = start[c] + componentSize[c];
+    }
+    int[] fill = Arrays.copyOf(start, componentCount);
+    int[] members = new int[componentOfVertex.length];
+    for (int v = 0; v < componentOfVertex.length; v++) {
+      members[fill[componentOfVertex[v]]++] = v;
+    }
+
+    int words = (componentCount + 63) >>> 6;
+    long[][] closure = new long[componentCount][words];
+    TargetRows rows = new TargetRows();
+    for (int c = 0; c < componentCount; c++) {
+      long[] row = closure[c];
+      row[c >>> 6] |= 1L << c;
+      for (int m = start[c]; m < start[c + 1]; m++) {
+        int vertex = members[m];
+        rows.decode(snapshot, 0, vertex);
+        for (
+          int e = snapshot.edgeStart(vertex);
+          e < snapshot.edgeEnd(vertex);
+          e++
+        ) {
+          int successor = componentOfVertex[rows.target(0, e)];
+          boolean known = (row[successor >>> 6] & (1L << successor)) != 0;
+          if (!known) {
+            long[] successorRow = closure[successor];
+            for (int w = 0; w < words; w++) {
+              row[w] |= successorRow[w];
+            }
+          }
+        }
+      }
+    }
+    return closure;
+  }
+
+  private ComponentIndex(
+    int[] componentOfVertex,
+    int[] componentSize,
+    int componentCount,
+    long[][] closure
+  ) {
+    this.componentOfVertex = componentOfVertex;
+    this.componentSize = componentSize;
+    this.componentCount = componentCount;
+    this.closure = closure;
+  }
+
+  int componentCount() {
+    return componentCount;
+  }
+
+  /**
+   * @return true if reachability is answered exactly via the transitive closure
+   */
+  boolean hasClosure() {
+    return closure != null;
+  }
+
+  int componentOf(int vertex) {
+    return componentOfVertex[vertex];
+  }
+
+  /**
+   * @param component component id
+   * @return position of the component in a topological order of the condensation
+   */
+  int topologicalRank(int component) {
+    return componentCount - 1 - component;
+  }
+
+  /**
+   * @param component component id
+   * @return true if the component contains a cycle, since self-references are not allowed this means more than one vertex
+   */
+  boolean isCyclic(int component) {
+    return componentSize[component] > 1;
+  }
+
+  /**
+   * @return true if at least one component of the graph contains a cycle
+   */
+  boolean hasCycle() {
+    return componentCount < componentOfVertex.length;
+  }
+
+  /**
+   * Answers whether {@code to} is reachable from {@code from} with <b>zero</b> or more edges.
+   * <p>
+   * <b>Note:</b> The answer is exact, if the transitive closure is available.
+   * Otherwise, {@code false} is exact and {@code true} means <i>possibly reachable</i>.
+   *
+   * @param from vertex id
+   * @param to vertex id
+   * @return false if {@code to} can never be reached
+   */
+  boolean mayReach(int from, int to) {
+    int fromComponent = componentOfVertex[from];
+    int toComponent = componentOfVertex[to];
+    if (fromComponent == toComponent) {
+      return true;
+    }
+    if (topologicalRank(fromComponent) >= topologicalRank(toComponent)) {
+      return false;
+    }
+    return (
+      closure == null ||
+      (closure[fromComponent][toComponent >>> 6] & (1L << toComponent)) != 0
+    );
+  }
+
+  /**
+   * Same as {@link #mayReach(int, int)}, but the route has to consist of <b>at least one</b> edge.
+   * Hence, a route from a vertex back to itself requires a cyclic component.
+   *
+   * @param source vertex id
+   * @param destination vertex id
+   * @return false if there is no such route
+   */
+  boolean mayHaveRoute(int source, int destination) {
+    return source == destination
+      ? isCyclic(componentOfVertex[source])
+      : mayReach(source, destination);
+  }
+}
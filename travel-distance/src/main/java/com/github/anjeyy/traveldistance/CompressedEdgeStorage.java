@@ -0,0 +1,360 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.Arrays;
+
+/**
+ * {@link WritableEdgeStorage} compressed in the style of <b>WebGraph</b>, meant for very large or rarely queried graphs.
+ * <ul>
+ *   <li>targets of a vertex are sorted and gap encoded as <i>varints</i>: the first target relative to the vertex
+ *   itself as zig-zag varint, every further target relative to its predecessor. Sorted gaps are never negative and
+ *   small for dense rows or local ids, so most of them fit into a single byte instead of four.</li>
+ *   <li>weights are packed with the minimal bit width, relative to the smallest weight</li>
+ * </ul>
+ * Targets are decoded on the fly and without any state shared between searches:
+ * <ul>
+ *   <li>{@link #targets(int, int[])} decodes the whole row of a vertex in {@code O(out-degree)}, which is how
+ *   searches scan rows via {@link TargetRows}</li>
+ *   <li>{@link #target(int)} locates the vertex of the edge via binary search and decodes its row up to the edge,
+ *   which takes {@code O(log V + out-degree)}. Hence, scanning a row edge by edge this way takes
+ *   {@code O(out-degree²)}.</li>
+ * </ul>
+ * <p>
+ * The storage is filled uncompressed and encoded once by {@link #seal()}, which sorts the edges of every vertex by
+ * their target. Afterwards only weights can change, a weight outside the current bit width repacks all weights.
+ * <p>
+ * Like the off-heap backends, it is a {@link WritableEdgeStorage.Backend#isPrimaryEdgeStore() primary edge store},
+ * which replaces the hashed edges of the owning graph between modifications instead of adding to them.
+ * <p>
+ * <b>Note:</b> Since edges are sorted, searches on this storage visit neighbors in ascending id order, instead of the
+ * insertion order of the other backends. Routes and their travel times are the same, only routes of equal rank may be
+ * listed in another order.
+ *
+ * @see <a href="https://webgraph.di.unimi.it/">WebGraph framework</a>
+ */
+final class CompressedEdgeStorage implements WritableEdgeStorage {
+
+  private static final int VARINT_PAYLOAD_BITS = 7;
+  private static final int VARINT_CONTINUATION = 0x80;
+  private static final int MAX_VARINT_BYTES = 5;
+
+  private final int[] offsets;
+  private final int edgeCount;
+  // uncompressed edges, only present till sealed
+  private int[] filledTargets;
+  private int[] filledWeights;
+  // compressed edges
+  private int[] targetPositions;
+  private byte[] encodedTargets;
+  private long[] packedWeights;
+  private int weightBias;
+  private int weightBits;
+  private volatile boolean sealed;
+
+  CompressedEdgeStorage(int vertexCount, int edgeCount) {
+    this.offsets = new int[vertexCount + 1];
+    this.edgeCount = edgeCount;
+    this.filledTargets = new int[edgeCount];
+    this.filledWeights = new int[edgeCount];
+  }
+
+  /**
+   * Sorts the edges of every vertex by target, encodes them and releases the uncompressed ones.
+   */
+  @Override
+  public synchronized void seal() {
+    if (sealed) {
+      return;
+    }
+    sortByTarget();
+    int vertexCount = vertexCount();
+    targetPositions = new int[vertexCount];
+    byte[] encoded = new byte[Math.max(16, edgeCount + vertexCount)];
+    int position = 0;
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      targetPositions[vertex] = position;
+      int previous = vertex;
+      for (int e = offsets[vertex]; e < offsets[vertex + 1]; e++) {
+        if (encoded.length - position < MAX_VARINT_BYTES) {
+          encoded = Arrays.copyOf(encoded, 2 * encoded.length);
+        }
+        int target = filledTargets[e];
+        long gap = e == offsets[vertex]
+          ? zigZag(target - previous)
+          : target - previous; // sorted, so never negative
+        position = writeVarint(encoded, position, gap);
+        previous = target;
+      }
+    }
+    encodedTargets = Arrays.copyOf(encoded, position);
+    packWeights(filledWeights);
+    filledTargets = null;
+    filledWeights = null;
+    sealed = true;
+  }
+
+  /**
+   * Sorts the filled edges of every vertex by target, weights move along with their targets. Sorting is stable,
+   * so edges to the same target keep their order.
+   */
+  private void sortByTarget() {
+    long[] edges = new long[edgeCount];
+    for (int e = 0; e < edgeCount; e++) {
+      // targets are non-negative, so the longs are ordered by target and then by edge index
+      edges[e] = ((long) filledTargets[e] << Integer.SIZE) | e;
+    }
+    int[] sortedTargets = new int[edgeCount];
+    int[] sortedWeights = new int[edgeCount];
+    for (int vertex = 0; vertex < vertexCount(); vertex++) {
+      Arrays.sort(edges, offsets[vertex], offsets[vertex + 1]);
+    }
+    for (int e = 0; e < edgeCount; e++) {
+      int filled = (int) edges[e];
+      sortedTargets[e] = filledTargets[filled];
+      sortedWeights[e] = filledWeights[filled];
+    }
+    filledTargets = sortedTargets;
+    filledWeights = sortedWeights;
+  }
+
+  private void packWeights(int[] weights) {
+    long min = Integer.MAX_VALUE;
+    long max = Integer.MIN_VALUE;
+    for (int weight : weights) {
+      min = Math.min(min, weight);
+      max = Math.max(max, weight);
+    }
+    weightBias = weights.length == 0 ? 0 : (int) min;
+    weightBits = weights.length == 0
+      ? 0
+      : Long.SIZE - Long.numberOfLeadingZeros(max - min);
+    long bitCount = (long) weights.length * weightBits;
+    packedWeights = new long[(int) (bitCount / Long.SIZE) + 1];
+    for (int e = 0; e < weights.length; e++) {
+      putPackedWeight(e, weights[e]);
+    }
+  }
+
+  /**
+   * @return bytes used by the compressed edges, including the offsets
+   */
+  long usedBytes() {
+    checkSealed();
+    return (
+      (long) Integer.BYTES * (offsets.length + targetPositions.length) +
+      encodedTargets.length +
+      (long) Long.BYTES * packedWeights.length
+    );
+  }
+
+  @Override
+  public int vertexCount() {
+    return offsets.length - 1;
+  }
+
+  @Override
+  public int edgeCount() {
+    return edgeCount;
+  }
+
+  @Override
+  public int edgeStart(int vertex) {
+    return offsets[vertex];
+  }
+
+  @Override
+  public int edgeEnd(int vertex) {
+    return offsets[vertex + 1];
+  }
+
+  /**
+   * Prefer {@link #targets(int, int[])} to scan a whole row, see the class comment for the costs.
+   */
+  @Override
+  public int target(int edgeIndex) {
+    checkSealed();
+    if (edgeIndex < 0 || edgeIndex >= edgeCount) {
+      throw new IndexOutOfBoundsException("Edge index: " + edgeIndex);
+    }
+    // last vertex starting at or before the edge, skipping vertices without edges
+    int low = 0;
+    int high = vertexCount() - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (offsets[middle] <= edgeIndex) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    int position = targetPositions[low];
+    long value = readVarint(position);
+    int target = low + unZigZag(value);
+    for (int e = offsets[low] + 1; e <= edgeIndex; e++) {
+      position += varintLength(value);
+      value = readVarint(position);
+      target += (int) value;
+    }
+    return target;
+  }
+
+  @Override
+  public int[] targets(int vertex, int[] buffer) {
+    checkSealed();
+    int edgeStart = offsets[vertex];
+    int degree = offsets[vertex + 1] - edgeStart;
+    int[] row = TargetRows.fit(buffer, degree);
+    int position = targetPositions[vertex];
+    int target = vertex;
+    for (int i = 0; i < degree; i++) {
+      long value = readVarint(position);
+      position += varintLength(value);
+      target += i == 0 ? unZigZag(value) : (int) value;
+      row[i] = target;
+    }
+    return row;
+  }
+
+  /**
+   * Decodes the row up to the target, stopping at the first larger one, since targets are sorted.
+   */
+  @Override
+  public int edgeIndex(int source, int target) {
+    checkSealed();
+    int position = targetPositions[source];
+    int current = source;
+    for (int e = edgeStart(source); e < edgeEnd(source); e++) {
+      long value = readVarint(position);
+      position += varintLength(value);
+      current += e == edgeStart(source) ? unZigZag(value) : (int) value;
+      if (current >= target) {
+        return current == target ? e : NO_EDGE;
+      }
+    }
+    return NO_EDGE;
+  }
+
+  @Override
+  public int weight(int edgeIndex) {
+    checkSealed();
+    if (weightBits == 0) {
+      return weightBias;
+    }
+    long bitIndex = (long) edgeIndex * weightBits;
+    int word = (int) (bitIndex >>> 6);
+    int shift = (int) (bitIndex & (Long.SIZE - 1));
+    long value = packedWeights[word] >>> shift;
+    if (shift + weightBits > Long.SIZE) {
+      value |= packedWeights[word + 1] << (Long.SIZE - shift);
+    }
+    long mask = (1L << weightBits) - 1;
+    return (int) (weightBias + (value & mask));
+  }
+
+  @Override
+  public void setEdgeStart(int vertex, int edgeIndex) {
+    checkNotSealed();
+    offsets[vertex] = edgeIndex;
+  }
+
+  @Override
+  public void setTarget(int edgeIndex, int target) {
+    checkNotSealed();
+    filledTargets[edgeIndex] = target;
+  }
+
+  @Override
+  public synchronized void setWeight(int edgeIndex, int weight) {
+    if (!sealed) {
+      filledWeights[edgeIndex] = weight;
+      return;
+    }
+    long relative = (long) weight - weightBias;
+    if (relative < 0 || relative >= (1L << weightBits)) {
+      int[] weights = new int[edgeCount];
+      for (int e = 0; e < edgeCount; e++) {
+        weights[e] = weight(e);
+      }
+      weights[edgeIndex] = weight;
+      packWeights(weights);
+      return;
+    }
+    putPackedWeight(edgeIndex, weight);
+  }
+
+  private void putPackedWeight(int edgeIndex, int weight) {
+    if (weightBits == 0) {
+      return;
+    }
+    long value = (long) weight - weightBias;
+    long mask = (1L << weightBits) - 1;
+    long bitIndex = (long) edgeIndex * weightBits;
+    int word = (int) (bitIndex >>> 6);
+    int shift = (int) (bitIndex & (Long.SIZE - 1));
+    packedWeights[word] =
+      (packedWeights[word] & ~(mask << shift)) | (value << shift);
+    if (shift + weightBits > Long.SIZE) {
+      int remainingShift = Long.SIZE - shift;
+      packedWeights[word + 1] =
+        (packedWeights[word + 1] & ~(mask >>> remainingShift)) |
+        (value >>> remainingShift);
+    }
+  }
+
+  private long readVarint(int position) {
+    long value = 0;
+    int shift = 0;
+    int current;
+    do {
+      current = encodedTargets[position++] & 0xFF;
+      value |= (long) (current & ~VARINT_CONTINUATION) << shift;
+      shift += VARINT_PAYLOAD_BITS;
+    } while ((current & VARINT_CONTINUATION) != 0);
+    return value;
+  }
+
+  /**
+   * @return amount of bytes the value takes as varint, values are always written in their shortest form
+   */
+  private static int varintLength(long value) {
+    int length = 1;
+    while (value >= VARINT_CONTINUATION) {
+      value >>>= VARINT_PAYLOAD_BITS;
+      length++;
+    }
+    return length;
+  }
+
+  private static int writeVarint(byte[] encoded, int position, long value) {
+    while (value >= VARINT_CONTINUATION) {
+      encoded[position++] = (byte) (value | VARINT_CONTINUATION);
+      value >>>= VARINT_PAYLOAD_BITS;
+    }
+    encoded[position++] = (byte) value;
+    return position;
+  }
+
+  private static long zigZag(int value) {
+    return ((value << 1) ^ (value >> (Integer.SIZE - 1))) & 0xFFFF_FFFFL;
+  }
+
+  private static int unZigZag(long value) {
+    int encoded = (int) value;
+    return (encoded >>> 1) ^ -(encoded & 1);
+  }
+
+  private void checkSealed() {
+    if (!sealed) {
+      throw new IllegalStateException(
+        "Compressed edges have to be sealed before reading them."
+      );
+    }
+  }
+
+  private void checkNotSealed() {
+    if (sealed) {
+      throw new IllegalStateException(
+        "Compressed edges are sealed, only weights can change."
+      );
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package com.github.anjeyy.traveldistance;
+
+import java.math.BigInteger;
+
+/**
+ * Amount of routes found by a counting search, without the routes themselves.
+ */
+final class CountedRoutes implements Answer {
+
+  private static final String NO_SUCH_ROUTE = "NO SUCH ROUTE";
+
+  private final BigInteger count;
+  private final BudgetTracker.Truncation truncation;
+
+  private CountedRoutes(BigInteger count, BudgetTracker.Truncation truncation) {
+    this.count = count;
+    this.truncation = truncation;
+  }
+
+  /**
+   * @param count exact amount of routes, a lower bound if truncated
+   * @param truncation reason of truncation, {@code null} if the search ran to completion
+   * @return counted routes
+   */
+  static CountedRoutes of(
+    BigInteger count,
+    BudgetTracker.Truncation truncation
+  ) {
+    if (count == null) {
+      throw new NullPointerException("Count has to be set.");
+    }
+    return new CountedRoutes(count, truncation);
+  }
+
+  BigInteger getCount() {
+    return count;
+  }
+
+  /**
+   * @return amount of routes, saturated at {@link Long#MAX_VALUE}
+   */
+  @Override
+  public long size() {
+    return count.bitLength() < Long.SIZE ? count.longValue() : Long.MAX_VALUE;
+  }
+
+  @Override
+  public boolean isTruncated() {
+    return truncation != null;
+  }
+
+  @Override
+  public String toString() {
+    return count.signum() == 0
+      ? BudgetTracker.flag(NO_SUCH_ROUTE, truncation)
+      : BudgetTracker.flag(count + " routes", truncation);
+  }
+}
@@ -0,0 +1,123 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.Arrays;
+
+/**
+ * {@link WritableEdgeStorage} for small and dense graphs, which keeps a flat {@code V x V} <i>adjacency matrix</i>
+ * besides the primitive arrays of {@link HeapEdgeStorage}. Cell {@code source * V + target} holds the index of the
+ * edge from {@code source} to {@code target}, so that an edge between two vertices is found in {@code O(1)} instead
+ * of scanning the outgoing edges of its source.
+ * <p>
+ * Edges are still iterated in their original order, so searches on both storages visit neighbors alike.
+ * <p>
+ * <b>Note:</b> The matrix costs {@code V^2} ints, which is at most twice the edge arrays for graphs filled by more
+ * than {@value #MIN_FILL_PERCENT}%. Hence, {@link WritableEdgeStorage.Backend#AUTO} only chooses it beyond that fill
+ * and for up to {@value #MAX_VERTICES} vertices.
+ */
+final class DenseEdgeStorage implements WritableEdgeStorage {
+
+  static final int MIN_FILL_PERCENT = 50;
+  static final int MAX_VERTICES = 4096;
+
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] weights;
+  private final int[] matrix;
+
+  DenseEdgeStorage(int vertexCount, int edgeCount) {
+    if (vertexCount > MAX_VERTICES) {
+      throw new IllegalArgumentException(
+        "Please provide at most " +
+        MAX_VERTICES +
+        " vertices for a dense storage, yours were: " +
+        vertexCount
+      );
+    }
+    this.offsets = new int[vertexCount + 1];
+    this.targets = new int[edgeCount];
+    this.weights = new int[edgeCount];
+    this.matrix = new int[vertexCount * vertexCount];
+  }
+
+  /**
+   * Self-references are not allowed, so a graph with {@code V} vertices has at most {@code V * (V - 1)} edges.
+   *
+   * @param vertexCount amount of vertices
+   * @param edgeCount amount of edges
+   * @return true if the edges fill more than {@value #MIN_FILL_PERCENT}% of all possible edges
+   */
+  static boolean isDense(int vertexCount, int edgeCount) {
+    if (vertexCount < 2 || vertexCount > MAX_VERTICES) {
+      return false;
+    }
+    long possibleEdges = (long) vertexCount * (vertexCount - 1);
+    return edgeCount * 100L > possibleEdges * MIN_FILL_PERCENT;
+  }
+
+  @Override
+  public int vertexCount() {
+    return offsets.length - 1;
+  }
+
+  @Override
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  @Override
+  public int edgeStart(int vertex) {
+    return offsets[vertex];
+  }
+
+  @Override
+  public int edgeEnd(int vertex) {
+    return offsets[vertex + 1];
+  }
+
+  @Override
+  public int target(int edgeIndex) {
+    return targets[edgeIndex];
+  }
+
+  @Override
+  public int weight(int edgeIndex) {
+    return weights[edgeIndex];
+  }
+
+  /**
+   * Looks up the matrix cell in {@code O(1)}.
+   */
+  @Override
+  public int edgeIndex(int source, int target) {
+    return matrix[source * vertexCount() + target];
+  }
+
+  @Override
+  public void setEdgeStart(int vertex, int edgeIndex) {
+    offsets[vertex] = edgeIndex;
+  }
+
+  @Override
+  public void setTarget(int edgeIndex, int target) {
+    targets[edgeIndex] = target;
+  }
+
+  @Override
+  public void setWeight(int edgeIndex, int weight) {
+    weights[edgeIndex] = weight;
+  }
+
+  /**
+   * Fills the adjacency matrix from the edges, since the source of an edge is only known once all offsets are set.
+   */
+  @Override
+  public void seal() {
+    int vertexCount = vertexCount();
+    Arrays.fill(matrix, NO_EDGE);
+    for (int source = 0; source < vertexCount; source++) {
+      for (int e = offsets[source]; e < offsets[source + 1]; e++) {
+        matrix[source * vertexCount + targets[e]] = e;
+      }
+    }
+  }
+}
@@ -1,22 +1,28 @@
 package com.github.anjeyy.traveldistance;
 
 import com.github.anjeyy.traveldistance.util.CollectionUtil;
+import com.github.anjeyy.traveldistance.util.IntBitSet;
+import com.github.anjeyy.traveldistance.util.IntMinHeap;
+import com.github.anjeyy.traveldistance.util.IntStack;
+import com.github.anjeyy.traveldistance.util.StampedIntArray;
+import com.github.anjeyy.traveldistance.util.StampedIntSet;
 import com.github.anjeyy.traveldistance.util.StringConstant;
+import java.math.BigInteger;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.Queue;
-import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Implementation of a <i>directed</i>, <i>weighted</i> and possibly <i>cyclic</i> graph.
@@ -28,42 +34,142 @@ import java.util.stream.Stream;
  */
 class DirectedWeightedGraph {
 
-  private static final String NO_SUCH_ROUTE = "NO SUCH ROUTE";
+  /**
+   * Notified for every vertex reached by {@link #streamReachableWithin(Vertex, int, QueryBudget, ArrivalListener)}.
+   */
+  @FunctionalInterface
+  interface ArrivalListener {
+    void arrived(Vertex vertex, int travelTime);
+  }
+
+  /**
+   * Same as {@link ArrivalListener}, but with vertex ids of the searched {@link GraphSnapshot}.
+   */
+  @FunctionalInterface
+  private interface VertexIdArrivalListener {
+    void arrived(int vertexId, int travelTime);
+  }
+
+  /**
+   * Notified for every index swapped in by {@link #buildIndexesInBackground(Executor, IndexListener)}.
+   */
+  @FunctionalInterface
+  interface IndexListener {
+    void indexReady(
+      String index,
+      int readyCount,
+      int totalCount,
+      long elapsedNanos
+    );
+  }
 
-  private final Map<Vertex, Set<Edge>> adjacencyList;
+  private static final int INHERITED = -2; // travel time taken over from the previous round
+
+  // hashed edges, released by #compact() while the snapshot of a primary edge store holds them, see #materialize()
+  private volatile Map<Vertex, Map<Vertex, Edge>> adjacencyList;
+  private volatile Map<Vertex, Map<Vertex, Edge>> incomingList;
+  // ids of the vertices having an entry inside the released adjacency list
+  private IntBitSet releasedSources;
+  // guarded by itself, concurrent queries look up and rebuild trees; never held while locking the graph
+  private final Map<Vertex, ShortestPathTree> hotSourceTrees;
+  // edges changed by the batch being applied, hot source trees are repaired once it is committed
+  private List<Edge> batchImprovedEdges;
+  private List<Edge> batchWorsenedEdges;
+  private final Edge.WeightChangeListener weightChangeListener = this::onWeightChanged;
+  // only written by modifications, read by concurrent queries
+  private volatile int negativeEdgeCount;
+  private final WritableEdgeStorage.Backend storageBackend;
+
+  // derived indexes, lazily (re-)built after the graph has been modified or swapped in by a background build
+  private volatile GraphSnapshot snapshot;
+  private volatile ComponentIndex componentIndex;
+  private volatile JohnsonPotentials potentials;
+  private volatile GraphStatistics statistics;
+  // only cached once calculated, never built implicitly
+  private volatile AllPairsIndex allPairs;
+  // incremented by every invalidation, so that outdated background builds are discarded
+  private volatile int indexVersion;
+  // answers queries while the component index is built in the background
+  private volatile ComponentIndex componentIndexFallback;
+  // statistics of the fallback, built once per snapshot under their own lock instead of the graph's monitor
+  private volatile GraphStatistics fallbackStatistics;
+  private final Object fallbackStatisticsLock = new Object();
+
+  // one search workspace per thread, so that sustained queries of a thread do not allocate
+  private final ThreadLocal<SearchState> searchStates = ThreadLocal.withInitial(
+    SearchState::new
+  );
 
   /**
    * Static factory method for an easier use and initialization of {@link DirectedWeightedGraph}.
+   * The storage backend of the query snapshot is configured via the system property
+   * {@value WritableEdgeStorage.Backend#PROPERTY}.
    *
    * @return initialized empty graph
    */
   static DirectedWeightedGraph create() {
-    return new DirectedWeightedGraph();
+    return create(WritableEdgeStorage.Backend.fromSystemProperties());
+  }
+
+  /**
+   * Same as {@link #create()}, but with an explicit storage backend for the query snapshot.
+   *
+   * @param storageBackend where the edges are stored for searching
+   * @return initialized empty graph
+   */
+  static DirectedWeightedGraph create(
+    WritableEdgeStorage.Backend storageBackend
+  ) {
+    if (storageBackend == null) {
+      throw new NullPointerException(
+        "'null' as storage backend is NOT allowed."
+      );
+    }
+    return new DirectedWeightedGraph(storageBackend);
   }
 
-  private DirectedWeightedGraph() {
+  private DirectedWeightedGraph(WritableEdgeStorage.Backend storageBackend) {
+    this.storageBackend = storageBackend;
     adjacencyList = new HashMap<>();
+    incomingList = new HashMap<>();
+    hotSourceTrees = new LinkedHashMap<>();
   }
 
   /**
-   * Adds a vertex, if not already represented inside this graph. Also creating a new {@link HashSet}
-   * to store {@link Edge edges}.
+   * Adds a vertex, if not already represented inside this graph. Also creating a new {@link LinkedHashMap}
+   * to store {@link Edge edges} indexed by their destination, so that a single edge is found and removed in
+   * {@code O(1)}. Neighbors are always visited in insertion order and budget truncated searches return a
+   * deterministic partial result.
    *
    * @param vertex to add
    */
   void addVertex(Vertex vertex) {
-    adjacencyList.putIfAbsent(vertex, new HashSet<>());
+    materialize();
+    adjacencyList.putIfAbsent(vertex, new LinkedHashMap<>());
   }
 
   /**
    * Removes a vertex with all its linked edges, so that there is no open connection left.
    * <i>Open</i> means: Having an {@link Edge} with only one vertex, where the other
    * source or destination vertex is missing.
+   * <p>
+   * <b>Note:</b> Takes {@code O(in-degree + out-degree)}, since incoming edges are indexed as well. Removing
+   * all linked edges is a single batch, so hot source trees are repaired once.
    *
    * @param vertex to remove
    */
   void removeVertex(Vertex vertex) {
+    materialize();
+    List<Edge> linkedEdges = new ArrayList<>(outgoingEdges(vertex));
+    linkedEdges.addAll(incomingEdges(vertex));
+    beginBatch();
+    for (Edge edge : linkedEdges) {
+      detachEdge(edge.getSource(), edge.getDestination());
+    }
     adjacencyList.remove(vertex);
+    incomingList.remove(vertex);
+    commitBatch();
+    invalidateIndexes();
   }
 
   /**
@@ -73,20 +179,29 @@ class DirectedWeightedGraph {
    * @param edge to add
    */
   void addEdge(Edge edge) {
-    Vertex sourceVertex = edge.getSource();
-    boolean vertexNotExistent = !adjacencyList.containsKey(sourceVertex);
-    if (vertexNotExistent) {
-      addVertex(sourceVertex);
+    materialize();
+    if (linkEdge(edge)) {
+      invalidateIndexes();
     }
-    adjacencyList.computeIfPresent(
-      sourceVertex,
-      (key, val) -> addEdgeAsNeighbour(val, edge)
-    );
   }
 
-  private static Set<Edge> addEdgeAsNeighbour(Set<Edge> edgeSet, Edge newEdge) {
-    edgeSet.add(newEdge);
-    return edgeSet;
+  /**
+   * Adds all edges in a single pass, like a batch of {@link #addEdge(Edge)}: derived indexes are invalidated and hot
+   * source trees are repaired once, instead of once per edge. Meant for bulk loads, e.g. by {@link GraphFileLoader}.
+   *
+   * @param edges to add, edges with same source and destination as a present one are skipped
+   */
+  void addEdges(Collection<Edge> edges) {
+    materialize();
+    boolean added = false;
+    beginBatch();
+    for (Edge edge : edges) {
+      added |= linkEdge(edge);
+    }
+    commitBatch();
+    if (added) {
+      invalidateIndexes();
+    }
   }
 
   /**
@@ -100,479 +215,2599 @@ class DirectedWeightedGraph {
    * @param edge to remove
    */
   void removeEdge(Edge edge) {
-    Vertex sourceVertex = edge.getSource();
-    boolean vertexExists = adjacencyList.containsKey(sourceVertex);
-    if (vertexExists) {
-      adjacencyList.values().removeIf(e -> e.contains(edge));
+    materialize();
+    if (detachEdge(edge.getSource(), edge.getDestination()) != null) {
+      invalidateIndexes();
     }
   }
 
   /**
-   * For a given route, expected as input parameter, calculate the amount of hours traveled.
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @return edge stored inside this graph, {@code null} if not present
+   */
+  Edge getEdge(Vertex source, Vertex destination) {
+    materialize();
+    Map<Vertex, Edge> edgeMap = adjacencyList.get(source);
+    return edgeMap == null ? null : edgeMap.get(destination);
+  }
+
+  /**
+   * Applies a batch of {@link Mutation mutations} <b>atomically</b>: either all of them are applied or, if a
+   * single one fails, none of them. Already applied mutations of a failing batch are rolled back in reverse order.
    * <p>
-   * <b>Note:</b> This is simply the sum of all {@link Edge#weight weights} from the corresponding {@link Edge edges}.
-   * Traversing through a linked list, represented by a {@link java.util.HashSet}.
+   * Derived indexes are invalidated and hot source trees are repaired once per batch and not once per mutation.
    *
-   * @param vertices given route to calculate travel time for
-   * @return calculated travel time in format 'x hours', where x is a number
+   * @param mutations changes to apply in the given order
+   * @throws IllegalArgumentException if a mutation does not fit the current state of the graph, e.g. removing a
+   * missing edge, the graph stays unchanged
    */
-  String travelTimeForGivenRoute(List<Vertex> vertices) {
-    int distance = 0;
-    for (int i = 0; i < vertices.size() - 1; i++) {
-      Vertex currVertex = vertices.get(i);
-      Set<Edge> edgeSet = adjacencyList.get(currVertex);
-      if (edgeSet == null) {
-        return NO_SUCH_ROUTE;
-      }
-      Vertex destination = vertices.get(i + 1);
-      boolean destinationVertexIsNotPresent = edgeSet
-        .stream()
-        .map(Edge::getDestination)
-        .noneMatch(v -> v.equals(destination));
-      if (destinationVertexIsNotPresent) {
-        return NO_SUCH_ROUTE;
-      }
-      distance =
-        distance +
-        edgeSet
-          .stream()
-          .filter(e -> e.getDestination().equals(destination))
-          .findAny()
-          .map(Edge::getWeight)
-          .orElseThrow(
-            () ->
-              new IllegalStateException(
-                String.format(
-                  "Edge '%s' from '%s' has to be present, due to prior check.",
-                  destination,
-                  edgeSet
-                )
-              )
+  void apply(List<Mutation> mutations) {
+    Deque<Runnable> undoLog = new ArrayDeque<>(mutations.size());
+    materialize();
+    beginBatch();
+    try {
+      for (Mutation mutation : mutations) {
+        undoLog.push(applyAndCreateUndo(mutation));
+      }
+      commitBatch();
+    } catch (RuntimeException e) {
+      while (CollectionUtil.isNotEmpty(undoLog)) {
+        undoLog.pop().run();
+      }
+      discardBatch(); // rolled back, so the trees are still up-to-date
+      throw e;
+    } finally {
+      if (CollectionUtil.isNotEmpty(undoLog)) {
+        invalidateIndexes();
+      }
+    }
+  }
+
+  private Runnable applyAndCreateUndo(Mutation mutation) {
+    Vertex source = mutation.getSource();
+    Vertex destination = mutation.getDestination();
+    switch (mutation.getType()) {
+      case ADD_EDGE:
+        Edge newEdge = new Edge(source, destination, mutation.getWeight());
+        if (!linkEdge(newEdge)) {
+          throw new IllegalArgumentException(
+            "Edge already exists, mutation not applicable: " + mutation
           );
+        }
+        return () -> detachEdge(source, destination);
+      case REMOVE_EDGE:
+        Edge removedEdge = detachEdge(source, destination);
+        if (removedEdge == null) {
+          throw new IllegalArgumentException(
+            "Edge does not exist, mutation not applicable: " + mutation
+          );
+        }
+        return () -> linkEdge(removedEdge);
+      case CHANGE_WEIGHT:
+        Edge changedEdge = getEdge(source, destination);
+        if (changedEdge == null) {
+          throw new IllegalArgumentException(
+            "Edge does not exist, mutation not applicable: " + mutation
+          );
+        }
+        int oldWeight = changedEdge.getWeight();
+        changedEdge.setWeight(mutation.getWeight());
+        return () -> changedEdge.setWeight(oldWeight);
+      default:
+        throw new UnsupportedOperationException(
+          "Unknown mutation type: " + mutation.getType()
+        );
     }
-    return distance + " hours";
   }
 
   /**
-   * Given a source and destination as {@link Vertex vertex} for a
-   * {@link DirectedWeightedGraph directed weighted graph}, this method performs a <i>breadth first search</i>
-   * algorithm. Additionally, all paths with matching source and destination are returned formatted.<br>
-   * <b>Note: </b> Self-reference is not allowed, so the trivial routes are excluded.
+   * Stores an edge and updates all counters, without invalidating derived indexes.
    *
-   * @param source starting point
-   * @param destination ending point
-   * @param exactInBetweenStops exact stops or depth in a BFS
-   * @return proper formatted routes
+   * @param edge to add
+   * @return true if added, false if an edge with same source and destination is already present
    */
-  String determineAndDisplayRoutesWithExactlyStops(
-    Vertex source,
-    Vertex destination,
-    int exactInBetweenStops
-  ) {
-    if (exactInBetweenStops < 0) {
-      throw new IllegalArgumentException(
-        "Please provide in between stop count >=0."
-      );
+  private boolean linkEdge(Edge edge) {
+    Vertex sourceVertex = edge.getSource();
+    boolean vertexNotExistent = !adjacencyList.containsKey(sourceVertex);
+    if (vertexNotExistent) {
+      addVertex(sourceVertex);
     }
-    int totalMaxStops = exactInBetweenStops + 2; // exactInBetweenStops + (source + destination)
-    List<List<Vertex>> paths = determineRoutesWithMaxStops(
-      source,
-      destination,
-      totalMaxStops
-    )
-      .stream()
-      .filter(p -> p.size() == totalMaxStops)
-      .collect(Collectors.toList());
-    return printFoundRoutes(paths);
+    Edge presentEdge = adjacencyList
+      .get(sourceVertex)
+      .putIfAbsent(edge.getDestination(), edge);
+    if (presentEdge != null) {
+      return false;
+    }
+    incomingList
+      .computeIfAbsent(edge.getDestination(), k -> new LinkedHashMap<>())
+      .put(sourceVertex, edge);
+    if (edge.getWeight() < 0) {
+      negativeEdgeCount++;
+    }
+    edge.addWeightChangeListener(weightChangeListener);
+    repairHotSourceTrees(edge, true);
+    return true;
   }
 
   /**
-   * Given a source and destination as {@link Vertex vertex} for a
-   * {@link DirectedWeightedGraph directed weighted graph}, this method performs a <i>breadth first search</i>
-   * algorithm. Additionally, all paths with matching source and destination are returned formatted.<br>
-   * <b>Note: </b> Self-reference is not allowed, so the trivial routes are excluded.
+   * Removes a single edge in {@code O(1)} and updates all counters, without invalidating derived indexes.
    *
-   * @param source starting point
-   * @param destination ending point
-   * @param maxStops maximum stops or depth in a BFS
-   * @return proper formatted routes
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @return removed edge, {@code null} if not present
    */
-  String determineAndDisplayRoutesWithMaxStops(
-    Vertex source,
-    Vertex destination,
-    int maxStops
-  ) {
-    if (maxStops < 1) {
-      throw new IllegalArgumentException("Please provide max stops >0.");
+  private Edge detachEdge(Vertex source, Vertex destination) {
+    Map<Vertex, Edge> edgeMap = adjacencyList.get(source);
+    Edge removedEdge = edgeMap == null ? null : edgeMap.remove(destination);
+    if (removedEdge != null) {
+      unlinkEdge(removedEdge);
+      repairHotSourceTrees(removedEdge, false);
     }
-    List<List<Vertex>> paths = determineRoutesWithMaxStops(
-      source,
-      destination,
-      maxStops
-    );
-    return printFoundRoutes(paths);
+    return removedEdge;
   }
 
   /**
-   * Given a source and destination as {@link Vertex vertex} for a
-   * {@link DirectedWeightedGraph directed weighted graph}, this method performs a <i>breadth first search</i>
-   * algorithm. Additionally, all paths with matching source and destination are returned formatted.<br>
-   * <b>Note: </b> Self-reference is not allowed, so the trivial routes are excluded.
+   * @param vertex any vertex
+   * @return outgoing edges in insertion order, empty if vertex is not present
+   */
+  Collection<Edge> outgoingEdges(Vertex vertex) {
+    materialize();
+    Map<Vertex, Edge> edgeMap = adjacencyList.get(vertex);
+    return edgeMap == null ? Collections.emptyList() : edgeMap.values();
+  }
+
+  /**
+   * @param vertex any vertex
+   * @return incoming edges in insertion order, empty if vertex is not present
+   */
+  Collection<Edge> incomingEdges(Vertex vertex) {
+    materialize();
+    Map<Vertex, Edge> edgeMap = incomingList.get(vertex);
+    return edgeMap == null ? Collections.emptyList() : edgeMap.values();
+  }
+
+  /**
+   * Registers a so-called <i>hot source</i>, whose {@link ShortestPathTree} is maintained incrementally on every
+   * modification, so that {@link #calculateShortestRoute(Vertex, Vertex)} from this source becomes a lookup.
    *
-   * @param source starting point
-   * @param destination ending point
-   * @param maxTime maximum weight/time of all weights
-   * @return proper formatted routes
+   * @param source frequently queried starting vertex
    */
-  String determineAndDisplayRoutesWithMaxTime(
-    Vertex source,
-    Vertex destination,
-    int maxTime
-  ) {
-    if (maxTime < 1) {
-      throw new IllegalArgumentException("Please provide max time >0.");
+  void registerHotSource(Vertex source) {
+    materialize(); // trees are repaired via the hashed edges
+    ShortestPathTree tree = hasNegativeWeights()
+      ? null
+      : ShortestPathTree.build(this, source);
+    synchronized (hotSourceTrees) {
+      hotSourceTrees.put(source, tree);
     }
-    List<List<Vertex>> paths = determineRoutesWithMaxWeights(
-      source,
-      destination,
-      maxTime
-    );
-    return printFoundRoutes(paths);
   }
 
-  private List<List<Vertex>> determineRoutesWithMaxWeights(
-    Vertex source,
-    Vertex destination,
-    int maxTravelTime
-  ) {
-    if (preconditionFailed(source, destination)) {
-      return Collections.emptyList();
+  void unregisterHotSource(Vertex source) {
+    synchronized (hotSourceTrees) {
+      hotSourceTrees.remove(source);
     }
+  }
 
-    // starting point evaluation
-    Set<Edge> edgeSet = adjacencyList.get(source);
-    boolean maxTravelTimeExceeded = edgeSet
-      .stream()
-      .map(Edge::getWeight)
-      .noneMatch(i -> i < maxTravelTime);
-    if (maxTravelTimeExceeded) {
-      return Collections.emptyList();
-    }
-
-    // initialization
-    List<List<Vertex>> result = new ArrayList<>();
-    Queue<List<Vertex>> queue = new ArrayDeque<>();
-    List<Vertex> path = new ArrayList<>();
-    path.add(source);
-    queue.offer(path);
-
-    // iterative traversing
-    while (CollectionUtil.isNotEmpty(queue)) {
-      path = queue.poll();
-      Vertex lastVertex = CollectionUtil.retrieveLastElement(path);
-      if (lastVertex.equals(destination)) {
-        result.add(path);
-      }
-      // visit neighbors
-      List<Vertex> neighborVertices = getNeighborVertices(lastVertex);
-      for (Vertex neighbor : neighborVertices) {
-        int newPathTime = calculatePathTimeWithPotentialNeighbor(
-          path,
-          neighbor
-        );
-        if (newPathTime < maxTravelTime) {
-          List<Vertex> newPath = new ArrayList<>(path);
-          newPath.add(neighbor);
-          queue.offer(newPath);
-        }
-      }
+  /**
+   * Unlike {@link #hotSourceTree(Vertex)}, a dropped tree is not rebuilt, e.g. for planning a query.
+   *
+   * @param source starting vertex
+   * @return true if the source is registered and its tree is looked up instead of searching
+   */
+  boolean isHotSource(Vertex source) {
+    synchronized (hotSourceTrees) {
+      return hotSourceTrees.containsKey(source) && !hasNegativeWeights();
     }
-    return result
-      .stream()
-      .filter(e -> e.size() > 1) // remove self-reference
-      .collect(Collectors.toList());
   }
 
-  private int calculatePathTimeWithPotentialNeighbor(
-    List<Vertex> path,
-    Vertex neighbor
-  ) {
-    List<Vertex> potentialNewPath = new ArrayList<>(path);
-    potentialNewPath.add(neighbor);
+  private boolean hasHotSources() {
+    synchronized (hotSourceTrees) {
+      return !hotSourceTrees.isEmpty();
+    }
+  }
 
-    int time = 0;
-    for (int i = 0; i < potentialNewPath.size() - 1; i++) {
-      Vertex tmpStart = potentialNewPath.get(i);
-      Set<Edge> tmpStartNeighbors = adjacencyList.get(tmpStart);
-      Vertex tmpEnd = potentialNewPath.get(i + 1);
-      int currentTime = tmpStartNeighbors
-        .stream()
-        .filter(e -> e.getDestination().equals(tmpEnd))
-        .findAny()
-        .map(Edge::getWeight)
-        .orElseThrow();
-      time = time + currentTime;
+  /**
+   * @param source starting vertex
+   * @return up-to-date tree of a registered hot source, {@code null} if not registered or not available
+   */
+  ShortestPathTree hotSourceTree(Vertex source) {
+    synchronized (hotSourceTrees) {
+      if (!hotSourceTrees.containsKey(source) || hasNegativeWeights()) {
+        return null;
+      }
+      ShortestPathTree tree = hotSourceTrees.get(source);
+      if (tree != null) {
+        return tree;
+      }
+    }
+    // trees are dropped while negative weights are present, rebuild once they are gone, outside of the lock
+    ShortestPathTree rebuilt = ShortestPathTree.build(this, source);
+    synchronized (hotSourceTrees) {
+      if (!hotSourceTrees.containsKey(source)) {
+        return null; // unregistered meanwhile
+      }
+      ShortestPathTree concurrentlyRebuilt = hotSourceTrees.putIfAbsent(
+        source,
+        rebuilt
+      );
+      return concurrentlyRebuilt == null ? rebuilt : concurrentlyRebuilt;
     }
-    return time;
   }
 
   /**
-   * Expected found paths from previously calculated methods. Displays is as a proper {@link String}.
+   * Repairs all hot source trees after a single modification, or only records the edge while a batch is applied.
    *
-   * @param paths collected routes
-   * @return formatted found routes
+   * @param edge inserted, removed or changed edge
+   * @param improved true if inserted or decreased, false if removed or increased
    */
-  private static String printFoundRoutes(List<List<Vertex>> paths) {
-    return paths.isEmpty()
-      ? NO_SUCH_ROUTE
-      : paths.size() +
-      " routes: " +
-      StringConstant.NEW_LINE.getValue() +
-      paths
-        .stream()
-        .map(Object::toString)
-        .collect(Collectors.joining(StringConstant.NEW_LINE.getValue()));
+  private void repairHotSourceTrees(Edge edge, boolean improved) {
+    if (!hasHotSources()) {
+      return;
+    }
+    if (batchImprovedEdges != null) {
+      (improved ? batchImprovedEdges : batchWorsenedEdges).add(edge);
+      return;
+    }
+    repairHotSourceTrees(
+      improved ? List.of(edge) : List.of(),
+      improved ? List.of() : List.of(edge)
+    );
   }
 
-  private List<List<Vertex>> determineRoutesWithMaxStops(
-    Vertex source,
-    Vertex destination,
-    int maxStops
+  private void repairHotSourceTrees(
+    List<Edge> improvedEdges,
+    List<Edge> worsenedEdges
   ) {
-    if (preconditionFailed(source, destination)) {
-      return Collections.emptyList();
-    }
-
-    // initialization
-    List<List<Vertex>> result = new ArrayList<>();
-    Queue<List<Vertex>> queue = new ArrayDeque<>();
-    List<Vertex> path = new ArrayList<>();
-    path.add(source);
-    queue.offer(path);
-
-    // iterative traversing
-    while (CollectionUtil.isNotEmpty(queue)) {
-      path = queue.poll();
-      Vertex lastVertex = CollectionUtil.retrieveLastElement(path);
-      if (lastVertex.equals(destination)) {
-        result.add(path);
+    List<ShortestPathTree> trees;
+    synchronized (hotSourceTrees) {
+      if (hasNegativeWeights()) {
+        hotSourceTrees.replaceAll((source, tree) -> null);
+        return;
       }
-      boolean maxDepthNotReached = path.size() != (maxStops + 1);
-      if (maxDepthNotReached) {
-        // visit neighbors
-        List<Vertex> neighborVertices = getNeighborVertices(lastVertex);
-        for (Vertex neighbor : neighborVertices) {
-          List<Vertex> newPath = new ArrayList<>(path);
-          newPath.add(neighbor);
-          queue.offer(newPath);
-        }
+      trees = new ArrayList<>(hotSourceTrees.values());
+    }
+    // modifications are exclusive, no query reads a tree while it is repaired
+    for (ShortestPathTree tree : trees) {
+      if (tree != null) {
+        tree.repair(improvedEdges, worsenedEdges);
       }
     }
-    return result
-      .stream()
-      .filter(e -> e.size() > 1) // remove self-reference
-      .collect(Collectors.toList());
   }
 
-  private List<Vertex> getNeighborVertices(Vertex vertex) {
-    return Optional
-      .of(vertex)
-      .map(adjacencyList::get)
-      .orElse(Collections.emptySet())
-      .stream()
-      .map(Edge::getDestination)
-      .collect(Collectors.toList());
+  private void beginBatch() {
+    batchImprovedEdges = new ArrayList<>();
+    batchWorsenedEdges = new ArrayList<>();
   }
 
   /**
-   * A variation of the well-known <b>Dijkstra algorithm</b>, for further and detailed information
-   * please visit referenced link.
-   * <p>
-   * <b>Note:</b> This implementation has a slightly modified version, since it is possible to set the
-   * <b>SAME</b> vertex as {@code source} and {@code destination}.
-   *
-   * @throws IllegalStateException if there is no connection from source or destination is not reachable
-   *
-   * @see <a href="https://www.freecodecamp.org/news/dijkstras-shortest-path-algorithm-visual-introduction/">Dijkstra algorithm</a>
-   *
-   * @param source starting vertex
-   * @param destination ending vertex
-   * @return shortest route, if not present 'NO SUCH ROUTE'
+   * Runs one repair pass per hot source tree for all edges changed since {@link #beginBatch()}.
    */
-  String calculateShortestRoute(Vertex source, Vertex destination) {
-    if (preconditionFailed(source, destination)) {
-      return NO_SUCH_ROUTE;
-    }
-    boolean negativeWeightPresent = adjacencyList
-      .values()
-      .stream()
-      .flatMap(Collection::stream)
-      .map(Edge::getWeight)
-      .anyMatch(v -> v < 0);
-    if (negativeWeightPresent) {
-      throw new IllegalStateException(
-        "This Graph is in a non-appropriate state." +
-        StringConstant.NEW_LINE.getValue() +
-        "No shortest path findings can be determined due to negative weights."
-      );
-    }
-    Vertex tmpDestination = createTemporaryVertexForEqualStartAndEndVertex(
-      source,
-      destination
-    );
-    if (tmpDestination != null) {
-      destination = tmpDestination;
+  private void commitBatch() {
+    List<Edge> improvedEdges = batchImprovedEdges;
+    List<Edge> worsenedEdges = batchWorsenedEdges;
+    discardBatch();
+    if (!improvedEdges.isEmpty() || !worsenedEdges.isEmpty()) {
+      repairHotSourceTrees(improvedEdges, worsenedEdges);
     }
+  }
 
-    // initialize distance
-    Map<Vertex, Integer> distance = adjacencyList
-      .keySet()
-      .stream()
-      .collect(Collectors.toMap(Function.identity(), k -> Integer.MAX_VALUE));
-    distance.put(source, 0); //starting vertex
-    Set<Vertex> path = new HashSet<>();
-    path.add(source);
+  private void discardBatch() {
+    batchImprovedEdges = null;
+    batchWorsenedEdges = null;
+  }
 
-    while (CollectionUtil.doesNotContain(path, destination)) {
-      // determine neighbors from already selected path set
-      Set<Edge> connectingEdges = path
-        .stream()
-        .map(adjacencyList::get)
-        .flatMap(Collection::stream)
-        .filter(Objects::nonNull)
-        .filter(e -> CollectionUtil.doesNotContain(path, e.getDestination())) // exclude vertices inside path
-        .collect(Collectors.toSet());
+  /**
+   * @param vertex any vertex
+   * @return amount of edges ending at given vertex, maintained on every modification
+   */
+  int inDegree(Vertex vertex) {
+    Map<Vertex, Map<Vertex, Edge>> incoming = incomingList;
+    if (incoming == null) {
+      GraphSnapshot graphSnapshot = snapshot();
+      int id = graphSnapshot.idOf(vertex);
+      return id == GraphSnapshot.NO_VERTEX ? 0 : graphSnapshot.inDegree(id);
+    }
+    Map<Vertex, Edge> edgeMap = incoming.get(vertex);
+    return edgeMap == null ? 0 : edgeMap.size();
+  }
 
-      // update distance for vertices outside path
-      for (Edge neighbor : connectingEdges) {
-        Vertex vertexInsidePath = neighbor.getSource();
-        int currentPathDistance = distance.get(vertexInsidePath);
-        int neighborDistance = neighbor.getWeight();
+  /**
+   * @param vertex any vertex
+   * @return amount of edges starting at given vertex
+   */
+  int outDegree(Vertex vertex) {
+    Map<Vertex, Map<Vertex, Edge>> adjacency = adjacencyList;
+    if (adjacency == null) {
+      GraphSnapshot graphSnapshot = snapshot();
+      int id = graphSnapshot.idOf(vertex);
+      return id == GraphSnapshot.NO_VERTEX
+        ? 0
+        : graphSnapshot.edgeEnd(id) - graphSnapshot.edgeStart(id);
+    }
+    Map<Vertex, Edge> edgeMap = adjacency.get(vertex);
+    return edgeMap == null ? 0 : edgeMap.size();
+  }
 
-        Vertex vertexOutsidePath = neighbor.getDestination();
-        int newPathDistance = currentPathDistance + neighborDistance;
-        int oldUpdatedDistance = distance.get(vertexOutsidePath);
-        if (newPathDistance < oldUpdatedDistance) {
-          distance.put(vertexOutsidePath, newPathDistance);
-        }
-      }
+  /**
+   * @return true if at least one edge has a negative weight, maintained on every modification
+   */
+  boolean hasNegativeWeights() {
+    return negativeEdgeCount > 0;
+  }
 
-      // decide which node taking to the path
-      distance
-        .entrySet()
-        .stream()
-        .filter(e -> CollectionUtil.doesNotContain(path, e.getKey())) // only unvisited vertices
-        .min(Map.Entry.comparingByValue())
-        .map(Map.Entry::getKey)
-        .ifPresent(path::add);
+  /**
+   * Updates all counters for an edge, which is not part of this graph anymore.
+   *
+   * @param edge removed edge
+   */
+  private void unlinkEdge(Edge edge) {
+    Map<Vertex, Edge> incomingEdges = incomingList.get(edge.getDestination());
+    incomingEdges.remove(edge.getSource());
+    if (incomingEdges.isEmpty()) {
+      incomingList.remove(edge.getDestination());
+    }
+    if (edge.getWeight() < 0) {
+      negativeEdgeCount--;
     }
+    edge.removeWeightChangeListener(weightChangeListener);
+  }
 
-    if (tmpDestination != null) {
-      removeVertex(tmpDestination);
+  private void onWeightChanged(Edge edge, int oldWeight) {
+    // only edges of the hashed adjacency list are listened to, compact() detaches them before dropping the list
+    GraphSnapshot graphSnapshot = snapshot;
+    if (graphSnapshot != null) {
+      graphSnapshot.updateWeight(edge);
+    }
+    if (oldWeight < 0) {
+      negativeEdgeCount--;
     }
-    return distance.get(destination) + " hours";
+    if (edge.getWeight() < 0) {
+      negativeEdgeCount++;
+    }
+    invalidateWeightIndexes(); // structure is unchanged, only weights are affected
+    repairHotSourceTrees(edge, edge.getWeight() < oldWeight);
   }
 
-  private boolean preconditionFailed(Vertex source, Vertex destination) {
-    Set<Edge> startingEdges = adjacencyList.get(source);
-    boolean sourceIsInvalid = startingEdges == null || startingEdges.isEmpty();
-    boolean destinationIsInvalid = isDestinationVertexValid(destination);
-    return sourceIsInvalid || destinationIsInvalid;
+  private synchronized void invalidateIndexes() {
+    snapshot = null;
+    componentIndex = null;
+    invalidateWeightIndexes();
   }
 
-  private boolean isDestinationVertexValid(Vertex destination) {
-    return getAllEdgesAsStream()
-      .map(Edge::getDestination)
-      .noneMatch(v -> v.equals(destination));
+  private synchronized void invalidateWeightIndexes() {
+    potentials = null;
+    statistics = null;
+    allPairs = null;
+    componentIndexFallback = null;
+    fallbackStatistics = null;
+    indexVersion++;
   }
 
   /**
-   * Logically this is the same vertex, just for computation purpose it's being split into two different ones.<br>
-   * Specifically used to distinguish between <i>starting</i> and <i>ending</i> vertex, when they are the <b>SAME</b>.
+   * Builds the derived indexes of the current structure on the given executor, instead of blocking the first
+   * query needing them. Only the snapshot is built upfront by the calling thread, since it reads the adjacency list.
+   * <p>
+   * Every index is swapped in atomically once it is ready. Till then, searches fall back to a trivial component
+   * index, which only prunes nothing, and compute missing potentials themselves. An index outdated by a
+   * modification during its build is discarded and built lazily again.
    *
-   * @param source starting vertex
-   * @param destination ending vertex
-   * @return duplicated and manipulated vertex for computation purpose
+   * @param executor runs the builds
+   * @param listener notified for every swapped in index, called on the building thread
+   * @return completed once every index is swapped in or discarded, failed if a build failed, in which case the
+   * fallback is dropped again and the index is built lazily
    */
-  private Vertex createTemporaryVertexForEqualStartAndEndVertex(
-    Vertex source,
-    Vertex destination
+  CompletableFuture<Void> buildIndexesInBackground(
+    Executor executor,
+    IndexListener listener
   ) {
-    Vertex tmpDestination = null;
-    if (source.equals(destination)) {
-      String temporaryName = findUniqueName(destination);
-      tmpDestination = Vertex.with(temporaryName);
-      Set<Edge> edgeSet = getAllEdgesAsStream()
-        .filter(e -> e.getDestination().equals(destination))
-        .collect(Collectors.toSet());
-      for (Edge edge : edgeSet) {
-        edge.setDestination(tmpDestination);
+    long start = System.nanoTime();
+    GraphSnapshot graphSnapshot = snapshot();
+    boolean negativeWeights = hasNegativeWeights();
+    int version;
+    synchronized (this) {
+      version = indexVersion;
+      if (componentIndex == null) {
+        componentIndexFallback =
+          ComponentIndex.unknown(graphSnapshot.vertexCount());
       }
-      adjacencyList.put(tmpDestination, edgeSet);
     }
-    return tmpDestination;
+    int totalCount = 3;
+    AtomicInteger readyCount = new AtomicInteger();
+    Consumer<String> report = index ->
+      listener.indexReady(
+        index,
+        readyCount.incrementAndGet(),
+        totalCount,
+        System.nanoTime() - start
+      );
+
+    CompletableFuture<Void> componentsAndStatistics = CompletableFuture
+      .supplyAsync(
+        () ->
+          ComponentIndex.build(
+            graphSnapshot,
+            ComponentIndex.MAX_BACKGROUND_CLOSURE_COMPONENTS
+          ),
+        executor
+      )
+      .thenAccept(
+        index -> {
+          if (swapIn(version, () -> componentIndex = index)) {
+            report.accept("components");
+            GraphStatistics graphStatistics = GraphStatistics.of(
+              graphSnapshot,
+              index
+            );
+            if (swapIn(version, () -> statistics = graphStatistics)) {
+              report.accept("statistics");
+            }
+          }
+        }
+      )
+      .whenComplete(
+        (ignored, failure) -> {
+          if (failure != null) {
+            // the next query needing the component index builds it lazily, instead of never pruning
+            swapIn(
+              version,
+              () -> {
+                componentIndexFallback = null;
+                fallbackStatistics = null;
+              }
+            );
+          }
+        }
+      );
+    CompletableFuture<Void> johnsonPotentials = CompletableFuture
+      .supplyAsync(
+        () ->
+          negativeWeights
+            ? JohnsonPotentials.compute(graphSnapshot)
+            : JohnsonPotentials.zero(graphSnapshot.vertexCount()),
+        executor
+      )
+      .thenAccept(
+        computed -> {
+          if (swapIn(version, () -> potentials = computed)) {
+            report.accept("potentials");
+          }
+        }
+      );
+    return CompletableFuture.allOf(componentsAndStatistics, johnsonPotentials);
   }
 
   /**
-   * Helping method with a very simple and naive heuristic to duplicate a vertex. <br>
-   * Already provided name of a vertex is being added several times at the end, till there is no existing vertex.
-   *
-   * @param vertex vertex to duplicate
-   * @return unique name
+   * @return true if the index was swapped in, false if the graph has been modified since the build started
    */
-  private String findUniqueName(Vertex vertex) {
-    final String rawName = vertex.getLabel();
-    String tmpName = rawName + StringConstant.WHITESPACE.getValue() + rawName;
-    boolean nameNotFound = true;
-    while (nameNotFound) {
-      boolean nameExistsAlready = adjacencyList
-        .keySet()
-        .stream()
-        .map(Vertex::getLabel)
-        .collect(Collectors.toList())
-        .contains(tmpName);
-      if (nameExistsAlready) {
-        tmpName = tmpName + StringConstant.WHITESPACE.getValue() + rawName;
-      } else {
-        nameNotFound = false;
-      }
+  private synchronized boolean swapIn(int version, Runnable swap) {
+    if (version != indexVersion) {
+      return false;
+    }
+    swap.run();
+    if (componentIndex != null) {
+      componentIndexFallback = null;
+      fallbackStatistics = null;
     }
-    return tmpName;
+    return true;
   }
 
   /**
-   * Retrieve a stream of all edges, enabling for further transformation or extracting on the returned container.
-   *
-   * @return all edges as stream
+   * @return immutable integer based view of the current structure, cached till the next modification
    */
-  private Stream<Edge> getAllEdgesAsStream() {
-    return adjacencyList.values().stream().flatMap(Collection::stream);
+  GraphSnapshot snapshot() {
+    GraphSnapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        current = snapshot;
+        if (current == null) {
+          current = GraphSnapshot.of(adjacencyList, storageBackend);
+          snapshot = current;
+        }
+      }
+    }
+    return current;
   }
 
-  @Override
-  public boolean equals(Object o) {
-    if (this == o) return true;
-    if (o == null || getClass() != o.getClass()) return false;
-    DirectedWeightedGraph that = (DirectedWeightedGraph) o;
-    return adjacencyList.equals(that.adjacencyList);
+  /**
+   * Drops the hashed edges of a primary edge store, so that its snapshot is the only copy of the edges and only the
+   * vertices and their ids stay on the heap, e.g. once a graph file has been loaded. The next modification or edge
+   * lookup rebuilds them in {@code O(V + E)} and keeps them till the next compaction, so that interleaved
+   * modifications and queries never pay for it more than once.
+   * <p>
+   * Edges handed out before are detached: changing their weight no longer changes the graph, they have to be looked
+   * up again via {@link #getEdge(Vertex, Vertex)}.
+   * <p>
+   * <b>Note:</b> Does nothing for other backends and while hot sources are registered, since their trees are
+   * repaired via the hashed edges.
+   */
+  synchronized void compact() {
+    if (
+      !storageBackend.isPrimaryEdgeStore() ||
+      hasHotSources() ||
+      adjacencyList == null
+    ) {
+      return;
+    }
+    GraphSnapshot graphSnapshot = snapshot();
+    IntBitSet sources = new IntBitSet(graphSnapshot.vertexCount());
+    for (Map.Entry<Vertex, Map<Vertex, Edge>> entry : adjacencyList.entrySet()) {
+      sources.set(graphSnapshot.idOf(entry.getKey()));
+      for (Edge edge : entry.getValue().values()) {
+        edge.removeWeightChangeListener(weightChangeListener);
+      }
+    }
+    releasedSources = sources;
+    adjacencyList = null;
+    incomingList = null;
   }
 
-  @Override
-  public int hashCode() {
-    return Objects.hash(adjacencyList);
+  /**
+   * Rebuilds the hashed edges from the snapshot, if they have been released by {@link #compact()}.
+   * <p>
+   * <b>Note:</b> Takes {@code O(V + E)} once, afterwards the hashed edges are kept till the next compaction.
+   */
+  private void materialize() {
+    if (adjacencyList != null) {
+      return;
+    }
+    synchronized (this) {
+      if (adjacencyList != null) {
+        return;
+      }
+      GraphSnapshot graphSnapshot = snapshot; // never dropped while released
+      Map<Vertex, Map<Vertex, Edge>> adjacency = new HashMap<>();
+      Map<Vertex, Map<Vertex, Edge>> incoming = new HashMap<>();
+      TargetRows rows = new TargetRows();
+      for (int source = 0; source < graphSnapshot.vertexCount(); source++) {
+        if (!releasedSources.get(source)) {
+          continue;
+        }
+        Vertex sourceVertex = graphSnapshot.vertexOf(source);
+        Map<Vertex, Edge> edgeMap = new LinkedHashMap<>();
+        adjacency.put(sourceVertex, edgeMap);
+        rows.decode(graphSnapshot, 0, source);
+        for (
+          int e = graphSnapshot.edgeStart(source);
+          e < graphSnapshot.edgeEnd(source);
+          e++
+        ) {
+          Vertex destination = graphSnapshot.vertexOf(rows.target(0, e));
+          Edge edge = new Edge(
+            sourceVertex,
+            destination,
+            graphSnapshot.weight(e)
+          );
+          edge.addWeightChangeListener(weightChangeListener);
+          edgeMap.put(destination, edge);
+          incoming
+            .computeIfAbsent(destination, k -> new LinkedHashMap<>())
+            .put(sourceVertex, edge);
+        }
+      }
+      releasedSources = null;
+      incomingList = incoming;
+      adjacencyList = adjacency;
+    }
   }
 
+  /**
+   * Tells if a vertex has an entry inside the adjacency list, i.e. it has outgoing edges or has been added on its
+   * own, without rebuilding released hashed edges.
+   *
+   * @param graphSnapshot current snapshot of this graph
+   * @param id of the vertex inside the snapshot
+   * @return true if the vertex is listed as source
+   */
+  private boolean listsSource(GraphSnapshot graphSnapshot, int id) {
+    while (true) {
+      Map<Vertex, Map<Vertex, Edge>> adjacency = adjacencyList;
+      if (adjacency != null) {
+        return adjacency.containsKey(graphSnapshot.vertexOf(id));
+      }
+      IntBitSet sources = releasedSources; // written before the hashed edges are released
+      if (sources != null) {
+        return sources.get(id);
+      }
+      // rebuilt concurrently, read the new adjacency list
+    }
+  }
+
+  /**
+   * @return true if the hashed edges are released by {@link #compact()} and the snapshot is the only edge store
+   */
+  boolean isReleased() {
+    return adjacencyList == null;
+  }
+
+  private ComponentIndex componentIndex() {
+    ComponentIndex index = componentIndex;
+    if (index != null) {
+      return index;
+    }
+    ComponentIndex fallback = componentIndexFallback;
+    if (fallback != null) {
+      return fallback; // built in the background
+    }
+    synchronized (this) {
+      index = componentIndex;
+      if (index == null) {
+        fallback = componentIndexFallback;
+        if (fallback != null) {
+          return fallback;
+        }
+        index = ComponentIndex.build(snapshot());
+        componentIndex = index;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * While the component index is built in the background, statistics of the fallback index are built once per
+   * snapshot and cached till the index is swapped in, without holding the monitor of the graph.
+   *
+   * @return statistics of the current structure, cached till the next modification
+   */
+  GraphStatistics statistics() {
+    GraphStatistics current = statistics;
+    if (current != null) {
+      return current;
+    }
+    ComponentIndex fallback = componentIndexFallback;
+    if (fallback != null) {
+      return fallbackStatistics(fallback);
+    }
+    synchronized (this) {
+      current = statistics;
+      if (current == null) {
+        ComponentIndex index = componentIndex();
+        if (index != componentIndex) {
+          fallback = index; // fallback installed meanwhile
+        } else {
+          current = GraphStatistics.of(snapshot(), index);
+          statistics = current;
+        }
+      }
+    }
+    return current != null ? current : fallbackStatistics(fallback);
+  }
+
+  private GraphStatistics fallbackStatistics(ComponentIndex fallback) {
+    GraphStatistics current = fallbackStatistics;
+    if (current != null) {
+      return current;
+    }
+    synchronized (fallbackStatisticsLock) {
+      current = fallbackStatistics;
+      if (current == null) {
+        int version = indexVersion;
+        current = GraphStatistics.of(snapshot(), fallback);
+        synchronized (this) {
+          if (version == indexVersion && componentIndexFallback == fallback) {
+            fallbackStatistics = current;
+          }
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * @return true if shortest path searches do not have to compute {@link JohnsonPotentials} first
+   */
+  boolean hasPotentials() {
+    return potentials != null || !hasNegativeWeights();
+  }
+
+  /**
+   * Potentials are only computed, if there is at least one negative weight. They are cached till the
+   * next modification, so that only the first query after a modification pays for Bellman-Ford.
+   */
+  private JohnsonPotentials potentials() {
+    JohnsonPotentials current = potentials;
+    if (current != null) {
+      return current;
+    }
+    synchronized (this) {
+      current = potentials;
+      if (current == null) {
+        GraphSnapshot graphSnapshot = snapshot();
+        current =
+          hasNegativeWeights()
+            ? JohnsonPotentials.compute(graphSnapshot)
+            : JohnsonPotentials.zero(graphSnapshot.vertexCount());
+        potentials = current;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Hands out the {@link SearchState} of the current thread, or a new one if it is in use by an enclosing search
+   * of the same thread. Concurrent queries, e.g. of a {@link TravelDistanceService} or the parallel rows of a
+   * {@link DistanceMatrix}, never share a workspace. Has to be given back via {@link #releaseSearchState(SearchState)}.
+   *
+   * @param vertexCount amount of vertices of the searched snapshot
+   * @return empty search state, large enough for the snapshot
+   */
+  SearchState acquireSearchState(int vertexCount) {
+    SearchState state = searchStates.get();
+    if (!state.tryAcquire()) {
+      state = new SearchState();
+      state.tryAcquire();
+    }
+    state.prepare(vertexCount);
+    return state;
+  }
+
+  private void releaseSearchState(SearchState state) {
+    state.release();
+  }
+
+  /**
+   * For a given route, expected as input parameter, calculate the amount of hours traveled.
+   * <p>
+   * <b>Note:</b> This is simply the sum of all {@link Edge#weight weights} from the corresponding {@link Edge edges}.
+   * Every edge is looked up in {@code O(1)}, either in the adjacency matrix of a dense snapshot or via
+   * {@link #getEdge(Vertex, Vertex)}. Released hashed edges are not rebuilt, but the edges are looked up
+   * in the snapshot.
+   *
+   * @param vertices given route to calculate travel time for
+   * @return calculated travel time in format 'x hours', where x is a number
+   */
+  String travelTimeForGivenRoute(List<Vertex> vertices) {
+    return travelTimeOf(vertices).toString();
+  }
+
+  /**
+   * Typed result of {@link #travelTimeForGivenRoute(List)}.
+   *
+   * @param vertices given route to calculate travel time for
+   * @return travel time, {@link TravelTime#NO_ROUTE} if an edge is missing
+   */
+  TravelTime travelTimeOf(List<Vertex> vertices) {
+    GraphSnapshot graphSnapshot = snapshot();
+    if (graphSnapshot.isDense() || isReleased()) {
+      return travelTimeOf(vertices, graphSnapshot);
+    }
+    int distance = 0;
+    for (int i = 0; i < vertices.size() - 1; i++) {
+      Edge edge = getEdge(vertices.get(i), vertices.get(i + 1));
+      if (edge == null) {
+        return TravelTime.of(TravelTime.NO_ROUTE, null);
+      }
+      distance = distance + edge.getWeight();
+    }
+    return TravelTime.of(distance, null);
+  }
+
+  /**
+   * Same as {@link #travelTimeOf(List)}, but hashes every vertex only once and finds the edges in the snapshot.
+   */
+  private static TravelTime travelTimeOf(
+    List<Vertex> vertices,
+    GraphSnapshot graphSnapshot
+  ) {
+    int distance = 0;
+    int current = vertices.isEmpty()
+      ? GraphSnapshot.NO_VERTEX
+      : graphSnapshot.idOf(vertices.get(0));
+    for (int i = 1; i < vertices.size(); i++) {
+      int next = graphSnapshot.idOf(vertices.get(i));
+      int e =
+        current == GraphSnapshot.NO_VERTEX || next == GraphSnapshot.NO_VERTEX
+          ? EdgeStorage.NO_EDGE
+          : graphSnapshot.edgeIndex(current, next);
+      if (e == EdgeStorage.NO_EDGE) {
+        return TravelTime.of(TravelTime.NO_ROUTE, null);
+      }
+      distance = distance + graphSnapshot.weight(e);
+      current = next;
+    }
+    return TravelTime.of(distance, null);
+  }
+
+  /**
+   * Given a source and destination as {@link Vertex vertex} for a
+   * {@link DirectedWeightedGraph directed weighted graph}, this method performs a <i>depth first search</i>
+   * algorithm. Additionally, all paths with matching source and destination are returned formatted.<br>
+   * <b>Note: </b> Self-reference is not allowed, so the trivial routes are excluded.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param exactInBetweenStops exact stops in between source and destination
+   * @return proper formatted routes
+   */
+  String determineAndDisplayRoutesWithExactlyStops(
+    Vertex source,
+    Vertex destination,
+    int exactInBetweenStops
+  ) {
+    return determineAndDisplayRoutesWithExactlyStops(
+      source,
+      destination,
+      exactInBetweenStops,
+      QueryBudget.unlimited()
+    );
+  }
+
+  /**
+   * Same as {@link #determineAndDisplayRoutesWithExactlyStops(Vertex, Vertex, int)}, but limited by a {@link QueryBudget}.
+   * If the budget is exhausted, the routes found so far are returned and flagged as truncated.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param exactInBetweenStops exact stops in between source and destination
+   * @param budget limits of this search
+   * @return proper formatted routes
+   */
+  String determineAndDisplayRoutesWithExactlyStops(
+    Vertex source,
+    Vertex destination,
+    int exactInBetweenStops,
+    QueryBudget budget
+  ) {
+    return findRoutesWithExactStops(
+      source,
+      destination,
+      exactInBetweenStops,
+      budget
+    )
+      .toString();
+  }
+
+  /**
+   * Typed result of {@link #determineAndDisplayRoutesWithExactlyStops(Vertex, Vertex, int, QueryBudget)}.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param exactInBetweenStops exact stops in between source and destination
+   * @param budget limits of this search
+   * @return found routes as vertex ids
+   */
+  RouteList findRoutesWithExactStops(
+    Vertex source,
+    Vertex destination,
+    int exactInBetweenStops,
+    QueryBudget budget
+  ) {
+    if (exactInBetweenStops < 0) {
+      throw new IllegalArgumentException(
+        "Please provide in between stop count >=0."
+      );
+    }
+    if (exactInBetweenStops == Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+        "Please provide in between stop count <" + Integer.MAX_VALUE + "."
+      );
+    }
+    int hops = exactInBetweenStops + 1; // edges in between source and destination
+    return determineRoutesWithExactHops(
+      source,
+      destination,
+      hops,
+      budget.start()
+    );
+  }
+
+  /**
+   * <i>Depth first search</i> emitting routes only at the exact depth. A neighbor is only entered, if the
+   * destination is reachable from it in exactly the remaining amount of hops, so no branch ends before the
+   * target depth. Neighbors are visited in insertion order, so routes are found in the same order as by a
+   * breadth first search.
+   */
+  private RouteList determineRoutesWithExactHops(
+    Vertex source,
+    Vertex destination,
+    int hops,
+    BudgetTracker tracker
+  ) {
+    if (preconditionFailed(source, destination)) {
+      return RouteList.empty(null);
+    }
+    GraphSnapshot graphSnapshot = snapshot();
+    int sourceId = graphSnapshot.idOf(source);
+    int destinationId = graphSnapshot.idOf(destination);
+    ExactHopReachability reachingDestination = ExactHopReachability.compute(
+      graphSnapshot,
+      destinationId,
+      hops,
+      tracker
+    );
+    if (reachingDestination == null) {
+      return RouteList.empty(tracker.getTruncation());
+    }
+    if (!reachingDestination.withHops(hops).get(sourceId)) {
+      return RouteList.empty(null);
+    }
+
+    // current route and the next edge to try per vertex of the route, growing with the depth actually reached
+    RouteList.Builder result = new RouteList.Builder(graphSnapshot);
+    int initialDepth = Math.min(hops, graphSnapshot.vertexCount()) + 1;
+    IntStack route = new IntStack(initialDepth);
+    IntStack nextEdges = new IntStack(initialDepth);
+    TargetRows rows = new TargetRows(); // one decoded row per depth, resumed after backtracking
+    route.push(sourceId);
+    nextEdges.push(graphSnapshot.edgeStart(sourceId));
+    rows.decode(graphSnapshot, 0, sourceId);
+    while (!route.isEmpty()) {
+      int depth = route.size() - 1;
+      if (depth == hops) { // only the destination is reachable with zero hops left
+        if (!tracker.tryAcceptResult()) {
+          break;
+        }
+        for (int i = 0; i < route.size(); i++) {
+          result.append(route.get(i));
+        }
+        result.endRoute();
+        route.pop();
+        nextEdges.pop();
+        continue;
+      }
+      int vertex = route.peek();
+      int e = nextEdges.pop();
+      int edgeEnd = graphSnapshot.edgeEnd(vertex);
+      IntBitSet reachingWithRemainingHops = reachingDestination.withHops(
+        hops - depth - 1
+      );
+      while (
+        e < edgeEnd && !reachingWithRemainingHops.get(rows.target(depth, e))
+      ) {
+        e++;
+      }
+      if (e == edgeEnd) {
+        route.pop(); // backtrack
+        continue;
+      }
+      nextEdges.push(e + 1);
+      if (!tracker.tryExpand()) {
+        break;
+      }
+      int neighbor = rows.target(depth, e);
+      route.push(neighbor);
+      nextEdges.push(graphSnapshot.edgeStart(neighbor));
+      if (depth + 1 < hops) {
+        rows.decode(graphSnapshot, depth + 1, neighbor);
+      }
+    }
+    return result.build(tracker.getTruncation());
+  }
+
+  /**
+   * Given a source and destination as {@link Vertex vertex} for a
+   * {@link DirectedWeightedGraph directed weighted graph}, this method performs a <i>breadth first search</i>
+   * algorithm. Additionally, all paths with matching source and destination are returned formatted.<br>
+   * <b>Note: </b> Self-reference is not allowed, so the trivial routes are excluded.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxStops maximum stops or depth in a BFS
+   * @return proper formatted routes
+   */
+  String determineAndDisplayRoutesWithMaxStops(
+    Vertex source,
+    Vertex destination,
+    int maxStops
+  ) {
+    return determineAndDisplayRoutesWithMaxStops(
+      source,
+      destination,
+      maxStops,
+      QueryBudget.unlimited()
+    );
+  }
+
+  /**
+   * Same as {@link #determineAndDisplayRoutesWithMaxStops(Vertex, Vertex, int)}, but limited by a {@link QueryBudget}.
+   * If the budget is exhausted, the routes found so far are returned and flagged as truncated.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxStops maximum stops or depth in a BFS
+   * @param budget limits of this search
+   * @return proper formatted routes
+   */
+  String determineAndDisplayRoutesWithMaxStops(
+    Vertex source,
+    Vertex destination,
+    int maxStops,
+    QueryBudget budget
+  ) {
+    return findRoutesWithMaxStops(source, destination, maxStops, budget)
+      .toString();
+  }
+
+  /**
+   * Typed result of {@link #determineAndDisplayRoutesWithMaxStops(Vertex, Vertex, int, QueryBudget)}.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxStops maximum stops or depth in a BFS
+   * @param budget limits of this search
+   * @return found routes as vertex ids
+   */
+  RouteList findRoutesWithMaxStops(
+    Vertex source,
+    Vertex destination,
+    int maxStops,
+    QueryBudget budget
+  ) {
+    return findRoutesWithMaxStops(
+      source,
+      destination,
+      maxStops,
+      budget,
+      false
+    );
+  }
+
+  /**
+   * Same as {@link #findRoutesWithMaxStops(Vertex, Vertex, int, QueryBudget)}, but the routes can be enumerated
+   * depth first instead, e.g. if the {@link QueryPlanner} estimates too many states for a breadth first search.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxStops maximum stops or depth in a BFS
+   * @param budget limits of this search
+   * @param depthFirst true to enumerate the routes depth first
+   * @return found routes as vertex ids
+   */
+  RouteList findRoutesWithMaxStops(
+    Vertex source,
+    Vertex destination,
+    int maxStops,
+    QueryBudget budget,
+    boolean depthFirst
+  ) {
+    if (maxStops < 1) {
+      throw new IllegalArgumentException("Please provide max stops >0.");
+    }
+    return depthFirst
+      ? determineRoutesDepthFirst(
+        source,
+        destination,
+        maxStops,
+        Long.MAX_VALUE,
+        budget.start()
+      )
+      : determineRoutesWithMaxStops(
+        source,
+        destination,
+        maxStops,
+        budget.start()
+      );
+  }
+
+  /**
+   * Given a source and destination as {@link Vertex vertex} for a
+   * {@link DirectedWeightedGraph directed weighted graph}, this method performs a <i>breadth first search</i>
+   * algorithm. Additionally, all paths with matching source and destination are returned formatted.<br>
+   * <b>Note: </b> Self-reference is not allowed, so the trivial routes are excluded.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxTime maximum weight/time of all weights
+   * @return proper formatted routes
+   */
+  String determineAndDisplayRoutesWithMaxTime(
+    Vertex source,
+    Vertex destination,
+    int maxTime
+  ) {
+    return determineAndDisplayRoutesWithMaxTime(
+      source,
+      destination,
+      maxTime,
+      QueryBudget.unlimited()
+    );
+  }
+
+  /**
+   * Same as {@link #determineAndDisplayRoutesWithMaxTime(Vertex, Vertex, int)}, but limited by a {@link QueryBudget}.
+   * If the budget is exhausted, the routes found so far are returned and flagged as truncated.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxTime maximum weight/time of all weights
+   * @param budget limits of this search
+   * @return proper formatted routes
+   */
+  String determineAndDisplayRoutesWithMaxTime(
+    Vertex source,
+    Vertex destination,
+    int maxTime,
+    QueryBudget budget
+  ) {
+    return findRoutesWithMaxTime(source, destination, maxTime, budget)
+      .toString();
+  }
+
+  /**
+   * Typed result of {@link #determineAndDisplayRoutesWithMaxTime(Vertex, Vertex, int, QueryBudget)}.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxTime maximum weight/time of all weights
+   * @param budget limits of this search
+   * @return found routes as vertex ids
+   */
+  RouteList findRoutesWithMaxTime(
+    Vertex source,
+    Vertex destination,
+    int maxTime,
+    QueryBudget budget
+  ) {
+    return findRoutesWithMaxTime(source, destination, maxTime, budget, false);
+  }
+
+  /**
+   * Same as {@link #findRoutesWithMaxTime(Vertex, Vertex, int, QueryBudget)}, but the routes can be enumerated
+   * depth first instead, e.g. if the {@link QueryPlanner} estimates too many states for a breadth first search.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxTime maximum weight/time of all weights
+   * @param budget limits of this search
+   * @param depthFirst true to enumerate the routes depth first
+   * @return found routes as vertex ids
+   */
+  RouteList findRoutesWithMaxTime(
+    Vertex source,
+    Vertex destination,
+    int maxTime,
+    QueryBudget budget,
+    boolean depthFirst
+  ) {
+    if (maxTime < 1) {
+      throw new IllegalArgumentException("Please provide max time >0.");
+    }
+    return depthFirst
+      ? determineRoutesDepthFirst(
+        source,
+        destination,
+        Integer.MAX_VALUE,
+        maxTime,
+        budget.start()
+      )
+      : determineRoutesWithMaxWeights(
+        source,
+        destination,
+        maxTime,
+        budget.start()
+      );
+  }
+
+  private RouteList determineRoutesWithMaxWeights(
+    Vertex source,
+    Vertex destination,
+    int maxTravelTime,
+    BudgetTracker tracker
+  ) {
+    if (preconditionFailed(source, destination)) {
+      return RouteList.empty(null);
+    }
+    GraphSnapshot graphSnapshot = snapshot();
+    ComponentIndex components = componentIndex();
+    int sourceId = graphSnapshot.idOf(source);
+    int destinationId = graphSnapshot.idOf(destination);
+
+    // starting point evaluation
+    boolean maxTravelTimeExceeded = true;
+    for (
+      int e = graphSnapshot.edgeStart(sourceId);
+      e < graphSnapshot.edgeEnd(sourceId);
+      e++
+    ) {
+      maxTravelTimeExceeded &= graphSnapshot.weight(e) >= maxTravelTime;
+    }
+    if (maxTravelTimeExceeded) {
+      return RouteList.empty(null);
+    }
+
+    // initialization, the cost of a state is its travel time
+    RouteList.Builder result = new RouteList.Builder(graphSnapshot);
+    SearchState state = acquireSearchState(graphSnapshot.vertexCount());
+    TargetRows rows = state.targetRows();
+    try {
+      state.pushState(sourceId, GraphSnapshot.NO_VERTEX, 0);
+
+      // iterative traversing, the appended states are the queue
+      for (
+        int current = 0;
+        current < state.stateCount() && tracker.tryExpand();
+        current++
+      ) {
+        int vertex = state.stateVertex(current);
+        boolean routeFound = current > 0 && vertex == destinationId; // exclude self-reference
+        if (routeFound) {
+          if (!tracker.tryAcceptResult()) {
+            break;
+          }
+          collectRoute(state, current, result);
+        }
+        // visit neighbors
+        rows.decode(graphSnapshot, 0, vertex);
+        for (
+          int e = graphSnapshot.edgeStart(vertex);
+          e < graphSnapshot.edgeEnd(vertex);
+          e++
+        ) {
+          int neighbor = rows.target(0, e);
+          int newPathTime = state.stateCost(current) + graphSnapshot.weight(e);
+          boolean relevant =
+            newPathTime < maxTravelTime &&
+            components.mayReach(neighbor, destinationId); // skip dead ends
+          if (relevant) {
+            state.pushState(neighbor, current, newPathTime);
+          }
+        }
+      }
+    } finally {
+      releaseSearchState(state);
+    }
+    return result.build(tracker.getTruncation());
+  }
+
+  /**
+   * Counts the routes of {@link #determineAndDisplayRoutesWithMaxTime(Vertex, Vertex, int)} without enumerating
+   * them, see {@link #countRoutesWithMaxTime(Vertex, Vertex, int, QueryBudget)}.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxTime maximum weight/time of all weights
+   * @return formatted amount of routes
+   */
+  String countAndDisplayRoutesWithMaxTime(
+    Vertex source,
+    Vertex destination,
+    int maxTime
+  ) {
+    return countAndDisplayRoutesWithMaxTime(
+      source,
+      destination,
+      maxTime,
+      QueryBudget.unlimited()
+    );
+  }
+
+  /**
+   * Same as {@link #countAndDisplayRoutesWithMaxTime(Vertex, Vertex, int)}, but limited by a {@link QueryBudget}.
+   * If the budget is exhausted, the routes counted so far are returned and flagged as truncated.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxTime maximum weight/time of all weights
+   * @param budget limits of this search
+   * @return formatted amount of routes
+   */
+  String countAndDisplayRoutesWithMaxTime(
+    Vertex source,
+    Vertex destination,
+    int maxTime,
+    QueryBudget budget
+  ) {
+    return countAndDisplayRoutesWithMaxTime(
+      source,
+      destination,
+      maxTime,
+      budget,
+      false
+    );
+  }
+
+  /**
+   * Same as {@link #countAndDisplayRoutesWithMaxTime(Vertex, Vertex, int, QueryBudget)}, but the routes can be
+   * enumerated instead, e.g. if the {@link QueryPlanner} estimates less work for an acyclic graph.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxTime maximum weight/time of all weights
+   * @param budget limits of this search
+   * @param byEnumeration true to count enumerated routes instead of the dynamic program
+   * @return formatted amount of routes
+   */
+  String countAndDisplayRoutesWithMaxTime(
+    Vertex source,
+    Vertex destination,
+    int maxTime,
+    QueryBudget budget,
+    boolean byEnumeration
+  ) {
+    return countRoutesWithMaxTime(
+      source,
+      destination,
+      maxTime,
+      budget,
+      byEnumeration
+    )
+      .toString();
+  }
+
+  /**
+   * Typed result of {@link #countAndDisplayRoutesWithMaxTime(Vertex, Vertex, int, QueryBudget, boolean)}.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxTime maximum weight/time of all weights
+   * @param budget limits of this search
+   * @param byEnumeration true to count enumerated routes instead of the dynamic program
+   * @return amount of routes
+   */
+  CountedRoutes countRoutesWithMaxTime(
+    Vertex source,
+    Vertex destination,
+    int maxTime,
+    QueryBudget budget,
+    boolean byEnumeration
+  ) {
+    BudgetTracker tracker = budget.start();
+    BigInteger routeCount = byEnumeration
+      ? countEnumeratedRoutes(source, destination, maxTime, tracker)
+      : countRoutesWithMaxWeights(source, destination, maxTime, tracker);
+    return CountedRoutes.of(routeCount, tracker.getTruncation());
+  }
+
+  /**
+   * Counts all routes found by {@link #determineAndDisplayRoutesWithMaxTime(Vertex, Vertex, int)} via
+   * <i>dynamic programming</i> over {@code (travel time, vertex)}, instead of enumerating every single route.
+   * <p>
+   * The count of a vertex at travel time {@code t} is the sum of the counts of its predecessors at {@code t - weight}.
+   * Travel times are processed in ascending order and only the last {@code max weight} of them are kept in a ring
+   * of {@link RouteCounts}. This takes {@code O(maxTime * (V + E))} time and {@code O(max weight * V)} memory,
+   * regardless of how many routes there are.
+   * <p>
+   * <b>Note:</b> The dynamic program requires positive weights. Otherwise, the routes are enumerated and counted.
+   *
+   * @param source starting point
+   * @param destination ending point
+   * @param maxTime maximum weight/time of all weights
+   * @return exact amount of routes
+   */
+  BigInteger countRoutesWithMaxTime(
+    Vertex source,
+    Vertex destination,
+    int maxTime
+  ) {
+    return countRoutesWithMaxWeights(
+      source,
+      destination,
+      maxTime,
+      QueryBudget.unlimited().start()
+    );
+  }
+
+  private BigInteger countEnumeratedRoutes(
+    Vertex source,
+    Vertex destination,
+    int maxTravelTime,
+    BudgetTracker tracker
+  ) {
+    if (maxTravelTime < 1) {
+      throw new IllegalArgumentException("Please provide max time >0.");
+    }
+    RouteList routes = determineRoutesWithMaxWeights(
+      source,
+      destination,
+      maxTravelTime,
+      tracker
+    );
+    return BigInteger.valueOf(routes.routeCount());
+  }
+
+  private BigInteger countRoutesWithMaxWeights(
+    Vertex source,
+    Vertex destination,
+    int maxTravelTime,
+    BudgetTracker tracker
+  ) {
+    if (maxTravelTime < 1) {
+      throw new IllegalArgumentException("Please provide max time >0.");
+    }
+    if (preconditionFailed(source, destination)) {
+      return BigInteger.ZERO;
+    }
+    GraphSnapshot graphSnapshot = snapshot();
+    ComponentIndex components = componentIndex();
+    int sourceId = graphSnapshot.idOf(source);
+    int destinationId = graphSnapshot.idOf(destination);
+    int vertexCount = graphSnapshot.vertexCount();
+
+    // only weights below the max travel time are ever taken
+    int maxUsableWeight = 0;
+    for (int e = 0; e < graphSnapshot.edgeCount(); e++) {
+      int weight = graphSnapshot.weight(e);
+      if (weight < 1) {
+        return countEnumeratedRoutes(
+          source,
+          destination,
+          maxTravelTime,
+          tracker
+        );
+      }
+      if (weight < maxTravelTime) {
+        maxUsableWeight = Math.max(maxUsableWeight, weight);
+      }
+    }
+
+    // ring of travel times, slot t % ringSize holds the counts of travel time t
+    int ringSize = maxUsableWeight + 1;
+    RouteCounts counts = new RouteCounts(ringSize * vertexCount);
+    TargetRows rows = new TargetRows();
+    counts.add(sourceId, 1);
+    BigInteger routeCount = BigInteger.ZERO;
+    for (int time = 0; time < maxTravelTime; time++) {
+      int slot = (time % ringSize) * vertexCount;
+      for (int vertex = 0; vertex < vertexCount; vertex++) {
+        int cell = slot + vertex;
+        if (counts.isZero(cell)) {
+          continue;
+        }
+        if (!tracker.tryExpand()) {
+          return routeCount;
+        }
+        if (time > 0 && vertex == destinationId) { // exclude self-reference
+          routeCount = routeCount.add(counts.get(cell));
+        }
+        // visit neighbors
+        rows.decode(graphSnapshot, 0, vertex);
+        for (
+          int e = graphSnapshot.edgeStart(vertex);
+          e < graphSnapshot.edgeEnd(vertex);
+          e++
+        ) {
+          int neighbor = rows.target(0, e);
+          int newPathTime = time + graphSnapshot.weight(e);
+          boolean relevant =
+            newPathTime < maxTravelTime &&
+            components.mayReach(neighbor, destinationId); // skip dead ends
+          if (relevant) {
+            counts.addCell(
+              (newPathTime % ringSize) * vertexCount + neighbor,
+              cell
+            );
+          }
+        }
+        counts.clear(cell); // slot is reused for a later travel time
+      }
+    }
+    return routeCount;
+  }
+
+  private RouteList determineRoutesWithMaxStops(
+    Vertex source,
+    Vertex destination,
+    int maxStops,
+    BudgetTracker tracker
+  ) {
+    if (preconditionFailed(source, destination)) {
+      return RouteList.empty(null);
+    }
+    GraphSnapshot graphSnapshot = snapshot();
+    ComponentIndex components = componentIndex();
+    int sourceId = graphSnapshot.idOf(source);
+    int destinationId = graphSnapshot.idOf(destination);
+
+    // initialization, the cost of a state is the amount of vertices of its route
+    RouteList.Builder result = new RouteList.Builder(graphSnapshot);
+    SearchState state = acquireSearchState(graphSnapshot.vertexCount());
+    TargetRows rows = state.targetRows();
+    try {
+      state.pushState(sourceId, GraphSnapshot.NO_VERTEX, 1);
+
+      // iterative traversing, the appended states are the queue
+      for (
+        int current = 0;
+        current < state.stateCount() && tracker.tryExpand();
+        current++
+      ) {
+        int vertex = state.stateVertex(current);
+        boolean routeFound = current > 0 && vertex == destinationId; // exclude self-reference
+        if (routeFound) {
+          if (!tracker.tryAcceptResult()) {
+            break;
+          }
+          collectRoute(state, current, result);
+        }
+        int depth = state.stateCost(current);
+        boolean maxDepthNotReached = depth != (maxStops + 1);
+        if (maxDepthNotReached) {
+          // visit neighbors
+          rows.decode(graphSnapshot, 0, vertex);
+          for (
+            int e = graphSnapshot.edgeStart(vertex);
+            e < graphSnapshot.edgeEnd(vertex);
+            e++
+          ) {
+            int neighbor = rows.target(0, e);
+            if (components.mayReach(neighbor, destinationId)) { // skip dead ends
+              state.pushState(neighbor, current, depth + 1);
+            }
+          }
+        }
+      }
+    } finally {
+      releaseSearchState(state);
+    }
+    return result.build(tracker.getTruncation());
+  }
+
+  /**
+   * Enumerates the routes of {@link #determineRoutesWithMaxStops(Vertex, Vertex, int, BudgetTracker)} or
+   * {@link #determineRoutesWithMaxWeights(Vertex, Vertex, int, BudgetTracker)} by a <i>depth first search</i>,
+   * which only keeps the current route instead of every state of the breadth first search.
+   * <p>
+   * Both searches visit the neighbors in insertion order, so ordering the routes by their amount of hops afterwards
+   * yields the same routes in the same order. Only a truncated result may differ, since the breadth first search
+   * finds the routes with the fewest hops first.
+   *
+   * @param maxHops maximum amount of edges of a route
+   * @param maxTravelTime exclusive upper bound of the travel time of a route
+   */
+  private RouteList determineRoutesDepthFirst(
+    Vertex source,
+    Vertex destination,
+    int maxHops,
+    long maxTravelTime,
+    BudgetTracker tracker
+  ) {
+    if (preconditionFailed(source, destination)) {
+      return RouteList.empty(null);
+    }
+    GraphSnapshot graphSnapshot = snapshot();
+    ComponentIndex components = componentIndex();
+    int sourceId = graphSnapshot.idOf(source);
+    int destinationId = graphSnapshot.idOf(destination);
+
+    // current route with its travel times and the next edge to try per vertex of the route
+    RouteList.Builder result = new RouteList.Builder(graphSnapshot);
+    IntStack route = new IntStack();
+    IntStack travelTimes = new IntStack();
+    IntStack nextEdges = new IntStack();
+    TargetRows rows = new TargetRows(); // one decoded row per depth, resumed after backtracking
+    if (tracker.tryExpand()) {
+      route.push(sourceId);
+      travelTimes.push(0);
+      nextEdges.push(graphSnapshot.edgeStart(sourceId));
+      rows.decode(graphSnapshot, 0, sourceId);
+    }
+    while (!route.isEmpty()) {
+      int vertex = route.peek();
+      int depth = route.size() - 1;
+      int e = nextEdges.pop();
+      int edgeEnd = route.size() > maxHops ? e : graphSnapshot.edgeEnd(vertex);
+      int newPathTime = 0;
+      for (; e < edgeEnd; e++) {
+        newPathTime = travelTimes.peek() + graphSnapshot.weight(e);
+        boolean relevant =
+          newPathTime < maxTravelTime &&
+          components.mayReach(rows.target(depth, e), destinationId); // skip dead ends
+        if (relevant) {
+          break;
+        }
+      }
+      if (e == edgeEnd) {
+        route.pop(); // backtrack
+        travelTimes.pop();
+        continue;
+      }
+      nextEdges.push(e + 1);
+      if (!tracker.tryExpand()) {
+        break;
+      }
+      int neighbor = rows.target(depth, e);
+      route.push(neighbor);
+      travelTimes.push(newPathTime);
+      nextEdges.push(graphSnapshot.edgeStart(neighbor));
+      rows.decode(graphSnapshot, depth + 1, neighbor);
+      if (neighbor == destinationId) {
+        if (!tracker.tryAcceptResult()) {
+          break;
+        }
+        for (int i = 0; i < route.size(); i++) {
+          result.append(route.get(i));
+        }
+        result.endRoute();
+      }
+    }
+    result.sortByLength();
+    return result.build(tracker.getTruncation());
+  }
+
+  /**
+   * Follows the parents of a search tree state back to the root.
+   *
+   * @param state search state containing the tree
+   * @param leaf index of the last state of the route
+   * @param routes collector of the found route
+   */
+  private static void collectRoute(
+    SearchState state,
+    int leaf,
+    RouteList.Builder routes
+  ) {
+    for (
+      int current = leaf;
+      current != GraphSnapshot.NO_VERTEX;
+      current = state.stateParent(current)
+    ) {
+      routes.append(state.stateVertex(current));
+    }
+    routes.endReversedRoute();
+  }
+
+  /**
+   * A variation of the well-known <b>Dijkstra algorithm</b>, for further and detailed information
+   * please visit referenced link.
+   * <p>
+   * <b>Note:</b> This implementation has a slightly modified version, since it is possible to set the
+   * <b>SAME</b> vertex as {@code source} and {@code destination}.
+   * <p>
+   * Negative weights are supported via cached {@link JohnsonPotentials}, as long as there is no negative cycle.
+   *
+   * @throws IllegalStateException if the graph contains a negative cycle
+   *
+   * @see <a href="https://www.freecodecamp.org/news/dijkstras-shortest-path-algorithm-visual-introduction/">Dijkstra algorithm</a>
+   *
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @return shortest route, if not present 'NO SUCH ROUTE'
+   */
+  String calculateShortestRoute(Vertex source, Vertex destination) {
+    return calculateShortestRoute(
+      source,
+      destination,
+      QueryBudget.unlimited()
+    );
+  }
+
+  /**
+   * Same as {@link #calculateShortestRoute(Vertex, Vertex)}, but limited by a {@link QueryBudget}.
+   * If the budget is exhausted before the destination is settled, the best travel time found so far
+   * (an upper bound) is returned and flagged as truncated.
+   *
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @param budget limits of this search
+   * @return shortest route, if not present 'NO SUCH ROUTE'
+   */
+  String calculateShortestRoute(
+    Vertex source,
+    Vertex destination,
+    QueryBudget budget
+  ) {
+    return shortestRoute(source, destination, budget).toString();
+  }
+
+  /**
+   * Typed result of {@link #calculateShortestRoute(Vertex, Vertex, QueryBudget)}, only the travel time without its
+   * route.
+   *
+   * @throws IllegalStateException if the graph contains a negative cycle
+   *
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @param budget limits of this search
+   * @return travel time, {@link TravelTime#NO_ROUTE} if there is no route
+   */
+  TravelTime shortestRoute(
+    Vertex source,
+    Vertex destination,
+    QueryBudget budget
+  ) {
+    ShortestPathTree tree = hotSourceTree(source);
+    if (tree != null) {
+      Integer travelTime = source.equals(destination)
+        ? tree.roundTrip()
+        : tree.distanceTo(destination);
+      return TravelTime.of(
+        travelTime == null ? TravelTime.NO_ROUTE : travelTime,
+        null
+      );
+    }
+    if (preconditionFailed(source, destination)) {
+      return TravelTime.of(TravelTime.NO_ROUTE, null);
+    }
+    GraphSnapshot graphSnapshot = snapshot();
+    ComponentIndex components = componentIndex();
+    JohnsonPotentials johnsonPotentials = potentials();
+    int sourceId = graphSnapshot.idOf(source);
+    int destinationId = graphSnapshot.idOf(destination);
+
+    // initialize distance, the queue holds the tentative distance of every reached but unsettled vertex
+    SearchState state = acquireSearchState(graphSnapshot.vertexCount());
+    TargetRows rows = state.targetRows();
+    IntMinHeap queue = state.queue();
+    StampedIntSet settled = state.settled();
+    queue.offer(sourceId, 0); //starting vertex
+
+    // arrivals at the destination are tracked separately, so that the destination can equal the source
+    int travelTime = Integer.MAX_VALUE;
+    BudgetTracker tracker = budget.start();
+    try {
+      while (!queue.isEmpty() && tracker.tryExpand()) {
+        int vertexDistance = queue.peekPriority();
+        if (vertexDistance >= travelTime) {
+          break; // no unsettled vertex can lead to a shorter route
+        }
+        int vertex = queue.poll();
+        settled.set(vertex);
+
+        // update distance for unsettled neighbors
+        rows.decode(graphSnapshot, 0, vertex);
+        for (
+          int e = graphSnapshot.edgeStart(vertex);
+          e < graphSnapshot.edgeEnd(vertex);
+          e++
+        ) {
+          int neighbor = rows.target(0, e);
+          int newPathDistance =
+            vertexDistance +
+            johnsonPotentials.reducedWeight(
+              vertex,
+              neighbor,
+              graphSnapshot.weight(e)
+            );
+          if (neighbor == destinationId && newPathDistance < travelTime) {
+            travelTime = newPathDistance;
+          }
+          boolean relevant =
+            !settled.get(neighbor) &&
+            components.mayReach(neighbor, destinationId); // skip dead ends
+          if (relevant) {
+            queue.offer(neighbor, newPathDistance); // only if improved
+          }
+        }
+      }
+    } finally {
+      releaseSearchState(state);
+    }
+
+    if (travelTime == Integer.MAX_VALUE) {
+      return TravelTime.of(TravelTime.NO_ROUTE, tracker.getTruncation());
+    }
+    int originalTravelTime = johnsonPotentials.originalTravelTime(
+      sourceId,
+      destinationId,
+      travelTime
+    );
+    return TravelTime.of(originalTravelTime, tracker.getTruncation());
+  }
+
+  /**
+   * Calculates the shortest route from {@code source} to {@code destination} consisting of at most {@code maxStops}
+   * edges, counted the same way as in {@link #determineAndDisplayRoutesWithMaxStops(Vertex, Vertex, int)}.
+   * <p>
+   * Instead of enumerating all routes, {@code maxStops} rounds of a <b>Bellman-Ford</b> relaxation are performed,
+   * where round {@code r} only extends the travel times of round {@code r - 1} by a single edge. Hence, the
+   * complexity is {@code O(maxStops * E)} and a round only stores its improvements on top of the travel times of the
+   * previous round, inside the {@link SearchState} of the thread. Vertices, which did not change
+   * in the previous round, are skipped, and the rounds end early as soon as nothing changes anymore.
+   * <p>
+   * To reconstruct the route, the improvements are logged with their round. An improvement superseded within its
+   * round replaces the logged one, so the log holds at most one entry per vertex and round, i.e.
+   * {@code O(rounds * V)} entries, where there are at most {@code min(maxStops, V)} rounds without negative weights.
+   * <p>
+   * <b>Note:</b> Since every route is bounded by its stops, negative weights and even negative cycles are supported.
+   *
+   * @param source starting vertex
+   * @param destination ending vertex, may equal the source
+   * @param maxStops maximum amount of edges
+   * @return travel time and shortest route, if not present 'NO SUCH ROUTE'
+   */
+  String calculateShortestRouteWithMaxStops(
+    Vertex source,
+    Vertex destination,
+    int maxStops
+  ) {
+    return calculateShortestRouteWithMaxStops(
+      source,
+      destination,
+      maxStops,
+      QueryBudget.unlimited()
+    );
+  }
+
+  /**
+   * Same as {@link #calculateShortestRouteWithMaxStops(Vertex, Vertex, int)}, but limited by a {@link QueryBudget}.
+   * If the budget is exhausted, the best route found so far is returned and flagged as truncated.
+   *
+   * @param source starting vertex
+   * @param destination ending vertex, may equal the source
+   * @param maxStops maximum amount of edges
+   * @param budget limits of this search
+   * @return travel time and shortest route, if not present 'NO SUCH ROUTE'
+   */
+  String calculateShortestRouteWithMaxStops(
+    Vertex source,
+    Vertex destination,
+    int maxStops,
+    QueryBudget budget
+  ) {
+    return shortestRouteWithMaxStops(source, destination, maxStops, budget)
+      .toString();
+  }
+
+  /**
+   * Typed result of {@link #calculateShortestRouteWithMaxStops(Vertex, Vertex, int, QueryBudget)}.
+   *
+   * @param source starting vertex
+   * @param destination ending vertex, may equal the source
+   * @param maxStops maximum amount of edges
+   * @param budget limits of this search
+   * @return travel time together with the route as vertex ids, {@link TravelTime#NO_ROUTE} if there is none
+   */
+  TravelTime shortestRouteWithMaxStops(
+    Vertex source,
+    Vertex destination,
+    int maxStops,
+    QueryBudget budget
+  ) {
+    if (maxStops < 1) {
+      throw new IllegalArgumentException("Please provide max stops >0.");
+    }
+    if (preconditionFailed(source, destination)) {
+      return TravelTime.of(TravelTime.NO_ROUTE, null);
+    }
+    GraphSnapshot graphSnapshot = snapshot();
+    ComponentIndex components = componentIndex();
+    int vertexCount = graphSnapshot.vertexCount();
+    int sourceId = graphSnapshot.idOf(source);
+    int destinationId = graphSnapshot.idOf(destination);
+    // without negative weights no shortest route needs more edges than there are vertices
+    int rounds = hasNegativeWeights()
+      ? maxStops
+      : Math.min(maxStops, vertexCount);
+
+    // distances of the last round, the next round only stores its improvements on top of them
+    SearchState state = acquireSearchState(vertexCount);
+    TargetRows rows = state.targetRows();
+    StampedIntArray previous = state.distances();
+    StampedIntArray current = state.nextDistances();
+    StampedIntSet changedPrevious = state.marked();
+    StampedIntSet changedCurrent = state.nextMarked();
+    StampedIntArray latestStates = state.latestStates();
+    previous.put(sourceId, 0);
+    changedPrevious.set(sourceId);
+
+    // arrivals at the destination are tracked separately, so that the destination can equal the source
+    int travelTime = Integer.MAX_VALUE;
+    int arrivalRound = 0;
+    int arrivalPredecessor = GraphSnapshot.NO_VERTEX;
+    BudgetTracker tracker = budget.start();
+    IntStack reversedRoute;
+    try {
+      boolean changed = true;
+      for (
+        int round = 1;
+        round <= rounds && changed && !tracker.isTruncated();
+        round++
+      ) {
+        changed = false;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+          boolean relevant =
+            changedPrevious.get(vertex) &&
+            components.mayReach(vertex, destinationId); // skip dead ends
+          if (!relevant || !tracker.tryExpand()) {
+            continue;
+          }
+          int vertexDistance = previous.get(vertex, Integer.MAX_VALUE);
+          rows.decode(graphSnapshot, 0, vertex);
+          for (
+            int e = graphSnapshot.edgeStart(vertex);
+            e < graphSnapshot.edgeEnd(vertex);
+            e++
+          ) {
+            int neighbor = rows.target(0, e);
+            int newPathDistance = vertexDistance + graphSnapshot.weight(e);
+            if (neighbor == destinationId && newPathDistance < travelTime) {
+              travelTime = newPathDistance;
+              arrivalRound = round;
+              arrivalPredecessor = vertex;
+            }
+            int currentDistance = current.get(
+              neighbor,
+              previous.get(neighbor, Integer.MAX_VALUE)
+            );
+            if (newPathDistance < currentDistance) {
+              current.put(neighbor, newPathDistance);
+              // log of improvements, needed to reconstruct a route bounded by its edges
+              if (changedCurrent.get(neighbor)) {
+                // superseded within the round, so the log keeps a single entry per vertex and round
+                state.replaceStateParent(latestStates.get(neighbor, -1), vertex);
+              } else {
+                latestStates.put(neighbor, state.stateCount());
+                state.pushState(neighbor, vertex, round);
+                changedCurrent.set(neighbor);
+              }
+              changed = true;
+            }
+          }
+        }
+        // improvements become the last round, the marks of the round are swapped in O(1)
+        for (int vertex = 0; vertex < vertexCount && changed; vertex++) {
+          if (changedCurrent.get(vertex)) {
+            previous.put(vertex, current.get(vertex, Integer.MAX_VALUE));
+          }
+        }
+        current.clear();
+        StampedIntSet swapChanged = changedPrevious;
+        changedPrevious = changedCurrent;
+        changedCurrent = swapChanged;
+        changedCurrent.clear();
+      }
+
+      if (travelTime == Integer.MAX_VALUE) {
+        return TravelTime.of(TravelTime.NO_ROUTE, tracker.getTruncation());
+      }
+      reversedRoute = new IntStack(arrivalRound + 1);
+      reversedRoute.push(destinationId);
+      int vertex = arrivalPredecessor;
+      reversedRoute.push(vertex);
+      int logged = state.stateCount() - 1;
+      for (int r = arrivalRound - 1; r > 0; r--) {
+        while (logged >= 0 && state.stateCost(logged) > r) {
+          logged--;
+        }
+        int predecessor = predecessorInRound(state, logged, r, vertex);
+        if (predecessor != INHERITED) {
+          vertex = predecessor;
+          reversedRoute.push(vertex);
+        }
+      }
+    } finally {
+      releaseSearchState(state);
+    }
+    int[] route = new int[reversedRoute.size()];
+    for (int i = 0; i < route.length; i++) {
+      route[i] = reversedRoute.pop();
+    }
+    return TravelTime.of(
+      travelTime,
+      route,
+      graphSnapshot,
+      tracker.getTruncation()
+    );
+  }
+
+  /**
+   * @param state improvements of {@link #shortestRouteWithMaxStops(Vertex, Vertex, int, QueryBudget)} in round
+   * order, each as state of the improved vertex, its predecessor and the round, a vertex at most once per round
+   * @param last index of the last improvement in the given round or before
+   * @return predecessor of the last improvement of the vertex within the round, {@link #INHERITED} if there is none
+   */
+  private static int predecessorInRound(
+    SearchState state,
+    int last,
+    int round,
+    int vertex
+  ) {
+    for (int i = last; i >= 0 && state.stateCost(i) == round; i--) {
+      if (state.stateVertex(i) == vertex) {
+        return state.stateParent(i);
+      }
+    }
+    return INHERITED;
+  }
+
+  /**
+   * Determines all vertices reachable from {@code source} within {@code maxTime} hours (included), each with its
+   * earliest arrival time. The source itself is reachable with {@code 0} hours.
+   *
+   * @param source starting vertex
+   * @param maxTime maximum travel time
+   * @return reachable vertices in arrival order, if there are none 'NO SUCH ROUTE'
+   */
+  String determineAndDisplayReachableWithin(Vertex source, int maxTime) {
+    return determineAndDisplayReachableWithin(
+      source,
+      maxTime,
+      QueryBudget.unlimited()
+    );
+  }
+
+  /**
+   * Same as {@link #determineAndDisplayReachableWithin(Vertex, int)}, but limited by a {@link QueryBudget}.
+   * If the budget is exhausted, the vertices reached so far are returned and flagged as truncated.
+   *
+   * @param source starting vertex
+   * @param maxTime maximum travel time
+   * @param budget limits of this search
+   * @return reachable vertices in arrival order, if there are none 'NO SUCH ROUTE'
+   */
+  String determineAndDisplayReachableWithin(
+    Vertex source,
+    int maxTime,
+    QueryBudget budget
+  ) {
+    return findReachableWithin(source, maxTime, budget).toString();
+  }
+
+  /**
+   * Typed result of {@link #determineAndDisplayReachableWithin(Vertex, int, QueryBudget)}.
+   *
+   * @param source starting vertex
+   * @param maxTime maximum travel time
+   * @param budget limits of this search
+   * @return reachable vertex ids with their arrival, in arrival order
+   */
+  ReachableVertices findReachableWithin(
+    Vertex source,
+    int maxTime,
+    QueryBudget budget
+  ) {
+    BudgetTracker tracker = budget.start();
+    GraphSnapshot graphSnapshot = snapshot();
+    IntStack vertexIds = new IntStack();
+    IntStack arrivals = new IntStack();
+    streamReachableWithin(
+      graphSnapshot,
+      source,
+      maxTime,
+      tracker,
+      (vertexId, travelTime) -> {
+        vertexIds.push(vertexId);
+        arrivals.push(travelTime);
+      }
+    );
+    return ReachableVertices.of(
+      graphSnapshot,
+      vertexIds.toArray(),
+      arrivals.toArray(),
+      tracker.getTruncation()
+    );
+  }
+
+  /**
+   * Streams all vertices reachable from {@code source} within {@code maxTime} hours (included) to the
+   * {@code listener}, ordered by their earliest arrival time.
+   * <p>
+   * A single <i>Dijkstra</i> run emits every vertex as soon as it is settled and stops at the first vertex
+   * beyond {@code maxTime}, so only the reachable area is ever touched. With negative weights settled vertices
+   * do not arrive in order anymore, hence all arrivals are computed via {@link JohnsonPotentials} first and
+   * emitted sorted afterwards.
+   *
+   * @throws IllegalStateException if the graph contains a negative cycle
+   *
+   * @param source starting vertex
+   * @param maxTime maximum travel time
+   * @param budget limits of this search
+   * @param listener notified for every reachable vertex
+   * @return true if all reachable vertices were emitted, false if the search was truncated
+   */
+  boolean streamReachableWithin(
+    Vertex source,
+    int maxTime,
+    QueryBudget budget,
+    ArrivalListener listener
+  ) {
+    BudgetTracker tracker = budget.start();
+    GraphSnapshot graphSnapshot = snapshot();
+    streamReachableWithin(
+      graphSnapshot,
+      source,
+      maxTime,
+      tracker,
+      (vertexId, travelTime) ->
+        listener.arrived(graphSnapshot.vertexOf(vertexId), travelTime)
+    );
+    return !tracker.isTruncated();
+  }
+
+  private void streamReachableWithin(
+    GraphSnapshot graphSnapshot,
+    Vertex source,
+    int maxTime,
+    BudgetTracker tracker,
+    VertexIdArrivalListener listener
+  ) {
+    if (maxTime < 0) {
+      throw new IllegalArgumentException("Please provide max time >=0.");
+    }
+    int sourceId = graphSnapshot.idOf(source);
+    if (sourceId == GraphSnapshot.NO_VERTEX) {
+      return;
+    }
+    JohnsonPotentials johnsonPotentials = potentials();
+    boolean ordered = !hasNegativeWeights();
+
+    // initialize distance, the queue holds the tentative distance of every reached but unsettled vertex
+    SearchState state = acquireSearchState(graphSnapshot.vertexCount());
+    TargetRows rows = state.targetRows();
+    IntMinHeap queue = state.queue();
+    StampedIntSet settled = state.settled();
+    queue.offer(sourceId, 0); //starting vertex
+
+    // with negative weights arrivals are buffered and reordered by their original travel time
+    IntMinHeap unorderedArrivals = null;
+    try {
+      while (!queue.isEmpty() && tracker.tryExpand()) {
+        int vertexDistance = queue.peekPriority();
+        if (ordered && vertexDistance > maxTime) {
+          break; // every unsettled vertex arrives even later
+        }
+        int vertex = queue.poll();
+        settled.set(vertex);
+        int travelTime = johnsonPotentials.originalTravelTime(
+          sourceId,
+          vertex,
+          vertexDistance
+        );
+        if (ordered) {
+          listener.arrived(vertex, travelTime);
+        } else if (travelTime <= maxTime) {
+          if (unorderedArrivals == null) {
+            unorderedArrivals = new IntMinHeap(graphSnapshot.vertexCount());
+          }
+          unorderedArrivals.offer(vertex, travelTime);
+        }
+
+        // update distance for unsettled neighbors
+        rows.decode(graphSnapshot, 0, vertex);
+        for (
+          int e = graphSnapshot.edgeStart(vertex);
+          e < graphSnapshot.edgeEnd(vertex);
+          e++
+        ) {
+          int neighbor = rows.target(0, e);
+          int newPathDistance =
+            vertexDistance +
+            johnsonPotentials.reducedWeight(
+              vertex,
+              neighbor,
+              graphSnapshot.weight(e)
+            );
+          boolean relevant =
+            !settled.get(neighbor) && (!ordered || newPathDistance <= maxTime);
+          if (relevant) {
+            queue.offer(neighbor, newPathDistance); // only if improved
+          }
+        }
+      }
+    } finally {
+      releaseSearchState(state);
+    }
+
+    while (unorderedArrivals != null && !unorderedArrivals.isEmpty()) {
+      int travelTime = unorderedArrivals.peekPriority();
+      listener.arrived(unorderedArrivals.poll(), travelTime);
+    }
+  }
+
+  /**
+   * Calculates the shortest travel times from every source to every target, see {@link #calculateShortestRoute(Vertex, Vertex)}.
+   * <p>
+   * Instead of one search per pair, a single <i>Dijkstra</i> run per source settles all targets at once and stops
+   * as soon as the last reachable target is settled. Targets, which are unreachable according to the
+   * {@link ComponentIndex}, are never waited for. Sources are computed in parallel, rows of registered hot sources
+   * are looked up from their {@link ShortestPathTree}.
+   *
+   * @throws IllegalArgumentException if there are no sources or no targets
+   * @throws IllegalStateException if the graph contains a negative cycle
+   *
+   * @param sources starting vertices, one row each
+   * @param targets ending vertices, one column each
+   * @return travel times, {@link DistanceMatrix#NO_ROUTE} for pairs without a route
+   */
+  DistanceMatrix calculateTravelTimeMatrix(
+    List<Vertex> sources,
+    List<Vertex> targets
+  ) {
+    return calculateTravelTimeMatrix(sources, targets, QueryBudget.unlimited());
+  }
+
+  /**
+   * Same as {@link #calculateTravelTimeMatrix(List, List)}, but every source is limited by the {@link QueryBudget}
+   * on its own. Entries of a truncated source are upper bounds.
+   *
+   * @param sources starting vertices, one row each
+   * @param targets ending vertices, one column each
+   * @param budget limits of each single source search
+   * @return travel times, {@link DistanceMatrix#NO_ROUTE} for pairs without a route
+   */
+  DistanceMatrix calculateTravelTimeMatrix(
+    List<Vertex> sources,
+    List<Vertex> targets,
+    QueryBudget budget
+  ) {
+    if (sources.isEmpty() || targets.isEmpty()) {
+      throw new IllegalArgumentException(
+        "Please provide at least one source and one target."
+      );
+    }
+    int[] travelTimes = new int[sources.size() * targets.size()];
+    Arrays.fill(travelTimes, DistanceMatrix.NO_ROUTE);
+
+    // lazily built indexes and trees are resolved up front, the parallel part only reads them
+    GraphSnapshot graphSnapshot = snapshot();
+    ComponentIndex components = componentIndex();
+    JohnsonPotentials johnsonPotentials = potentials();
+    int[] targetIds = targets.stream().mapToInt(graphSnapshot::idOf).toArray();
+    List<Integer> searchRows = new ArrayList<>();
+    for (int row = 0; row < sources.size(); row++) {
+      ShortestPathTree tree = hotSourceTree(sources.get(row));
+      if (tree == null) {
+        searchRows.add(row);
+        continue;
+      }
+      for (int column = 0; column < targets.size(); column++) {
+        Integer travelTime = sources.get(row).equals(targets.get(column))
+          ? tree.roundTrip()
+          : tree.distanceTo(targets.get(column));
+        if (travelTime != null) {
+          travelTimes[row * targets.size() + column] = travelTime;
+        }
+      }
+    }
+
+    long truncatedRows = searchRows
+      .parallelStream()
+      .map(
+        row ->
+          fillTravelTimeRow(
+            graphSnapshot,
+            components,
+            johnsonPotentials,
+            graphSnapshot.idOf(sources.get(row)),
+            targetIds,
+            travelTimes,
+            row * targets.size(),
+            budget.start()
+          )
+      )
+      .filter(BudgetTracker::isTruncated)
+      .count();
+    return new DistanceMatrix(sources, targets, travelTimes, truncatedRows > 0);
+  }
+
+  /**
+   * Calculates the shortest travel times between all vertices, see {@link AllPairsTravelTimes}.
+   * <p>
+   * The tiles are relaxed by the {@link MinPlusKernel} configured via {@value MinPlusKernel#PROPERTY}, by default
+   * the Vector API kernel if available and the scalar kernel otherwise.
+   *
+   * @throws IllegalStateException if the graph contains a negative cycle
+   *
+   * @return travel times with every vertex as source and as target, {@link DistanceMatrix#NO_ROUTE} for pairs
+   * without a route
+   */
+  DistanceMatrix calculateAllPairsTravelTimes() {
+    return calculateAllPairsTravelTimes(MinPlusKernel.fromSystemProperties());
+  }
+
+  /**
+   * Same as {@link #calculateAllPairsTravelTimes()}, with an explicit kernel. The travel times are cached till the
+   * next modification, so that shortest travel times can be looked up meanwhile, see
+   * {@link #lookupShortestRoute(Vertex, Vertex)}.
+   *
+   * @param kernel kernel relaxing the tiles
+   * @return travel times with every vertex as source and as target
+   */
+  DistanceMatrix calculateAllPairsTravelTimes(MinPlusKernel kernel) {
+    int version = indexVersion;
+    GraphSnapshot graphSnapshot = snapshot();
+    potentials(); // rejects negative cycles, which Floyd-Warshall would run into
+    int[] travelTimes = AllPairsTravelTimes.compute(graphSnapshot, kernel);
+    List<Vertex> vertices = new ArrayList<>(graphSnapshot.vertexCount());
+    for (int id = 0; id < graphSnapshot.vertexCount(); id++) {
+      vertices.add(graphSnapshot.vertexOf(id));
+    }
+    DistanceMatrix matrix = new DistanceMatrix(
+      vertices,
+      vertices,
+      travelTimes,
+      false
+    );
+    AllPairsIndex index = new AllPairsIndex(graphSnapshot, matrix);
+    swapIn(version, () -> allPairs = index);
+    return matrix;
+  }
+
+  /**
+   * @return true if all pairs travel times are cached, so that travel times are looked up instead of searched
+   */
+  boolean hasAllPairsTravelTimes() {
+    return allPairs != null;
+  }
+
+  /**
+   * Same travel time as {@link #shortestRoute(Vertex, Vertex, QueryBudget)}, looked up in the cached all pairs
+   * travel times.
+   *
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @return travel time, {@code null} if the all pairs travel times are not cached
+   */
+  TravelTime lookupShortestRoute(Vertex source, Vertex destination) {
+    AllPairsIndex index = allPairs;
+    if (index == null) {
+      return null;
+    }
+    return TravelTime.of(index.travelTime(source, destination), null);
+  }
+
+  /**
+   * Same travel times as {@link #calculateTravelTimeMatrix(List, List, QueryBudget)}, looked up in the cached all
+   * pairs travel times.
+   *
+   * @param sources starting vertices, one row each
+   * @param targets ending vertices, one column each
+   * @return travel times, {@code null} if the all pairs travel times are not cached
+   */
+  DistanceMatrix lookupTravelTimeMatrix(
+    List<Vertex> sources,
+    List<Vertex> targets
+  ) {
+    if (sources.isEmpty() || targets.isEmpty()) {
+      throw new IllegalArgumentException(
+        "Please provide at least one source and one target."
+      );
+    }
+    AllPairsIndex index = allPairs;
+    if (index == null) {
+      return null;
+    }
+    int[] travelTimes = new int[sources.size() * targets.size()];
+    for (int row = 0; row < sources.size(); row++) {
+      for (int column = 0; column < targets.size(); column++) {
+        travelTimes[row * targets.size() + column] =
+          index.travelTime(sources.get(row), targets.get(column));
+      }
+    }
+    return new DistanceMatrix(sources, targets, travelTimes, false);
+  }
+
+  /**
+   * All pairs travel times together with the snapshot, whose vertex ids index the matrix.
+   */
+  private static final class AllPairsIndex {
+
+    private final GraphSnapshot graphSnapshot;
+    private final DistanceMatrix matrix;
+
+    private AllPairsIndex(GraphSnapshot graphSnapshot, DistanceMatrix matrix) {
+      this.graphSnapshot = graphSnapshot;
+      this.matrix = matrix;
+    }
+
+    /**
+     * @return travel time, {@link DistanceMatrix#NO_ROUTE} for a pair without a route or with a foreign vertex
+     */
+    private int travelTime(Vertex source, Vertex destination) {
+      int sourceId = graphSnapshot.idOf(source);
+      int destinationId = graphSnapshot.idOf(destination);
+      if (
+        sourceId == GraphSnapshot.NO_VERTEX ||
+        destinationId == GraphSnapshot.NO_VERTEX
+      ) {
+        return DistanceMatrix.NO_ROUTE;
+      }
+      return matrix.travelTime(sourceId, destinationId);
+    }
+  }
+
+  /**
+   * Single Dijkstra run of {@link #calculateTravelTimeMatrix(List, List, QueryBudget)}, writing one matrix row.
+   */
+  private BudgetTracker fillTravelTimeRow(
+    GraphSnapshot graphSnapshot,
+    ComponentIndex components,
+    JohnsonPotentials johnsonPotentials,
+    int sourceId,
+    int[] targetIds,
+    int[] travelTimes,
+    int rowOffset,
+    BudgetTracker tracker
+  ) {
+    if (sourceId == GraphSnapshot.NO_VERTEX) {
+      return tracker;
+    }
+    SearchState state = acquireSearchState(graphSnapshot.vertexCount());
+    TargetRows rows = state.targetRows();
+    try {
+      // every distinct reachable target has to be settled before the search can stop
+      StampedIntSet pending = state.marked();
+      int pendingCount = 0;
+      for (int targetId : targetIds) {
+        boolean reachable =
+          targetId != GraphSnapshot.NO_VERTEX &&
+          components.mayHaveRoute(sourceId, targetId);
+        if (reachable && pending.set(targetId)) {
+          pendingCount++;
+        }
+      }
+
+      StampedIntArray distance = state.distances();
+      IntMinHeap queue = state.queue();
+      StampedIntSet settled = state.settled();
+      queue.offer(sourceId, 0); //starting vertex
+
+      // arrivals back at the source are tracked separately, same as for a single shortest route
+      int roundTrip = Integer.MAX_VALUE;
+      while (pendingCount > 0 && !queue.isEmpty() && tracker.tryExpand()) {
+        int vertexDistance = queue.peekPriority();
+        int vertex = queue.poll();
+        settled.set(vertex);
+        if (vertex != sourceId && pending.get(vertex)) {
+          pending.clear(vertex);
+          pendingCount--;
+        }
+        if (pending.get(sourceId) && vertexDistance >= roundTrip) {
+          pending.clear(sourceId);
+          pendingCount--;
+        }
+
+        rows.decode(graphSnapshot, 0, vertex);
+        for (
+          int e = graphSnapshot.edgeStart(vertex);
+          e < graphSnapshot.edgeEnd(vertex);
+          e++
+        ) {
+          int neighbor = rows.target(0, e);
+          int newPathDistance =
+            vertexDistance +
+            johnsonPotentials.reducedWeight(
+              vertex,
+              neighbor,
+              graphSnapshot.weight(e)
+            );
+          if (neighbor == sourceId && newPathDistance < roundTrip) {
+            roundTrip = newPathDistance;
+          }
+          boolean improved =
+            !settled.get(neighbor) && queue.offer(neighbor, newPathDistance);
+          if (improved && pending.get(neighbor)) {
+            distance.put(neighbor, newPathDistance); // only targets are kept
+          }
+        }
+      }
+
+      for (int column = 0; column < targetIds.length; column++) {
+        int targetId = targetIds[column];
+        if (targetId == GraphSnapshot.NO_VERTEX) {
+          continue;
+        }
+        int travelTime = targetId == sourceId
+          ? roundTrip
+          : distance.get(targetId, Integer.MAX_VALUE);
+        if (travelTime != Integer.MAX_VALUE) {
+          travelTimes[rowOffset + column] =
+            johnsonPotentials.originalTravelTime(sourceId, targetId, travelTime);
+        }
+      }
+    } finally {
+      releaseSearchState(state);
+    }
+    return tracker;
+  }
+
+  /**
+   * Rejects impossible routes in {@code O(1)}: the source needs an outgoing edge, the destination an incoming one
+   * and the destination has to be reachable from the source according to the {@link ComponentIndex}.
+   *
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @return true if there is definitely no route
+   */
+  private boolean preconditionFailed(Vertex source, Vertex destination) {
+    boolean sourceIsInvalid = outDegree(source) == 0;
+    boolean destinationIsInvalid = inDegree(destination) == 0;
+    if (sourceIsInvalid || destinationIsInvalid) {
+      return true;
+    }
+    GraphSnapshot graphSnapshot = snapshot();
+    return !componentIndex()
+      .mayHaveRoute(
+        graphSnapshot.idOf(source),
+        graphSnapshot.idOf(destination)
+      );
+  }
+
+  /**
+   * Two graphs are equal if they have the same vertices and the same edges with the same weights, compared via
+   * their snapshots, so that released hashed edges are not rebuilt.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    DirectedWeightedGraph that = (DirectedWeightedGraph) o;
+    GraphSnapshot own = snapshot();
+    GraphSnapshot other = that.snapshot();
+    TargetRows rows = new TargetRows();
+    if (
+      own.vertexCount() != other.vertexCount() ||
+      own.edgeCount() != other.edgeCount()
+    ) {
+      return false;
+    }
+    for (int source = 0; source < own.vertexCount(); source++) {
+      int otherSource = other.idOf(own.vertexOf(source));
+      if (
+        otherSource == GraphSnapshot.NO_VERTEX ||
+        listsSource(own, source) != that.listsSource(other, otherSource) ||
+        own.edgeEnd(source) - own.edgeStart(source) !=
+        other.edgeEnd(otherSource) - other.edgeStart(otherSource)
+      ) {
+        return false;
+      }
+      rows.decode(own, 0, source);
+      for (int e = own.edgeStart(source); e < own.edgeEnd(source); e++) {
+        int otherTarget = other.idOf(own.vertexOf(rows.target(0, e)));
+        int otherEdge = otherTarget == GraphSnapshot.NO_VERTEX
+          ? EdgeStorage.NO_EDGE
+          : other.edgeIndex(otherSource, otherTarget);
+        if (
+          otherEdge == EdgeStorage.NO_EDGE ||
+          other.weight(otherEdge) != own.weight(e)
+        ) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    GraphSnapshot graphSnapshot = snapshot();
+    TargetRows rows = new TargetRows();
+    int hash = 0; // independent of the order of vertices and edges
+    for (int source = 0; source < graphSnapshot.vertexCount(); source++) {
+      Vertex sourceVertex = graphSnapshot.vertexOf(source);
+      if (listsSource(graphSnapshot, source)) {
+        hash += sourceVertex.hashCode();
+      }
+      rows.decode(graphSnapshot, 0, source);
+      for (
+        int e = graphSnapshot.edgeStart(source);
+        e < graphSnapshot.edgeEnd(source);
+        e++
+      ) {
+        hash +=
+          Objects.hash(
+            sourceVertex,
+            graphSnapshot.vertexOf(rows.target(0, e)),
+            graphSnapshot.weight(e)
+          );
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Lists every vertex with its outgoing edges, built from the snapshot like {@link #equals(Object)}. Vertices
+   * only reached by edges are not listed on their own, just like inside the adjacency list.
+   */
   @Override
   public String toString() {
-    String graphString = adjacencyList
-      .entrySet()
-      .stream()
-      .map(e -> e.getKey() + " -- " + e.getValue())
-      .collect(Collectors.joining(StringConstant.NEW_LINE.getValue()));
+    GraphSnapshot graphSnapshot = snapshot();
+    List<String> lines = new ArrayList<>();
+    TargetRows rows = new TargetRows();
+    for (int source = 0; source < graphSnapshot.vertexCount(); source++) {
+      int edgeStart = graphSnapshot.edgeStart(source);
+      int edgeEnd = graphSnapshot.edgeEnd(source);
+      if (!listsSource(graphSnapshot, source)) {
+        continue;
+      }
+      Vertex sourceVertex = graphSnapshot.vertexOf(source);
+      rows.decode(graphSnapshot, 0, source);
+      List<Edge> edges = new ArrayList<>(edgeEnd - edgeStart);
+      for (int e = edgeStart; e < edgeEnd; e++) {
+        edges.add(
+          new Edge(
+            sourceVertex,
+            graphSnapshot.vertexOf(rows.target(0, e)),
+            graphSnapshot.weight(e)
+          )
+        );
+      }
+      lines.add(sourceVertex + " -- " + edges);
+    }
     return (
       "[Directed weighted graph: " +
       StringConstant.NEW_LINE.getValue() +
-      graphString
+      String.join(StringConstant.NEW_LINE.getValue(), lines)
     );
   }
 }
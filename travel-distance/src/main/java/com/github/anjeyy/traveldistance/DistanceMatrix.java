@@ -0,0 +1,104 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.StringConstant;
+import java.util.List;
+
+/**
+ * Compact many-to-many result of travel times, stored row by row inside a single primitive array.
+ * Row {@code i} belongs to the {@code i}-th source, column {@code j} to the {@code j}-th target.
+ */
+final class DistanceMatrix implements Answer {
+
+  /** Marks a pair of source and target without any route. */
+  static final int NO_ROUTE = Integer.MAX_VALUE;
+
+  private final List<Vertex> sources;
+  private final List<Vertex> targets;
+  private final int[] travelTimes;
+  private final boolean truncated;
+
+  DistanceMatrix(
+    List<Vertex> sources,
+    List<Vertex> targets,
+    int[] travelTimes,
+    boolean truncated
+  ) {
+    if (travelTimes.length != sources.size() * targets.size()) {
+      throw new IllegalArgumentException(
+        "Matrix size has to match the amount of sources times targets."
+      );
+    }
+    this.sources = List.copyOf(sources);
+    this.targets = List.copyOf(targets);
+    this.travelTimes = travelTimes;
+    this.truncated = truncated;
+  }
+
+  int rowCount() {
+    return sources.size();
+  }
+
+  int columnCount() {
+    return targets.size();
+  }
+
+  /**
+   * @param row index of the source
+   * @param column index of the target
+   * @return travel time, {@link #NO_ROUTE} if there is none
+   */
+  int travelTime(int row, int column) {
+    return travelTimes[row * targets.size() + column];
+  }
+
+  /**
+   * @return amount of travel times, including pairs without a route
+   */
+  @Override
+  public long size() {
+    return travelTimes.length;
+  }
+
+  /**
+   * @return true if at least one row was limited by a {@link QueryBudget}, its missing entries are {@link #NO_ROUTE}
+   */
+  @Override
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  List<Vertex> getSources() {
+    return sources;
+  }
+
+  List<Vertex> getTargets() {
+    return targets;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    builder
+      .append(rowCount())
+      .append('x')
+      .append(columnCount())
+      .append(" travel times")
+      .append(truncated ? " (TRUNCATED)" : StringConstant.EMPTY.getValue())
+      .append(": ");
+    for (int row = 0; row < rowCount(); row++) {
+      for (int column = 0; column < columnCount(); column++) {
+        int travelTime = travelTime(row, column);
+        builder
+          .append(StringConstant.NEW_LINE.getValue())
+          .append(sources.get(row))
+          .append(" -> ")
+          .append(targets.get(column))
+          .append(": ")
+          .append(
+            travelTime == NO_ROUTE ? "NO SUCH ROUTE" : travelTime + " hours"
+          );
+      }
+    }
+    return builder.toString();
+  }
+}
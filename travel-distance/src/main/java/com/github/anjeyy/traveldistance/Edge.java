@@ -1,5 +1,7 @@
 package com.github.anjeyy.traveldistance;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -14,9 +16,21 @@ import java.util.Objects;
  */
 class Edge {
 
+  /**
+   * Notified after the weight of an {@link Edge} has been changed via {@link Edge#setWeight(int)},
+   * used by a {@link DirectedWeightedGraph} to keep its derived data up to date.
+   */
+  @FunctionalInterface
+  interface WeightChangeListener {
+    void weightChanged(Edge edge, int oldWeight);
+  }
+
   private Vertex source;
   private Vertex destination;
   private int weight;
+  private final List<WeightChangeListener> weightChangeListeners = new ArrayList<>(
+    1
+  );
 
   /**
    * Initialized the edge and establishes a connection between two vertices, they are then so-called neighbors.
@@ -70,7 +84,21 @@ class Edge {
   }
 
   public void setWeight(int weight) {
+    int oldWeight = this.weight;
     this.weight = weight;
+    if (oldWeight != weight) {
+      for (WeightChangeListener listener : weightChangeListeners) {
+        listener.weightChanged(this, oldWeight);
+      }
+    }
+  }
+
+  void addWeightChangeListener(WeightChangeListener listener) {
+    weightChangeListeners.add(listener);
+  }
+
+  void removeWeightChangeListener(WeightChangeListener listener) {
+    weightChangeListeners.remove(listener);
   }
 
   private void checkForSelfReference(Vertex source, Vertex destination) {
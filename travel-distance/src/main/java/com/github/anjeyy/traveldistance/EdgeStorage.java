@@ -0,0 +1,79 @@
+package com.github.anjeyy.traveldistance;
+
+/**
+ * Narrow, read-only accessor of edges stored as <i>compressed sparse row</i> (CSR). Vertices are dense ids
+ * in {@code [0, vertexCount)}, the outgoing edges of vertex {@code v} are located at the indices
+ * {@code [edgeStart(v), edgeEnd(v))}.
+ * <p>
+ * Search algorithms only read edges through this interface, so that they work on every storage backend,
+ * see {@link WritableEdgeStorage.Backend}.
+ */
+interface EdgeStorage {
+  /** Marks the absence of an edge between two vertices. */
+  int NO_EDGE = -1;
+
+  int vertexCount();
+
+  int edgeCount();
+
+  /**
+   * @param vertex vertex id
+   * @return first index (inclusive) of the outgoing edges
+   */
+  int edgeStart(int vertex);
+
+  /**
+   * @param vertex vertex id
+   * @return last index (exclusive) of the outgoing edges
+   */
+  int edgeEnd(int vertex);
+
+  /**
+   * @param edgeIndex edge index
+   * @return vertex id the edge ends at
+   */
+  int target(int edgeIndex);
+
+  /**
+   * Decodes the targets of all outgoing edges of a vertex at once, the target of edge {@code edgeStart(vertex) + i}
+   * is put at index {@code i}. Searches scanning whole rows read them via {@link TargetRows}, since
+   * {@link #target(int)} is not {@code O(1)} on every storage.
+   * <p>
+   * <b>Note:</b> Takes {@code O(out-degree)} on every storage.
+   *
+   * @param vertex vertex id
+   * @param buffer receives the targets, if large enough
+   * @return buffer holding the targets, a larger one if the given one is too small
+   */
+  default int[] targets(int vertex, int[] buffer) {
+    int edgeStart = edgeStart(vertex);
+    int[] targets = TargetRows.fit(buffer, edgeEnd(vertex) - edgeStart);
+    for (int e = edgeStart; e < edgeEnd(vertex); e++) {
+      targets[e - edgeStart] = target(e);
+    }
+    return targets;
+  }
+
+  /**
+   * @param edgeIndex edge index
+   * @return current weight of the edge
+   */
+  int weight(int edgeIndex);
+
+  /**
+   * Finds the edge between two vertices by scanning the outgoing edges of the source in {@code O(out-degree)},
+   * storages with a faster lookup override it.
+   *
+   * @param source vertex id the edge starts at
+   * @param target vertex id the edge ends at
+   * @return edge index, {@link #NO_EDGE} if there is none
+   */
+  default int edgeIndex(int source, int target) {
+    for (int e = edgeStart(source); e < edgeEnd(source); e++) {
+      if (target(e) == target) {
+        return e;
+      }
+    }
+    return NO_EDGE;
+  }
+}
@@ -0,0 +1,94 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.IntBitSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per amount of hops {@code h}, all vertices with a route of exactly {@code h} edges to a destination.
+ * <p>
+ * The set for {@code h} only depends on the set for {@code h - 1}, so as soon as a set repeats an earlier one, all
+ * further sets repeat periodically. Sets are therefore only computed till the first repetition, which happens
+ * after at most {@code 2^V} hops, but in practice after a few multiples of the longest cycle. Larger amounts of hops
+ * are looked up inside the period, so that neither work nor memory grows with the requested amount of hops.
+ */
+final class ExactHopReachability {
+
+  private final List<IntBitSet> reaching;
+  private final int periodStart;
+  private final int period;
+
+  private ExactHopReachability(
+    List<IntBitSet> reaching,
+    int periodStart,
+    int period
+  ) {
+    this.reaching = reaching;
+    this.periodStart = periodStart;
+    this.period = period;
+  }
+
+  /**
+   * Scans all edges once per computed set, one {@link BudgetTracker#tryPrepare() preparation step} per vertex.
+   *
+   * @param graphSnapshot graph to search
+   * @param destinationId id of the destination
+   * @param hops largest amount of hops to look up
+   * @param tracker budget of the search
+   * @return reachability, {@code null} if the budget was exhausted beforehand
+   */
+  static ExactHopReachability compute(
+    GraphSnapshot graphSnapshot,
+    int destinationId,
+    int hops,
+    BudgetTracker tracker
+  ) {
+    int vertexCount = graphSnapshot.vertexCount();
+    List<IntBitSet> reaching = new ArrayList<>();
+    Map<IntBitSet, Integer> firstHops = new HashMap<>();
+    IntBitSet previous = new IntBitSet(vertexCount);
+    previous.set(destinationId);
+    reaching.add(previous);
+    firstHops.put(previous, 0);
+    TargetRows rows = new TargetRows();
+    for (int h = 1; h <= hops; h++) {
+      IntBitSet current = new IntBitSet(vertexCount);
+      for (int vertex = 0; vertex < vertexCount; vertex++) {
+        if (!tracker.tryPrepare()) {
+          return null;
+        }
+        rows.decode(graphSnapshot, 0, vertex);
+        for (
+          int e = graphSnapshot.edgeStart(vertex);
+          e < graphSnapshot.edgeEnd(vertex);
+          e++
+        ) {
+          if (previous.get(rows.target(0, e))) {
+            current.set(vertex);
+            break;
+          }
+        }
+      }
+      Integer firstHop = firstHops.putIfAbsent(current, h);
+      if (firstHop != null) {
+        return new ExactHopReachability(reaching, firstHop, h - firstHop);
+      }
+      reaching.add(current);
+      previous = current;
+    }
+    return new ExactHopReachability(reaching, 0, 0);
+  }
+
+  /**
+   * @param hops amount of hops, at most the amount given on computation
+   * @return all vertices with a route of exactly the given amount of edges to the destination
+   */
+  IntBitSet withHops(int hops) {
+    if (hops < reaching.size()) {
+      return reaching.get(hops);
+    }
+    return reaching.get(periodStart + (hops - periodStart) % period);
+  }
+}
@@ -0,0 +1,365 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.IntStack;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Loads a graph file, formatted line by line like {@code 'source, destination, X'}, on all cores.
+ * <ol>
+ *   <li>the file is split into chunks of roughly equal size, every chunk boundary is moved behind the next newline</li>
+ *   <li>every chunk is memory mapped and parsed on its own core into a local buffer of primitive edges. Vertex
+ *   labels are assigned ids through a concurrent dictionary, shared by all chunks.</li>
+ *   <li>the buffers are merged into the graph in one bulk pass, in the order of the file</li>
+ * </ol>
+ * Blank lines are skipped. Since the bytes are parsed directly, labels are expected in <i>UTF-8</i>.
+ */
+final class GraphFileLoader {
+
+  static final int DEFAULT_CHUNK_BYTES = 16 * 1024 * 1024;
+
+  private static final byte NEW_LINE = '\n';
+  private static final byte COMMA = ',';
+  private static final int BOUNDARY_SCAN_BYTES = 4096;
+
+  private final Map<String, Integer> dictionary = new ConcurrentHashMap<>();
+  private final AtomicInteger nextVertexId = new AtomicInteger();
+
+  private GraphFileLoader() {}
+
+  /**
+   * Same as {@link #load(Path, DirectedWeightedGraph, int)} with chunks of {@value #DEFAULT_CHUNK_BYTES} bytes.
+   *
+   * @param graphFile file to load
+   * @param graph graph receiving the edges
+   * @throws IOException if the file cannot be read
+   */
+  static void load(Path graphFile, DirectedWeightedGraph graph)
+    throws IOException {
+    load(graphFile, graph, DEFAULT_CHUNK_BYTES);
+  }
+
+  /**
+   * Parses the file in parallel chunks and adds all edges to the graph.
+   *
+   * @throws IllegalArgumentException if a line is not formatted like {@code 'source, destination, X'}
+   * @throws NumberFormatException if a weight is not an integer
+   *
+   * @param graphFile file to load
+   * @param graph graph receiving the edges
+   * @param chunkBytes nominal size of a chunk, has to be positive
+   * @throws IOException if the file cannot be read
+   */
+  static void load(Path graphFile, DirectedWeightedGraph graph, int chunkBytes)
+    throws IOException {
+    if (chunkBytes < 1) {
+      throw new IllegalArgumentException("Please provide chunk size >0.");
+    }
+    try (
+      FileChannel channel = FileChannel.open(graphFile, StandardOpenOption.READ)
+    ) {
+      GraphFileLoader loader = new GraphFileLoader();
+      long bytes = channel.size();
+      GraphLoadEvent splitEvent = GraphLoadEvent.start(
+        GraphLoadEvent.SPLIT,
+        graphFile
+      );
+      long[] boundaries = chunkBoundaries(channel, chunkBytes);
+      int chunks = boundaries.length - 1;
+      splitEvent.finish(bytes, chunks, 0);
+      GraphLoadEvent parseEvent = GraphLoadEvent.start(
+        GraphLoadEvent.PARSE,
+        graphFile
+      );
+      List<EdgeBuffer> buffers;
+      try {
+        buffers =
+          IntStream
+            .range(0, chunks)
+            .parallel()
+            .mapToObj(
+              chunk ->
+                loader.parseChunk(
+                  channel,
+                  boundaries[chunk],
+                  boundaries[chunk + 1]
+                )
+            )
+            .collect(Collectors.toList());
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      long edges = 0;
+      for (EdgeBuffer buffer : buffers) {
+        edges += buffer.size();
+      }
+      parseEvent.finish(bytes, chunks, edges);
+      GraphLoadEvent mergeEvent = GraphLoadEvent.start(
+        GraphLoadEvent.MERGE,
+        graphFile
+      );
+      loader.merge(buffers, graph);
+      mergeEvent.finish(bytes, chunks, edges);
+    }
+  }
+
+  /**
+   * @return start of every chunk, followed by the end of the file
+   */
+  private static long[] chunkBoundaries(FileChannel channel, int chunkBytes)
+    throws IOException {
+    long size = channel.size();
+    List<Long> boundaries = new ArrayList<>();
+    boundaries.add(0L);
+    long boundary = 0;
+    while (boundary < size) {
+      boundary = lineEndAfter(channel, Math.min(size, boundary + chunkBytes));
+      boundaries.add(boundary);
+    }
+    return boundaries.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  /**
+   * @return position behind the first newline at or after {@code position}, the end of the file if there is none
+   */
+  private static long lineEndAfter(FileChannel channel, long position)
+    throws IOException {
+    ByteBuffer scan = ByteBuffer.allocate(BOUNDARY_SCAN_BYTES);
+    while (position < channel.size()) {
+      scan.clear();
+      int read = channel.read(scan, position);
+      for (int i = 0; i < read; i++) {
+        if (scan.get(i) == NEW_LINE) {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+    return channel.size();
+  }
+
+  private EdgeBuffer parseChunk(FileChannel channel, long start, long end) {
+    MappedByteBuffer bytes;
+    try {
+      bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    EdgeBuffer buffer = new EdgeBuffer();
+    int lineStart = 0;
+    int limit = bytes.limit();
+    while (lineStart < limit) {
+      int lineEnd = indexOf(bytes, NEW_LINE, lineStart, limit);
+      parseLine(bytes, lineStart, lineEnd, buffer);
+      lineStart = lineEnd + 1;
+    }
+    return buffer;
+  }
+
+  private void parseLine(
+    ByteBuffer bytes,
+    int start,
+    int end,
+    EdgeBuffer buffer
+  ) {
+    start = trimStart(bytes, start, end);
+    end = trimEnd(bytes, start, end);
+    if (start == end) {
+      return; // blank line
+    }
+    int firstComma = indexOf(bytes, COMMA, start, end);
+    int secondComma = indexOf(bytes, COMMA, firstComma + 1, end);
+    boolean malformed =
+      secondComma >= end ||
+      indexOf(bytes, COMMA, secondComma + 1, end) != end;
+    if (malformed) {
+      throw malformedLine(decode(bytes, start, end));
+    }
+    buffer.add(
+      vertexId(bytes, start, firstComma),
+      vertexId(bytes, firstComma + 1, secondComma),
+      parseInt(bytes, secondComma + 1, end)
+    );
+  }
+
+  /**
+   * Looks up the id of a label in the shared dictionary, assigning the next free id for a new label.
+   */
+  private int vertexId(ByteBuffer bytes, int start, int end) {
+    start = trimStart(bytes, start, end);
+    end = trimEnd(bytes, start, end);
+    String label = decode(bytes, start, end).toLowerCase(Locale.ROOT);
+    Integer id = dictionary.get(label);
+    if (id != null) {
+      return id;
+    }
+    return dictionary.computeIfAbsent(
+      label,
+      newLabel -> nextVertexId.getAndIncrement()
+    );
+  }
+
+  /**
+   * Links all edges via {@link DirectedWeightedGraph#addEdges(Collection)}, so that the graph invalidates its
+   * indexes once for the whole file and not once per edge.
+   */
+  private void merge(List<EdgeBuffer> buffers, DirectedWeightedGraph graph) {
+    Vertex[] vertices = new Vertex[nextVertexId.get()];
+    dictionary.forEach((label, id) -> vertices[id] = Vertex.with(label));
+    int edgeCount = 0;
+    for (EdgeBuffer buffer : buffers) {
+      edgeCount += buffer.size();
+    }
+    List<Edge> edges = new ArrayList<>(edgeCount);
+    for (EdgeBuffer buffer : buffers) {
+      for (int i = 0; i < buffer.size(); i++) {
+        edges.add(
+          new Edge(
+            vertices[buffer.sources.get(i)],
+            vertices[buffer.destinations.get(i)],
+            buffer.weights.get(i)
+          )
+        );
+      }
+    }
+    graph.addEdges(edges);
+  }
+
+  /**
+   * Parses a single line outside of a bulk load, e.g. a line changed since the last load.
+   *
+   * @throws IllegalArgumentException if the line is not formatted like {@code 'source, destination, X'}
+   * @throws NumberFormatException if the weight is not an integer
+   *
+   * @param line trimmed and non-blank line of a graph file
+   * @return edge described by the line
+   */
+  static Edge parseEdge(String line) {
+    String[] columns = line.split(",", -1);
+    if (columns.length != 3) {
+      throw malformedLine(line);
+    }
+    return new Edge(
+      Vertex.with(columns[0].trim()),
+      Vertex.with(columns[1].trim()),
+      Integer.parseInt(columns[2].trim())
+    );
+  }
+
+  private static IllegalArgumentException malformedLine(String line) {
+    return new IllegalArgumentException(
+      "Graph file is not appropriately formatted like 'source, destination, X' - but instead it was: " +
+      line
+    );
+  }
+
+  private static int parseInt(ByteBuffer bytes, int start, int end) {
+    start = trimStart(bytes, start, end);
+    end = trimEnd(bytes, start, end);
+    int position = start;
+    boolean negative = false;
+    byte sign = position < end ? bytes.get(position) : 0;
+    if (sign == '-' || sign == '+') {
+      negative = sign == '-';
+      position++;
+    }
+    if (position == end) {
+      throw invalidNumber(bytes, start, end);
+    }
+    // accumulated negatively, so that Integer.MIN_VALUE fits
+    int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+    int result = 0;
+    for (; position < end; position++) {
+      int digit = bytes.get(position) - '0';
+      if (digit < 0 || digit > 9 || result < limit / 10) {
+        throw invalidNumber(bytes, start, end);
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        throw invalidNumber(bytes, start, end);
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+  private static int indexOf(ByteBuffer bytes, byte value, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (bytes.get(i) == value) {
+        return i;
+      }
+    }
+    return end;
+  }
+
+  private static int trimStart(ByteBuffer bytes, int start, int end) {
+    while (start < end && isWhitespace(bytes.get(start))) {
+      start++;
+    }
+    return start;
+  }
+
+  private static int trimEnd(ByteBuffer bytes, int start, int end) {
+    while (end > start && isWhitespace(bytes.get(end - 1))) {
+      end--;
+    }
+    return end;
+  }
+
+  private static boolean isWhitespace(byte value) {
+    return value >= 0 && value <= ' '; // multi-byte characters are negative
+  }
+
+  private static String decode(ByteBuffer bytes, int start, int end) {
+    byte[] label = new byte[end - start];
+    ByteBuffer view = bytes.duplicate();
+    view.position(start);
+    view.get(label);
+    return new String(label, StandardCharsets.UTF_8);
+  }
+
+  private static NumberFormatException invalidNumber(
+    ByteBuffer bytes,
+    int start,
+    int end
+  ) {
+    return new NumberFormatException(
+      "For input string: \"" + decode(bytes, start, end) + "\""
+    );
+  }
+
+  /**
+   * Edges of a single chunk as vertex ids, in the order of the file.
+   */
+  private static final class EdgeBuffer {
+
+    private final IntStack sources = new IntStack();
+    private final IntStack destinations = new IntStack();
+    private final IntStack weights = new IntStack();
+
+    void add(int source, int destination, int weight) {
+      sources.push(source);
+      destinations.push(destination);
+      weights.push(weight);
+    }
+
+    int size() {
+      return sources.size();
+    }
+  }
+}
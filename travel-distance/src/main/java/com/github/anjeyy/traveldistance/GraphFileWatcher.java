@@ -0,0 +1,721 @@
+package com.github.anjeyy.traveldistance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Watches a graph file, loaded before via {@link GraphFileLoader}, and applies every change of the file to the live
+ * graph as a delta of {@link Mutation mutations}, instead of building the graph again.
+ * <ol>
+ *   <li>every line of the last applied version is remembered by a 64 bit hash of its trimmed content, together with
+ *   its parsed edge</li>
+ *   <li>on change, lines are only hashed, only lines with an unknown hash are parsed. If size and CRC-32 of the
+ *   previously applied bytes are unchanged, the file has been appended and only the appended bytes are read.</li>
+ *   <li>removed and added lines of the same source and destination become a changed weight, the rest an added or
+ *   removed edge</li>
+ *   <li>the delta is applied in one atomic {@link DirectedWeightedGraph#apply(List) batch} under the write lock</li>
+ * </ol>
+ * Parsing and graph updates are therefore proportional to the change, the unchanged lines are only read and hashed.
+ * Queries running under the read lock of the shared {@link ReadWriteLock} either see the graph before or after a
+ * reload, never in between.
+ * <p>
+ * Like a fresh load, the first line of a source and destination wins: a changed line duplicating an edge is skipped
+ * and reported to the {@link ReloadListener}, it takes over once the defining line is removed. A reload failing,
+ * e.g. on a half written file, leaves the graph and the remembered lines unchanged and is retried with the next
+ * change. Only if the remembered lines no longer fit the graph, the whole file is parsed and compared with the graph.
+ * <p>
+ * <b>Note:</b> Every edge is expected on a single line, vertices left without any edge stay inside the graph.
+ */
+final class GraphFileWatcher implements AutoCloseable {
+
+  static final String PROPERTY = "travel-distance.watch";
+
+  private static final int READ_BUFFER_BYTES = 64 * 1024;
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  /**
+   * Notified about the outcome of reloads, on the thread reloading the file.
+   */
+  interface ReloadListener {
+    ReloadListener NONE = new ReloadListener() {};
+
+    /**
+     * @param graphFile reloaded file
+     * @param changedEdges amount of applied mutations, at least one
+     */
+    default void reloaded(Path graphFile, int changedEdges) {}
+
+    /**
+     * @param graphFile reloaded file
+     * @param line changed line, not applied since an earlier line defines the same edge
+     */
+    default void skipped(Path graphFile, String line) {}
+
+    /**
+     * @param graphFile reloaded file
+     * @param failure cause, the graph stays unchanged and the reload is retried with the next change
+     */
+    default void failed(Path graphFile, Exception failure) {}
+  }
+
+  private final Path graphFile;
+  private final DirectedWeightedGraph graph;
+  private final ReadWriteLock graphLock;
+  private final ReloadListener listener;
+  // lines of the version applied last, by the hash of their trimmed content
+  private Map<Long, Line> lines;
+  // lines not defining their edge, since an earlier line has the same source and destination
+  private Map<List<Vertex>, List<Line>> shadowedLines;
+  private FileVersion appliedVersion;
+  private WatchService watchService;
+
+  /**
+   * Size and checksum of the file content applied last, enough to recognize an append.
+   */
+  private static final class FileVersion {
+
+    private final long size;
+    private final long checksum;
+    private final boolean endsWithNewLine;
+
+    private FileVersion(long size, long checksum, boolean endsWithNewLine) {
+      this.size = size;
+      this.checksum = checksum;
+      this.endsWithNewLine = endsWithNewLine;
+    }
+  }
+
+  /**
+   * Distinct trimmed line of the file with its parsed edge.
+   */
+  private static final class Line {
+
+    private final long hash;
+    private final Edge edge;
+    private final List<Vertex> key;
+    private int count;
+    private boolean defining;
+
+    private Line(long hash, Edge edge, int count) {
+      this.hash = hash;
+      this.edge = edge;
+      this.key = List.of(edge.getSource(), edge.getDestination());
+      this.count = count;
+    }
+  }
+
+  private GraphFileWatcher(
+    Path graphFile,
+    DirectedWeightedGraph graph,
+    ReadWriteLock graphLock,
+    ReloadListener listener
+  ) {
+    this.graphFile = graphFile;
+    this.graph = graph;
+    this.graphLock = graphLock;
+    this.listener = listener;
+  }
+
+  /**
+   * @return true if the system property {@value #PROPERTY} enables the watch mode
+   */
+  static boolean isEnabled() {
+    return Boolean.getBoolean(PROPERTY);
+  }
+
+  /**
+   * Like {@link #of(Path, DirectedWeightedGraph, ReadWriteLock, ReloadListener)}, without being notified.
+   */
+  static GraphFileWatcher of(
+    Path graphFile,
+    DirectedWeightedGraph graph,
+    ReadWriteLock graphLock
+  ) throws IOException {
+    return of(graphFile, graph, graphLock, ReloadListener.NONE);
+  }
+
+  /**
+   * Remembers the current content of the file as the version the graph has been loaded from, without watching yet.
+   *
+   * @param graphFile file the graph has been loaded from
+   * @param graph graph receiving the changes
+   * @param graphLock lock shared with all queries of the graph
+   * @param listener notified about the outcome of reloads
+   * @return watcher of the file
+   * @throws IOException if the file cannot be read
+   */
+  static GraphFileWatcher of(
+    Path graphFile,
+    DirectedWeightedGraph graph,
+    ReadWriteLock graphLock,
+    ReloadListener listener
+  ) throws IOException {
+    if (
+      graphFile == null || graph == null || graphLock == null || listener == null
+    ) {
+      throw new NullPointerException(
+        "Graph file, graph, lock and listener have to be set."
+      );
+    }
+    GraphFileWatcher watcher = new GraphFileWatcher(
+      graphFile.toAbsolutePath(),
+      graph,
+      graphLock,
+      listener
+    );
+    watcher.rememberWholeFile();
+    return watcher;
+  }
+
+  /**
+   * Starts watching the directory of the file on a daemon thread, every change of the file triggers a
+   * {@link #reload()}.
+   *
+   * @return this watcher
+   * @throws IOException if the directory cannot be watched
+   */
+  synchronized GraphFileWatcher start() throws IOException {
+    if (watchService != null) {
+      throw new IllegalStateException("Graph file is already watched.");
+    }
+    watchService = graphFile.getFileSystem().newWatchService();
+    graphFile
+      .getParent()
+      .register(
+        watchService,
+        StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY
+      );
+    Thread watcherThread = new Thread(
+      () -> watch(watchService),
+      "graph-file-watcher"
+    );
+    watcherThread.setDaemon(true);
+    watcherThread.start();
+    return this;
+  }
+
+  private void watch(WatchService watchService) {
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+          Object changedFile = event.context();
+          changed |= graphFile.getFileName().equals(changedFile);
+        }
+        key.reset();
+        if (changed) {
+          reloadReportingErrors();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      // closed, stop watching
+    }
+  }
+
+  private void reloadReportingErrors() {
+    try {
+      List<Mutation> delta = reload();
+      if (!delta.isEmpty()) {
+        listener.reloaded(graphFile, delta.size());
+      }
+    } catch (IOException | RuntimeException e) {
+      listener.failed(graphFile, e);
+    }
+  }
+
+  /**
+   * Applies the changes of the file since the last load to the graph.
+   *
+   * @throws IllegalArgumentException if a changed line is malformed, the graph stays unchanged
+   *
+   * @return applied delta, empty if no edge has changed
+   * @throws IOException if the file cannot be read
+   */
+  synchronized List<Mutation> reload() throws IOException {
+    GraphLoadEvent event = GraphLoadEvent.start(
+      GraphLoadEvent.RELOAD,
+      graphFile
+    );
+    LineDelta lineDelta;
+    long readBytes;
+    FileVersion newVersion;
+    try (
+      FileChannel channel = FileChannel.open(graphFile, StandardOpenOption.READ)
+    ) {
+      long size = channel.size();
+      CRC32 checksum = new CRC32();
+      boolean appended =
+        appliedVersion.endsWithNewLine &&
+        size >= appliedVersion.size &&
+        checksumOf(channel, appliedVersion.size, checksum) ==
+        appliedVersion.checksum;
+      long from = appended ? appliedVersion.size : 0;
+      if (!appended) {
+        checksum.reset();
+      }
+      lineDelta = new LineDelta(appended);
+      readLines(channel, from, size, checksum, lineDelta::add);
+      readBytes = size - from;
+      newVersion =
+        new FileVersion(
+          size,
+          checksum.getValue(),
+          endsWithNewLine(channel, size)
+        );
+    }
+    List<Mutation> delta = lineDelta.mutations();
+    try {
+      applyExclusively(delta);
+    } catch (IllegalArgumentException e) {
+      // remembered lines do not fit the graph anymore, only now the whole file is parsed again
+      delta = resynchronize();
+      event.finish(appliedVersion.size, 0, delta.size());
+      return delta;
+    }
+    lineDelta.commit();
+    appliedVersion = newVersion;
+    lineDelta.skippedLines.forEach(line -> listener.skipped(graphFile, line));
+    event.finish(readBytes, 0, delta.size());
+    return delta;
+  }
+
+  private void applyExclusively(List<Mutation> delta) {
+    if (delta.isEmpty()) {
+      return;
+    }
+    Lock writeLock = graphLock.writeLock();
+    writeLock.lock();
+    try {
+      graph.apply(delta);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Changed lines of a single reload, only applied to the remembered lines once the graph accepted the delta.
+   */
+  private final class LineDelta {
+
+    private final boolean appendOnly;
+    // new occurrences of every read line
+    private final Map<Long, Integer> counts = new HashMap<>();
+    // first content of every hash not remembered yet, in order of the file
+    private final Map<Long, String> newContents = new LinkedHashMap<>();
+    private final List<String> skippedLines = new ArrayList<>();
+    private final List<Line> removedLines = new ArrayList<>();
+    private final List<Line> addedLines = new ArrayList<>();
+    private final List<Line> promotedLines = new ArrayList<>();
+
+    private LineDelta(boolean appendOnly) {
+      this.appendOnly = appendOnly;
+    }
+
+    private void add(String line) {
+      long hash = hashOf(line);
+      Line remembered = lines.get(hash);
+      int previousCount = appendOnly && remembered != null
+        ? remembered.count
+        : 0;
+      int count = counts.getOrDefault(hash, previousCount) + 1;
+      counts.put(hash, count);
+      if (remembered == null) {
+        if (newContents.putIfAbsent(hash, line) != null) {
+          skippedLines.add(line);
+        }
+      } else if (count > remembered.count) {
+        skippedLines.add(line);
+      }
+    }
+
+    /**
+     * Parses the new lines and computes the delta, the remembered lines stay untouched.
+     */
+    private List<Mutation> mutations() {
+      if (!appendOnly) {
+        for (Line line : lines.values()) {
+          if (!counts.containsKey(line.hash)) {
+            removedLines.add(line);
+          }
+        }
+      }
+      Map<List<Vertex>, Line> removedEdges = new LinkedHashMap<>();
+      for (Line line : removedLines) {
+        if (line.defining) {
+          removedEdges.put(line.key, line);
+        }
+      }
+
+      GraphSnapshot current = graph.snapshot();
+      Set<List<Vertex>> addedKeys = new HashSet<>();
+      List<Mutation> delta = new ArrayList<>();
+      for (Map.Entry<Long, String> content : newContents.entrySet()) {
+        long hash = content.getKey();
+        Line line = new Line(
+          hash,
+          GraphFileLoader.parseEdge(content.getValue()),
+          counts.get(hash)
+        );
+        addedLines.add(line);
+        Line removedLine = removedEdges.remove(line.key);
+        boolean defined =
+          addedKeys.contains(line.key) ||
+          (
+            removedLine == null &&
+            current.edgeIndexOf(line.edge) != EdgeStorage.NO_EDGE
+          );
+        if (defined) {
+          skippedLines.add(content.getValue());
+          continue;
+        }
+        line.defining = true;
+        addedKeys.add(line.key);
+        delta.addAll(mutationsOf(removedLine, line));
+      }
+      removedEdges.forEach(
+        (key, removedLine) -> {
+          Line successor = remainingShadowedLine(key);
+          if (successor != null) {
+            promotedLines.add(successor);
+          }
+          delta.addAll(mutationsOf(removedLine, successor));
+        }
+      );
+      return delta;
+    }
+
+    private Line remainingShadowedLine(List<Vertex> key) {
+      for (Line line : shadowedLines.getOrDefault(key, List.of())) {
+        if (appendOnly || counts.containsKey(line.hash)) {
+          return line;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Takes over the delta into the remembered lines, once it has been applied.
+     */
+    private void commit() {
+      for (Line line : removedLines) {
+        lines.remove(line.hash);
+        if (!line.defining) {
+          unshadow(line);
+        }
+      }
+      for (Line line : promotedLines) {
+        unshadow(line);
+        line.defining = true;
+      }
+      for (Line line : addedLines) {
+        lines.put(line.hash, line);
+        if (!line.defining) {
+          shadowedLines
+            .computeIfAbsent(line.key, key -> new ArrayList<>())
+            .add(line);
+        }
+      }
+      counts.forEach(
+        (hash, count) -> {
+          Line line = lines.get(hash);
+          if (line != null) {
+            line.count = count;
+          }
+        }
+      );
+    }
+  }
+
+  /**
+   * @param removedLine line defining the edge so far, {@code null} if none
+   * @param line line defining the edge from now on, {@code null} if none
+   * @return mutation turning the former edge into the new one, empty if both are equal
+   */
+  private static List<Mutation> mutationsOf(Line removedLine, Line line) {
+    if (removedLine == null) {
+      return List.of(
+        Mutation.addEdge(
+          line.edge.getSource(),
+          line.edge.getDestination(),
+          line.edge.getWeight()
+        )
+      );
+    }
+    if (line == null) {
+      return List.of(
+        Mutation.removeEdge(
+          removedLine.edge.getSource(),
+          removedLine.edge.getDestination()
+        )
+      );
+    }
+    if (removedLine.edge.getWeight() == line.edge.getWeight()) {
+      return List.of();
+    }
+    return List.of(
+      Mutation.changeWeight(
+        line.edge.getSource(),
+        line.edge.getDestination(),
+        line.edge.getWeight()
+      )
+    );
+  }
+
+  private void unshadow(Line line) {
+    List<Line> shadowed = shadowedLines.get(line.key);
+    shadowed.remove(line);
+    if (shadowed.isEmpty()) {
+      shadowedLines.remove(line.key);
+    }
+  }
+
+  /**
+   * Parses the whole file, applies its difference to the graph and remembers all of its lines.
+   *
+   * @return applied delta
+   */
+  private List<Mutation> resynchronize() throws IOException {
+    Map<Long, Line> previousLines = lines;
+    Map<List<Vertex>, List<Line>> previousShadowedLines = shadowedLines;
+    FileVersion previousVersion = appliedVersion;
+    rememberWholeFile();
+    try {
+      List<Mutation> delta = diff(graph.snapshot());
+      applyExclusively(delta);
+      return delta;
+    } catch (RuntimeException e) {
+      lines = previousLines;
+      shadowedLines = previousShadowedLines;
+      appliedVersion = previousVersion;
+      throw e;
+    }
+  }
+
+  /**
+   * Reads and parses every line of the file, the first line of a source and destination defines the edge.
+   */
+  private void rememberWholeFile() throws IOException {
+    Map<Long, Line> allLines = new LinkedHashMap<>();
+    Map<List<Vertex>, List<Line>> allShadowedLines = new HashMap<>();
+    CRC32 checksum = new CRC32();
+    long size;
+    boolean endsWithNewLine;
+    try (
+      FileChannel channel = FileChannel.open(graphFile, StandardOpenOption.READ)
+    ) {
+      size = channel.size();
+      readLines(
+        channel,
+        0,
+        size,
+        checksum,
+        content -> {
+          long hash = hashOf(content);
+          Line line = allLines.get(hash);
+          if (line == null) {
+            allLines.put(
+              hash,
+              new Line(hash, GraphFileLoader.parseEdge(content), 1)
+            );
+          } else {
+            line.count++;
+          }
+        }
+      );
+      endsWithNewLine = endsWithNewLine(channel, size);
+    }
+    Set<List<Vertex>> definedKeys = new HashSet<>();
+    for (Line line : allLines.values()) {
+      line.defining = definedKeys.add(line.key);
+      if (!line.defining) {
+        allShadowedLines
+          .computeIfAbsent(line.key, key -> new ArrayList<>())
+          .add(line);
+      }
+    }
+    lines = allLines;
+    shadowedLines = allShadowedLines;
+    appliedVersion =
+      new FileVersion(size, checksum.getValue(), endsWithNewLine);
+  }
+
+  /**
+   * Computes the edges removed, added and reweighted between the graph and the remembered lines.
+   *
+   * @param current snapshot of the live graph
+   * @return delta turning the current graph into the remembered lines
+   */
+  private List<Mutation> diff(GraphSnapshot current) {
+    List<Mutation> delta = new ArrayList<>();
+    Set<List<Vertex>> definedKeys = new HashSet<>();
+    for (Line line : lines.values()) {
+      if (!line.defining) {
+        continue;
+      }
+      definedKeys.add(line.key);
+      int e = current.edgeIndexOf(line.edge);
+      if (e == EdgeStorage.NO_EDGE) {
+        delta.addAll(mutationsOf(null, line));
+      } else if (current.weight(e) != line.edge.getWeight()) {
+        delta.add(
+          Mutation.changeWeight(
+            line.edge.getSource(),
+            line.edge.getDestination(),
+            line.edge.getWeight()
+          )
+        );
+      }
+    }
+    TargetRows rows = new TargetRows();
+    for (int source = 0; source < current.vertexCount(); source++) {
+      Vertex sourceVertex = current.vertexOf(source);
+      rows.decode(current, 0, source);
+      for (
+        int e = current.edgeStart(source);
+        e < current.edgeEnd(source);
+        e++
+      ) {
+        Vertex destination = current.vertexOf(rows.target(0, e));
+        if (!definedKeys.contains(List.of(sourceVertex, destination))) {
+          delta.add(Mutation.removeEdge(sourceVertex, destination));
+        }
+      }
+    }
+    return delta;
+  }
+
+  /**
+   * 64 bit FNV-1a hash, so that two different lines practically never share a hash.
+   */
+  private static long hashOf(String line) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < line.length(); i++) {
+      hash ^= line.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    return hash;
+  }
+
+  /**
+   * Reads the trimmed and non-blank lines in between both positions in small blocks, without keeping them.
+   *
+   * @param checksum updated by every read byte
+   * @param consumer receives every line
+   */
+  private static void readLines(
+    FileChannel channel,
+    long from,
+    long to,
+    CRC32 checksum,
+    Consumer<String> consumer
+  ) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+    byte[] pending = new byte[256];
+    int pendingLength = 0;
+    long position = from;
+    while (position < to) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), to - position));
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        break; // truncated meanwhile
+      }
+      checksum.update(buffer.array(), 0, read);
+      for (int i = 0; i < read; i++) {
+        byte b = buffer.get(i);
+        if (b == '\n') {
+          acceptLine(pending, pendingLength, consumer);
+          pendingLength = 0;
+          continue;
+        }
+        if (pendingLength == pending.length) {
+          pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[pendingLength++] = b;
+      }
+      position += read;
+    }
+    acceptLine(pending, pendingLength, consumer);
+  }
+
+  private static void acceptLine(
+    byte[] bytes,
+    int length,
+    Consumer<String> consumer
+  ) {
+    String line = new String(bytes, 0, length, StandardCharsets.UTF_8).trim();
+    if (!line.isEmpty()) {
+      consumer.accept(line);
+    }
+  }
+
+  private static boolean endsWithNewLine(FileChannel channel, long size)
+    throws IOException {
+    if (size == 0) {
+      return true; // an empty file starts a new line
+    }
+    ByteBuffer lastByte = ByteBuffer.allocate(1);
+    channel.read(lastByte, size - 1);
+    return lastByte.get(0) == '\n';
+  }
+
+  /**
+   * @return CRC-32 of the first bytes of the file, read in small blocks without keeping them
+   */
+  private static long checksumOf(
+    FileChannel channel,
+    long size,
+    CRC32 checksum
+  ) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+    long position = 0;
+    while (position < size) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), size - position));
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        return -1; // truncated meanwhile, never matches
+      }
+      buffer.flip();
+      checksum.update(buffer);
+      position += read;
+    }
+    return checksum.getValue();
+  }
+
+  /**
+   * Stops watching, the graph keeps its current state.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (watchService != null) {
+      watchService.close();
+    }
+  }
+}
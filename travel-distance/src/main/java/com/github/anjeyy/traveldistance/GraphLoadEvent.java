@@ -0,0 +1,84 @@
+package com.github.anjeyy.traveldistance;
+
+import java.nio.file.Path;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <i>Java Flight Recorder</i> event of a single phase of loading a graph file, see {@link GraphFileLoader} and
+ * {@link GraphFileWatcher}.
+ * <p>
+ * Phases are {@value #SPLIT} (finding chunk boundaries), {@value #PARSE} (parsing all chunks in parallel),
+ * {@value #MERGE} (adding the parsed edges to the graph) and {@value #RELOAD} (applying a changed file).
+ */
+@Name(GraphLoadEvent.NAME)
+@Label("Graph Load Phase")
+@Category({ "Travel Distance", "Graph Loading" })
+@Description("Single phase of loading or reloading a graph file")
+@StackTrace(false)
+final class GraphLoadEvent extends Event {
+
+  static final String NAME = "com.github.anjeyy.traveldistance.GraphLoad";
+  static final String SPLIT = "split";
+  static final String PARSE = "parse";
+  static final String MERGE = "merge";
+  static final String RELOAD = "reload";
+
+  @Label("Phase")
+  String phase;
+
+  @Label("File")
+  String file;
+
+  @Label("File Size")
+  @DataAmount
+  long bytes;
+
+  @Label("Chunks")
+  int chunks;
+
+  @Label("Edges")
+  @Description("Parsed, merged or changed edges of the phase")
+  long edges;
+
+  private GraphLoadEvent() {}
+
+  /**
+   * Starts timing a phase, cheap if no recording is active.
+   *
+   * @param phase name of the phase
+   * @param graphFile loaded file
+   * @return started event, has to be {@link #finish(long, int, long) finished}
+   */
+  static GraphLoadEvent start(String phase, Path graphFile) {
+    GraphLoadEvent event = new GraphLoadEvent();
+    if (event.isEnabled()) {
+      event.phase = phase;
+      event.file = graphFile.toString();
+      event.begin();
+    }
+    return event;
+  }
+
+  /**
+   * Ends the phase and commits it, if it exceeds the configured threshold of the recording.
+   *
+   * @param bytes size of the file, {@code 0} if unknown
+   * @param chunks amount of chunks, {@code 0} if not chunked
+   * @param edges edges of the phase
+   */
+  void finish(long bytes, int chunks, long edges) {
+    end();
+    if (shouldCommit()) {
+      this.bytes = bytes;
+      this.chunks = chunks;
+      this.edges = edges;
+      commit();
+    }
+  }
+}
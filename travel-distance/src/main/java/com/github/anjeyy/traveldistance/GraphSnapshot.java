@@ -0,0 +1,207 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Integer based view of a {@link DirectedWeightedGraph}, stored as so-called <i>compressed sparse row</i> (CSR)
+ * inside an {@link EdgeStorage}. Every {@link Vertex} is mapped to a dense id in {@code [0, vertexCount)}, the
+ * outgoing edges of vertex {@code v} are located at the indices {@code [edgeStart(v), edgeEnd(v))}.
+ * <p>
+ * Derived indexes, like the {@link ComponentIndex}, are computed on top of a snapshot, so that
+ * they can work with primitive arrays instead of hashed objects.
+ * <p>
+ * <b>Note:</b> The structure is immutable. Weights are copied into the storage and kept up to date by the
+ * owning graph via {@link #updateWeight(Edge)}, since they can be changed via {@link Edge#setWeight(int)}
+ * without touching the graph structure.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Sparse_matrix#Compressed_sparse_row_(CSR,_CRS_or_Yale_format)">Wiki: CSR</a>
+ */
+final class GraphSnapshot implements EdgeStorage {
+
+  static final int NO_VERTEX = -1;
+
+  private final Vertex[] vertices;
+  private final Map<Vertex, Integer> ids;
+  private final int[] inDegrees;
+  private final WritableEdgeStorage storage;
+
+  /**
+   * Same as {@link #of(Map, WritableEdgeStorage.Backend)} with edges on the heap.
+   *
+   * @param adjacencyList source vertex mapped to its outgoing edges, indexed by destination
+   * @return snapshot
+   */
+  static GraphSnapshot of(Map<Vertex, Map<Vertex, Edge>> adjacencyList) {
+    return of(adjacencyList, WritableEdgeStorage.Backend.HEAP);
+  }
+
+  /**
+   * Creates the snapshot of an adjacency list. Vertices, which are only present as destination
+   * of an edge, get an id as well.
+   *
+   * @param adjacencyList source vertex mapped to its outgoing edges, indexed by destination
+   * @param backend where the edges are stored
+   * @return snapshot
+   */
+  static GraphSnapshot of(
+    Map<Vertex, Map<Vertex, Edge>> adjacencyList,
+    WritableEdgeStorage.Backend backend
+  ) {
+    Map<Vertex, Integer> ids = new HashMap<>();
+    List<Vertex> vertices = new ArrayList<>();
+    int edgeCount = 0;
+    for (Vertex source : adjacencyList.keySet()) {
+      register(source, ids, vertices);
+      for (Edge edge : adjacencyList.get(source).values()) {
+        register(edge.getDestination(), ids, vertices);
+        edgeCount++;
+      }
+    }
+
+    WritableEdgeStorage storage = backend.allocate(vertices.size(), edgeCount);
+    int[] inDegrees = new int[vertices.size()];
+    int position = 0;
+    for (int v = 0; v < vertices.size(); v++) {
+      storage.setEdgeStart(v, position);
+      Map<Vertex, Edge> outgoing = adjacencyList.get(vertices.get(v));
+      if (outgoing != null) {
+        for (Edge edge : outgoing.values()) {
+          int target = ids.get(edge.getDestination());
+          storage.setTarget(position, target);
+          storage.setWeight(position, edge.getWeight());
+          inDegrees[target]++;
+          position++;
+        }
+      }
+    }
+    storage.setEdgeStart(vertices.size(), position);
+    storage.seal();
+    return new GraphSnapshot(
+      vertices.toArray(new Vertex[0]),
+      ids,
+      inDegrees,
+      storage
+    );
+  }
+
+  private static void register(
+    Vertex vertex,
+    Map<Vertex, Integer> ids,
+    List<Vertex> vertices
+  ) {
+    if (ids.putIfAbsent(vertex, vertices.size()) == null) {
+      vertices.add(vertex);
+    }
+  }
+
+  private GraphSnapshot(
+    Vertex[] vertices,
+    Map<Vertex, Integer> ids,
+    int[] inDegrees,
+    WritableEdgeStorage storage
+  ) {
+    this.vertices = vertices;
+    this.ids = ids;
+    this.inDegrees = inDegrees;
+    this.storage = storage;
+  }
+
+  /**
+   * Mirrors a changed weight into the storage, located via {@link #edgeIndexOf(Edge)}.
+   *
+   * @param edge edge of the snapshot with changed weight
+   */
+  void updateWeight(Edge edge) {
+    int e = edgeIndexOf(edge);
+    if (e != NO_EDGE) {
+      storage.setWeight(e, edge.getWeight());
+    }
+  }
+
+  /**
+   * @param edge any edge
+   * @return index of the edge with same source and destination, {@link #NO_EDGE} if not part of the snapshot
+   */
+  int edgeIndexOf(Edge edge) {
+    int source = idOf(edge.getSource());
+    int destination = idOf(edge.getDestination());
+    if (source == NO_VERTEX || destination == NO_VERTEX) {
+      return NO_EDGE;
+    }
+    return storage.edgeIndex(source, destination);
+  }
+
+  @Override
+  public int vertexCount() {
+    return vertices.length;
+  }
+
+  @Override
+  public int edgeCount() {
+    return storage.edgeCount();
+  }
+
+  /**
+   * @param vertex any vertex
+   * @return dense id of the vertex, {@link #NO_VERTEX} if not part of the snapshot
+   */
+  int idOf(Vertex vertex) {
+    Integer id = ids.get(vertex);
+    return id == null ? NO_VERTEX : id;
+  }
+
+  Vertex vertexOf(int id) {
+    return vertices[id];
+  }
+
+  /**
+   * @param vertex vertex id
+   * @return amount of edges ending at the vertex
+   */
+  int inDegree(int vertex) {
+    return inDegrees[vertex];
+  }
+
+  @Override
+  public int edgeStart(int vertex) {
+    return storage.edgeStart(vertex);
+  }
+
+  @Override
+  public int edgeEnd(int vertex) {
+    return storage.edgeEnd(vertex);
+  }
+
+  @Override
+  public int target(int edgeIndex) {
+    return storage.target(edgeIndex);
+  }
+
+  @Override
+  public int[] targets(int vertex, int[] buffer) {
+    return storage.targets(vertex, buffer);
+  }
+
+  @Override
+  public int weight(int edgeIndex) {
+    return storage.weight(edgeIndex);
+  }
+
+  /**
+   * @return {@code O(1)} on a {@link DenseEdgeStorage}, {@code O(out-degree)} on every other storage
+   */
+  @Override
+  public int edgeIndex(int source, int target) {
+    return storage.edgeIndex(source, target);
+  }
+
+  /**
+   * @return true if edges between two vertices are looked up in an adjacency matrix
+   */
+  boolean isDense() {
+    return storage instanceof DenseEdgeStorage;
+  }
+}
@@ -0,0 +1,117 @@
+package com.github.anjeyy.traveldistance;
+
+/**
+ * Cheap, immutable statistics of a {@link GraphSnapshot}, used by the {@link QueryPlanner} to estimate the work of
+ * an algorithm. Computed in a single pass over all edges and cached by the graph till the next modification.
+ */
+final class GraphStatistics {
+
+  private final int vertexCount;
+  private final int edgeCount;
+  private final int maxOutDegree;
+  private final int minWeight;
+  private final int maxWeight;
+  private final boolean cyclic;
+
+  private GraphStatistics(
+    int vertexCount,
+    int edgeCount,
+    int maxOutDegree,
+    int minWeight,
+    int maxWeight,
+    boolean cyclic
+  ) {
+    this.vertexCount = vertexCount;
+    this.edgeCount = edgeCount;
+    this.maxOutDegree = maxOutDegree;
+    this.minWeight = minWeight;
+    this.maxWeight = maxWeight;
+    this.cyclic = cyclic;
+  }
+
+  /**
+   * @param snapshot edges to measure
+   * @param componentIndex strongly connected components of the snapshot
+   * @return statistics of the snapshot
+   */
+  static GraphStatistics of(
+    EdgeStorage snapshot,
+    ComponentIndex componentIndex
+  ) {
+    int maxOutDegree = 0;
+    int minWeight = Integer.MAX_VALUE;
+    int maxWeight = Integer.MIN_VALUE;
+    for (int vertex = 0; vertex < snapshot.vertexCount(); vertex++) {
+      int edgeStart = snapshot.edgeStart(vertex);
+      int edgeEnd = snapshot.edgeEnd(vertex);
+      maxOutDegree = Math.max(maxOutDegree, edgeEnd - edgeStart);
+      for (int e = edgeStart; e < edgeEnd; e++) {
+        minWeight = Math.min(minWeight, snapshot.weight(e));
+        maxWeight = Math.max(maxWeight, snapshot.weight(e));
+      }
+    }
+    boolean empty = snapshot.edgeCount() == 0;
+    return new GraphStatistics(
+      snapshot.vertexCount(),
+      snapshot.edgeCount(),
+      maxOutDegree,
+      empty ? 0 : minWeight,
+      empty ? 0 : maxWeight,
+      componentIndex.hasCycle()
+    );
+  }
+
+  int getVertexCount() {
+    return vertexCount;
+  }
+
+  int getEdgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * @return edges per vertex, {@code 0} for an empty graph
+   */
+  double averageOutDegree() {
+    return vertexCount == 0 ? 0 : (double) edgeCount / vertexCount;
+  }
+
+  int getMaxOutDegree() {
+    return maxOutDegree;
+  }
+
+  /**
+   * @return smallest weight, {@code 0} without any edge
+   */
+  int getMinWeight() {
+    return minWeight;
+  }
+
+  /**
+   * @return largest weight, {@code 0} without any edge
+   */
+  int getMaxWeight() {
+    return maxWeight;
+  }
+
+  /**
+   * @return true if there is at least one cycle, so that route enumerations may grow exponentially
+   */
+  boolean isCyclic() {
+    return cyclic;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "[Graph statistics: vertices=%d, edges=%d, averageOutDegree=%.2f, maxOutDegree=%d, weights=%d..%d, cyclic=%b]",
+      vertexCount,
+      edgeCount,
+      averageOutDegree(),
+      maxOutDegree,
+      minWeight,
+      maxWeight,
+      cyclic
+    );
+  }
+}
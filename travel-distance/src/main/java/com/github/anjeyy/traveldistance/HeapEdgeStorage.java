@@ -0,0 +1,71 @@
+package com.github.anjeyy.traveldistance;
+
+/**
+ * {@link WritableEdgeStorage} backed by primitive arrays on the heap.
+ */
+final class HeapEdgeStorage implements WritableEdgeStorage {
+
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] weights;
+
+  HeapEdgeStorage(int vertexCount, int edgeCount) {
+    this.offsets = new int[vertexCount + 1];
+    this.targets = new int[edgeCount];
+    this.weights = new int[edgeCount];
+  }
+
+  @Override
+  public int vertexCount() {
+    return offsets.length - 1;
+  }
+
+  @Override
+  public int edgeCount() {
+    return targets.length;
+  }
+
+  @Override
+  public int edgeStart(int vertex) {
+    return offsets[vertex];
+  }
+
+  @Override
+  public int edgeEnd(int vertex) {
+    return offsets[vertex + 1];
+  }
+
+  @Override
+  public int target(int edgeIndex) {
+    return targets[edgeIndex];
+  }
+
+  @Override
+  public int[] targets(int vertex, int[] buffer) {
+    int edgeStart = edgeStart(vertex);
+    int degree = edgeEnd(vertex) - edgeStart;
+    int[] row = TargetRows.fit(buffer, degree);
+    System.arraycopy(targets, edgeStart, row, 0, degree);
+    return row;
+  }
+
+  @Override
+  public int weight(int edgeIndex) {
+    return weights[edgeIndex];
+  }
+
+  @Override
+  public void setEdgeStart(int vertex, int edgeIndex) {
+    offsets[vertex] = edgeIndex;
+  }
+
+  @Override
+  public void setTarget(int edgeIndex, int target) {
+    targets[edgeIndex] = target;
+  }
+
+  @Override
+  public void setWeight(int edgeIndex, int weight) {
+    weights[edgeIndex] = weight;
+  }
+}
@@ -0,0 +1,99 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.StringConstant;
+
+/**
+ * Vertex potentials of <b>Johnson's algorithm</b>, making <i>Dijkstra</i> applicable to graphs with negative weights.
+ * <p>
+ * A single <b>Bellman-Ford</b> pass from a virtual vertex, connected to every vertex with weight {@code 0},
+ * computes a potential {@code h(v)} for each vertex. Afterwards every reduced weight
+ * {@code w(u, v) + h(u) - h(v)} is non-negative and shortest routes keep being shortest routes.
+ * The real travel time of a route from {@code s} to {@code t} is its reduced travel time {@code - h(s) + h(t)}.
+ * <p>
+ * <b>Note:</b> Potentials only exist, if there is no negative cycle.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Johnson%27s_algorithm">Wiki: Johnson's algorithm</a>
+ * @see <a href="https://en.wikipedia.org/wiki/Bellman%E2%80%93Ford_algorithm">Wiki: Bellman-Ford algorithm</a>
+ */
+final class JohnsonPotentials {
+
+  private final int[] potentials;
+
+  /**
+   * Runs Bellman-Ford in {@code O(V * E)}, stopping as soon as a round does not relax any edge.
+   *
+   * @param snapshot graph to compute the potentials for
+   * @return computed potentials
+   * @throws IllegalStateException if the graph contains a negative cycle
+   */
+  static JohnsonPotentials compute(EdgeStorage snapshot) {
+    int vertexCount = snapshot.vertexCount();
+    int[] potentials = new int[vertexCount]; // virtual vertex reaches everything with 0
+
+    TargetRows rows = new TargetRows();
+    boolean relaxed = vertexCount > 0;
+    for (int round = 0; round < vertexCount && relaxed; round++) {
+      relaxed = false;
+      for (int vertex = 0; vertex < vertexCount; vertex++) {
+        rows.decode(snapshot, 0, vertex);
+        for (
+          int e = snapshot.edgeStart(vertex);
+          e < snapshot.edgeEnd(vertex);
+          e++
+        ) {
+          int neighbor = rows.target(0, e);
+          int newPotential = potentials[vertex] + snapshot.weight(e);
+          if (newPotential < potentials[neighbor]) {
+            potentials[neighbor] = newPotential;
+            relaxed = true;
+          }
+        }
+      }
+    }
+    // including the virtual vertex there are V + 1 vertices, so V rounds have to suffice
+    if (relaxed) {
+      throw new IllegalStateException(
+        "This Graph is in a non-appropriate state." +
+        StringConstant.NEW_LINE.getValue() +
+        "No shortest path findings can be determined due to negative cycles."
+      );
+    }
+    return new JohnsonPotentials(potentials);
+  }
+
+  /**
+   * @param vertexCount amount of vertices
+   * @return potentials for a graph without negative weights, where every reduced weight equals its weight
+   */
+  static JohnsonPotentials zero(int vertexCount) {
+    return new JohnsonPotentials(new int[vertexCount]);
+  }
+
+  private JohnsonPotentials(int[] potentials) {
+    this.potentials = potentials;
+  }
+
+  int potential(int vertex) {
+    return potentials[vertex];
+  }
+
+  /**
+   * @param source vertex id the edge starts at
+   * @param target vertex id the edge ends at
+   * @param weight original weight
+   * @return non-negative reduced weight
+   */
+  int reducedWeight(int source, int target, int weight) {
+    return weight + potentials[source] - potentials[target];
+  }
+
+  /**
+   * @param source vertex id the route starts at
+   * @param destination vertex id the route ends at
+   * @param reducedTravelTime travel time based on reduced weights
+   * @return real travel time based on original weights
+   */
+  int originalTravelTime(int source, int destination, int reducedTravelTime) {
+    return reducedTravelTime - potentials[source] + potentials[destination];
+  }
+}
@@ -0,0 +1,65 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.List;
+
+/**
+ * In-process {@link ShardWorker}, directly querying the {@link DirectedWeightedGraph} of its shard.
+ */
+final class LocalShardWorker implements ShardWorker {
+
+  // rough object sizes of a compressed-oops JVM: vertex, label and map entries / edge, listener list and map entries,
+  // never measured, see ShardWorker#estimatedMemory()
+  private static final long BYTES_PER_VERTEX = 256;
+  private static final long BYTES_PER_EDGE = 192;
+
+  private final DirectedWeightedGraph shard;
+
+  /**
+   * Static factory method for an easier use and initialization of {@link LocalShardWorker}.
+   *
+   * @param shard graph consisting of the vertices and inner edges of a single shard
+   * @return initialized worker
+   */
+  static LocalShardWorker of(DirectedWeightedGraph shard) {
+    if (shard == null) {
+      throw new NullPointerException("'null' as shard is NOT allowed.");
+    }
+    return new LocalShardWorker(shard);
+  }
+
+  private LocalShardWorker(DirectedWeightedGraph shard) {
+    this.shard = shard;
+  }
+
+  @Override
+  public int[] travelTimes(List<Vertex> sources, List<Vertex> targets) {
+    int[] travelTimes = new int[sources.size() * targets.size()];
+    if (travelTimes.length == 0) {
+      return travelTimes;
+    }
+    DistanceMatrix matrix = shard.calculateTravelTimeMatrix(sources, targets);
+    for (int row = 0; row < matrix.rowCount(); row++) {
+      for (int column = 0; column < matrix.columnCount(); column++) {
+        travelTimes[row * targets.size() + column] =
+          matrix.travelTime(row, column);
+      }
+    }
+    return travelTimes;
+  }
+
+  @Override
+  public long estimatedMemory() {
+    GraphSnapshot snapshot = shard.snapshot();
+    return (
+      snapshot.vertexCount() *
+      BYTES_PER_VERTEX +
+      snapshot.edgeCount() *
+      BYTES_PER_EDGE
+    );
+  }
+
+  @Override
+  public void close() {
+    // nothing to release
+  }
+}
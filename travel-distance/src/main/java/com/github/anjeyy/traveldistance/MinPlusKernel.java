@@ -0,0 +1,115 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Relaxation kernel of the <i>min-plus</i> (tropical) semiring over a flat {@code int[]} distance matrix, the
+ * compute bound core of {@link AllPairsTravelTimes}.
+ * <p>
+ * A call relaxes the tile of the given rows and columns via the given pivots:
+ * <pre>
+ *   for pivot, row, column:
+ *     matrix[row][column] = min(matrix[row][column], matrix[row][pivot] + matrix[pivot][column])
+ * </pre>
+ * Pivots are the outermost loop, so the tile may overlap the pivot rows or columns, as blocked
+ * <b>Floyd-Warshall</b> requires. {@link #INFINITY} is never added, it marks a missing route.
+ * <p>
+ * Besides the {@link #SCALAR} kernel, a kernel based on the incubating <i>Vector API</i> is loaded, if it has been
+ * compiled (JDK 17+) and the module {@code jdk.incubator.vector} is added at runtime.
+ */
+interface MinPlusKernel {
+  /** Marks a pair of vertices without any route. */
+  int INFINITY = DistanceMatrix.NO_ROUTE;
+
+  /** Plain loops, available on every JDK. */
+  MinPlusKernel SCALAR = new ScalarMinPlusKernel();
+
+  String PROPERTY = "travel-distance.kernel";
+
+  /**
+   * @param matrix row major distance matrix
+   * @param stride length of a row
+   * @param rowFrom first row of the tile, inclusive
+   * @param rowTo last row of the tile, exclusive
+   * @param columnFrom first column of the tile, inclusive
+   * @param columnTo last column of the tile, exclusive
+   * @param pivotFrom first pivot, inclusive
+   * @param pivotTo last pivot, exclusive
+   */
+  void relax(
+    int[] matrix,
+    int stride,
+    int rowFrom,
+    int rowTo,
+    int columnFrom,
+    int columnTo,
+    int pivotFrom,
+    int pivotTo
+  );
+
+  /**
+   * @return kernel based on the Vector API, empty if it was not compiled or the incubator module is not available
+   */
+  static Optional<MinPlusKernel> vector() {
+    return Optional.ofNullable(VectorKernelHolder.KERNEL);
+  }
+
+  /**
+   * Reads the optional system property {@value #PROPERTY}, either {@code scalar} or {@code vector}.
+   *
+   * @return configured kernel, the vector kernel if available and not configured
+   * @throws IllegalStateException if the vector kernel is configured, but not available
+   */
+  static MinPlusKernel fromSystemProperties() {
+    String kernel = System.getProperty(PROPERTY);
+    if (kernel == null) {
+      return vector().orElse(SCALAR);
+    }
+    switch (kernel.trim().toLowerCase(Locale.ROOT)) {
+      case "scalar":
+        return SCALAR;
+      case "vector":
+        return vector()
+          .orElseThrow(
+            () ->
+              new IllegalStateException(
+                "Vector kernel is not available, please run on JDK 17+ with '--add-modules jdk.incubator.vector'."
+              )
+          );
+      default:
+        throw new IllegalArgumentException(
+          "Please provide one of 'scalar' or 'vector' as kernel, yours was: " +
+          kernel
+        );
+    }
+  }
+
+  /**
+   * Loads the vector kernel once, on first use.
+   */
+  final class VectorKernelHolder {
+
+    private static final String VECTOR_KERNEL =
+      "com.github.anjeyy.traveldistance.VectorMinPlusKernel";
+    static final MinPlusKernel KERNEL = load();
+
+    private VectorKernelHolder() {
+      throw new UnsupportedOperationException(
+        String.format("No instance of '%s' allowed.", getClass())
+      );
+    }
+
+    private static MinPlusKernel load() {
+      try {
+        return (MinPlusKernel) Class
+          .forName(VECTOR_KERNEL)
+          .getDeclaredConstructor()
+          .newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // not compiled, compiled for a newer JDK or missing the incubator module
+        return null;
+      }
+    }
+  }
+}
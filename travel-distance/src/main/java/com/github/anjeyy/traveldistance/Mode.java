@@ -1,149 +1,420 @@
 package com.github.anjeyy.traveldistance;
 
 import com.github.anjeyy.traveldistance.util.StringConstant;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 enum Mode {
-  START_PROGRAM(0) {
+  START_PROGRAM(0, Query.Shape.NONE, "no parameters") {
     @Override
-    String compute(DirectedWeightedGraph graph, String rawInput) {
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
       throw new UnsupportedOperationException("Not allowed for program start.");
     }
   },
-  TRAVEL_TIME_CERTAIN_ROUTE(1) {
+  TRAVEL_TIME_CERTAIN_ROUTE(1, Query.Shape.ROUTE, "a route") {
     @Override
-    String compute(DirectedWeightedGraph graph, String rawInput) {
-      String[] splitInput = rawInput.split(StringConstant.COMMA.getValue());
-      List<Vertex> routeInput = Arrays
-        .stream(splitInput)
-        .map(String::trim)
-        .filter(str -> !str.isBlank())
-        .map(Vertex::with)
-        .collect(Collectors.toList());
-      return graph.travelTimeForGivenRoute(routeInput);
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
+      return graph.travelTimeOf(query.vertices());
     }
   },
-  FIND_ROUTES_WITH_MAX_STOPS(2) {
+  FIND_ROUTES_WITH_MAX_STOPS(
+    2,
+    Query.Shape.PAIR_WITH_LIMIT,
+    "source, destination and maxStop parameters"
+  ) {
     @Override
-    String compute(DirectedWeightedGraph graph, String rawInput) {
-      String[] rawEdgeInput = rawInput.split(StringConstant.COMMA.getValue());
-      if (rawEdgeInput.length != 3) {
-        throw new IllegalArgumentException(
-          String.format(
-            "MODE '%s' need source, destination and maxStop parameters. Yours was: '%s'.",
-            FIND_ROUTES_WITH_MAX_STOPS,
-            rawInput
-          )
-        );
-      }
-      Vertex source = Vertex.with(rawEdgeInput[0].trim());
-      Vertex destination = Vertex.with(rawEdgeInput[1].trim());
-      int maxStop = Integer.parseInt(rawEdgeInput[2].trim());
-      return graph.determineAndDisplayRoutesWithMaxStops(
-        source,
-        destination,
-        maxStop
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
+      return graph.findRoutesWithMaxStops(
+        query.source(),
+        query.destination(),
+        query.getLimit(),
+        budget,
+        plan.getStrategy() == QueryPlan.Strategy.DFS_ENUMERATION
       );
     }
   },
-  FIND_ROUTES_WITH_EXACT_STOPS(3) {
+  FIND_ROUTES_WITH_EXACT_STOPS(
+    3,
+    Query.Shape.PAIR_WITH_LIMIT,
+    "source, destination and exactStops parameters"
+  ) {
     @Override
-    String compute(DirectedWeightedGraph graph, String rawInput) {
-      String[] rawEdgeInput = rawInput.split(StringConstant.COMMA.getValue());
-      if (rawEdgeInput.length != 3) {
-        throw new IllegalArgumentException(
-          String.format(
-            "MODE '%s' need source, destination and exactStops parameters. Yours was: '%s'.",
-            FIND_ROUTES_WITH_EXACT_STOPS,
-            rawInput
-          )
-        );
-      }
-      Vertex source = Vertex.with(rawEdgeInput[0].trim());
-      Vertex destination = Vertex.with(rawEdgeInput[1].trim());
-      int exactStop = Integer.parseInt(rawEdgeInput[2].trim());
-      return graph.determineAndDisplayRoutesWithExactlyStops(
-        source,
-        destination,
-        exactStop
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
+      return graph.findRoutesWithExactStops(
+        query.source(),
+        query.destination(),
+        query.getLimit(),
+        budget
       );
     }
   },
-  TRAVEL_TIME_SHORTEST_PATH(4) {
+  TRAVEL_TIME_SHORTEST_PATH(4, Query.Shape.PAIR, "source and destination") {
     @Override
-    String compute(DirectedWeightedGraph graph, String rawInput) {
-      String[] rawEdgeInput = rawInput.split(StringConstant.COMMA.getValue());
-      if (rawEdgeInput.length != 2) {
-        throw new IllegalArgumentException(
-          String.format(
-            "MODE '%s' need source and destination. Yours was: '%s'.",
-            TRAVEL_TIME_SHORTEST_PATH,
-            rawInput
-          )
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
+      if (plan.getStrategy() == QueryPlan.Strategy.ALL_PAIRS_LOOKUP) {
+        TravelTime travelTime = graph.lookupShortestRoute(
+          query.source(),
+          query.destination()
         );
+        if (travelTime != null) {
+          return travelTime;
+        }
+        // dropped by a modification since planning
       }
-      Vertex source = Vertex.with(rawEdgeInput[0].trim());
-      Vertex destination = Vertex.with(rawEdgeInput[1].trim());
-      return graph.calculateShortestRoute(source, destination);
+      // looks up the tree of a hot source first
+      return graph.shortestRoute(
+        query.source(),
+        query.destination(),
+        budget
+      );
     }
   },
-  TRAVEL_TIME_WITH_MAX_TIME(5) {
+  TRAVEL_TIME_WITH_MAX_TIME(
+    5,
+    Query.Shape.PAIR_WITH_LIMIT,
+    "source, destination and maxTime parameters"
+  ) {
     @Override
-    String compute(DirectedWeightedGraph graph, String rawInput) {
-      String[] rawEdgeInput = rawInput.split(StringConstant.COMMA.getValue());
-      if (rawEdgeInput.length != 3) {
-        throw new IllegalArgumentException(
-          String.format(
-            "MODE '%s' need source, destination and maxTime parameters. Yours was: '%s'.",
-            TRAVEL_TIME_WITH_MAX_TIME,
-            rawInput
-          )
-        );
-      }
-      Vertex source = Vertex.with(rawEdgeInput[0].trim());
-      Vertex destination = Vertex.with(rawEdgeInput[1].trim());
-      int maxTime = Integer.parseInt(rawEdgeInput[2].trim());
-      return graph.determineAndDisplayRoutesWithMaxTime(
-        source,
-        destination,
-        maxTime
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
+      return graph.findRoutesWithMaxTime(
+        query.source(),
+        query.destination(),
+        query.getLimit(),
+        budget,
+        plan.getStrategy() == QueryPlan.Strategy.DFS_ENUMERATION
       );
     }
   },
-  EXIT_PROGRAM(6) {
+  EXIT_PROGRAM(6, Query.Shape.NONE, "no parameters") {
     @Override
-    String compute(DirectedWeightedGraph graph, String rawInput) {
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
       throw new UnsupportedOperationException(
         "Not allowed for exiting the program."
       );
     }
+  },
+  TRAVEL_TIME_MATRIX(
+    7,
+    Query.Shape.MATRIX,
+    "sources and targets separated by '" +
+    StringConstant.SEMICOLON.getValue() +
+    "'"
+  ) {
+    @Override
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
+      if (plan.getStrategy() == QueryPlan.Strategy.ALL_PAIRS_LOOKUP) {
+        DistanceMatrix matrix = graph.lookupTravelTimeMatrix(
+          query.sources(),
+          query.targets()
+        );
+        if (matrix != null) {
+          return matrix; // not outdated meanwhile
+        }
+      }
+      return graph.calculateTravelTimeMatrix(
+        query.sources(),
+        query.targets(),
+        budget
+      );
+    }
+  },
+  TRAVEL_TIME_SHORTEST_PATH_WITH_MAX_STOPS(
+    8,
+    Query.Shape.PAIR_WITH_LIMIT,
+    "source, destination and maxStop parameters"
+  ) {
+    @Override
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
+      return graph.shortestRouteWithMaxStops(
+        query.source(),
+        query.destination(),
+        query.getLimit(),
+        budget
+      );
+    }
+  },
+  REACHABLE_WITH_MAX_TIME(
+    9,
+    Query.Shape.SOURCE_WITH_LIMIT,
+    "source and maxTime parameters"
+  ) {
+    @Override
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
+      return graph.findReachableWithin(
+        query.source(),
+        query.getLimit(),
+        budget
+      );
+    }
+  },
+  COUNT_ROUTES_WITH_MAX_TIME(
+    10,
+    Query.Shape.PAIR_WITH_LIMIT,
+    "source, destination and maxTime parameters"
+  ) {
+    @Override
+    Answer search(
+      DirectedWeightedGraph graph,
+      Query query,
+      QueryPlan plan,
+      QueryBudget budget
+    ) {
+      return graph.countRoutesWithMaxTime(
+        query.source(),
+        query.destination(),
+        query.getLimit(),
+        budget,
+        plan.getStrategy() == QueryPlan.Strategy.ENUMERATION_COUNT
+      );
+    }
   };
 
+  // indexed by number, so that a lookup neither copies nor streams the values
+  private static final Mode[] BY_NUMBER = new Mode[values().length];
+
+  static {
+    for (Mode mode : values()) {
+      BY_NUMBER[mode.number] = mode;
+    }
+  }
+
   private final int number;
+  private final Query.Shape shape;
+  private final String expectedArguments;
 
-  Mode(int number) {
+  Mode(int number, Query.Shape shape, String expectedArguments) {
     this.number = number;
+    this.shape = shape;
+    this.expectedArguments = expectedArguments;
   }
 
   final int getNumber() {
     return number;
   }
 
+  /**
+   * @return kind of arguments this mode expects
+   */
+  final Query.Shape getShape() {
+    return shape;
+  }
+
+  /**
+   * @return human readable description of the expected arguments
+   */
+  final String getExpectedArguments() {
+    return expectedArguments;
+  }
+
   static Mode from(int number) {
-    return Arrays
-      .stream(values())
-      .filter(m -> m.getNumber() == number)
-      .filter(m -> m != START_PROGRAM)
-      .findAny()
-      .orElseThrow(
-        () ->
-          new IllegalArgumentException(
-            "Please provide valid number from 1-6, yours was: " + number
-          )
+    if (number <= START_PROGRAM.number || number >= BY_NUMBER.length) {
+      throw new IllegalArgumentException(
+        "Please provide valid number from 1-" +
+        (BY_NUMBER.length - 1) +
+        ", yours was: " +
+        number
       );
+    }
+    return BY_NUMBER[number];
+  }
+
+  /**
+   * Computes the mode without any limits, see {@link #compute(DirectedWeightedGraph, String, QueryBudget)}.
+   *
+   * @param graph graph to query
+   * @param rawInput raw user input after the mode number
+   * @return formatted result
+   */
+  final String compute(DirectedWeightedGraph graph, String rawInput) {
+    return compute(graph, rawInput, QueryBudget.unlimited());
+  }
+
+  /**
+   * Parses the raw user input with a new {@link QueryParser} and executes the corresponding query on the graph.
+   * Repeated callers should keep their own parser and use {@link #execute(DirectedWeightedGraph, Query, QueryBudget)}.
+   *
+   * @param graph graph to query
+   * @param rawInput raw user input after the mode number
+   * @param budget limits of the executed search, ignored by modes without a search
+   * @return formatted result
+   */
+  final String compute(
+    DirectedWeightedGraph graph,
+    String rawInput,
+    QueryBudget budget
+  ) {
+    return execute(graph, new QueryParser().parse(this, rawInput), budget);
+  }
+
+  /**
+   * Executes the query like {@link #execute(DirectedWeightedGraph, Query, QueryBudget)} and appends the plan of the
+   * {@link QueryPlanner}, comparing the estimated with the actual work of all searches of the query.
+   *
+   * @param graph graph to query
+   * @param query parsed arguments of this mode
+   * @param budget limits of the executed search, ignored by modes without a search
+   * @return formatted result, followed by the explained plan
+   */
+  final String explain(
+    DirectedWeightedGraph graph,
+    Query query,
+    QueryBudget budget
+  ) {
+    QueryPlan plan = QueryPlanner.plan(graph, query, budget);
+    Queue<BudgetTracker> trackers = new ConcurrentLinkedQueue<>();
+    long start = System.nanoTime();
+    String result = answer(
+      graph,
+      query,
+      plan,
+      budget.observedBy(trackers::add)
+    )
+      .toString();
+    long elapsedNanos = System.nanoTime() - start;
+    long actualWork = 0;
+    for (BudgetTracker tracker : trackers) {
+      actualWork += tracker.getExpandedStates();
+    }
+    return (
+      result +
+      StringConstant.NEW_LINE.getValue() +
+      plan.explain(actualWork, elapsedNanos)
+    );
+  }
+
+  /**
+   * Executes an already parsed query on the graph, regardless of whether it was given as text or binary, and formats
+   * its {@link #answer(DirectedWeightedGraph, Query, QueryBudget) answer}.
+   *
+   * @param graph graph to query
+   * @param query parsed arguments of this mode
+   * @param budget limits of the executed search, ignored by modes without a search
+   * @return formatted result
+   */
+  final String execute(
+    DirectedWeightedGraph graph,
+    Query query,
+    QueryBudget budget
+  ) {
+    return answer(graph, query, budget).toString();
+  }
+
+  /**
+   * Executes an already parsed query on the graph without formatting its result. The algorithm is chosen by the
+   * {@link QueryPlanner}.
+   * <p>
+   * Every query is traced as a {@link QueryEvent}. Without an active recording the event is disabled, so the
+   * searches are neither observed nor are the arguments formatted.
+   *
+   * @param graph graph to query
+   * @param query parsed arguments of this mode
+   * @param budget limits of the executed search, ignored by modes without a search
+   * @return typed result, formatted by its {@code toString()}
+   */
+  final Answer answer(
+    DirectedWeightedGraph graph,
+    Query query,
+    QueryBudget budget
+  ) {
+    return answer(graph, query, QueryPlanner.plan(graph, query, budget), budget);
+  }
+
+  private Answer answer(
+    DirectedWeightedGraph graph,
+    Query query,
+    QueryPlan plan,
+    QueryBudget budget
+  ) {
+    QueryEvent event = new QueryEvent();
+    if (!event.isEnabled()) {
+      return search(graph, query, plan, budget);
+    }
+    Queue<BudgetTracker> trackers = new ConcurrentLinkedQueue<>();
+    event.begin();
+    Answer answer = search(
+      graph,
+      query,
+      plan,
+      budget.observedBy(trackers::add)
+    );
+    event.end();
+    if (event.shouldCommit()) {
+      event.mode = number;
+      event.modeName = name();
+      event.arguments = query.toString();
+      event.resultSize = answer.size();
+      for (BudgetTracker tracker : trackers) {
+        event.expandedStates += tracker.getExpandedStates();
+        event.truncated |= tracker.isTruncated();
+      }
+      event.commit();
+    }
+    return answer;
   }
 
-  abstract String compute(DirectedWeightedGraph graph, String rawInput);
+  /**
+   * Runs the searches of this mode, see {@link #answer(DirectedWeightedGraph, Query, QueryBudget)}.
+   *
+   * @param graph graph to query
+   * @param query parsed arguments of this mode
+   * @param plan algorithm chosen by the {@link QueryPlanner}
+   * @param budget limits of the executed search, ignored by modes without a search
+   * @return typed result
+   */
+  abstract Answer search(
+    DirectedWeightedGraph graph,
+    Query query,
+    QueryPlan plan,
+    QueryBudget budget
+  );
 }
@@ -0,0 +1,112 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.Objects;
+
+/**
+ * A single change of a {@link DirectedWeightedGraph}, meant to be applied in batches via
+ * {@link DirectedWeightedGraph#apply(java.util.List)}. For example nightly road closures or traffic updates.
+ * <p>
+ * Edges are identified by their source and destination vertex, since there is at most one edge per direction.
+ */
+final class Mutation {
+
+  enum Type {
+    ADD_EDGE,
+    REMOVE_EDGE,
+    CHANGE_WEIGHT,
+  }
+
+  private final Type type;
+  private final Vertex source;
+  private final Vertex destination;
+  private final int weight;
+
+  /**
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @param weight value of the new edge
+   * @return mutation adding a not yet existing edge
+   */
+  static Mutation addEdge(Vertex source, Vertex destination, int weight) {
+    return new Mutation(Type.ADD_EDGE, source, destination, weight);
+  }
+
+  /**
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @return mutation removing an existing edge
+   */
+  static Mutation removeEdge(Vertex source, Vertex destination) {
+    return new Mutation(Type.REMOVE_EDGE, source, destination, 0);
+  }
+
+  /**
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @param weight new value of the edge
+   * @return mutation changing the weight of an existing edge
+   */
+  static Mutation changeWeight(Vertex source, Vertex destination, int weight) {
+    return new Mutation(Type.CHANGE_WEIGHT, source, destination, weight);
+  }
+
+  private Mutation(Type type, Vertex source, Vertex destination, int weight) {
+    if (source == null || destination == null) {
+      throw new NullPointerException(
+        "Vertex source and destination has to be set."
+      );
+    }
+    this.type = type;
+    this.source = source;
+    this.destination = destination;
+    this.weight = weight;
+  }
+
+  Type getType() {
+    return type;
+  }
+
+  Vertex getSource() {
+    return source;
+  }
+
+  Vertex getDestination() {
+    return destination;
+  }
+
+  /**
+   * @return new weight, meaningless for {@link Type#REMOVE_EDGE}
+   */
+  int getWeight() {
+    return weight;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    Mutation mutation = (Mutation) o;
+    return (
+      weight == mutation.weight &&
+      type == mutation.type &&
+      source.equals(mutation.source) &&
+      destination.equals(mutation.destination)
+    );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, source, destination, weight);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "[Mutation: %s '%s' --(%d)-> '%s']",
+      type,
+      source.getLabel(),
+      weight,
+      destination.getLabel()
+    );
+  }
+}
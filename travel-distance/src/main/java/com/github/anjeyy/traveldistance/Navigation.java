@@ -3,10 +3,18 @@ package com.github.anjeyy.traveldistance;
 import com.github.anjeyy.traveldistance.util.StringConstant;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.util.Arrays;
+import java.nio.file.Path;
+import java.util.Queue;
 import java.util.Scanner;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class Navigation {
 
@@ -17,6 +25,19 @@ public class Navigation {
 
   private static final Scanner input = new Scanner(System.in);
   private static final DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+  private static final QueryBudget budget = QueryBudget.fromSystemProperties();
+  private static final QueryParser parser = new QueryParser();
+  private static final boolean explain = Boolean.getBoolean(
+    "travel-distance.query.explain"
+  );
+  // all pairs travel times are never built by a query, only on request in the background
+  private static final boolean allPairs = Boolean.getBoolean(
+    "travel-distance.all-pairs"
+  );
+  // queries read while a watched graph file is reloaded, see GraphFileWatcher
+  private static final ReadWriteLock graphLock = new ReentrantReadWriteLock();
+  // progress of background work, only printed by the main thread in between queries
+  private static final Queue<String> statusLines = new ConcurrentLinkedQueue<>();
 
   public static void main(String[] args) throws IOException {
     if (args.length != 1) {
@@ -28,60 +49,183 @@ public class Navigation {
     System.out.println(
       "Starting Navigation..." + StringConstant.NEW_LINE.getValue()
     );
-    initializeGraph(args[0]);
-    System.out.println(HORIZONTAL_LINE);
-
-    Mode currentMode = Mode.START_PROGRAM;
-    while (currentMode != Mode.EXIT_PROGRAM) {
-      System.out.println(
-        "Please enter your mode with corresponding and appropriate parameters: "
-      );
-      int rawMode = input.nextInt();
-      currentMode = Mode.from(rawMode);
+    // builds the indexes in the background, stopped once navigation is closed
+    ExecutorService indexBuilder = Executors.newFixedThreadPool(
+      Runtime.getRuntime().availableProcessors(),
+      runnable -> {
+        Thread thread = new Thread(runnable, "travel-distance-index-builder");
+        thread.setDaemon(true);
+        return thread;
+      }
+    );
+    GraphFileWatcher watcher = null;
+    try {
+      watcher = initializeGraph(args[0], indexBuilder);
+      System.out.println(HORIZONTAL_LINE);
 
-      if (currentMode != Mode.EXIT_PROGRAM) {
-        String userInput = input.nextLine().trim();
-        checkUserInput(userInput, currentMode);
-        String result = currentMode.compute(graph, userInput);
+      Mode currentMode = Mode.START_PROGRAM;
+      while (currentMode != Mode.EXIT_PROGRAM) {
+        printStatusLines();
         System.out.println(
-          "MODE: " + currentMode + StringConstant.NEW_LINE.getValue()
+          "Please enter your mode with corresponding and appropriate parameters: "
         );
-        System.out.println(result);
-        System.out.println(HORIZONTAL_LINE);
+        int rawMode = input.nextInt();
+        currentMode = Mode.from(rawMode);
+
+        if (currentMode != Mode.EXIT_PROGRAM) {
+          String userInput = input.nextLine().trim();
+          checkUserInput(userInput, currentMode);
+          Query query = parser.parse(currentMode, userInput);
+          String result;
+          Lock readLock = graphLock.readLock();
+          readLock.lock();
+          try {
+            result =
+              explain
+                ? currentMode.explain(graph, query, budget)
+                : currentMode.execute(graph, query, budget);
+          } finally {
+            readLock.unlock();
+          }
+          System.out.println(
+            "MODE: " + currentMode + StringConstant.NEW_LINE.getValue()
+          );
+          System.out.println(result);
+          System.out.println(HORIZONTAL_LINE);
+        }
+      }
+    } finally {
+      indexBuilder.shutdownNow(); // pending builds are dropped, their progress is never printed
+      statusLines.clear();
+      if (watcher != null) {
+        watcher.close();
       }
     }
     System.out.println("Navigation closed...");
   }
 
-  private static void initializeGraph(String filePathForGraph)
+  /**
+   * @return watcher of the graph file, {@code null} if watching is disabled
+   */
+  private static GraphFileWatcher initializeGraph(
+    String filePathForGraph,
+    ExecutorService indexBuilder
+  )
     throws IOException {
     File graphFile = new File(filePathForGraph);
-    try (
-      Stream<String> fileStream = Files.lines(
-        graphFile.getAbsoluteFile().toPath()
+    Path graphPath = graphFile.getAbsoluteFile().toPath();
+    GraphFileLoader.load(graphPath, graph);
+    graph.compact();
+    System.out.println(graph);
+    graph
+      .buildIndexesInBackground(
+        indexBuilder,
+        (index, readyCount, totalCount, elapsedNanos) ->
+          statusLines.add(
+            String.format(
+              "Index '%s' ready (%d/%d) after %d ms.",
+              index,
+              readyCount,
+              totalCount,
+              TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+            )
+          )
       )
-    ) {
-      fileStream
-        .map(String::trim)
-        .filter(str -> !str.isBlank())
-        .map(Navigation::transform)
-        .forEach(graph::addEdge);
+      .whenComplete(
+        (ignored, failure) -> {
+          if (failure != null) {
+            statusLines.add(
+              "Building indexes failed, they are built by the next query needing them: " +
+              messageOf(failure)
+            );
+          }
+        }
+      );
+    if (allPairs) {
+      long start = System.nanoTime();
+      CompletableFuture
+        .supplyAsync(graph::calculateAllPairsTravelTimes, indexBuilder)
+        .whenComplete(
+          (matrix, failure) ->
+            statusLines.add(
+              failure == null
+                ? String.format(
+                  "All pairs travel times ready after %d ms.",
+                  TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                )
+                : "Building all pairs travel times failed: " +
+                messageOf(failure)
+            )
+        );
     }
-    System.out.println(graph);
+    if (!GraphFileWatcher.isEnabled()) {
+      return null;
+    }
+    GraphFileWatcher watcher = GraphFileWatcher.of(
+      graphPath,
+      graph,
+      graphLock,
+      new GraphFileWatcher.ReloadListener() {
+        @Override
+        public void reloaded(Path reloadedFile, int changedEdges) {
+          statusLines.add(
+            String.format(
+              "Reloaded '%s' with %d changed edges.",
+              reloadedFile,
+              changedEdges
+            )
+          );
+        }
+
+        @Override
+        public void skipped(Path reloadedFile, String line) {
+          statusLines.add(
+            String.format(
+              "Skipped line '%s' of '%s', the edge is already defined by a previous line.",
+              line,
+              reloadedFile
+            )
+          );
+        }
+
+        @Override
+        public void failed(Path reloadedFile, Exception failure) {
+          statusLines.add(
+            String.format(
+              "Reloading '%s' failed, graph stays unchanged: %s",
+              reloadedFile,
+              failure.getMessage()
+            )
+          );
+        }
+      }
+    );
+    watcher.start();
+    System.out.println("Watching graph file for changes...");
+    return watcher;
   }
 
-  private static Edge transform(String rawLine) {
-    String[] rawEdgeInput = rawLine.split(StringConstant.COMMA.getValue());
-    if (rawEdgeInput.length != 3) {
-      throw new IllegalArgumentException(
-        "Graph file is not appropriately formatted like 'source, destination, X' - but instead it was: " +
-        Arrays.toString(rawEdgeInput)
-      );
+  /**
+   * Prints the progress reported by background work since the last prompt, so that it never interleaves with the
+   * prompt or a result.
+   */
+  private static void printStatusLines() {
+    String statusLine;
+    while ((statusLine = statusLines.poll()) != null) {
+      System.out.println(statusLine);
     }
-    Vertex source = Vertex.with(rawEdgeInput[0].trim());
-    Vertex destination = Vertex.with(rawEdgeInput[1].trim());
-    int weight = Integer.parseInt(rawEdgeInput[2].trim());
-    return new Edge(source, destination, weight);
+  }
+
+  /**
+   * @param failure of background work, possibly wrapped by the {@link CompletableFuture} running it
+   * @return message of the actual failure
+   */
+  private static String messageOf(Throwable failure) {
+    Throwable cause = failure instanceof CompletionException &&
+      failure.getCause() != null
+      ? failure.getCause()
+      : failure;
+    return cause.getMessage() != null ? cause.getMessage() : cause.toString();
   }
 
   private static void checkUserInput(String userInput, Mode currentMode) {
@@ -0,0 +1,150 @@
+package com.github.anjeyy.traveldistance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link WritableEdgeStorage} outside the heap, either in direct {@link ByteBuffer buffers} or in a memory mapped
+ * temporary file. The garbage collector only sees three small buffer objects, independent of the amount of edges,
+ * so the edges neither count against the heap nor are copied during a collection.
+ * <p>
+ * Both backends are {@link WritableEdgeStorage.Backend#isPrimaryEdgeStore() primary edge stores}: between two
+ * modifications the owning graph drops its hashed adjacency lists and {@link Edge} objects, so only the vertices
+ * and their ids stay on the heap.
+ * <p>
+ * Memory is released as soon as the storage is no longer referenced. The mapped file is deleted right after
+ * mapping it, the operating system keeps its pages till they are unmapped.
+ * <p>
+ * <b>Note:</b> Every buffer is addressed by {@code int}, so a single storage is limited to
+ * {@value #MAX_ENTRIES} vertices and edges.
+ */
+final class OffHeapEdgeStorage implements WritableEdgeStorage {
+
+  static final int MAX_ENTRIES = Integer.MAX_VALUE / Integer.BYTES - 1;
+
+  private final IntBuffer offsets;
+  private final IntBuffer targets;
+  private final IntBuffer weights;
+
+  /**
+   * @param vertexCount amount of vertices
+   * @param edgeCount amount of edges
+   * @return storage in direct buffers
+   */
+  static OffHeapEdgeStorage direct(int vertexCount, int edgeCount) {
+    checkSize(vertexCount, edgeCount);
+    return new OffHeapEdgeStorage(
+      ByteBuffer.allocateDirect(bytes(vertexCount + 1)),
+      ByteBuffer.allocateDirect(bytes(edgeCount)),
+      ByteBuffer.allocateDirect(bytes(edgeCount))
+    );
+  }
+
+  /**
+   * @param vertexCount amount of vertices
+   * @param edgeCount amount of edges
+   * @return storage in a memory mapped temporary file
+   */
+  static OffHeapEdgeStorage mapped(int vertexCount, int edgeCount) {
+    checkSize(vertexCount, edgeCount);
+    try {
+      Path file = Files.createTempFile("edges-", ".csr");
+      try (
+        FileChannel channel = FileChannel.open(
+          file,
+          StandardOpenOption.READ,
+          StandardOpenOption.WRITE,
+          StandardOpenOption.DELETE_ON_CLOSE
+        )
+      ) {
+        long offsetBytes = bytes(vertexCount + 1);
+        long edgeBytes = bytes(edgeCount);
+        return new OffHeapEdgeStorage(
+          channel.map(FileChannel.MapMode.READ_WRITE, 0, offsetBytes),
+          channel.map(FileChannel.MapMode.READ_WRITE, offsetBytes, edgeBytes),
+          channel.map(
+            FileChannel.MapMode.READ_WRITE,
+            offsetBytes + edgeBytes,
+            edgeBytes
+          )
+        );
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void checkSize(int vertexCount, int edgeCount) {
+    if (vertexCount > MAX_ENTRIES || edgeCount > MAX_ENTRIES) {
+      throw new IllegalArgumentException(
+        "Please provide at most " + MAX_ENTRIES + " vertices and edges."
+      );
+    }
+  }
+
+  private static int bytes(int entries) {
+    return entries * Integer.BYTES;
+  }
+
+  private OffHeapEdgeStorage(
+    ByteBuffer offsets,
+    ByteBuffer targets,
+    ByteBuffer weights
+  ) {
+    this.offsets = offsets.order(ByteOrder.nativeOrder()).asIntBuffer();
+    this.targets = targets.order(ByteOrder.nativeOrder()).asIntBuffer();
+    this.weights = weights.order(ByteOrder.nativeOrder()).asIntBuffer();
+  }
+
+  @Override
+  public int vertexCount() {
+    return offsets.capacity() - 1;
+  }
+
+  @Override
+  public int edgeCount() {
+    return targets.capacity();
+  }
+
+  @Override
+  public int edgeStart(int vertex) {
+    return offsets.get(vertex);
+  }
+
+  @Override
+  public int edgeEnd(int vertex) {
+    return offsets.get(vertex + 1);
+  }
+
+  @Override
+  public int target(int edgeIndex) {
+    return targets.get(edgeIndex);
+  }
+
+  @Override
+  public int weight(int edgeIndex) {
+    return weights.get(edgeIndex);
+  }
+
+  @Override
+  public void setEdgeStart(int vertex, int edgeIndex) {
+    offsets.put(vertex, edgeIndex);
+  }
+
+  @Override
+  public void setTarget(int edgeIndex, int target) {
+    targets.put(edgeIndex, target);
+  }
+
+  @Override
+  public void setWeight(int edgeIndex, int weight) {
+    weights.put(edgeIndex, weight);
+  }
+}
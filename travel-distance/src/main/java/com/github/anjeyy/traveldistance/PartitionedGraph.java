@@ -0,0 +1,562 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.CollectionUtil;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link DirectedWeightedGraph} split into shards, where every shard is served by its own {@link ShardWorker}.
+ * This instance only coordinates and keeps a small <i>overlay graph</i> of the boundary vertices:
+ * <ul>
+ *   <li><i>exit</i> vertices are the sources, <i>entry</i> vertices the destinations of cut edges between shards</li>
+ *   <li>overlay edges are the cut edges from an exit to an entry and <i>shortcuts</i> from every entry to every exit
+ *   of the same shard, weighted by their shard local shortest travel time</li>
+ * </ul>
+ * A shortest route query asks the shard of the source for the travel times to its exits (and the destination),
+ * the shard of the destination for the travel times from its entries and combines both with a <i>Dijkstra</i> run
+ * on the overlay graph. Hence, every query costs at most two worker requests, independent of the route length.
+ * <p>
+ * Vertices are assigned to shards in breadth first order, so that neighbors tend to end up in the same shard.
+ * The shards are built and handed to their workers one after another, so that partitioning only needs memory for
+ * the original graph and a single shard graph, apart from the shards kept by in-process workers.
+ * <p>
+ * <b>Note:</b> The partition is a snapshot, later modifications of the original graph are not reflected.
+ * Since the overlay is searched with Dijkstra, only non-negative weights are supported.
+ */
+final class PartitionedGraph implements AutoCloseable {
+
+  private static final String NO_SUCH_ROUTE = "NO SUCH ROUTE";
+  private static final int NO_ROUTE = DistanceMatrix.NO_ROUTE;
+
+  /**
+   * Creates the worker serving a single shard, e.g. {@link LocalShardWorker#of(DirectedWeightedGraph)} or
+   * {@link SocketShardWorker#spawn(DirectedWeightedGraph)}.
+   */
+  @FunctionalInterface
+  interface WorkerFactory {
+    ShardWorker create(DirectedWeightedGraph shard) throws IOException;
+  }
+
+  private final Map<Vertex, Integer> shardOfVertex;
+  private final ShardWorker[] workers;
+  private final AtomicLong[] messageCounts;
+  private final int[] vertexCounts;
+  private final int[] edgeCounts;
+
+  // overlay graph, entries have the global ids [0, entryCount), exits [entryCount, entryCount + exitCount)
+  private final List<List<Vertex>> entries;
+  private final List<List<Vertex>> exits;
+  private final int[] entryOffset;
+  private final int[] exitOffset;
+  private final int[] shardOfEntry;
+  private final int[] cutEdgeStart;
+  private final int[] cutEdgeTarget;
+  private final int[] cutEdgeWeight;
+  private final int[][] shortcuts;
+
+  /**
+   * Partitions the graph and starts one worker per shard.
+   *
+   * @param graph graph to partition
+   * @param shardCount amount of shards
+   * @param workerFactory creates the worker of every shard
+   * @return partitioned graph, owning the workers
+   * @throws IOException if a worker cannot be created
+   * @throws IllegalStateException if the graph contains negative weights
+   */
+  static PartitionedGraph partition(
+    DirectedWeightedGraph graph,
+    int shardCount,
+    WorkerFactory workerFactory
+  ) throws IOException {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Please provide shard count >0.");
+    }
+    if (graph.hasNegativeWeights()) {
+      throw new IllegalStateException(
+        "Partitioned execution requires non-negative weights."
+      );
+    }
+    return new PartitionedGraph(graph, shardCount, workerFactory);
+  }
+
+  private PartitionedGraph(
+    DirectedWeightedGraph graph,
+    int shardCount,
+    WorkerFactory workerFactory
+  ) throws IOException {
+    GraphSnapshot snapshot = graph.snapshot();
+    int[] shardOfId = assignShards(snapshot, shardCount);
+
+    // cut edges and boundary vertices, shard graphs are only built one after another by #createWorkers
+    List<Set<Vertex>> entrySets = new ArrayList<>();
+    List<Set<Vertex>> exitSets = new ArrayList<>();
+    for (int shard = 0; shard < shardCount; shard++) {
+      entrySets.add(new LinkedHashSet<>());
+      exitSets.add(new LinkedHashSet<>());
+    }
+    shardOfVertex = new HashMap<>();
+    vertexCounts = new int[shardCount];
+    edgeCounts = new int[shardCount];
+    List<Edge> cutEdges = new ArrayList<>();
+    TargetRows rows = new TargetRows();
+    for (int vertex = 0; vertex < snapshot.vertexCount(); vertex++) {
+      int shard = shardOfId[vertex];
+      shardOfVertex.put(snapshot.vertexOf(vertex), shard);
+      vertexCounts[shard]++;
+      rows.decode(snapshot, 0, vertex);
+      for (
+        int e = snapshot.edgeStart(vertex);
+        e < snapshot.edgeEnd(vertex);
+        e++
+      ) {
+        int neighbor = rows.target(0, e);
+        if (shardOfId[neighbor] == shard) {
+          edgeCounts[shard]++;
+        } else {
+          Edge edge = new Edge(
+            snapshot.vertexOf(vertex),
+            snapshot.vertexOf(neighbor),
+            snapshot.weight(e)
+          );
+          cutEdges.add(edge);
+          exitSets.get(shard).add(edge.getSource());
+          entrySets.get(shardOfId[neighbor]).add(edge.getDestination());
+        }
+      }
+    }
+
+    // global overlay ids
+    entries = new ArrayList<>();
+    exits = new ArrayList<>();
+    entryOffset = new int[shardCount + 1];
+    exitOffset = new int[shardCount + 1];
+    for (int shard = 0; shard < shardCount; shard++) {
+      entries.add(List.copyOf(entrySets.get(shard)));
+      exits.add(List.copyOf(exitSets.get(shard)));
+      entryOffset[shard + 1] = entryOffset[shard] + entries.get(shard).size();
+      exitOffset[shard + 1] = exitOffset[shard] + exits.get(shard).size();
+    }
+    int entryCount = entryOffset[shardCount];
+    shardOfEntry = new int[entryCount];
+    for (int shard = 0; shard < shardCount; shard++) {
+      Arrays.fill(
+        shardOfEntry,
+        entryOffset[shard],
+        entryOffset[shard + 1],
+        shard
+      );
+    }
+    Map<Vertex, Integer> entryIds = overlayIds(entries);
+    Map<Vertex, Integer> exitIds = overlayIds(exits);
+
+    // cut edges as compressed sparse rows per exit
+    int exitCount = exitOffset[shardCount];
+    cutEdgeStart = new int[exitCount + 1];
+    cutEdgeTarget = new int[cutEdges.size()];
+    cutEdgeWeight = new int[cutEdges.size()];
+    for (Edge edge : cutEdges) {
+      cutEdgeStart[exitIds.get(edge.getSource()) + 1]++;
+    }
+    for (int exit = 0; exit < exitCount; exit++) {
+      cutEdgeStart[exit + 1] += cutEdgeStart[exit];
+    }
+    int[] fill = Arrays.copyOf(cutEdgeStart, exitCount);
+    for (Edge edge : cutEdges) {
+      int position = fill[exitIds.get(edge.getSource())]++;
+      cutEdgeTarget[position] = entryIds.get(edge.getDestination());
+      cutEdgeWeight[position] = edge.getWeight();
+    }
+
+    // workers and shortcuts
+    workers = new ShardWorker[shardCount];
+    messageCounts = new AtomicLong[shardCount];
+    shortcuts = new int[shardCount][];
+    try {
+      createWorkers(snapshot, shardOfId, workerFactory);
+    } catch (IOException | RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Builds the graph of one shard after another and hands it to its worker, so that besides the original graph
+   * at most a single shard graph is alive, unless in-process workers keep theirs.
+   */
+  private void createWorkers(
+    GraphSnapshot snapshot,
+    int[] shardOfId,
+    WorkerFactory workerFactory
+  ) throws IOException {
+    // vertex ids grouped by shard, in ascending order within a shard
+    int[] shardStart = new int[workers.length + 1];
+    for (int shard : shardOfId) {
+      shardStart[shard + 1]++;
+    }
+    for (int shard = 0; shard < workers.length; shard++) {
+      shardStart[shard + 1] += shardStart[shard];
+    }
+    int[] verticesByShard = new int[shardOfId.length];
+    int[] fill = Arrays.copyOf(shardStart, workers.length);
+    for (int vertex = 0; vertex < shardOfId.length; vertex++) {
+      verticesByShard[fill[shardOfId[vertex]]++] = vertex;
+    }
+
+    TargetRows rows = new TargetRows();
+    for (int shard = 0; shard < workers.length; shard++) {
+      DirectedWeightedGraph shardGraph = DirectedWeightedGraph.create();
+      List<Edge> innerEdges = new ArrayList<>(edgeCounts[shard]);
+      for (int i = shardStart[shard]; i < shardStart[shard + 1]; i++) {
+        int vertex = verticesByShard[i];
+        shardGraph.addVertex(snapshot.vertexOf(vertex));
+        rows.decode(snapshot, 0, vertex);
+        for (
+          int e = snapshot.edgeStart(vertex);
+          e < snapshot.edgeEnd(vertex);
+          e++
+        ) {
+          int neighbor = rows.target(0, e);
+          if (shardOfId[neighbor] == shard) {
+            innerEdges.add(
+              new Edge(
+                snapshot.vertexOf(vertex),
+                snapshot.vertexOf(neighbor),
+                snapshot.weight(e)
+              )
+            );
+          }
+        }
+      }
+      shardGraph.addEdges(innerEdges);
+      shardGraph.compact();
+      workers[shard] = workerFactory.create(shardGraph);
+      messageCounts[shard] = new AtomicLong();
+      shortcuts[shard] =
+        boundaryTravelTimes(shard, entries.get(shard), exits.get(shard));
+    }
+  }
+
+  /**
+   * Numbers all vertices in breadth first order and cuts the order into equally sized, contiguous ranges.
+   */
+  private static int[] assignShards(GraphSnapshot snapshot, int shardCount) {
+    int vertexCount = snapshot.vertexCount();
+    int shardSize = Math.max(1, (vertexCount + shardCount - 1) / shardCount);
+    int[] shardOfId = new int[vertexCount];
+    boolean[] visited = new boolean[vertexCount];
+    Queue<Integer> queue = new ArrayDeque<>();
+    TargetRows rows = new TargetRows();
+    int position = 0;
+    for (int root = 0; root < vertexCount; root++) {
+      if (visited[root]) {
+        continue;
+      }
+      visited[root] = true;
+      queue.offer(root);
+      while (CollectionUtil.isNotEmpty(queue)) {
+        int vertex = queue.poll();
+        shardOfId[vertex] = position++ / shardSize;
+        rows.decode(snapshot, 0, vertex);
+        for (
+          int e = snapshot.edgeStart(vertex);
+          e < snapshot.edgeEnd(vertex);
+          e++
+        ) {
+          int neighbor = rows.target(0, e);
+          if (!visited[neighbor]) {
+            visited[neighbor] = true;
+            queue.offer(neighbor);
+          }
+        }
+      }
+    }
+    return shardOfId;
+  }
+
+  private static Map<Vertex, Integer> overlayIds(
+    List<List<Vertex>> verticesPerShard
+  ) {
+    Map<Vertex, Integer> ids = new HashMap<>();
+    int id = 0;
+    for (List<Vertex> vertices : verticesPerShard) {
+      for (Vertex vertex : vertices) {
+        ids.put(vertex, id++);
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Shard local travel times between boundary vertices, where a vertex reaches itself without any edge.
+   */
+  private int[] boundaryTravelTimes(
+    int shard,
+    List<Vertex> sources,
+    List<Vertex> targets
+  ) {
+    if (sources.isEmpty() || targets.isEmpty()) {
+      return new int[0];
+    }
+    int[] travelTimes = request(shard, sources, targets);
+    for (int row = 0; row < sources.size(); row++) {
+      for (int column = 0; column < targets.size(); column++) {
+        if (sources.get(row).equals(targets.get(column))) {
+          travelTimes[row * targets.size() + column] = 0;
+        }
+      }
+    }
+    return travelTimes;
+  }
+
+  private int[] request(
+    int shard,
+    List<Vertex> sources,
+    List<Vertex> targets
+  ) {
+    messageCounts[shard].addAndGet(2); // request and response
+    return workers[shard].travelTimes(sources, targets);
+  }
+
+  int shardCount() {
+    return workers.length;
+  }
+
+  /**
+   * @return amount of boundary vertices, counting a vertex being entry and exit twice
+   */
+  int overlayVertexCount() {
+    return entryOffset[workers.length] + exitOffset[workers.length];
+  }
+
+  int cutEdgeCount() {
+    return cutEdgeTarget.length;
+  }
+
+  /**
+   * Same result as {@link DirectedWeightedGraph#calculateShortestRoute(Vertex, Vertex)} on the unpartitioned graph.
+   *
+   * @param source starting vertex
+   * @param destination ending vertex
+   * @return shortest route, if not present 'NO SUCH ROUTE'
+   */
+  String calculateShortestRoute(Vertex source, Vertex destination) {
+    Integer sourceShard = shardOfVertex.get(source);
+    Integer destinationShard = shardOfVertex.get(destination);
+    if (sourceShard == null || destinationShard == null) {
+      return NO_SUCH_ROUTE;
+    }
+    boolean sameShard = sourceShard.equals(destinationShard);
+
+    // shard local parts of the route
+    List<Vertex> sourceExits = exits.get(sourceShard);
+    List<Vertex> sourceTargets = new ArrayList<>(sourceExits);
+    if (sameShard) {
+      sourceTargets.add(destination); // route without leaving the shard
+    }
+    int[] fromSource = sourceTargets.isEmpty()
+      ? new int[0]
+      : request(sourceShard, List.of(source), sourceTargets);
+    int travelTime = sameShard ? fromSource[sourceExits.size()] : NO_ROUTE;
+    List<Vertex> destinationEntries = entries.get(destinationShard);
+    if (sourceExits.isEmpty() || destinationEntries.isEmpty()) {
+      return format(travelTime); // the shard of the source cannot be left
+    }
+    int[] toDestination = boundaryTravelTimes(
+      destinationShard,
+      destinationEntries,
+      List.of(destination)
+    );
+
+    // overlay search, which has to take at least one cut edge
+    int entryCount = entryOffset[workers.length];
+    int[] distance = new int[overlayVertexCount()];
+    Arrays.fill(distance, Integer.MAX_VALUE);
+    boolean[] settled = new boolean[distance.length];
+    Queue<int[]> queue = new PriorityQueue<>(
+      Comparator.comparingInt(entry -> entry[1])
+    );
+    for (int i = 0; i < sourceExits.size(); i++) {
+      int exitDistance = sourceExits.get(i).equals(source) ? 0 : fromSource[i];
+      if (exitDistance != NO_ROUTE) {
+        int node = entryCount + exitOffset[sourceShard] + i;
+        distance[node] = exitDistance;
+        queue.offer(new int[] { node, exitDistance });
+      }
+    }
+    while (CollectionUtil.isNotEmpty(queue)) {
+      int[] entry = queue.poll();
+      int node = entry[0];
+      int nodeDistance = entry[1];
+      if (settled[node]) {
+        continue; // outdated queue entry
+      }
+      if (nodeDistance >= travelTime) {
+        break; // no unsettled node can lead to a shorter route
+      }
+      settled[node] = true;
+
+      if (node >= entryCount) {
+        int exit = node - entryCount;
+        for (int e = cutEdgeStart[exit]; e < cutEdgeStart[exit + 1]; e++) {
+          int newDistance = nodeDistance + cutEdgeWeight[e];
+          relax(cutEdgeTarget[e], newDistance, distance, settled, queue);
+        }
+        continue;
+      }
+      int shard = shardOfEntry[node];
+      int row = node - entryOffset[shard];
+      if (shard == destinationShard && toDestination[row] != NO_ROUTE) {
+        travelTime = Math.min(travelTime, nodeDistance + toDestination[row]);
+      }
+      int exitCount = exits.get(shard).size();
+      for (int column = 0; column < exitCount; column++) {
+        int shortcut = shortcuts[shard][row * exitCount + column];
+        if (shortcut != NO_ROUTE) {
+          int exitNode = entryCount + exitOffset[shard] + column;
+          relax(exitNode, nodeDistance + shortcut, distance, settled, queue);
+        }
+      }
+    }
+    return format(travelTime);
+  }
+
+  private static void relax(
+    int node,
+    int newDistance,
+    int[] distance,
+    boolean[] settled,
+    Queue<int[]> queue
+  ) {
+    if (!settled[node] && newDistance < distance[node]) {
+      distance[node] = newDistance;
+      queue.offer(new int[] { node, newDistance });
+    }
+  }
+
+  private static String format(int travelTime) {
+    return travelTime == NO_ROUTE ? NO_SUCH_ROUTE : travelTime + " hours";
+  }
+
+  /**
+   * Queries every worker for its estimated memory, which counts as message exchange as well.
+   *
+   * @return statistics of every shard
+   */
+  List<ShardStatistics> statistics() {
+    List<ShardStatistics> statistics = new ArrayList<>();
+    for (int shard = 0; shard < workers.length; shard++) {
+      messageCounts[shard].addAndGet(2); // request and response
+      long estimatedMemory = workers[shard].estimatedMemory();
+      statistics.add(
+        new ShardStatistics(
+          shard,
+          vertexCounts[shard],
+          edgeCounts[shard],
+          entries.get(shard).size() + exits.get(shard).size(),
+          estimatedMemory,
+          messageCounts[shard].get()
+        )
+      );
+    }
+    return statistics;
+  }
+
+  @Override
+  public void close() {
+    for (ShardWorker worker : workers) {
+      if (worker != null) {
+        worker.close();
+      }
+    }
+  }
+
+  /**
+   * Immutable statistics of a single shard.
+   */
+  static final class ShardStatistics {
+
+    private final int shard;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final int boundaryVertexCount;
+    private final long estimatedMemory;
+    private final long messageCount;
+
+    private ShardStatistics(
+      int shard,
+      int vertexCount,
+      int edgeCount,
+      int boundaryVertexCount,
+      long estimatedMemory,
+      long messageCount
+    ) {
+      this.shard = shard;
+      this.vertexCount = vertexCount;
+      this.edgeCount = edgeCount;
+      this.boundaryVertexCount = boundaryVertexCount;
+      this.estimatedMemory = estimatedMemory;
+      this.messageCount = messageCount;
+    }
+
+    int getShard() {
+      return shard;
+    }
+
+    int getVertexCount() {
+      return vertexCount;
+    }
+
+    /**
+     * @return amount of edges inside the shard, cut edges are part of the overlay
+     */
+    int getEdgeCount() {
+      return edgeCount;
+    }
+
+    /**
+     * @return amount of entry and exit vertices, a vertex being both is counted twice
+     */
+    int getBoundaryVertexCount() {
+      return boundaryVertexCount;
+    }
+
+    /**
+     * @return memory estimated by the worker in bytes, see {@link ShardWorker#estimatedMemory()}
+     */
+    long getEstimatedMemory() {
+      return estimatedMemory;
+    }
+
+    /**
+     * @return amount of messages exchanged with the worker, every request and every response counts
+     */
+    long getMessageCount() {
+      return messageCount;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+        "[Shard %d: vertices=%d, edges=%d, boundary=%d, estimated memory=%d bytes, messages=%d]",
+        shard,
+        vertexCount,
+        edgeCount,
+        boundaryVertexCount,
+        estimatedMemory,
+        messageCount
+      );
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed arguments of a single {@link Mode}, independent of their wire format. Text input is parsed by the
+ * {@link QueryParser}, binary input by the {@link BinaryQueryCodec}, both are executed via
+ * {@link Mode#execute(DirectedWeightedGraph, Query, QueryBudget)}.
+ * <p>
+ * <b>Note:</b> A query is mutable and meant to be reused for the next input, so that parsing does not allocate.
+ * Lists handed out are views, only valid till the query is filled again.
+ */
+final class Query {
+
+  /** Vertex count of shapes accepting any amount of vertices. */
+  static final int ANY = -1;
+
+  /**
+   * Kind of arguments a {@link Mode} expects.
+   */
+  enum Shape {
+    /** no arguments at all */
+    NONE(0, false),
+    /** any amount of vertices */
+    ROUTE(ANY, false),
+    /** a single vertex and a limit */
+    SOURCE_WITH_LIMIT(1, true),
+    /** source and destination */
+    PAIR(2, false),
+    /** source, destination and a limit */
+    PAIR_WITH_LIMIT(2, true),
+    /** sources and targets, separated by a semicolon */
+    MATRIX(ANY, false);
+
+    private final int vertexCount;
+    private final boolean limited;
+
+    Shape(int vertexCount, boolean limited) {
+      this.vertexCount = vertexCount;
+      this.limited = limited;
+    }
+
+    /**
+     * @param vertexCount amount of given vertices
+     * @return true if the amount fits to this shape
+     */
+    boolean accepts(int vertexCount) {
+      return this.vertexCount == ANY || this.vertexCount == vertexCount;
+    }
+
+    /**
+     * @return fixed amount of vertices, {@link Query#ANY} for a list
+     */
+    int getVertexCount() {
+      return vertexCount;
+    }
+
+    /**
+     * @return true if the last argument is an integer limit
+     */
+    boolean isLimited() {
+      return limited;
+    }
+  }
+
+  private final List<Vertex> vertices = new ArrayList<>();
+  private Mode mode;
+  private int sourceCount;
+  private int limit;
+
+  /**
+   * Empties the query for the next input.
+   *
+   * @param mode mode of the next input
+   * @return this query
+   */
+  Query reset(Mode mode) {
+    this.mode = mode;
+    vertices.clear();
+    sourceCount = 0;
+    limit = 0;
+    return this;
+  }
+
+  void addVertex(Vertex vertex) {
+    vertices.add(vertex);
+  }
+
+  /**
+   * Marks all vertices added so far as sources of a {@link Shape#MATRIX matrix}.
+   */
+  void markSources() {
+    sourceCount = vertices.size();
+  }
+
+  void setLimit(int limit) {
+    this.limit = limit;
+  }
+
+  Mode getMode() {
+    return mode;
+  }
+
+  int vertexCount() {
+    return vertices.size();
+  }
+
+  Vertex vertex(int index) {
+    return vertices.get(index);
+  }
+
+  Vertex source() {
+    return vertex(0);
+  }
+
+  Vertex destination() {
+    return vertex(1);
+  }
+
+  /**
+   * @return all vertices in the given order
+   */
+  List<Vertex> vertices() {
+    return vertices;
+  }
+
+  /**
+   * @return vertices before the separator of a {@link Shape#MATRIX matrix}
+   */
+  List<Vertex> sources() {
+    return vertices.subList(0, sourceCount);
+  }
+
+  /**
+   * @return vertices after the separator of a {@link Shape#MATRIX matrix}
+   */
+  List<Vertex> targets() {
+    return vertices.subList(sourceCount, vertices.size());
+  }
+
+  int sourceCount() {
+    return sourceCount;
+  }
+
+  /**
+   * @return max stops, exact stops or max time, depending on the mode
+   */
+  int getLimit() {
+    return limit;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "[Query: mode=%s, vertices=%s, limit=%d]",
+      mode,
+      vertices,
+      limit
+    );
+  }
+}
@@ -0,0 +1,219 @@
+package com.github.anjeyy.traveldistance;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Immutable description of how much work a single search inside {@link DirectedWeightedGraph} may spend.<br>
+ * A budget consists of three independent limits, each of them being <i>unlimited</i> by default:
+ * <ul>
+ *   <li>a wall-clock timeout, measured from the start of the search</li>
+ *   <li>a maximum amount of expanded states (e.g. dequeued paths or settled vertices)</li>
+ *   <li>a maximum amount of collected results</li>
+ * </ul>
+ * <p>
+ * <b>Note:</b> A budget is only a description, every search creates its own {@link BudgetTracker}
+ * via {@link #start()}, so one budget can be shared between several queries.
+ */
+final class QueryBudget {
+
+  private static final String PROPERTY_PREFIX = "travel-distance.query.";
+  private static final QueryBudget UNLIMITED = new QueryBudget(
+    null,
+    Long.MAX_VALUE,
+    Integer.MAX_VALUE,
+    null
+  );
+
+  private final Duration timeout;
+  private final long maxExpandedStates;
+  private final int maxResults;
+  private final Consumer<BudgetTracker> observer;
+
+  /**
+   * Static factory method for a budget without any limits, which is the default for every search.
+   *
+   * @return budget without any limits
+   */
+  static QueryBudget unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * Reads the optional system properties {@code travel-distance.query.timeout-ms},
+   * {@code travel-distance.query.max-expanded-states} and {@code travel-distance.query.max-results}.
+   * Every property which is not present stays unlimited.
+   *
+   * @return budget configured by system properties
+   */
+  static QueryBudget fromSystemProperties() {
+    QueryBudget budget = unlimited();
+    String timeout = System.getProperty(PROPERTY_PREFIX + "timeout-ms");
+    if (timeout != null) {
+      budget = budget.withTimeout(Duration.ofMillis(Long.parseLong(timeout)));
+    }
+    String maxExpandedStates = System.getProperty(
+      PROPERTY_PREFIX + "max-expanded-states"
+    );
+    if (maxExpandedStates != null) {
+      budget = budget.withMaxExpandedStates(Long.parseLong(maxExpandedStates));
+    }
+    String maxResults = System.getProperty(PROPERTY_PREFIX + "max-results");
+    if (maxResults != null) {
+      budget = budget.withMaxResults(Integer.parseInt(maxResults));
+    }
+    return budget;
+  }
+
+  private QueryBudget(
+    Duration timeout,
+    long maxExpandedStates,
+    int maxResults,
+    Consumer<BudgetTracker> observer
+  ) {
+    this.timeout = timeout;
+    this.maxExpandedStates = maxExpandedStates;
+    this.maxResults = maxResults;
+    this.observer = observer;
+  }
+
+  /**
+   * @param timeout wall-clock time a search may run, has to be positive
+   * @return copy of this budget with the given timeout
+   */
+  QueryBudget withTimeout(Duration timeout) {
+    Objects.requireNonNull(timeout, "Timeout has to be set.");
+    if (timeout.isNegative() || timeout.isZero()) {
+      throw new IllegalArgumentException("Please provide a timeout >0.");
+    }
+    return new QueryBudget(
+      timeout,
+      maxExpandedStates,
+      maxResults,
+      observer
+    );
+  }
+
+  /**
+   * @param maxExpandedStates maximum amount of states a search may expand, has to be positive
+   * @return copy of this budget with the given expansion limit
+   */
+  QueryBudget withMaxExpandedStates(long maxExpandedStates) {
+    if (maxExpandedStates < 1) {
+      throw new IllegalArgumentException(
+        "Please provide max expanded states >0."
+      );
+    }
+    return new QueryBudget(
+      timeout,
+      maxExpandedStates,
+      maxResults,
+      observer
+    );
+  }
+
+  /**
+   * @param maxResults maximum amount of results a search may collect, has to be positive
+   * @return copy of this budget with the given result limit
+   */
+  QueryBudget withMaxResults(int maxResults) {
+    if (maxResults < 1) {
+      throw new IllegalArgumentException("Please provide max results >0.");
+    }
+    return new QueryBudget(
+      timeout,
+      maxExpandedStates,
+      maxResults,
+      observer
+    );
+  }
+
+  /**
+   * Hands every tracker started from the returned budget to an observer, e.g. to sum up the work of a query
+   * consisting of several searches. The observer has to be thread-safe for parallel searches.
+   * An already registered observer keeps being notified first.
+   *
+   * @param observer notified with every started tracker
+   * @return copy of this budget with the given observer
+   */
+  QueryBudget observedBy(Consumer<BudgetTracker> observer) {
+    Objects.requireNonNull(observer, "Observer has to be set.");
+    return new QueryBudget(
+      timeout,
+      maxExpandedStates,
+      maxResults,
+      this.observer == null ? observer : this.observer.andThen(observer)
+    );
+  }
+
+  /**
+   * @return maximum amount of states a search may expand, {@link Long#MAX_VALUE} if unlimited
+   */
+  long getMaxExpandedStates() {
+    return maxExpandedStates;
+  }
+
+  /**
+   * @return maximum amount of results a search may collect, {@link Integer#MAX_VALUE} if unlimited
+   */
+  int getMaxResults() {
+    return maxResults;
+  }
+
+  /**
+   * @return true if a search is stopped after a wall-clock timeout
+   */
+  boolean hasTimeout() {
+    return timeout != null;
+  }
+
+  /**
+   * Starts the clock for a single search.
+   *
+   * @return fresh tracker for exactly one search
+   */
+  BudgetTracker start() {
+    long deadline = timeout == null
+      ? Long.MAX_VALUE
+      : System.nanoTime() + timeout.toNanos();
+    BudgetTracker tracker = new BudgetTracker(
+      timeout != null,
+      deadline,
+      maxExpandedStates,
+      maxResults
+    );
+    if (observer != null) {
+      observer.accept(tracker);
+    }
+    return tracker;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    QueryBudget that = (QueryBudget) o;
+    return (
+      maxExpandedStates == that.maxExpandedStates &&
+      maxResults == that.maxResults &&
+      Objects.equals(timeout, that.timeout) &&
+      Objects.equals(observer, that.observer)
+    );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(timeout, maxExpandedStates, maxResults, observer);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "[Query budget: timeout=%s, maxExpandedStates=%d, maxResults=%d]",
+      timeout,
+      maxExpandedStates,
+      maxResults
+    );
+  }
+}
@@ -0,0 +1,48 @@
+package com.github.anjeyy.traveldistance;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * <i>Java Flight Recorder</i> event of a single query answered by a {@link Mode}, so that slow queries can be
+ * correlated with GC and CPU activity of the same recording. Its duration spans all searches of the query.
+ * <p>
+ * <b>Note:</b> Fields are only filled if the event is {@link #shouldCommit() committed}, so a JVM without an
+ * active recording neither formats the arguments nor observes the searches.
+ */
+@Name(QueryEvent.NAME)
+@Label("Query")
+@Category({ "Travel Distance", "Query" })
+@Description("Query answered by a mode, together with the work of its searches")
+@StackTrace(false)
+final class QueryEvent extends Event {
+
+  static final String NAME = "com.github.anjeyy.traveldistance.Query";
+
+  @Label("Mode")
+  @Description("Number of the answered mode")
+  int mode;
+
+  @Label("Mode Name")
+  String modeName;
+
+  @Label("Arguments")
+  @Description("Parsed vertices and limit of the query")
+  String arguments;
+
+  @Label("Result Size")
+  @Description("Amount of routes, reachable vertices or travel times of the answer")
+  long resultSize;
+
+  @Label("Expanded States")
+  @Description("Expanded states summed up over all searches of the query")
+  long expandedStates;
+
+  @Label("Truncated")
+  @Description("True if a search was limited by its query budget")
+  boolean truncated;
+}
@@ -0,0 +1,272 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.StringConstant;
+
+/**
+ * Reusable parser of the raw user input after the mode number, e.g. {@code 'Solar System, Vega, 3'}.
+ * <p>
+ * The input is tokenized in place by index, so neither regular expressions nor substrings are involved.
+ * Vertices are looked up in an interning table by their case-insensitive label, so that a known vertex is
+ * resolved without creating a new {@link Vertex}. Hence, once all queried vertices are known, parsing does not
+ * allocate anymore.
+ * <p>
+ * <b>Note:</b> A parser, like its {@link Query}, must only be used by one thread at a time.
+ */
+final class QueryParser {
+
+  private static final char COMMA = StringConstant.COMMA.getValue().charAt(0);
+  private static final char SEMICOLON = StringConstant.SEMICOLON
+    .getValue()
+    .charAt(0);
+  private static final int INITIAL_CAPACITY = 64; // power of two
+  private static final int MAX_INTERNED = 1 << 16; // bounds the table for arbitrary unknown labels
+
+  private final Query query = new Query();
+  private Vertex[] interned = new Vertex[INITIAL_CAPACITY];
+  private int internedCount;
+
+  /**
+   * Parses the raw input according to the {@link Query.Shape shape} of the mode.
+   *
+   * @throws IllegalArgumentException if the amount of arguments does not match the mode
+   * @throws NumberFormatException if the limit is not an integer
+   *
+   * @param mode mode the input belongs to
+   * @param rawInput raw user input after the mode number
+   * @return parsed query, reused by the next call
+   */
+  Query parse(Mode mode, CharSequence rawInput) {
+    query.reset(mode);
+    int length = rawInput.length();
+    switch (mode.getShape()) {
+      case NONE:
+        break;
+      case ROUTE:
+        parseVertexList(mode, rawInput, 0, length);
+        break;
+      case MATRIX:
+        int separator = indexOf(rawInput, SEMICOLON, 0, length);
+        if (
+          separator == length ||
+          indexOf(rawInput, SEMICOLON, separator + 1, length) != length
+        ) {
+          throw invalidArguments(mode, rawInput);
+        }
+        parseVertexList(mode, rawInput, 0, separator);
+        query.markSources();
+        parseVertexList(mode, rawInput, separator + 1, length);
+        break;
+      default:
+        parseFixedArguments(mode, rawInput, length);
+    }
+    return query;
+  }
+
+  private void parseFixedArguments(Mode mode, CharSequence rawInput, int end) {
+    Query.Shape shape = mode.getShape();
+    int vertexCount = shape.getVertexCount();
+    int argumentCount = vertexCount + (shape.isLimited() ? 1 : 0);
+    int start = 0;
+    for (int argument = 0; argument < argumentCount; argument++) {
+      if (start > end) {
+        throw invalidArguments(mode, rawInput); // too few arguments
+      }
+      int separator = indexOf(rawInput, COMMA, start, end);
+      if (argument < vertexCount) {
+        query.addVertex(vertex(rawInput, start, separator));
+      } else {
+        query.setLimit(parseInt(rawInput, start, separator));
+      }
+      start = separator + 1;
+    }
+    if (start <= end) {
+      throw invalidArguments(mode, rawInput); // too many arguments
+    }
+  }
+
+  /**
+   * Comma separated vertices, blank entries are skipped.
+   */
+  private void parseVertexList(
+    Mode mode,
+    CharSequence rawInput,
+    int start,
+    int end
+  ) {
+    while (start <= end) {
+      int separator = indexOf(rawInput, COMMA, start, end);
+      int tokenStart = trimStart(rawInput, start, separator);
+      int tokenEnd = trimEnd(rawInput, tokenStart, separator);
+      if (tokenStart < tokenEnd) {
+        query.addVertex(vertex(rawInput, tokenStart, tokenEnd));
+      }
+      start = separator + 1;
+    }
+  }
+
+  /**
+   * Parses a decimal integer, surrounded by optional whitespaces, like {@link Integer#parseInt(String)}.
+   */
+  private static int parseInt(CharSequence rawInput, int start, int end) {
+    int tokenStart = trimStart(rawInput, start, end);
+    int tokenEnd = trimEnd(rawInput, tokenStart, end);
+    int position = tokenStart;
+    boolean negative = false;
+    if (
+      position < tokenEnd &&
+      (rawInput.charAt(position) == '-' || rawInput.charAt(position) == '+')
+    ) {
+      negative = rawInput.charAt(position) == '-';
+      position++;
+    }
+    if (position == tokenEnd) {
+      throw invalidNumber(rawInput, tokenStart, tokenEnd);
+    }
+    // accumulated negatively, so that Integer.MIN_VALUE fits
+    int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+    int result = 0;
+    for (; position < tokenEnd; position++) {
+      int digit = Character.digit(rawInput.charAt(position), 10);
+      if (digit < 0 || result < limit / 10) {
+        throw invalidNumber(rawInput, tokenStart, tokenEnd);
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        throw invalidNumber(rawInput, tokenStart, tokenEnd);
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+  /**
+   * Resolves the trimmed label between {@code start} and {@code end} to an interned {@link Vertex}.
+   */
+  private Vertex vertex(CharSequence rawInput, int start, int end) {
+    int labelStart = trimStart(rawInput, start, end);
+    int labelEnd = trimEnd(rawInput, labelStart, end);
+    int hash = 0; // equals String#hashCode of the lower case label
+    for (int i = labelStart; i < labelEnd; i++) {
+      hash = 31 * hash + Character.toLowerCase(rawInput.charAt(i));
+    }
+    int mask = interned.length - 1;
+    int slot = mix(hash) & mask;
+    for (Vertex candidate; (candidate = interned[slot]) != null;) {
+      if (matches(candidate, rawInput, labelStart, labelEnd)) {
+        return candidate;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    Vertex vertex = Vertex.with(
+      rawInput.subSequence(labelStart, labelEnd).toString()
+    );
+    if (!matches(vertex, rawInput, labelStart, labelEnd)) {
+      return vertex; // lower case of the label differs per character, not worth to intern
+    }
+    if (internedCount == MAX_INTERNED) {
+      interned = new Vertex[INITIAL_CAPACITY];
+      internedCount = 0;
+    }
+    intern(vertex, hash);
+    return vertex;
+  }
+
+  private void intern(Vertex vertex, int hash) {
+    if (2 * (internedCount + 1) > interned.length) {
+      Vertex[] oldInterned = interned;
+      interned = new Vertex[oldInterned.length * 2];
+      internedCount = 0;
+      for (Vertex oldVertex : oldInterned) {
+        if (oldVertex != null) {
+          intern(oldVertex, oldVertex.getLabel().hashCode());
+        }
+      }
+    }
+    int mask = interned.length - 1;
+    int slot = mix(hash) & mask;
+    while (interned[slot] != null) {
+      slot = (slot + 1) & mask;
+    }
+    interned[slot] = vertex;
+    internedCount++;
+  }
+
+  private static boolean matches(
+    Vertex vertex,
+    CharSequence rawInput,
+    int start,
+    int end
+  ) {
+    String label = vertex.getLabel();
+    if (label.length() != end - start) {
+      return false;
+    }
+    for (int i = 0; i < label.length(); i++) {
+      char expected = Character.toLowerCase(rawInput.charAt(start + i));
+      if (label.charAt(i) != expected) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * @return index of the first {@code character} in {@code [start, end)}, {@code end} if there is none
+   */
+  private static int indexOf(
+    CharSequence rawInput,
+    char character,
+    int start,
+    int end
+  ) {
+    for (int i = start; i < end; i++) {
+      if (rawInput.charAt(i) == character) {
+        return i;
+      }
+    }
+    return end;
+  }
+
+  private static int trimStart(CharSequence rawInput, int start, int end) {
+    while (start < end && rawInput.charAt(start) <= ' ') {
+      start++;
+    }
+    return start;
+  }
+
+  private static int trimEnd(CharSequence rawInput, int start, int end) {
+    while (end > start && rawInput.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return end;
+  }
+
+  private static IllegalArgumentException invalidArguments(
+    Mode mode,
+    CharSequence rawInput
+  ) {
+    return new IllegalArgumentException(
+      String.format(
+        "MODE '%s' need %s. Yours was: '%s'.",
+        mode,
+        mode.getExpectedArguments(),
+        rawInput
+      )
+    );
+  }
+
+  private static NumberFormatException invalidNumber(
+    CharSequence rawInput,
+    int start,
+    int end
+  ) {
+    return new NumberFormatException(
+      "For input string: \"" + rawInput.subSequence(start, end) + "\""
+    );
+  }
+}
@@ -0,0 +1,116 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.StringConstant;
+import java.util.Locale;
+
+/**
+ * Algorithm chosen by the {@link QueryPlanner} for a single {@link Query}, together with its estimated work in
+ * expanded states, the same unit a {@link BudgetTracker} counts.
+ */
+final class QueryPlan {
+
+  /**
+   * Algorithms answering a {@link Mode}.
+   */
+  enum Strategy {
+    ROUTE_LOOKUP("edge lookups along the given route"),
+    BFS_ENUMERATION("breadth first enumeration of all routes"),
+    DFS_ENUMERATION("depth first enumeration of all routes, ordered by hops"),
+    EXACT_HOP_DFS("depth first search, pruned by exact hop reachability"),
+    HOT_SOURCE_LOOKUP("lookup in a maintained shortest-path tree"),
+    ALL_PAIRS_LOOKUP("lookup in cached all pairs travel times"),
+    DIJKSTRA("dijkstra search"),
+    JOHNSON_DIJKSTRA("dijkstra search on weights reduced by potentials"),
+    DIJKSTRA_ROWS("one dijkstra search per source, hot sources are looked up"),
+    BELLMAN_FORD_ROUNDS("one bellman-ford round per stop"),
+    DIJKSTRA_ISOCHRONE("dijkstra search, stopping beyond the travel time"),
+    DYNAMIC_PROGRAM_COUNT("dynamic program over (travel time, vertex)"),
+    ENUMERATION_COUNT("counting enumerated routes"),
+    NONE("nothing to execute");
+
+    private final String description;
+
+    Strategy(String description) {
+      this.description = description;
+    }
+
+    String getDescription() {
+      return description;
+    }
+  }
+
+  private final Strategy strategy;
+  private final long estimatedWork;
+  private final String reason;
+
+  private QueryPlan(Strategy strategy, long estimatedWork, String reason) {
+    this.strategy = strategy;
+    this.estimatedWork = estimatedWork;
+    this.reason = reason;
+  }
+
+  /**
+   * @param strategy chosen algorithm
+   * @param estimatedWork estimated expanded states, {@link Long#MAX_VALUE} if unbounded
+   * @param reason why the algorithm was chosen
+   * @return plan of a single query
+   */
+  static QueryPlan of(Strategy strategy, long estimatedWork, String reason) {
+    if (strategy == null || reason == null) {
+      throw new NullPointerException("Strategy and reason have to be set.");
+    }
+    return new QueryPlan(strategy, estimatedWork, reason);
+  }
+
+  Strategy getStrategy() {
+    return strategy;
+  }
+
+  long getEstimatedWork() {
+    return estimatedWork;
+  }
+
+  String getReason() {
+    return reason;
+  }
+
+  /**
+   * @param actualWork expanded states of all searches of the executed query
+   * @param elapsedNanos wall-clock time of the executed query
+   * @return human readable plan, compared with the actual work
+   */
+  String explain(long actualWork, long elapsedNanos) {
+    String newLine = StringConstant.NEW_LINE.getValue();
+    return (
+      "PLAN: " +
+      strategy +
+      " - " +
+      strategy.getDescription() +
+      newLine +
+      "REASON: " +
+      reason +
+      newLine +
+      String.format(
+        Locale.ROOT,
+        "WORK: estimated %s states, actual %d states in %.3f ms",
+        formatWork(estimatedWork),
+        actualWork,
+        elapsedNanos / 1_000_000.0
+      )
+    );
+  }
+
+  static String formatWork(long work) {
+    return work == Long.MAX_VALUE ? "unbounded" : Long.toString(work);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "[Query plan: strategy=%s, estimatedWork=%s, reason=%s]",
+      strategy,
+      formatWork(estimatedWork),
+      reason
+    );
+  }
+}
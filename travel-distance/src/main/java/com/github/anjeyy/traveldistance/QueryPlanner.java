@@ -0,0 +1,308 @@
+package com.github.anjeyy.traveldistance;
+
+/**
+ * Cost-based planner choosing the algorithm of a single {@link Query}, based on cheap {@link GraphStatistics},
+ * the built indexes of the graph and the {@link QueryBudget}. Statistics are only fetched by modes estimating
+ * enumerations, all other modes only need the vertex count of the snapshot.
+ * <p>
+ * Work is estimated in expanded states, so that it can be compared with the budget and the actual work:
+ * <ul>
+ *   <li>a dijkstra search settles at most every vertex once</li>
+ *   <li>a route enumeration grows with the average out-degree per hop, bounded by the vertex count on acyclic
+ *   graphs</li>
+ *   <li>the counting dynamic program visits at most every {@code (travel time, vertex)} pair once</li>
+ * </ul>
+ * Estimates are upper bounds for a uniform graph, so the actual work is usually smaller.
+ * <p>
+ * Planning never changes the graph: hot source trees and all pairs travel times are only checked for presence,
+ * they are neither rebuilt nor computed before the plan is executed. All pairs travel times are never built for a
+ * query, since {@code O(V^3)} would block modifications of the graph for the whole build. They are only looked up,
+ * once built on request, see {@link DirectedWeightedGraph#calculateAllPairsTravelTimes()}.
+ */
+final class QueryPlanner {
+
+  // states a breadth first enumeration holds at once, beyond that only a depth first search keeps memory bounded
+  static final long MAX_BFS_STATES = 1L << 20;
+
+  private QueryPlanner() {
+    throw new UnsupportedOperationException(
+      String.format("No instance of '%s' allowed.", getClass())
+    );
+  }
+
+  /**
+   * @param graph graph to query
+   * @param query parsed query
+   * @param budget limits of the query
+   * @return chosen algorithm with its estimated work
+   */
+  static QueryPlan plan(
+    DirectedWeightedGraph graph,
+    Query query,
+    QueryBudget budget
+  ) {
+    QueryPlan plan = choosePlan(graph, query, budget);
+    if (plan.getEstimatedWork() <= budget.getMaxExpandedStates()) {
+      return plan;
+    }
+    return QueryPlan.of(
+      plan.getStrategy(),
+      plan.getEstimatedWork(),
+      plan.getReason() +
+      String.format(
+        ", estimate exceeds the budget of %d expanded states, result may be truncated",
+        budget.getMaxExpandedStates()
+      )
+    );
+  }
+
+  private static QueryPlan choosePlan(
+    DirectedWeightedGraph graph,
+    Query query,
+    QueryBudget budget
+  ) {
+    if (query.getMode() == Mode.TRAVEL_TIME_CERTAIN_ROUTE) {
+      return QueryPlan.of(
+        QueryPlan.Strategy.ROUTE_LOOKUP,
+        0,
+        "one hashed edge lookup per hop, no search"
+      );
+    }
+    int vertexCount = graph.snapshot().vertexCount();
+    GraphStatistics statistics; // only fetched by the modes estimating an enumeration
+    switch (query.getMode()) {
+      case FIND_ROUTES_WITH_MAX_STOPS:
+        statistics = graph.statistics();
+        return planEnumeration(
+          statistics,
+          enumerationEstimate(statistics, query.getLimit()),
+          budget
+        );
+      case FIND_ROUTES_WITH_EXACT_STOPS:
+        statistics = graph.statistics();
+        long hops = query.getLimit() + 1L;
+        return QueryPlan.of(
+          QueryPlan.Strategy.EXACT_HOP_DFS,
+          enumerationEstimate(statistics, hops),
+          String.format(
+            "only branches reaching the destination in the remaining hops are entered, the reachability takes %s edge visits",
+            QueryPlan.formatWork(
+              saturate((double) hops * statistics.getEdgeCount())
+            )
+          )
+        );
+      case TRAVEL_TIME_SHORTEST_PATH:
+        if (graph.isHotSource(query.source())) {
+          return QueryPlan.of(
+            QueryPlan.Strategy.HOT_SOURCE_LOOKUP,
+            0,
+            "source is registered as hot source"
+          );
+        }
+        if (graph.hasAllPairsTravelTimes()) {
+          return QueryPlan.of(
+            QueryPlan.Strategy.ALL_PAIRS_LOOKUP,
+            0,
+            "all pairs travel times are already computed"
+          );
+        }
+        return planDijkstra(graph, vertexCount);
+      case TRAVEL_TIME_WITH_MAX_TIME:
+        statistics = graph.statistics();
+        return planEnumeration(
+          statistics,
+          enumerationEstimate(
+            statistics,
+            maxHops(statistics, query.getLimit())
+          ),
+          budget
+        );
+      case TRAVEL_TIME_MATRIX:
+        return planMatrix(graph, query, vertexCount);
+      case TRAVEL_TIME_SHORTEST_PATH_WITH_MAX_STOPS:
+        long rounds = query.getLimit() + 1L;
+        return QueryPlan.of(
+          QueryPlan.Strategy.BELLMAN_FORD_ROUNDS,
+          saturate((double) rounds * vertexCount),
+          "stop limited routes do not fit dijkstra, " +
+          rounds +
+          " rounds instead of enumerating routes"
+        );
+      case REACHABLE_WITH_MAX_TIME:
+        return QueryPlan.of(
+          QueryPlan.Strategy.DIJKSTRA_ISOCHRONE,
+          vertexCount,
+          "every vertex is settled at most once"
+        );
+      case COUNT_ROUTES_WITH_MAX_TIME:
+        return planRouteCount(graph.statistics(), query.getLimit());
+      default:
+        return QueryPlan.of(QueryPlan.Strategy.NONE, 0, "no search");
+    }
+  }
+
+  private static QueryPlan planDijkstra(
+    DirectedWeightedGraph graph,
+    int vertexCount
+  ) {
+    if (!graph.hasNegativeWeights()) {
+      return QueryPlan.of(
+        QueryPlan.Strategy.DIJKSTRA,
+        vertexCount,
+        "no negative weights"
+      );
+    }
+    return QueryPlan.of(
+      QueryPlan.Strategy.JOHNSON_DIJKSTRA,
+      vertexCount,
+      graph.hasPotentials()
+        ? "negative weights, potentials are already computed"
+        : "negative weights, potentials are computed first by bellman-ford in O(V * E)"
+    );
+  }
+
+  /**
+   * Breadth first, unless more states than {@link #MAX_BFS_STATES} would be held at once. A limited amount of
+   * results keeps the breadth first search, so that the routes with the fewest hops are found first.
+   */
+  private static QueryPlan planEnumeration(
+    GraphStatistics statistics,
+    long estimatedWork,
+    QueryBudget budget
+  ) {
+    String reason = enumerationReason(statistics);
+    if (estimatedWork <= MAX_BFS_STATES) {
+      return QueryPlan.of(
+        QueryPlan.Strategy.BFS_ENUMERATION,
+        estimatedWork,
+        reason
+      );
+    }
+    if (budget.getMaxResults() != Integer.MAX_VALUE) {
+      return QueryPlan.of(
+        QueryPlan.Strategy.BFS_ENUMERATION,
+        estimatedWork,
+        reason + ", limited results keep the fewest hops first"
+      );
+    }
+    return QueryPlan.of(
+      QueryPlan.Strategy.DFS_ENUMERATION,
+      estimatedWork,
+      reason +
+      ", depth first only holds the current route instead of up to " +
+      MAX_BFS_STATES +
+      " states"
+    );
+  }
+
+  /**
+   * Looks up cached all pairs travel times, otherwise searches one row per source not being a hot source.
+   */
+  private static QueryPlan planMatrix(
+    DirectedWeightedGraph graph,
+    Query query,
+    int vertexCount
+  ) {
+    if (graph.hasAllPairsTravelTimes()) {
+      return QueryPlan.of(
+        QueryPlan.Strategy.ALL_PAIRS_LOOKUP,
+        0,
+        "all pairs travel times are already computed"
+      );
+    }
+    int hotSourceCount = 0;
+    for (Vertex source : query.sources()) {
+      if (graph.isHotSource(source)) {
+        hotSourceCount++;
+      }
+    }
+    int searchCount = query.sourceCount() - hotSourceCount;
+    return QueryPlan.of(
+      QueryPlan.Strategy.DIJKSTRA_ROWS,
+      (long) searchCount * vertexCount,
+      String.format(
+        "%d of %d sources are looked up as hot sources",
+        hotSourceCount,
+        query.sourceCount()
+      )
+    );
+  }
+
+  /**
+   * Counting by dynamic program, unless enumerating is estimated to be cheaper, e.g. on an acyclic graph with
+   * few routes but a huge travel time.
+   */
+  private static QueryPlan planRouteCount(
+    GraphStatistics statistics,
+    int maxTime
+  ) {
+    long enumerationWork = enumerationEstimate(
+      statistics,
+      maxHops(statistics, maxTime)
+    );
+    if (statistics.getMinWeight() < 1) {
+      return QueryPlan.of(
+        QueryPlan.Strategy.ENUMERATION_COUNT,
+        enumerationWork,
+        "dynamic program requires positive weights"
+      );
+    }
+    long dynamicProgramWork = saturate(
+      (double) Math.max(0, maxTime) * statistics.getVertexCount()
+    );
+    if (enumerationWork < dynamicProgramWork) {
+      return QueryPlan.of(
+        QueryPlan.Strategy.ENUMERATION_COUNT,
+        enumerationWork,
+        "fewer estimated states than the dynamic program with " +
+        dynamicProgramWork
+      );
+    }
+    return QueryPlan.of(
+      QueryPlan.Strategy.DYNAMIC_PROGRAM_COUNT,
+      dynamicProgramWork,
+      "fewer estimated states than enumerating with " +
+      QueryPlan.formatWork(enumerationWork)
+    );
+  }
+
+  /**
+   * @return most hops of a route below the travel time, {@link Long#MAX_VALUE} without a positive minimal weight
+   */
+  private static long maxHops(GraphStatistics statistics, int maxTime) {
+    int minWeight = statistics.getMinWeight();
+    return minWeight < 1
+      ? Long.MAX_VALUE
+      : Math.max(0, maxTime - 1) / minWeight;
+  }
+
+  /**
+   * @return routes with up to {@code hops} edges, starting at a vertex of average out-degree
+   */
+  private static long enumerationEstimate(
+    GraphStatistics statistics,
+    long hops
+  ) {
+    if (!statistics.isCyclic()) {
+      hops = Math.min(hops, Math.max(0, statistics.getVertexCount() - 1));
+    }
+    double degree = statistics.averageOutDegree();
+    if (hops == Long.MAX_VALUE) {
+      return degree == 0 ? 0 : Long.MAX_VALUE;
+    }
+    double routes = degree == 1
+      ? hops
+      : degree * (Math.pow(degree, hops) - 1) / (degree - 1);
+    return saturate(routes);
+  }
+
+  private static String enumerationReason(GraphStatistics statistics) {
+    return statistics.isCyclic()
+      ? "only enumeration lists every route, cyclic graph grows exponentially with the hops"
+      : "only enumeration lists every route, acyclic graph bounds the hops by the vertex count";
+  }
+
+  private static long saturate(double work) {
+    return work >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) Math.ceil(work);
+  }
+}
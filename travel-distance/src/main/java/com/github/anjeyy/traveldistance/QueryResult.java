@@ -0,0 +1,235 @@
+package com.github.anjeyy.traveldistance;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalInt;
+
+/**
+ * Result of a single query answered by a {@link TravelDistanceService}.
+ * <p>
+ * Besides the answer, the result tells whether a search was truncated by its {@link QueryBudget} and how many states
+ * all searches of the query have expanded. The answer is kept as primitive route data and only formatted on the
+ * first call of {@link #getText()}.
+ * <p>
+ * The typed accessors give read-only access to the answer without parsing the text, each of them is only available
+ * for the modes answering with that kind of data and throws an {@link IllegalStateException} otherwise.
+ */
+public final class QueryResult {
+
+  /** Marks a pair of source and target without any route inside {@link #getTravelTimeMatrix()}. */
+  public static final int NO_ROUTE = DistanceMatrix.NO_ROUTE;
+
+  private final int mode;
+  private final Answer answer;
+  private final boolean truncated;
+  private final long expandedStates;
+  private String text; // formatted lazily, racy single-check like String#hashCode
+
+  private QueryResult(
+    int mode,
+    Answer answer,
+    boolean truncated,
+    long expandedStates
+  ) {
+    this.mode = mode;
+    this.answer = answer;
+    this.truncated = truncated;
+    this.expandedStates = expandedStates;
+  }
+
+  static QueryResult of(
+    Mode mode,
+    Answer answer,
+    boolean truncated,
+    long expandedStates
+  ) {
+    Objects.requireNonNull(answer, "Answer has to be set.");
+    return new QueryResult(mode.getNumber(), answer, truncated, expandedStates);
+  }
+
+  /**
+   * @return number of the answered mode, e.g. {@code 4} for the shortest path
+   */
+  public int getMode() {
+    return mode;
+  }
+
+  /**
+   * @return answer formatted like on the command line
+   */
+  public String getText() {
+    String formatted = text;
+    if (formatted == null) {
+      formatted = answer.toString();
+      text = formatted;
+    }
+    return formatted;
+  }
+
+  /**
+   * @return typed answer, e.g. a {@link RouteList}
+   */
+  Answer getAnswer() {
+    return answer;
+  }
+
+  /**
+   * Available for modes {@code 1}, {@code 4} and {@code 8}.
+   *
+   * @return travel time in hours, empty if there is no route
+   */
+  public OptionalInt getTravelTime() {
+    TravelTime travelTime = answerAs(TravelTime.class, "a travel time");
+    return travelTime.exists()
+      ? OptionalInt.of(travelTime.getHours())
+      : OptionalInt.empty();
+  }
+
+  /**
+   * Available for modes {@code 2}, {@code 3} and {@code 5}, and for mode {@code 8} with its single route.
+   *
+   * @return routes in the order found, every route as vertex labels from source to destination
+   */
+  public List<List<String>> getRoutes() {
+    boolean singleRoute =
+      mode == Mode.TRAVEL_TIME_SHORTEST_PATH_WITH_MAX_STOPS.getNumber();
+    if (singleRoute) {
+      TravelTime travelTime = (TravelTime) answer;
+      return travelTime.hasRoute()
+        ? List.of(labelsOf(travelTime.route()))
+        : List.of();
+    }
+    RouteList routes = answerAs(RouteList.class, "routes");
+    List<List<String>> labels = new ArrayList<>(routes.routeCount());
+    for (int route = 0; route < routes.routeCount(); route++) {
+      labels.add(labelsOf(routes.route(route)));
+    }
+    return List.copyOf(labels);
+  }
+
+  /**
+   * Available for mode {@code 7}.
+   *
+   * @return travel times, one row per source and one column per target in the queried order, {@link #NO_ROUTE} for
+   * pairs without a route
+   */
+  public int[][] getTravelTimeMatrix() {
+    DistanceMatrix matrix = answerAs(
+      DistanceMatrix.class,
+      "a travel time matrix"
+    );
+    int[][] travelTimes = new int[matrix.rowCount()][matrix.columnCount()];
+    for (int row = 0; row < matrix.rowCount(); row++) {
+      for (int column = 0; column < matrix.columnCount(); column++) {
+        travelTimes[row][column] = matrix.travelTime(row, column);
+      }
+    }
+    return travelTimes;
+  }
+
+  /**
+   * Available for mode {@code 9}.
+   *
+   * @return labels of the reachable vertices, ordered by their earliest arrival, see {@link #getArrivalTimes()}
+   */
+  public List<String> getReachableVertices() {
+    ReachableVertices reachable = answerAs(
+      ReachableVertices.class,
+      "reachable vertices"
+    );
+    List<String> labels = new ArrayList<>((int) reachable.size());
+    for (int index = 0; index < reachable.size(); index++) {
+      labels.add(reachable.vertex(index).getLabel());
+    }
+    return List.copyOf(labels);
+  }
+
+  /**
+   * Available for mode {@code 9}.
+   *
+   * @return earliest arrival per vertex of {@link #getReachableVertices()}, at the same index
+   */
+  public int[] getArrivalTimes() {
+    ReachableVertices reachable = answerAs(
+      ReachableVertices.class,
+      "reachable vertices"
+    );
+    int[] arrivals = new int[(int) reachable.size()];
+    for (int index = 0; index < arrivals.length; index++) {
+      arrivals[index] = reachable.arrival(index);
+    }
+    return arrivals;
+  }
+
+  /**
+   * Available for mode {@code 10}.
+   *
+   * @return exact amount of routes, a lower bound if {@link #isTruncated() truncated}
+   */
+  public BigInteger getRouteCount() {
+    return answerAs(CountedRoutes.class, "a route count").getCount();
+  }
+
+  private <T extends Answer> T answerAs(Class<T> type, String description) {
+    if (!type.isInstance(answer)) {
+      throw notAnswered(description);
+    }
+    return type.cast(answer);
+  }
+
+  private IllegalStateException notAnswered(String description) {
+    return new IllegalStateException(
+      String.format("Mode %d does not answer with %s.", mode, description)
+    );
+  }
+
+  private static List<String> labelsOf(List<Vertex> vertices) {
+    List<String> labels = new ArrayList<>(vertices.size());
+    for (Vertex vertex : vertices) {
+      labels.add(vertex.getLabel());
+    }
+    return List.copyOf(labels);
+  }
+
+  /**
+   * @return true if at least one search stopped before exploring everything
+   */
+  public boolean isTruncated() {
+    return truncated;
+  }
+
+  public long getExpandedStates() {
+    return expandedStates;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    QueryResult that = (QueryResult) o;
+    return (
+      mode == that.mode &&
+      truncated == that.truncated &&
+      expandedStates == that.expandedStates &&
+      getText().equals(that.getText())
+    );
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(mode, getText(), truncated, expandedStates);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "[Query result: mode=%d, truncated=%b, expandedStates=%d, text=%s]",
+      mode,
+      truncated,
+      expandedStates,
+      getText()
+    );
+  }
+}
@@ -0,0 +1,100 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.StringConstant;
+
+/**
+ * Vertices reachable within a travel time, ordered by their earliest arrival. Vertex ids of a
+ * {@link GraphSnapshot} and arrival times are stored as two parallel primitive arrays.
+ */
+final class ReachableVertices implements Answer {
+
+  private static final String NO_SUCH_ROUTE = "NO SUCH ROUTE";
+
+  private final GraphSnapshot graphSnapshot;
+  private final int[] vertexIds;
+  private final int[] arrivals;
+  private final BudgetTracker.Truncation truncation;
+
+  private ReachableVertices(
+    GraphSnapshot graphSnapshot,
+    int[] vertexIds,
+    int[] arrivals,
+    BudgetTracker.Truncation truncation
+  ) {
+    this.graphSnapshot = graphSnapshot;
+    this.vertexIds = vertexIds;
+    this.arrivals = arrivals;
+    this.truncation = truncation;
+  }
+
+  /**
+   * @param graphSnapshot snapshot the search was performed on
+   * @param vertexIds reached vertices in arrival order
+   * @param arrivals earliest arrival per reached vertex
+   * @param truncation reason of truncation, {@code null} if the search ran to completion
+   * @return reachable vertices
+   */
+  static ReachableVertices of(
+    GraphSnapshot graphSnapshot,
+    int[] vertexIds,
+    int[] arrivals,
+    BudgetTracker.Truncation truncation
+  ) {
+    if (vertexIds.length != arrivals.length) {
+      throw new IllegalArgumentException(
+        "Every reached vertex needs exactly one arrival."
+      );
+    }
+    return new ReachableVertices(graphSnapshot, vertexIds, arrivals, truncation);
+  }
+
+  @Override
+  public long size() {
+    return vertexIds.length;
+  }
+
+  /**
+   * @param index position in arrival order
+   * @return id of the vertex inside the {@link GraphSnapshot} the search was performed on
+   */
+  int vertexId(int index) {
+    return vertexIds[index];
+  }
+
+  Vertex vertex(int index) {
+    return graphSnapshot.vertexOf(vertexIds[index]);
+  }
+
+  /**
+   * @param index position in arrival order
+   * @return earliest arrival time of the vertex
+   */
+  int arrival(int index) {
+    return arrivals[index];
+  }
+
+  @Override
+  public boolean isTruncated() {
+    return truncation != null;
+  }
+
+  @Override
+  public String toString() {
+    if (vertexIds.length == 0) {
+      return BudgetTracker.flag(NO_SUCH_ROUTE, truncation);
+    }
+    StringBuilder builder = new StringBuilder(
+      BudgetTracker.flag(vertexIds.length + " reachable", truncation)
+    )
+      .append(": ");
+    for (int index = 0; index < vertexIds.length; index++) {
+      builder
+        .append(StringConstant.NEW_LINE.getValue())
+        .append(vertex(index))
+        .append(": ")
+        .append(arrivals[index])
+        .append(" hours");
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,84 @@
+package com.github.anjeyy.traveldistance;
+
+import java.math.BigInteger;
+
+/**
+ * Table of route counts, indexed by cell, used by the counting dynamic program of
+ * {@link DirectedWeightedGraph#countRoutesWithMaxTime(Vertex, Vertex, int)}.
+ * <p>
+ * Counts are kept as primitive {@code long}s. A cell is only promoted to a {@link BigInteger} once its count
+ * overflows, so that the common case neither allocates nor boxes, while counts stay exact.
+ */
+final class RouteCounts {
+
+  private final long[] counts;
+  private BigInteger[] bigCounts; // allocated on the first overflow, null entries still fit into counts
+
+  RouteCounts(int cellCount) {
+    this.counts = new long[cellCount];
+  }
+
+  boolean isZero(int cell) {
+    return counts[cell] == 0 && !isBig(cell);
+  }
+
+  /**
+   * @param cell cell to increment
+   * @param value amount to add, has to be positive
+   */
+  void add(int cell, long value) {
+    if (!isBig(cell)) {
+      long sum = counts[cell] + value;
+      if (sum >= 0) { // both summands are non-negative, so a negative sum is an overflow
+        counts[cell] = sum;
+        return;
+      }
+    }
+    BigInteger count = promote(cell);
+    bigCounts[cell] = count.add(BigInteger.valueOf(value));
+  }
+
+  /**
+   * Adds the count of another cell.
+   *
+   * @param cell cell to increment
+   * @param fromCell cell to add
+   */
+  void addCell(int cell, int fromCell) {
+    if (isBig(fromCell)) {
+      BigInteger count = promote(cell);
+      bigCounts[cell] = count.add(bigCounts[fromCell]);
+    } else {
+      add(cell, counts[fromCell]);
+    }
+  }
+
+  /**
+   * @return exact count of the cell
+   */
+  BigInteger get(int cell) {
+    return isBig(cell) ? bigCounts[cell] : BigInteger.valueOf(counts[cell]);
+  }
+
+  void clear(int cell) {
+    counts[cell] = 0;
+    if (bigCounts != null) {
+      bigCounts[cell] = null;
+    }
+  }
+
+  private boolean isBig(int cell) {
+    return bigCounts != null && bigCounts[cell] != null;
+  }
+
+  private BigInteger promote(int cell) {
+    if (bigCounts == null) {
+      bigCounts = new BigInteger[counts.length];
+    }
+    if (bigCounts[cell] == null) {
+      bigCounts[cell] = BigInteger.valueOf(counts[cell]);
+      counts[cell] = 0;
+    }
+    return bigCounts[cell];
+  }
+}
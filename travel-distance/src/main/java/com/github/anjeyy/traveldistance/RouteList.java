@@ -0,0 +1,219 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.IntStack;
+import com.github.anjeyy.traveldistance.util.StringConstant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Routes found by an enumerating search, stored as vertex ids of a {@link GraphSnapshot} inside a single primitive
+ * array. Route {@code i} occupies the ids from {@code routeStarts[i]} (inclusive) to {@code routeStarts[i + 1]}
+ * (exclusive).
+ */
+final class RouteList implements Answer {
+
+  private static final String NO_SUCH_ROUTE = "NO SUCH ROUTE";
+
+  private final GraphSnapshot graphSnapshot;
+  private final int[] routeStarts;
+  private final int[] vertexIds;
+  private final BudgetTracker.Truncation truncation;
+
+  private RouteList(
+    GraphSnapshot graphSnapshot,
+    int[] routeStarts,
+    int[] vertexIds,
+    BudgetTracker.Truncation truncation
+  ) {
+    this.graphSnapshot = graphSnapshot;
+    this.routeStarts = routeStarts;
+    this.vertexIds = vertexIds;
+    this.truncation = truncation;
+  }
+
+  /**
+   * @param truncation reason of truncation, {@code null} if the search ran to completion
+   * @return answer without any route
+   */
+  static RouteList empty(BudgetTracker.Truncation truncation) {
+    return new RouteList(null, new int[] { 0 }, new int[0], truncation);
+  }
+
+  int routeCount() {
+    return routeStarts.length - 1;
+  }
+
+  /**
+   * @param route index of the route
+   * @return amount of vertices of the route, including source and destination
+   */
+  int routeLength(int route) {
+    return routeStarts[route + 1] - routeStarts[route];
+  }
+
+  /**
+   * @param route index of the route
+   * @param position index of the vertex inside the route
+   * @return id of the vertex inside the {@link GraphSnapshot} the search was performed on
+   */
+  int vertexId(int route, int position) {
+    if (position < 0 || position >= routeLength(route)) {
+      throw new IndexOutOfBoundsException(
+        "Position " + position + " out of bounds for route " + route
+      );
+    }
+    return vertexIds[routeStarts[route] + position];
+  }
+
+  /**
+   * @param route index of the route
+   * @return route as vertices, materialized on every call
+   */
+  List<Vertex> route(int route) {
+    int length = routeLength(route);
+    List<Vertex> vertices = new ArrayList<>(length);
+    for (int position = 0; position < length; position++) {
+      vertices.add(graphSnapshot.vertexOf(vertexId(route, position)));
+    }
+    return vertices;
+  }
+
+  @Override
+  public long size() {
+    return routeCount();
+  }
+
+  @Override
+  public boolean isTruncated() {
+    return truncation != null;
+  }
+
+  /**
+   * @return reason of truncation, {@code null} if the search ran to completion
+   */
+  BudgetTracker.Truncation getTruncation() {
+    return truncation;
+  }
+
+  @Override
+  public String toString() {
+    if (routeCount() == 0) {
+      return BudgetTracker.flag(NO_SUCH_ROUTE, truncation);
+    }
+    StringBuilder builder = new StringBuilder(
+      BudgetTracker.flag(routeCount() + " routes", truncation)
+    )
+      .append(": ");
+    for (int route = 0; route < routeCount(); route++) {
+      builder.append(StringConstant.NEW_LINE.getValue()).append('[');
+      for (int e = routeStarts[route]; e < routeStarts[route + 1]; e++) {
+        if (e > routeStarts[route]) {
+          builder.append(", ");
+        }
+        builder.append(graphSnapshot.vertexOf(vertexIds[e]));
+      }
+      builder.append(']');
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Collects the routes of a single search, route by route.
+   * <p>
+   * <b>Note:</b> Not thread-safe, a builder belongs to the thread executing the search.
+   */
+  static final class Builder {
+
+    private final GraphSnapshot graphSnapshot;
+    private final IntStack routeStarts = new IntStack();
+    private int[] vertexIds = new int[16];
+    private int size;
+
+    /**
+     * @param graphSnapshot snapshot the search is performed on
+     */
+    Builder(GraphSnapshot graphSnapshot) {
+      this.graphSnapshot = graphSnapshot;
+      routeStarts.push(0);
+    }
+
+    /**
+     * Appends the next vertex of the current route.
+     *
+     * @param vertexId id of the vertex inside the snapshot
+     */
+    void append(int vertexId) {
+      if (size == vertexIds.length) {
+        vertexIds = Arrays.copyOf(vertexIds, size * 2);
+      }
+      vertexIds[size++] = vertexId;
+    }
+
+    /**
+     * Completes the current route, its vertices were appended from source to destination.
+     */
+    void endRoute() {
+      routeStarts.push(size);
+    }
+
+    /**
+     * Completes the current route, its vertices were appended from destination to source, e.g. by following the
+     * parents of a search tree.
+     */
+    void endReversedRoute() {
+      int low = routeStarts.peek();
+      int high = size - 1;
+      while (low < high) {
+        int swap = vertexIds[low];
+        vertexIds[low++] = vertexIds[high];
+        vertexIds[high--] = swap;
+      }
+      endRoute();
+    }
+
+    int routeCount() {
+      return routeStarts.size() - 1;
+    }
+
+    /**
+     * Orders the routes collected so far by their amount of vertices, routes of the same length keep their order.
+     * A depth first search yields the order of a breadth first search this way.
+     */
+    void sortByLength() {
+      int routeCount = routeCount();
+      long[] keys = new long[routeCount];
+      for (int route = 0; route < routeCount; route++) {
+        long length = routeStarts.get(route + 1) - routeStarts.get(route);
+        keys[route] = length << 32 | route;
+      }
+      Arrays.sort(keys);
+      int[] starts = routeStarts.toArray();
+      int[] sorted = new int[vertexIds.length];
+      routeStarts.clear();
+      routeStarts.push(0);
+      int sortedSize = 0;
+      for (long key : keys) {
+        int route = (int) key;
+        int length = starts[route + 1] - starts[route];
+        System.arraycopy(vertexIds, starts[route], sorted, sortedSize, length);
+        sortedSize += length;
+        routeStarts.push(sortedSize);
+      }
+      vertexIds = sorted;
+    }
+
+    /**
+     * @param truncation reason of truncation, {@code null} if the search ran to completion
+     * @return immutable routes collected so far
+     */
+    RouteList build(BudgetTracker.Truncation truncation) {
+      return new RouteList(
+        graphSnapshot,
+        routeStarts.toArray(),
+        Arrays.copyOf(vertexIds, size),
+        truncation
+      );
+    }
+  }
+}
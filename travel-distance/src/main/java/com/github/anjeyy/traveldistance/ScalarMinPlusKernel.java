@@ -0,0 +1,39 @@
+package com.github.anjeyy.traveldistance;
+
+/**
+ * {@link MinPlusKernel} made of plain loops, left to the auto-vectorization of the JIT compiler.
+ */
+final class ScalarMinPlusKernel implements MinPlusKernel {
+
+  @Override
+  public void relax(
+    int[] matrix,
+    int stride,
+    int rowFrom,
+    int rowTo,
+    int columnFrom,
+    int columnTo,
+    int pivotFrom,
+    int pivotTo
+  ) {
+    for (int pivot = pivotFrom; pivot < pivotTo; pivot++) {
+      int pivotOffset = pivot * stride;
+      for (int row = rowFrom; row < rowTo; row++) {
+        int rowOffset = row * stride;
+        int toPivot = matrix[rowOffset + pivot];
+        if (toPivot == INFINITY) {
+          continue;
+        }
+        for (int column = columnFrom; column < columnTo; column++) {
+          int fromPivot = matrix[pivotOffset + column];
+          if (fromPivot != INFINITY) {
+            int viaPivot = toPivot + fromPivot;
+            if (viaPivot < matrix[rowOffset + column]) {
+              matrix[rowOffset + column] = viaPivot;
+            }
+          }
+        }
+      }
+    }
+  }
+}
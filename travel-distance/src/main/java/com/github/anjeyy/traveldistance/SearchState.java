@@ -0,0 +1,180 @@
+package com.github.anjeyy.traveldistance;
+
+import com.github.anjeyy.traveldistance.util.IntMinHeap;
+import com.github.anjeyy.traveldistance.util.IntStack;
+import com.github.anjeyy.traveldistance.util.StampedIntArray;
+import com.github.anjeyy.traveldistance.util.StampedIntSet;
+
+/**
+ * Reusable, primitive workspace of a single search on a {@link GraphSnapshot}, so that searches neither box
+ * vertex ids nor allocate once the workspace has grown to the size of the graph.
+ * <p>
+ * Distances and visited vertices are kept in arrays indexed by vertex id, which are stamped with a
+ * generation instead of being wiped: {@link #clear()} takes {@code O(1)} for them, independent of the graph size.
+ * <p>
+ * Enumerating searches store their search tree as three parallel {@link IntStack stacks}: the vertex of a state,
+ * the index of its parent state and its cost (depth or travel time). A route is only materialized, once it is found.
+ * <p>
+ * <b>Note:</b> A workspace must only be used by a single search at a time. Every thread owns one workspace per
+ * graph, see {@link DirectedWeightedGraph#acquireSearchState(int)}.
+ */
+final class SearchState {
+
+  private final StampedIntArray distances = new StampedIntArray(0);
+  private final StampedIntArray nextDistances = new StampedIntArray(0);
+  private final StampedIntArray latestStates = new StampedIntArray(0);
+  private final IntMinHeap queue = new IntMinHeap(0);
+  private final StampedIntSet settled = new StampedIntSet(0);
+  private final StampedIntSet marked = new StampedIntSet(0);
+  private final StampedIntSet nextMarked = new StampedIntSet(0);
+  private final IntStack stateVertices = new IntStack();
+  private final IntStack stateParents = new IntStack();
+  private final IntStack stateCosts = new IntStack();
+  private final TargetRows targetRows = new TargetRows();
+  private boolean acquired;
+
+  /**
+   * Marks the workspace as in use by a search.
+   *
+   * @return false if it is already in use, e.g. by an enclosing search of the same thread
+   */
+  boolean tryAcquire() {
+    if (acquired) {
+      return false;
+    }
+    acquired = true;
+    return true;
+  }
+
+  /**
+   * Resets the workspace and allows the next search to acquire it.
+   */
+  void release() {
+    clear();
+    acquired = false;
+  }
+
+  /**
+   * Grows the workspace, so that vertex ids up to {@code vertexCount} (exclusive) fit.
+   *
+   * @param vertexCount amount of vertices of the searched snapshot
+   */
+  void prepare(int vertexCount) {
+    distances.ensureCapacity(vertexCount);
+    nextDistances.ensureCapacity(vertexCount);
+    latestStates.ensureCapacity(vertexCount);
+    queue.ensureKeyCapacity(vertexCount);
+    settled.ensureCapacity(vertexCount);
+    marked.ensureCapacity(vertexCount);
+    nextMarked.ensureCapacity(vertexCount);
+  }
+
+  /**
+   * Resets the workspace for the next search in {@code O(1)}, besides the {@code O(size)} of a non-empty queue,
+   * keeping the allocated capacity.
+   */
+  void clear() {
+    distances.clear();
+    nextDistances.clear();
+    latestStates.clear();
+    queue.clear();
+    settled.clear();
+    marked.clear();
+    nextMarked.clear();
+    stateVertices.clear();
+    stateParents.clear();
+    stateCosts.clear();
+  }
+
+  /**
+   * @return tentative or final travel time per vertex id
+   */
+  StampedIntArray distances() {
+    return distances;
+  }
+
+  /**
+   * @return travel times of the next round of a round based search, e.g. Bellman-Ford
+   */
+  StampedIntArray nextDistances() {
+    return nextDistances;
+  }
+
+  /**
+   * @return index of the latest state per vertex id, e.g. to replace a state superseded within a round
+   */
+  StampedIntArray latestStates() {
+    return latestStates;
+  }
+
+  /**
+   * @return vertex ids ordered by their tentative travel time
+   */
+  IntMinHeap queue() {
+    return queue;
+  }
+
+  /**
+   * @return decoded rows of the scanned vertices, kept across searches as their buffers only grow
+   */
+  TargetRows targetRows() {
+    return targetRows;
+  }
+
+  StampedIntSet settled() {
+    return settled;
+  }
+
+  /**
+   * @return general purpose vertex marks, e.g. targets still to be settled
+   */
+  StampedIntSet marked() {
+    return marked;
+  }
+
+  /**
+   * @return marks of the next round of a round based search, e.g. Bellman-Ford
+   */
+  StampedIntSet nextMarked() {
+    return nextMarked;
+  }
+
+  /**
+   * Appends a state to the search tree.
+   *
+   * @param vertex vertex id of the state
+   * @param parent index of the parent state, {@link GraphSnapshot#NO_VERTEX} for the root
+   * @param cost depth or travel time of the state
+   */
+  void pushState(int vertex, int parent, int cost) {
+    stateVertices.push(vertex);
+    stateParents.push(parent);
+    stateCosts.push(cost);
+  }
+
+  /**
+   * Replaces the parent of a state, e.g. if a better one has been found within the same round.
+   *
+   * @param state index of the state
+   * @param parent index of the new parent state or its vertex id, depending on the search
+   */
+  void replaceStateParent(int state, int parent) {
+    stateParents.set(state, parent);
+  }
+
+  int stateCount() {
+    return stateVertices.size();
+  }
+
+  int stateVertex(int state) {
+    return stateVertices.get(state);
+  }
+
+  int stateCost(int state) {
+    return stateCosts.get(state);
+  }
+
+  int stateParent(int state) {
+    return stateParents.get(state);
+  }
+}
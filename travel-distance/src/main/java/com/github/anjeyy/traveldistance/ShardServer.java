@@ -0,0 +1,184 @@
+package com.github.anjeyy.traveldistance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves a {@link ShardWorker} over a loopback socket, either inside a daemon thread or as a separate process
+ * started via {@link #main(String[])}. Connections are served one after another with a simple binary protocol,
+ * every request is an operation code followed by its arguments:
+ * <ul>
+ *   <li>{@link #TRAVEL_TIMES}: source count, source labels, target count, target labels -
+ *   answered with the amount of travel times and the travel times themselves</li>
+ *   <li>{@link #ESTIMATED_MEMORY}: answered with the estimated memory in bytes</li>
+ *   <li>{@link #SHUTDOWN}: stops the server</li>
+ * </ul>
+ * Every answer starts with {@link #STATUS_OK}, or {@link #STATUS_FAILED} followed by an error message.
+ */
+final class ShardServer implements AutoCloseable {
+
+  static final int TRAVEL_TIMES = 1;
+  static final int ESTIMATED_MEMORY = 2;
+  static final int SHUTDOWN = 3;
+  static final int STATUS_OK = 0;
+  static final int STATUS_FAILED = 1;
+
+  private final ShardWorker worker;
+  private final ServerSocket serverSocket;
+
+  /**
+   * Binds a random loopback port and serves the worker inside a daemon thread.
+   *
+   * @param worker worker answering the requests
+   * @return started server
+   * @throws IOException if no port can be bound
+   */
+  static ShardServer start(ShardWorker worker) throws IOException {
+    ShardServer server = new ShardServer(worker, bindLoopback());
+    Thread thread = new Thread(
+      server::serve,
+      "shard-server-" + server.getPort()
+    );
+    thread.setDaemon(true);
+    thread.start();
+    return server;
+  }
+
+  /**
+   * Entry point of a shard process. Loads the shard from a graph file, prints the bound port as first line
+   * and serves until a {@link #SHUTDOWN} is received.
+   *
+   * @param args path to the graph file of the shard
+   * @throws IOException if the graph file cannot be read or no port can be bound
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      throw new IllegalArgumentException(
+        "Please provide ONLY a path to the shard graph file as an argument."
+      );
+    }
+    DirectedWeightedGraph shard = DirectedWeightedGraph.create();
+    GraphFileLoader.load(new File(args[0]).getAbsoluteFile().toPath(), shard);
+    shard.compact();
+    ShardServer server = new ShardServer(
+      LocalShardWorker.of(shard),
+      bindLoopback()
+    );
+    System.out.println(server.getPort());
+    System.out.flush();
+    server.serve();
+  }
+
+  private static ServerSocket bindLoopback() throws IOException {
+    return new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+  }
+
+  private ShardServer(ShardWorker worker, ServerSocket serverSocket) {
+    this.worker = worker;
+    this.serverSocket = serverSocket;
+  }
+
+  int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  private void serve() {
+    while (!serverSocket.isClosed()) {
+      try (Socket socket = serverSocket.accept()) {
+        if (!handle(socket)) {
+          close();
+        }
+      } catch (SocketException e) {
+        // server socket closed, stop serving
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * @return false if the server has to shut down
+   */
+  private boolean handle(Socket socket) throws IOException {
+    DataInputStream in = new DataInputStream(
+      new BufferedInputStream(socket.getInputStream())
+    );
+    DataOutputStream out = new DataOutputStream(
+      new BufferedOutputStream(socket.getOutputStream())
+    );
+    while (true) {
+      int operation;
+      try {
+        operation = in.readInt();
+      } catch (EOFException e) {
+        return true; // client disconnected
+      }
+      if (operation == SHUTDOWN) {
+        return false;
+      }
+      try {
+        if (operation == TRAVEL_TIMES) {
+          List<Vertex> sources = readVertices(in);
+          List<Vertex> targets = readVertices(in);
+          int[] travelTimes = worker.travelTimes(sources, targets);
+          out.writeInt(STATUS_OK);
+          out.writeInt(travelTimes.length);
+          for (int travelTime : travelTimes) {
+            out.writeInt(travelTime);
+          }
+        } else if (operation == ESTIMATED_MEMORY) {
+          long estimatedMemory = worker.estimatedMemory();
+          out.writeInt(STATUS_OK);
+          out.writeLong(estimatedMemory);
+        } else {
+          throw new IllegalArgumentException(
+            "Unknown shard operation: " + operation
+          );
+        }
+      } catch (RuntimeException e) {
+        out.writeInt(STATUS_FAILED);
+        out.writeUTF(String.valueOf(e.getMessage()));
+      }
+      out.flush();
+    }
+  }
+
+  static void writeVertices(DataOutputStream out, List<Vertex> vertices)
+    throws IOException {
+    out.writeInt(vertices.size());
+    for (Vertex vertex : vertices) {
+      out.writeUTF(vertex.getLabel());
+    }
+  }
+
+  private static List<Vertex> readVertices(DataInputStream in)
+    throws IOException {
+    int count = in.readInt();
+    List<Vertex> vertices = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      vertices.add(Vertex.with(in.readUTF()));
+    }
+    return vertices;
+  }
+
+  @Override
+  public void close() {
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.List;
+
+/**
+ * Serves a single shard of a {@link PartitionedGraph}. A worker only knows the edges inside its shard, all
+ * cross-shard work is done by the coordinating {@link PartitionedGraph}.
+ * <p>
+ * Implementations either run in-process ({@link LocalShardWorker}) or talk to a {@link ShardServer}
+ * over a loopback socket ({@link SocketShardWorker}).
+ */
+interface ShardWorker extends AutoCloseable {
+  /**
+   * Shard local travel times, see {@link DirectedWeightedGraph#calculateTravelTimeMatrix(List, List)}.
+   *
+   * @param sources starting vertices, one row each
+   * @param targets ending vertices, one column each
+   * @return travel times row by row, {@link DistanceMatrix#NO_ROUTE} for pairs without a route
+   */
+  int[] travelTimes(List<Vertex> sources, List<Vertex> targets);
+
+  /**
+   * Estimates the heap memory of the shard from its vertex and edge counts. It is not measured, since an in-process
+   * shard shares its heap with every other shard and the coordinator.
+   *
+   * @return estimated heap memory of the shard in bytes
+   */
+  long estimatedMemory();
+
+  @Override
+  void close();
+}
@@ -0,0 +1,242 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Single-source shortest-path tree of a so-called <i>hot source</i>, which is kept up to date while the
+ * {@link DirectedWeightedGraph} changes, instead of being recomputed from scratch.
+ * <p>
+ * Repairs follow the dynamic algorithm of <b>Ramalingam and Reps</b> and only touch affected vertices:
+ * <ul>
+ *   <li><i>insertion / weight decrease</i>: a Dijkstra run starting at the improved destination,
+ *   which stops as soon as no distance improves anymore</li>
+ *   <li><i>deletion / weight increase</i>: only relevant for tree edges. The subtree below the edge is
+ *   detached, every detached vertex is seeded with its best non-detached predecessor and a Dijkstra run
+ *   restricted to the detached vertices re-attaches them</li>
+ * </ul>
+ * <p>
+ * <b>Note:</b> Like Dijkstra itself this only works with non-negative weights. The owning graph does not
+ * maintain trees while negative weights are present and rebuilds them afterwards.
+ *
+ * @see <a href="https://doi.org/10.1006/jagm.1996.0046">Ramalingam, Reps: An incremental algorithm for a generalization of the shortest-path problem</a>
+ */
+final class ShortestPathTree {
+
+  private final DirectedWeightedGraph graph;
+  private final Vertex source;
+  private final Map<Vertex, Integer> distance = new HashMap<>();
+  private final Map<Vertex, Vertex> parent = new HashMap<>();
+  private final Map<Vertex, Set<Vertex>> children = new HashMap<>();
+
+  /**
+   * Builds the tree from scratch with a plain Dijkstra run.
+   *
+   * @param graph graph providing the edges
+   * @param source root of the tree
+   * @return complete tree
+   */
+  static ShortestPathTree build(DirectedWeightedGraph graph, Vertex source) {
+    ShortestPathTree tree = new ShortestPathTree(graph, source);
+    tree.distance.put(source, 0);
+    tree.propagate(source);
+    return tree;
+  }
+
+  private ShortestPathTree(DirectedWeightedGraph graph, Vertex source) {
+    this.graph = graph;
+    this.source = source;
+  }
+
+  Vertex getSource() {
+    return source;
+  }
+
+  /**
+   * @param vertex any vertex
+   * @return shortest travel time from the source, {@code null} if not reachable
+   */
+  Integer distanceTo(Vertex vertex) {
+    return distance.get(vertex);
+  }
+
+  /**
+   * @param vertex any vertex
+   * @return predecessor on the shortest route, {@code null} for the source and unreachable vertices
+   */
+  Vertex parentOf(Vertex vertex) {
+    return parent.get(vertex);
+  }
+
+  /**
+   * Shortest route from the source back to itself, consisting of at least one edge.
+   * Takes {@code O(in-degree)} of the source.
+   *
+   * @return shortest round trip, {@code null} if there is none
+   */
+  Integer roundTrip() {
+    Integer best = null;
+    for (Edge edge : graph.incomingEdges(source)) {
+      Integer predecessorDistance = distance.get(edge.getSource());
+      if (predecessorDistance != null) {
+        int candidate = predecessorDistance + edge.getWeight();
+        if (best == null || candidate < best) {
+          best = candidate;
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Repairs the tree once for a whole batch of modifications, so that a batch costs a single repair and not one
+   * repair per modification.
+   * <p>
+   * First the subtrees below all worsened tree edges are detached together and every detached vertex is seeded with
+   * its best predecessor outside of them. Then the destinations of all improved edges are seeded, before a single
+   * Dijkstra run settles every seed. All remaining distances are still reachable and thus upper bounds, so
+   * improving them by this run yields exact distances again.
+   *
+   * @param improvedEdges inserted or decreased edges, part of the graph
+   * @param worsenedEdges removed or increased edges, only their source and destination are considered
+   */
+  void repair(
+    Collection<Edge> improvedEdges,
+    Collection<Edge> worsenedEdges
+  ) {
+    Queue<Map.Entry<Vertex, Integer>> queue = new PriorityQueue<>(
+      Map.Entry.comparingByValue()
+    );
+
+    // detach the affected subtrees
+    Set<Vertex> affected = new LinkedHashSet<>();
+    Deque<Vertex> stack = new ArrayDeque<>();
+    for (Edge edge : worsenedEdges) {
+      if (edge.getSource().equals(parent.get(edge.getDestination()))) {
+        stack.push(edge.getDestination()); // only tree edges have dependent distances
+      }
+    }
+    while (!stack.isEmpty()) {
+      Vertex vertex = stack.pop();
+      if (affected.add(vertex)) {
+        stack.addAll(children.getOrDefault(vertex, Set.of()));
+      }
+    }
+    for (Vertex vertex : affected) {
+      detach(vertex);
+    }
+
+    // seed every affected vertex with its best predecessor outside the subtrees
+    for (Vertex vertex : affected) {
+      for (Edge edge : graph.incomingEdges(vertex)) {
+        Vertex predecessor = edge.getSource();
+        if (!affected.contains(predecessor)) {
+          relax(predecessor, vertex, edge.getWeight(), queue);
+        }
+      }
+    }
+
+    // seed the destinations of improved edges
+    for (Edge edge : improvedEdges) {
+      if (graph.getEdge(edge.getSource(), edge.getDestination()) == edge) {
+        relax(edge.getSource(), edge.getDestination(), edge.getWeight(), queue);
+      }
+    }
+    propagate(queue);
+  }
+
+  /**
+   * Attaches the destination via the given predecessor and queues it, if this improves its distance.
+   */
+  private void relax(
+    Vertex predecessor,
+    Vertex destination,
+    int weight,
+    Queue<Map.Entry<Vertex, Integer>> queue
+  ) {
+    Integer predecessorDistance = distance.get(predecessor);
+    if (predecessorDistance == null || destination.equals(source)) {
+      return; // not reachable or the root itself
+    }
+    int candidate = predecessorDistance + weight;
+    Integer current = distance.get(destination);
+    if (current == null || candidate < current) {
+      attach(destination, predecessor, candidate);
+      queue.offer(Map.entry(destination, candidate));
+    }
+  }
+
+  private void propagate(Vertex start) {
+    Queue<Map.Entry<Vertex, Integer>> queue = new PriorityQueue<>(
+      Map.Entry.comparingByValue()
+    );
+    queue.offer(Map.entry(start, distance.get(start)));
+    propagate(queue);
+  }
+
+  /**
+   * Dijkstra run, which only continues as long as distances improve.
+   */
+  private void propagate(Queue<Map.Entry<Vertex, Integer>> queue) {
+    while (!queue.isEmpty()) {
+      Map.Entry<Vertex, Integer> entry = queue.poll();
+      Vertex vertex = entry.getKey();
+      int vertexDistance = entry.getValue();
+      Integer currentDistance = distance.get(vertex);
+      if (currentDistance == null || vertexDistance != currentDistance) {
+        continue; // outdated queue entry
+      }
+      for (Edge edge : graph.outgoingEdges(vertex)) {
+        Vertex neighbor = edge.getDestination();
+        int newDistance = vertexDistance + edge.getWeight();
+        Integer oldDistance = distance.get(neighbor);
+        boolean improved = oldDistance == null || newDistance < oldDistance;
+        if (improved && !neighbor.equals(source)) {
+          attach(neighbor, vertex, newDistance);
+          queue.offer(Map.entry(neighbor, newDistance));
+        }
+      }
+    }
+  }
+
+  private void attach(Vertex vertex, Vertex newParent, int newDistance) {
+    Vertex oldParent = parent.put(vertex, newParent);
+    if (oldParent != null) {
+      children.get(oldParent).remove(vertex);
+    }
+    children.computeIfAbsent(newParent, k -> new HashSet<>()).add(vertex);
+    distance.put(vertex, newDistance);
+  }
+
+  private void detach(Vertex vertex) {
+    Vertex oldParent = parent.remove(vertex);
+    if (oldParent != null) {
+      children.get(oldParent).remove(vertex);
+    }
+    distance.remove(vertex);
+  }
+
+  /**
+   * @return amount of vertices reachable from the source, including the source
+   */
+  int size() {
+    return distance.size();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+      "[Shortest path tree: source=%s, reachable=%d]",
+      source,
+      distance.size()
+    );
+  }
+}
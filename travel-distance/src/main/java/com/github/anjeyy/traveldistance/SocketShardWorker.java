@@ -0,0 +1,181 @@
+package com.github.anjeyy.traveldistance;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ShardWorker} talking to a {@link ShardServer} over a loopback socket, see {@link ShardServer} for the protocol.
+ * The server either runs in the same JVM or in a separate process, which is then owned by this worker.
+ */
+final class SocketShardWorker implements ShardWorker {
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  private final Socket socket;
+  private final DataInputStream in;
+  private final DataOutputStream out;
+  private final Process process;
+  private final Path graphFile;
+
+  /**
+   * Connects to an already running {@link ShardServer}.
+   *
+   * @param port loopback port of the server
+   * @return connected worker
+   * @throws IOException if the connection fails
+   */
+  static SocketShardWorker connect(int port) throws IOException {
+    return new SocketShardWorker(port, null, null);
+  }
+
+  /**
+   * Writes the shard into a temporary graph file and starts a separate JVM serving it via {@link ShardServer#main(String[])}.
+   * The process is shut down and the file deleted on {@link #close()}.
+   *
+   * @param shard graph consisting of the vertices and inner edges of a single shard
+   * @return worker connected to the started process
+   * @throws IOException if the process cannot be started or connected to
+   */
+  static SocketShardWorker spawn(DirectedWeightedGraph shard)
+    throws IOException {
+    Path graphFile = Files.createTempFile("shard-", ".graph");
+    List<String> lines = new ArrayList<>();
+    GraphSnapshot snapshot = shard.snapshot();
+    TargetRows rows = new TargetRows();
+    for (int vertex = 0; vertex < snapshot.vertexCount(); vertex++) {
+      rows.decode(snapshot, 0, vertex);
+      for (
+        int e = snapshot.edgeStart(vertex);
+        e < snapshot.edgeEnd(vertex);
+        e++
+      ) {
+        lines.add(
+          snapshot.vertexOf(vertex).getLabel() +
+          ", " +
+          snapshot.vertexOf(rows.target(0, e)).getLabel() +
+          ", " +
+          snapshot.weight(e)
+        );
+      }
+    }
+    Files.write(graphFile, lines, StandardCharsets.UTF_8);
+
+    String java = Paths
+      .get(System.getProperty("java.home"), "bin", "java")
+      .toString();
+    Process process = new ProcessBuilder(
+      java,
+      "-cp",
+      System.getProperty("java.class.path"),
+      ShardServer.class.getName(),
+      graphFile.toString()
+    )
+      .redirectError(ProcessBuilder.Redirect.INHERIT)
+      .start();
+    try {
+      BufferedReader reader = new BufferedReader(
+        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)
+      );
+      String port = reader.readLine();
+      if (port == null) {
+        throw new IOException("Shard process exited before binding a port.");
+      }
+      return new SocketShardWorker(
+        Integer.parseInt(port.trim()),
+        process,
+        graphFile
+      );
+    } catch (IOException | RuntimeException e) {
+      process.destroyForcibly();
+      Files.deleteIfExists(graphFile);
+      throw e;
+    }
+  }
+
+  private SocketShardWorker(int port, Process process, Path graphFile)
+    throws IOException {
+    this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    this.in =
+      new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    this.out =
+      new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    this.process = process;
+    this.graphFile = graphFile;
+  }
+
+  @Override
+  public synchronized int[] travelTimes(
+    List<Vertex> sources,
+    List<Vertex> targets
+  ) {
+    try {
+      out.writeInt(ShardServer.TRAVEL_TIMES);
+      ShardServer.writeVertices(out, sources);
+      ShardServer.writeVertices(out, targets);
+      out.flush();
+      readStatus();
+      int[] travelTimes = new int[in.readInt()];
+      for (int i = 0; i < travelTimes.length; i++) {
+        travelTimes[i] = in.readInt();
+      }
+      return travelTimes;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized long estimatedMemory() {
+    try {
+      out.writeInt(ShardServer.ESTIMATED_MEMORY);
+      out.flush();
+      readStatus();
+      return in.readLong();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void readStatus() throws IOException {
+    if (in.readInt() != ShardServer.STATUS_OK) {
+      throw new IllegalStateException("Shard failed: " + in.readUTF());
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      if (process != null) {
+        out.writeInt(ShardServer.SHUTDOWN);
+        out.flush();
+      }
+      socket.close();
+      if (process != null) {
+        if (!process.waitFor(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          process.destroyForcibly();
+        }
+        Files.deleteIfExists(graphFile);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      process.destroyForcibly();
+      Thread.currentThread().interrupt();
+    }
+  }
+}
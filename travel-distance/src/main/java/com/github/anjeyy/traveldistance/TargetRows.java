@@ -0,0 +1,64 @@
+package com.github.anjeyy.traveldistance;
+
+/**
+ * Decoded targets of the rows a single search is scanning, one row per depth of the search. A search decodes the
+ * outgoing edges of a vertex once via {@link EdgeStorage#targets(int, int[])} and afterwards reads every target in
+ * {@code O(1)}, even if it interleaves the scan with other rows, e.g. a depth first search resuming a row after
+ * backtracking. Flat searches, like Dijkstra, only use depth {@code 0}.
+ * <p>
+ * Decoding a row takes {@code O(out-degree)}, so a search pays {@code O(E)} in total for scanning every row once.
+ * The buffers grow to the largest out-degree per depth and are reused afterwards.
+ * <p>
+ * <b>Note:</b> Like the {@link SearchState}, an instance must only be used by a single search at a time.
+ */
+final class TargetRows {
+
+  private static final int[] EMPTY_ROW = new int[0];
+
+  private int[][] rows = new int[0][];
+  private int[] edgeStarts = new int[0];
+
+  /**
+   * Decodes the targets of a vertex into the row of the given depth, replacing the row decoded there before.
+   *
+   * @param storage storage of the searched edges
+   * @param depth depth of the row, at least {@code 0}
+   * @param vertex vertex id, whose outgoing edges are decoded
+   */
+  void decode(EdgeStorage storage, int depth, int vertex) {
+    if (depth >= rows.length) {
+      int capacity = Math.max(depth + 1, 2 * rows.length);
+      int[][] grown = new int[capacity][];
+      System.arraycopy(rows, 0, grown, 0, rows.length);
+      for (int i = rows.length; i < capacity; i++) {
+        grown[i] = EMPTY_ROW;
+      }
+      rows = grown;
+      int[] grownStarts = new int[capacity];
+      System.arraycopy(edgeStarts, 0, grownStarts, 0, edgeStarts.length);
+      edgeStarts = grownStarts;
+    }
+    rows[depth] = storage.targets(vertex, rows[depth]);
+    edgeStarts[depth] = storage.edgeStart(vertex);
+  }
+
+  /**
+   * @param depth depth of the decoded row
+   * @param edgeIndex edge index inside the row decoded at the depth
+   * @return vertex id the edge ends at
+   */
+  int target(int depth, int edgeIndex) {
+    return rows[depth][edgeIndex - edgeStarts[depth]];
+  }
+
+  /**
+   * @param buffer buffer to reuse
+   * @param length amount of targets to fit
+   * @return the buffer if large enough, a larger one otherwise
+   */
+  static int[] fit(int[] buffer, int length) {
+    return buffer.length >= length
+      ? buffer
+      : new int[Math.max(length, 2 * buffer.length)];
+  }
+}
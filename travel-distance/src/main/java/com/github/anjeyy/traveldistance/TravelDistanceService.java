@@ -0,0 +1,399 @@
+package com.github.anjeyy.traveldistance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Asynchronous API for embedding the navigation into another application, instead of running the interactive
+ * {@link Navigation}.
+ * <p>
+ * Every {@link #query(int, String) query} is answered by a fixed amount of worker threads and completes a
+ * {@link CompletableFuture} of a {@link QueryResult}. Queries which cannot start immediately wait in a bounded queue,
+ * once the workers and the queue are full the service is <i>saturated</i> and handles further queries according to
+ * its {@link Saturation}.
+ * <p>
+ * The service can be configured via the optional system properties {@code travel-distance.service.threads}
+ * (default: available processors), {@code travel-distance.service.queue-capacity} (default: {@value
+ * #DEFAULT_QUEUE_CAPACITY}) and {@code travel-distance.service.saturation} (default: {@code REJECT}). Limits of a
+ * single search are read like in {@link QueryBudget#fromSystemProperties()}.
+ * <p>
+ * <b>Note:</b> Cancelling a returned future interrupts its running search.
+ */
+public final class TravelDistanceService implements AutoCloseable {
+
+  /**
+   * Handling of a query submitted while all workers are busy and the queue is full.
+   */
+  public enum Saturation {
+    /** The returned future fails immediately with a {@link RejectedExecutionException}. */
+    REJECT,
+    /** The submitting thread blocks till a worker or queue slot is free. */
+    THROTTLE,
+  }
+
+  private static final String PROPERTY_PREFIX = "travel-distance.service.";
+  private static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+  private final DirectedWeightedGraph graph;
+  private final QueryBudget budget;
+  private final ReadWriteLock graphLock;
+  private final int queueCapacity;
+  private final Saturation saturation;
+  // one permit per worker and queue slot, so that the unbounded executor queue never exceeds the capacity
+  private final Semaphore permits;
+  private final ThreadPoolExecutor executor;
+  private final ThreadLocal<QueryParser> parsers = ThreadLocal.withInitial(
+    QueryParser::new
+  );
+  private volatile GraphFileWatcher watcher;
+  private volatile boolean closed;
+
+  private TravelDistanceService(
+    DirectedWeightedGraph graph,
+    QueryBudget budget,
+    int threads,
+    int queueCapacity,
+    Saturation saturation
+  ) {
+    this.graph = graph;
+    this.budget = budget;
+    this.graphLock = new ReentrantReadWriteLock();
+    this.queueCapacity = queueCapacity;
+    this.saturation = saturation;
+    this.permits = new Semaphore(threads + queueCapacity);
+    this.executor =
+      new ThreadPoolExecutor(
+        threads,
+        threads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(),
+        workerFactory()
+      ) {
+        @Override
+        protected void afterExecute(Runnable task, Throwable failure) {
+          // also called for tasks cancelled while queued
+          permits.release();
+        }
+      };
+  }
+
+  /**
+   * Loads the graph file and configures the service via system properties.
+   *
+   * @param graphFile path to the graph file, see {@link GraphFileLoader}
+   * @return running service, has to be {@link #close() closed}
+   * @throws IOException if the graph file cannot be read
+   */
+  public static TravelDistanceService load(Path graphFile) throws IOException {
+    return load(
+      graphFile,
+      Integer.getInteger(
+        PROPERTY_PREFIX + "threads",
+        Runtime.getRuntime().availableProcessors()
+      ),
+      Integer.getInteger(
+        PROPERTY_PREFIX + "queue-capacity",
+        DEFAULT_QUEUE_CAPACITY
+      ),
+      Saturation.valueOf(
+        System.getProperty(
+          PROPERTY_PREFIX + "saturation",
+          Saturation.REJECT.name()
+        )
+      )
+    );
+  }
+
+  /**
+   * Loads the graph file and starts the workers. If {@link GraphFileWatcher#isEnabled() enabled}, changes of the
+   * graph file are reloaded while the service is running.
+   *
+   * @param graphFile path to the graph file, see {@link GraphFileLoader}
+   * @param threads amount of worker threads
+   * @param queueCapacity amount of queries waiting for a worker, {@code 0} for none
+   * @param saturation handling of queries while saturated
+   * @return running service, has to be {@link #close() closed}
+   * @throws IOException if the graph file cannot be read
+   */
+  public static TravelDistanceService load(
+    Path graphFile,
+    int threads,
+    int queueCapacity,
+    Saturation saturation
+  ) throws IOException {
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    Path graphPath = graphFile.toAbsolutePath();
+    GraphFileLoader.load(graphPath, graph);
+    graph.compact();
+    TravelDistanceService service = of(
+      graph,
+      QueryBudget.fromSystemProperties(),
+      threads,
+      queueCapacity,
+      saturation
+    );
+    if (GraphFileWatcher.isEnabled()) {
+      service.watch(graphPath).start();
+    }
+    return service;
+  }
+
+  /**
+   * @param graphPath absolute path of the file the graph was loaded from
+   * @return watcher reloading the graph exclusively to the queries, not yet started and closed with the service
+   * @throws IOException if the graph file cannot be read
+   */
+  GraphFileWatcher watch(Path graphPath) throws IOException {
+    GraphFileWatcher fileWatcher = GraphFileWatcher.of(
+      graphPath,
+      graph,
+      graphLock
+    );
+    watcher = fileWatcher;
+    return fileWatcher;
+  }
+
+  /**
+   * @param graph graph to query, must not be modified by others while the service is running
+   * @param budget limits of every query
+   * @param threads amount of worker threads
+   * @param queueCapacity amount of queries waiting for a worker, {@code 0} for none
+   * @param saturation handling of queries while saturated
+   * @return running service, has to be {@link #close() closed}
+   */
+  static TravelDistanceService of(
+    DirectedWeightedGraph graph,
+    QueryBudget budget,
+    int threads,
+    int queueCapacity,
+    Saturation saturation
+  ) {
+    if (graph == null || budget == null || saturation == null) {
+      throw new NullPointerException(
+        "Graph, budget and saturation have to be set."
+      );
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Please provide threads >0.");
+    }
+    if (queueCapacity < 0) {
+      throw new IllegalArgumentException("Please provide queue capacity >=0.");
+    }
+    return new TravelDistanceService(
+      graph,
+      budget,
+      threads,
+      queueCapacity,
+      saturation
+    );
+  }
+
+  /**
+   * Answers a query asynchronously, like entering it in the {@link Navigation}.
+   *
+   * @param modeNumber number of the mode, e.g. {@code 4} for the shortest path
+   * @param arguments parameters of the mode, e.g. {@code "Solar System, Sirius"}
+   * @return future result, failing with a {@link RejectedExecutionException} if the service is saturated or closed
+   * @throws IllegalArgumentException if there is no query with the given mode number
+   */
+  public CompletableFuture<QueryResult> query(
+    int modeNumber,
+    String arguments
+  ) {
+    Mode mode = Mode.from(modeNumber);
+    if (mode == Mode.EXIT_PROGRAM) {
+      throw new IllegalArgumentException(
+        "Please provide a mode answering a query, yours was: " + modeNumber
+      );
+    }
+    Objects.requireNonNull(arguments, "Arguments have to be set.");
+    return submit(() -> execute(mode, arguments));
+  }
+
+  /**
+   * Runs the task on a worker, respecting the queue capacity and the {@link Saturation}.
+   *
+   * @param task task to run
+   * @param <T> type of the result
+   * @return future result of the task
+   */
+  <T> CompletableFuture<T> submit(Callable<T> task) {
+    if (closed) {
+      return CompletableFuture.failedFuture(closedException());
+    }
+    RejectedExecutionException rejection = acquirePermit();
+    if (rejection != null) {
+      return CompletableFuture.failedFuture(rejection);
+    }
+    CompletableFuture<T> result = new CompletableFuture<>();
+    QueryTask<T> queryTask = new QueryTask<>(result, task);
+    try {
+      executor.execute(queryTask);
+    } catch (RejectedExecutionException e) {
+      permits.release();
+      result.completeExceptionally(closedException());
+      return result;
+    }
+    result.whenComplete(
+      (value, failure) -> {
+        if (result.isCancelled()) {
+          queryTask.cancel(true);
+        }
+      }
+    );
+    return result;
+  }
+
+  /**
+   * Stops watching the graph file and all workers. Queued queries fail with a {@link RejectedExecutionException},
+   * running searches are interrupted.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (Runnable queued : executor.shutdownNow()) {
+      ((QueryTask<?>) queued).result.completeExceptionally(closedException());
+    }
+    GraphFileWatcher currentWatcher = watcher;
+    if (currentWatcher != null) {
+      try {
+        currentWatcher.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private QueryResult execute(Mode mode, String arguments) {
+    Query query = parsers.get().parse(mode, arguments);
+    Queue<BudgetTracker> trackers = new ConcurrentLinkedQueue<>();
+    Answer answer;
+    Lock readLock = graphLock.readLock();
+    readLock.lock();
+    try {
+      answer = mode.answer(graph, query, budget.observedBy(trackers::add));
+    } finally {
+      readLock.unlock();
+    }
+    boolean truncated = false;
+    long expandedStates = 0;
+    for (BudgetTracker tracker : trackers) {
+      truncated |= tracker.isTruncated();
+      expandedStates += tracker.getExpandedStates();
+    }
+    return QueryResult.of(mode, answer, truncated, expandedStates);
+  }
+
+  /**
+   * @return {@code null} if a permit was acquired, the reason otherwise
+   */
+  private RejectedExecutionException acquirePermit() {
+    if (saturation == Saturation.REJECT) {
+      return permits.tryAcquire()
+        ? null
+        : new RejectedExecutionException(
+          String.format(
+            "Service is saturated, %d workers and %d queue slots are in use.",
+            executor.getMaximumPoolSize(),
+            queueCapacity
+          )
+        );
+    }
+    try {
+      permits.acquire();
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new RejectedExecutionException(
+        "Interrupted while waiting for a free worker."
+      );
+    }
+  }
+
+  private static RejectedExecutionException closedException() {
+    return new RejectedExecutionException("Service is already closed.");
+  }
+
+  private static ThreadFactory workerFactory() {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return runnable -> {
+      Thread worker = new Thread(
+        runnable,
+        "travel-distance-query-" + threadNumber.incrementAndGet()
+      );
+      worker.setDaemon(true);
+      return worker;
+    };
+  }
+
+  /**
+   * Completes the future of a query, the surrounding {@link FutureTask} only takes care of interrupting the right
+   * worker on cancellation.
+   * <p>
+   * Every failure completes the future, e.g. a {@link StackOverflowError} of a deep search. Errors leaving the JVM
+   * in an unknown state, like an {@link OutOfMemoryError}, are rethrown afterwards to reach the worker.
+   */
+  private static final class QueryTask<T> extends FutureTask<Void> {
+
+    private final CompletableFuture<T> result;
+
+    private QueryTask(CompletableFuture<T> result, Callable<T> task) {
+      super(
+        () -> {
+          if (!result.isDone()) {
+            try {
+              result.complete(task.call());
+            } catch (Throwable failure) {
+              result.completeExceptionally(failure);
+              if (isFatal(failure)) {
+                throw failure;
+              }
+            }
+          }
+          return null;
+        }
+      );
+      this.result = result;
+    }
+
+    @Override
+    public void run() {
+      super.run();
+      if (isDone() && !isCancelled()) {
+        try {
+          get();
+        } catch (ExecutionException e) {
+          throw (Error) e.getCause(); // only fatal errors fail the task itself
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    private static boolean isFatal(Throwable failure) {
+      return (
+        failure instanceof VirtualMachineError &&
+        !(failure instanceof StackOverflowError)
+      );
+    }
+  }
+}
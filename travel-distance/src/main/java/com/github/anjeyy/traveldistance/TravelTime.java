@@ -0,0 +1,134 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Travel time of a single route, optionally together with the route as vertex ids of a {@link GraphSnapshot}.
+ */
+final class TravelTime implements Answer {
+
+  /** Marks the absence of any route. */
+  static final int NO_ROUTE = Integer.MAX_VALUE;
+
+  private static final String NO_SUCH_ROUTE = "NO SUCH ROUTE";
+
+  private final int hours;
+  private final GraphSnapshot graphSnapshot;
+  private final int[] route;
+  private final BudgetTracker.Truncation truncation;
+
+  private TravelTime(
+    int hours,
+    GraphSnapshot graphSnapshot,
+    int[] route,
+    BudgetTracker.Truncation truncation
+  ) {
+    this.hours = hours;
+    this.graphSnapshot = graphSnapshot;
+    this.route = route;
+    this.truncation = truncation;
+  }
+
+  /**
+   * @param hours travel time, {@link #NO_ROUTE} if there is none
+   * @param truncation reason of truncation, {@code null} if the search ran to completion
+   * @return travel time without its route
+   */
+  static TravelTime of(int hours, BudgetTracker.Truncation truncation) {
+    return new TravelTime(hours, null, null, truncation);
+  }
+
+  /**
+   * @param hours travel time
+   * @param route vertex ids from source to destination
+   * @param graphSnapshot snapshot the search was performed on
+   * @param truncation reason of truncation, {@code null} if the search ran to completion
+   * @return travel time together with its route
+   */
+  static TravelTime of(
+    int hours,
+    int[] route,
+    GraphSnapshot graphSnapshot,
+    BudgetTracker.Truncation truncation
+  ) {
+    if (route == null || graphSnapshot == null) {
+      throw new NullPointerException("Route and snapshot have to be set.");
+    }
+    return new TravelTime(hours, graphSnapshot, route, truncation);
+  }
+
+  /**
+   * @return true if there is a route
+   */
+  boolean exists() {
+    return hours != NO_ROUTE;
+  }
+
+  /**
+   * @return travel time, {@link #NO_ROUTE} if there is none
+   */
+  int getHours() {
+    return hours;
+  }
+
+  /**
+   * @return true if the route itself was determined, not only its travel time
+   */
+  boolean hasRoute() {
+    return route != null;
+  }
+
+  /**
+   * @return amount of vertices of the route, including source and destination
+   */
+  int routeLength() {
+    return route == null ? 0 : route.length;
+  }
+
+  /**
+   * @param position index of the vertex inside the route
+   * @return id of the vertex inside the {@link GraphSnapshot} the search was performed on
+   */
+  int vertexId(int position) {
+    if (position < 0 || position >= routeLength()) {
+      throw new IndexOutOfBoundsException(
+        "Position " + position + " out of bounds for length " + routeLength()
+      );
+    }
+    return route[position];
+  }
+
+  /**
+   * @return route as vertices, empty if the route was not determined
+   */
+  List<Vertex> route() {
+    List<Vertex> vertices = new ArrayList<>(routeLength());
+    for (int position = 0; position < routeLength(); position++) {
+      vertices.add(graphSnapshot.vertexOf(route[position]));
+    }
+    return vertices;
+  }
+
+  /**
+   * @return {@code 1} if there is a route, {@code 0} otherwise
+   */
+  @Override
+  public long size() {
+    return exists() ? 1 : 0;
+  }
+
+  @Override
+  public boolean isTruncated() {
+    return truncation != null;
+  }
+
+  @Override
+  public String toString() {
+    if (!exists()) {
+      return BudgetTracker.flag(NO_SUCH_ROUTE, truncation);
+    }
+    String travelTime = BudgetTracker.flag(hours + " hours", truncation);
+    return hasRoute() ? travelTime + ": " + route() : travelTime;
+  }
+}
@@ -1,7 +1,6 @@
 package com.github.anjeyy.traveldistance;
 
 import java.util.Locale;
-import java.util.Objects;
 
 /**
  * Represents a so called node or vertex inside a graph data structure.<br>
@@ -38,7 +37,7 @@ class Vertex {
 
   @Override
   public int hashCode() {
-    return Objects.hash(label);
+    return label.hashCode();
   }
 
   @Override
@@ -51,6 +50,6 @@ class Vertex {
 
   @Override
   public String toString() {
-    return String.format("[Vertex: %s]", label);
+    return "[Vertex: " + label + "]"; // concatenated, formatted routes call it per vertex
   }
 }
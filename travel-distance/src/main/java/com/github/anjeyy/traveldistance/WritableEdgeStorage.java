@@ -0,0 +1,134 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.Locale;
+
+/**
+ * {@link EdgeStorage}, which is filled once by a {@link GraphSnapshot} and afterwards only changes its weights.
+ */
+interface WritableEdgeStorage extends EdgeStorage {
+  /**
+   * Backend keeping the edges of a {@link GraphSnapshot}.
+   */
+  enum Backend {
+    /** Primitive arrays on the heap. */
+    HEAP {
+      @Override
+      WritableEdgeStorage allocate(int vertexCount, int edgeCount) {
+        return new HeapEdgeStorage(vertexCount, edgeCount);
+      }
+    },
+    /** Direct buffers outside the heap, invisible to the garbage collector. Primary edge store. */
+    OFF_HEAP {
+      @Override
+      WritableEdgeStorage allocate(int vertexCount, int edgeCount) {
+        return OffHeapEdgeStorage.direct(vertexCount, edgeCount);
+      }
+
+      @Override
+      boolean isPrimaryEdgeStore() {
+        return true;
+      }
+    },
+    /** Memory mapped temporary file, paged in and out by the operating system. Primary edge store. */
+    MAPPED {
+      @Override
+      WritableEdgeStorage allocate(int vertexCount, int edgeCount) {
+        return OffHeapEdgeStorage.mapped(vertexCount, edgeCount);
+      }
+
+      @Override
+      boolean isPrimaryEdgeStore() {
+        return true;
+      }
+    },
+    /** Gap encoded targets and bit packed weights on the heap, decoded on the fly. Primary edge store. */
+    COMPRESSED {
+      @Override
+      WritableEdgeStorage allocate(int vertexCount, int edgeCount) {
+        return new CompressedEdgeStorage(vertexCount, edgeCount);
+      }
+
+      @Override
+      boolean isPrimaryEdgeStore() {
+        return true;
+      }
+    },
+    /** Primitive arrays on the heap together with an adjacency matrix for {@code O(1)} edge lookups. */
+    DENSE {
+      @Override
+      WritableEdgeStorage allocate(int vertexCount, int edgeCount) {
+        return new DenseEdgeStorage(vertexCount, edgeCount);
+      }
+    },
+    /**
+     * {@link #DENSE} for small graphs filled by more than {@value DenseEdgeStorage#MIN_FILL_PERCENT}%,
+     * {@link #HEAP} otherwise. The density is measured on every allocation, so a growing graph switches its backend
+     * with the next snapshot.
+     */
+    AUTO {
+      @Override
+      WritableEdgeStorage allocate(int vertexCount, int edgeCount) {
+        return DenseEdgeStorage.isDense(vertexCount, edgeCount)
+          ? DENSE.allocate(vertexCount, edgeCount)
+          : HEAP.allocate(vertexCount, edgeCount);
+      }
+    };
+
+    static final String PROPERTY = "travel-distance.storage";
+
+    /**
+     * Reads the optional system property {@value #PROPERTY}, e.g. {@code off-heap}.
+     *
+     * @return configured backend, {@link #AUTO} if not configured
+     */
+    static Backend fromSystemProperties() {
+      String backend = System.getProperty(PROPERTY);
+      if (backend == null) {
+        return AUTO;
+      }
+      try {
+        return valueOf(
+          backend.trim().replace('-', '_').toUpperCase(Locale.ROOT)
+        );
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+          "Please provide one of 'auto', 'heap', 'dense', 'off-heap', 'mapped' or 'compressed' as storage, yours was: " +
+          backend
+        );
+      }
+    }
+
+    /**
+     * @param vertexCount amount of vertices
+     * @param edgeCount amount of edges
+     * @return empty storage of the given size
+     */
+    abstract WritableEdgeStorage allocate(int vertexCount, int edgeCount);
+
+    /**
+     * A primary edge store replaces the hashed edges of a {@link DirectedWeightedGraph} between modifications.
+     * Once its snapshot is built, the graph releases its adjacency lists together with all {@link Edge} objects
+     * and only rebuilds them from the snapshot for the next modification.
+     *
+     * @return true if the hashed edges are released, false if they are kept beside the snapshot
+     */
+    boolean isPrimaryEdgeStore() {
+      return false;
+    }
+  }
+
+  /**
+   * @param vertex vertex id, {@code vertexCount} is allowed to set the overall end
+   * @param edgeIndex first index of the outgoing edges
+   */
+  void setEdgeStart(int vertex, int edgeIndex);
+
+  void setTarget(int edgeIndex, int target);
+
+  void setWeight(int edgeIndex, int weight);
+
+  /**
+   * Called once all offsets, targets and weights are set, before the first read. Afterwards only weights change.
+   */
+  default void seal() {}
+}
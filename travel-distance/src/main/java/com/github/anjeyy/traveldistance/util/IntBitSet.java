@@ -0,0 +1,97 @@
+package com.github.anjeyy.traveldistance.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable set of non-negative {@code int} values, stored as one bit per value.
+ * <p>
+ * {@link #clear()} keeps the allocated capacity, so that a reused set does not allocate anymore.
+ */
+public final class IntBitSet {
+
+  private long[] words;
+
+  /**
+   * @param capacity exclusive upper bound of the values, which fit without growing
+   */
+  public IntBitSet(int capacity) {
+    words = new long[wordsFor(capacity)];
+  }
+
+  private static int wordsFor(int capacity) {
+    return (capacity + 63) >>> 6;
+  }
+
+  /**
+   * @param capacity exclusive upper bound of the values, which fit without growing
+   */
+  public void ensureCapacity(int capacity) {
+    int required = wordsFor(capacity);
+    if (required > words.length) {
+      words = Arrays.copyOf(words, Math.max(required, words.length * 2));
+    }
+  }
+
+  public boolean get(int value) {
+    int word = value >>> 6;
+    return word < words.length && (words[word] & (1L << value)) != 0;
+  }
+
+  /**
+   * @param value value to add
+   * @return true if the value was not yet contained
+   */
+  public boolean set(int value) {
+    ensureCapacity(value + 1);
+    int word = value >>> 6;
+    long before = words[word];
+    words[word] = before | (1L << value);
+    return before != words[word];
+  }
+
+  public void clear(int value) {
+    int word = value >>> 6;
+    if (word < words.length) {
+      words[word] &= ~(1L << value);
+    }
+  }
+
+  /**
+   * Removes all values, but keeps the capacity.
+   */
+  public void clear() {
+    Arrays.fill(words, 0L);
+  }
+
+  /**
+   * Sets are equal if they contain the same values, regardless of their capacity.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof IntBitSet)) {
+      return false;
+    }
+    long[] otherWords = ((IntBitSet) o).words;
+    int length = Math.max(words.length, otherWords.length);
+    for (int i = 0; i < length; i++) {
+      long word = i < words.length ? words[i] : 0L;
+      long otherWord = i < otherWords.length ? otherWords[i] : 0L;
+      if (word != otherWord) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    long hash = 1234;
+    for (int i = 0; i < words.length; i++) {
+      hash ^= words[i] * (i + 1); // empty words do not contribute, like trailing capacity
+    }
+    return (int) ((hash >> 32) ^ hash);
+  }
+}
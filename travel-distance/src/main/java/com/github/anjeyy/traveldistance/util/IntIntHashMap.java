@@ -0,0 +1,156 @@
+package com.github.anjeyy.traveldistance.util;
+
+import java.util.Arrays;
+
+/**
+ * Map from {@code int} to {@code int} without boxing, based on <i>open addressing</i> with linear probing.
+ * The key {@code 0} marks a free slot and is therefore stored separately.
+ * <p>
+ * {@link #clear()} keeps the allocated capacity, so that a reused map does not allocate anymore.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Open_addressing">Wiki: Open addressing</a>
+ */
+public final class IntIntHashMap {
+
+  private static final int FREE_KEY = 0;
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+  private boolean hasFreeKey;
+  private int freeKeyValue;
+
+  public IntIntHashMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param expectedSize amount of entries which fit without resizing
+   */
+  public IntIntHashMap(int expectedSize) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Please provide expected size >=0.");
+    }
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  private static int tableSizeFor(int expectedSize) {
+    // load factor of 0.5 keeps probe sequences short
+    int capacity = Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) << 1;
+    return Math.max(capacity, 2);
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  private int slotOf(int key) {
+    int hash = key * 0x9E3779B9; // fibonacci hashing spreads consecutive ids
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  /**
+   * @param key any key
+   * @param defaultValue returned if the key is not present
+   * @return value mapped to the key
+   */
+  public int get(int key, int defaultValue) {
+    if (key == FREE_KEY) {
+      return hasFreeKey ? freeKeyValue : defaultValue;
+    }
+    for (int slot = slotOf(key);; slot = (slot + 1) & mask) {
+      int current = keys[slot];
+      if (current == key) {
+        return values[slot];
+      }
+      if (current == FREE_KEY) {
+        return defaultValue;
+      }
+    }
+  }
+
+  public boolean containsKey(int key) {
+    if (key == FREE_KEY) {
+      return hasFreeKey;
+    }
+    for (int slot = slotOf(key);; slot = (slot + 1) & mask) {
+      int current = keys[slot];
+      if (current == key) {
+        return true;
+      }
+      if (current == FREE_KEY) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * @param key any key
+   * @param value value to map
+   */
+  public void put(int key, int value) {
+    if (key == FREE_KEY) {
+      if (!hasFreeKey) {
+        size++;
+      }
+      hasFreeKey = true;
+      freeKeyValue = value;
+      return;
+    }
+    for (int slot = slotOf(key);; slot = (slot + 1) & mask) {
+      int current = keys[slot];
+      if (current == key) {
+        values[slot] = value;
+        return;
+      }
+      if (current == FREE_KEY) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+          rehash(keys.length * 2);
+        }
+        return;
+      }
+    }
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      int key = oldKeys[i];
+      if (key != FREE_KEY) {
+        int slot = slotOf(key);
+        while (keys[slot] != FREE_KEY) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all entries, but keeps the capacity.
+   */
+  public void clear() {
+    if (size > 0) {
+      Arrays.fill(keys, FREE_KEY);
+      size = 0;
+      hasFreeKey = false;
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package com.github.anjeyy.traveldistance.util;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of {@code int} keys in {@code [0, keyCapacity)} ordered by an {@code int} priority, without boxing.
+ * Every key is contained at most once and its position is tracked, so that {@link #offer(int, int)} of a
+ * contained key is a <i>decrease-key</i> in {@code O(log n)} instead of a duplicated entry.
+ * <p>
+ * {@link #clear()} takes {@code O(size)} and keeps the allocated capacity, so that a reused heap does not allocate
+ * anymore.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Binary_heap">Wiki: Binary heap</a>
+ */
+public final class IntMinHeap {
+
+  private static final int ABSENT = -1;
+
+  private int[] heapKeys;
+  private int[] heapPriorities;
+  private int[] positions;
+  private int size;
+
+  /**
+   * @param keyCapacity exclusive upper bound of the keys
+   */
+  public IntMinHeap(int keyCapacity) {
+    heapKeys = new int[Math.max(keyCapacity, 1)];
+    heapPriorities = new int[heapKeys.length];
+    positions = new int[keyCapacity];
+    Arrays.fill(positions, ABSENT);
+  }
+
+  /**
+   * Grows the heap, so that keys up to {@code keyCapacity} (exclusive) are allowed.
+   *
+   * @param keyCapacity exclusive upper bound of the keys
+   */
+  public void ensureKeyCapacity(int keyCapacity) {
+    if (keyCapacity > positions.length) {
+      int oldLength = positions.length;
+      positions = Arrays.copyOf(positions, keyCapacity);
+      Arrays.fill(positions, oldLength, keyCapacity, ABSENT);
+      heapKeys = Arrays.copyOf(heapKeys, keyCapacity);
+      heapPriorities = Arrays.copyOf(heapPriorities, keyCapacity);
+    }
+  }
+
+  /**
+   * Inserts the key, or lowers its priority if already contained with a higher one.
+   *
+   * @param key any key in {@code [0, keyCapacity)}
+   * @param priority priority of the key
+   * @return true if the heap changed
+   */
+  public boolean offer(int key, int priority) {
+    int position = positions[key];
+    if (position == ABSENT) {
+      position = size++;
+    } else if (priority >= heapPriorities[position]) {
+      return false;
+    }
+    siftUp(position, key, priority);
+    return true;
+  }
+
+  public boolean contains(int key) {
+    return positions[key] != ABSENT;
+  }
+
+  /**
+   * @return key with the lowest priority
+   */
+  public int peekKey() {
+    checkNotEmpty();
+    return heapKeys[0];
+  }
+
+  /**
+   * @return lowest priority
+   */
+  public int peekPriority() {
+    checkNotEmpty();
+    return heapPriorities[0];
+  }
+
+  /**
+   * Removes the key with the lowest priority, read it beforehand via {@link #peekKey()} and {@link #peekPriority()}.
+   *
+   * @return removed key
+   */
+  public int poll() {
+    checkNotEmpty();
+    int key = heapKeys[0];
+    positions[key] = ABSENT;
+    size--;
+    if (size > 0) {
+      siftDown(0, heapKeys[size], heapPriorities[size]);
+    }
+    return key;
+  }
+
+  private void checkNotEmpty() {
+    if (size == 0) {
+      throw new IllegalStateException("Heap is empty.");
+    }
+  }
+
+  private void siftUp(int position, int key, int priority) {
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (heapPriorities[parent] <= priority) {
+        break;
+      }
+      place(position, heapKeys[parent], heapPriorities[parent]);
+      position = parent;
+    }
+    place(position, key, priority);
+  }
+
+  private void siftDown(int position, int key, int priority) {
+    int half = size >>> 1;
+    while (position < half) {
+      int child = 2 * position + 1;
+      int right = child + 1;
+      if (right < size && heapPriorities[right] < heapPriorities[child]) {
+        child = right;
+      }
+      if (priority <= heapPriorities[child]) {
+        break;
+      }
+      place(position, heapKeys[child], heapPriorities[child]);
+      position = child;
+    }
+    place(position, key, priority);
+  }
+
+  private void place(int position, int key, int priority) {
+    heapKeys[position] = key;
+    heapPriorities[position] = priority;
+    positions[key] = position;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes all keys in {@code O(size)}, but keeps the capacity.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      positions[heapKeys[i]] = ABSENT;
+    }
+    size = 0;
+  }
+}
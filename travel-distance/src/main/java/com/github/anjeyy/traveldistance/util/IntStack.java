@@ -0,0 +1,94 @@
+package com.github.anjeyy.traveldistance.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable stack of {@code int} values without boxing, which also allows random access by index.
+ * <p>
+ * {@link #clear()} keeps the allocated capacity, so that a reused stack does not allocate anymore.
+ */
+public final class IntStack {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] elements;
+  private int size;
+
+  public IntStack() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity amount of values, which fit without growing
+   */
+  public IntStack(int capacity) {
+    elements = new int[Math.max(capacity, 1)];
+  }
+
+  public void push(int value) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, elements.length * 2);
+    }
+    elements[size++] = value;
+  }
+
+  public int pop() {
+    checkNotEmpty();
+    return elements[--size];
+  }
+
+  public int peek() {
+    checkNotEmpty();
+    return elements[size - 1];
+  }
+
+  /**
+   * @param index position counted from the bottom of the stack
+   * @return value at the position
+   */
+  public int get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+        "Index " + index + " out of bounds for size " + size
+      );
+    }
+    return elements[index];
+  }
+
+  /**
+   * @param index position counted from the bottom of the stack
+   * @param value replacing the value at the position
+   */
+  public void set(int index, int value) {
+    get(index); // bounds check
+    elements[index] = value;
+  }
+
+  private void checkNotEmpty() {
+    if (size == 0) {
+      throw new IllegalStateException("Stack is empty.");
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return copy of all values, from the bottom to the top of the stack
+   */
+  public int[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+
+  /**
+   * Removes all values, but keeps the capacity.
+   */
+  public void clear() {
+    size = 0;
+  }
+}
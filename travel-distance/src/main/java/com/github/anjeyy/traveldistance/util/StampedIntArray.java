@@ -0,0 +1,75 @@
+package com.github.anjeyy.traveldistance.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of {@code int} values indexed by non-negative {@code int} keys, e.g. vertex ids, where every entry
+ * is stamped with the <i>generation</i> it was written in. Entries of an older generation read as absent.
+ * <p>
+ * {@link #clear()} only starts a new generation, so that a reset takes {@code O(1)} instead of touching every entry,
+ * and keeps the allocated capacity. Only after all {@code 2^32 - 1} generations are used up, the stamps are wiped.
+ */
+public final class StampedIntArray {
+
+  private static final int STALE = 0; // never a live generation
+
+  private int[] values;
+  private int[] stamps;
+  private int generation = 1;
+
+  /**
+   * @param capacity exclusive upper bound of the keys, which fit without growing
+   */
+  public StampedIntArray(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Please provide capacity >=0.");
+    }
+    values = new int[capacity];
+    stamps = new int[capacity];
+  }
+
+  /**
+   * @param capacity exclusive upper bound of the keys, which fit without growing
+   */
+  public void ensureCapacity(int capacity) {
+    if (capacity > stamps.length) {
+      int newLength = Math.max(capacity, stamps.length * 2);
+      values = Arrays.copyOf(values, newLength);
+      stamps = Arrays.copyOf(stamps, newLength);
+    }
+  }
+
+  /**
+   * @param key any non-negative key
+   * @param defaultValue returned if the key was not written in the current generation
+   * @return value of the key
+   */
+  public int get(int key, int defaultValue) {
+    return containsKey(key) ? values[key] : defaultValue;
+  }
+
+  public boolean containsKey(int key) {
+    return key < stamps.length && stamps[key] == generation;
+  }
+
+  /**
+   * @param key any non-negative key, the array grows if necessary
+   * @param value value of the key
+   */
+  public void put(int key, int value) {
+    ensureCapacity(key + 1);
+    values[key] = value;
+    stamps[key] = generation;
+  }
+
+  /**
+   * Removes all entries in {@code O(1)}, but keeps the capacity.
+   */
+  public void clear() {
+    generation++;
+    if (generation == STALE) {
+      Arrays.fill(stamps, STALE);
+      generation++;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.github.anjeyy.traveldistance.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable set of non-negative {@code int} values, e.g. visited vertex ids, where every value is stamped with the
+ * <i>generation</i> it was added in. Values of an older generation are not contained anymore.
+ * <p>
+ * Unlike {@link IntBitSet#clear()}, {@link #clear()} only starts a new generation in {@code O(1)}, independent of the
+ * capacity. In return, every value takes an {@code int} instead of a bit.
+ *
+ * @see StampedIntArray
+ */
+public final class StampedIntSet {
+
+  private static final int STALE = 0; // never a live generation
+
+  private int[] stamps;
+  private int generation = 1;
+
+  /**
+   * @param capacity exclusive upper bound of the values, which fit without growing
+   */
+  public StampedIntSet(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Please provide capacity >=0.");
+    }
+    stamps = new int[capacity];
+  }
+
+  /**
+   * @param capacity exclusive upper bound of the values, which fit without growing
+   */
+  public void ensureCapacity(int capacity) {
+    if (capacity > stamps.length) {
+      stamps = Arrays.copyOf(stamps, Math.max(capacity, stamps.length * 2));
+    }
+  }
+
+  public boolean get(int value) {
+    return value < stamps.length && stamps[value] == generation;
+  }
+
+  /**
+   * @param value value to add, the set grows if necessary
+   * @return true if the value was not yet contained
+   */
+  public boolean set(int value) {
+    ensureCapacity(value + 1);
+    boolean added = stamps[value] != generation;
+    stamps[value] = generation;
+    return added;
+  }
+
+  public void clear(int value) {
+    if (value < stamps.length) {
+      stamps[value] = STALE;
+    }
+  }
+
+  /**
+   * Removes all values in {@code O(1)}, but keeps the capacity.
+   */
+  public void clear() {
+    generation++;
+    if (generation == STALE) {
+      Arrays.fill(stamps, STALE);
+      generation++;
+    }
+  }
+}
@@ -4,7 +4,8 @@ public enum StringConstant {
   NEW_LINE("\n"),
   EMPTY(""),
   WHITESPACE(" "),
-  COMMA(",");
+  COMMA(","),
+  SEMICOLON(";");
 
   private final String value;
 
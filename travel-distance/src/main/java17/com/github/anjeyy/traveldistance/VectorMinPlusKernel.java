@@ -0,0 +1,68 @@
+package com.github.anjeyy.traveldistance;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link MinPlusKernel} processing the columns of a row in lanes of the preferred vector width, via the incubating
+ * <i>Vector API</i>. Columns beyond the last full vector are processed like {@link ScalarMinPlusKernel} does.
+ * <p>
+ * <b>Note:</b> Only compiled on JDK 17+ (Maven profile {@code vector}) and only loaded with
+ * {@code --add-modules jdk.incubator.vector}, see {@link MinPlusKernel#vector()}.
+ */
+final class VectorMinPlusKernel implements MinPlusKernel {
+
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+  @Override
+  public void relax(
+    int[] matrix,
+    int stride,
+    int rowFrom,
+    int rowTo,
+    int columnFrom,
+    int columnTo,
+    int pivotFrom,
+    int pivotTo
+  ) {
+    int vectorTo = columnFrom + SPECIES.loopBound(columnTo - columnFrom);
+    for (int pivot = pivotFrom; pivot < pivotTo; pivot++) {
+      int pivotOffset = pivot * stride;
+      for (int row = rowFrom; row < rowTo; row++) {
+        int rowOffset = row * stride;
+        int toPivot = matrix[rowOffset + pivot];
+        if (toPivot == INFINITY) {
+          continue;
+        }
+        IntVector toPivotLanes = IntVector.broadcast(SPECIES, toPivot);
+        int column = columnFrom;
+        for (; column < vectorTo; column += SPECIES.length()) {
+          IntVector fromPivot = IntVector.fromArray(
+            SPECIES,
+            matrix,
+            pivotOffset + column
+          );
+          VectorMask<Integer> reachable = fromPivot.compare(
+            VectorOperators.NE,
+            INFINITY
+          );
+          IntVector
+            .fromArray(SPECIES, matrix, rowOffset + column)
+            .lanewise(VectorOperators.MIN, fromPivot.add(toPivotLanes), reachable)
+            .intoArray(matrix, rowOffset + column);
+        }
+        for (; column < columnTo; column++) {
+          int fromPivot = matrix[pivotOffset + column];
+          if (fromPivot != INFINITY) {
+            int viaPivot = toPivot + fromPivot;
+            if (viaPivot < matrix[rowOffset + column]) {
+              matrix[rowOffset + column] = viaPivot;
+            }
+          }
+        }
+      }
+    }
+  }
+}
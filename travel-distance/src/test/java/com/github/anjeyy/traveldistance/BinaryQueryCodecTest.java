@@ -0,0 +1,132 @@
+package com.github.anjeyy.traveldistance;
+
+import java.nio.ByteBuffer;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BinaryQueryCodecTest {
+
+  private static final Vertex SOLAR_SYSTEM = Vertex.with("Solar System");
+  private static final Vertex ALPHA_CENTAURI = Vertex.with("Alpha Centauri");
+  private static final Vertex SIRIUS = Vertex.with("Sirius");
+  private static final Vertex BETELGEUSE = Vertex.with("Betelgeuse");
+  private static final Vertex VEGA = Vertex.with("Vega");
+
+  @Test
+  void givenEncodedQueries_decodingExecutesLikeText() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    QueryParser parser = new QueryParser();
+    String[][] textQueries = {
+      { "1", "Solar System, Alpha Centauri, Sirius" },
+      { "2", "Sirius, Sirius, 3" },
+      { "3", "Solar System, Sirius, 4" },
+      { "4", "Solar System, Sirius" },
+      { "5", "Sirius, Sirius, 30" },
+      { "7", "Solar System, Vega; Sirius, Solar System" },
+      { "8", "Solar System, Sirius, 2" },
+      { "9", "Solar System, 9" },
+    };
+    ByteBuffer buffer = ByteBuffer.allocate(1024);
+    for (String[] textQuery : textQueries) {
+      Mode mode = Mode.from(Integer.parseInt(textQuery[0]));
+      Query query = parser.parse(mode, textQuery[1]);
+      BinaryQueryCodec.encode(query, graph, buffer);
+    }
+    buffer.flip();
+
+    for (String[] textQuery : textQueries) {
+      // when
+      Query query = BinaryQueryCodec.decode(buffer, graph, new Query());
+      String actual = query
+        .getMode()
+        .execute(graph, query, QueryBudget.unlimited());
+
+      // then
+      Mode mode = Mode.from(Integer.parseInt(textQuery[0]));
+      Assertions.assertThat(query.getMode()).isEqualTo(mode);
+      Assertions
+        .assertThat(actual)
+        .isEqualTo(mode.compute(graph, textQuery[1]));
+    }
+    Assertions.assertThat(buffer.hasRemaining()).isFalse();
+  }
+
+  @Test
+  void givenUnknownVertex_encodingThrowsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Query query = new QueryParser()
+      .parse(Mode.TRAVEL_TIME_SHORTEST_PATH, "Solar System, Andromeda");
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> BinaryQueryCodec.encode(query, graph, ByteBuffer.allocate(64))
+      )
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessageStartingWith("Vertex is not part of the graph");
+  }
+
+  @Test
+  void givenUnknownVertexId_decodingThrowsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    buffer.putInt(13).put((byte) 4).putInt(2).putInt(0).putInt(42).flip();
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> BinaryQueryCodec.decode(buffer, graph, new Query())
+      )
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Unknown vertex id: 42");
+  }
+
+  @Test
+  void givenWrongVertexCount_decodingThrowsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    buffer.putInt(9).put((byte) 4).putInt(1).putInt(0).flip();
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> BinaryQueryCodec.decode(buffer, graph, new Query())
+      )
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("invalid vertex count 1");
+  }
+
+  @Test
+  void givenIncompleteFrame_decodingThrowsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    buffer.putInt(13).put((byte) 4).putInt(2).flip();
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> BinaryQueryCodec.decode(buffer, graph, new Query())
+      )
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Binary query frame is incomplete.");
+  }
+
+  private static DirectedWeightedGraph constructSpaceHighways() {
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    graph.addEdge(new Edge(SOLAR_SYSTEM, ALPHA_CENTAURI, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, BETELGEUSE, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, VEGA, 7));
+    graph.addEdge(new Edge(ALPHA_CENTAURI, SIRIUS, 4));
+    graph.addEdge(new Edge(BETELGEUSE, SIRIUS, 8));
+    graph.addEdge(new Edge(BETELGEUSE, VEGA, 6));
+    graph.addEdge(new Edge(SIRIUS, BETELGEUSE, 8));
+    graph.addEdge(new Edge(SIRIUS, VEGA, 2));
+    graph.addEdge(new Edge(VEGA, ALPHA_CENTAURI, 3));
+    return graph;
+  }
+}
@@ -0,0 +1,146 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ComponentIndexTest {
+
+  @Test
+  void givenSpaceHighways_buildingIndex_findsOneCyclicComponent() {
+    // given
+    GraphSnapshot snapshot = GraphSnapshot.of(createSpaceHighways());
+
+    // when
+    ComponentIndex index = ComponentIndex.build(snapshot);
+    int solarSystem = snapshot.idOf(Vertex.with("Solar System"));
+    int sirius = snapshot.idOf(Vertex.with("Sirius"));
+    int vega = snapshot.idOf(Vertex.with("Vega"));
+
+    // then
+    Assertions.assertThat(index.componentCount()).isEqualTo(2);
+    Assertions.assertThat(index.hasCycle()).isTrue();
+    Assertions
+      .assertThat(index.componentOf(sirius))
+      .isEqualTo(index.componentOf(vega));
+    Assertions.assertThat(index.isCyclic(index.componentOf(sirius))).isTrue();
+    Assertions
+      .assertThat(index.isCyclic(index.componentOf(solarSystem)))
+      .isFalse();
+    Assertions
+      .assertThat(index.topologicalRank(index.componentOf(solarSystem)))
+      .isLessThan(index.topologicalRank(index.componentOf(sirius)));
+  }
+
+  @Test
+  void givenSpaceHighways_askingForReachability_answersExactly() {
+    // given
+    GraphSnapshot snapshot = GraphSnapshot.of(createSpaceHighways());
+    ComponentIndex index = ComponentIndex.build(snapshot);
+    int solarSystem = snapshot.idOf(Vertex.with("Solar System"));
+    int sirius = snapshot.idOf(Vertex.with("Sirius"));
+
+    // when-then
+    Assertions.assertThat(index.mayReach(solarSystem, sirius)).isTrue();
+    Assertions.assertThat(index.mayReach(sirius, solarSystem)).isFalse();
+    Assertions.assertThat(index.mayHaveRoute(sirius, sirius)).isTrue();
+    Assertions.assertThat(index.mayHaveRoute(solarSystem, solarSystem)).isFalse();
+  }
+
+  @Test
+  void givenDisconnectedChains_askingForReachability_rejectsOtherChain() {
+    // given
+    Map<Vertex, Map<Vertex, Edge>> adjacencyList = new LinkedHashMap<>();
+    addEdge(adjacencyList, "a", "b");
+    addEdge(adjacencyList, "b", "c");
+    addEdge(adjacencyList, "x", "y");
+    GraphSnapshot snapshot = GraphSnapshot.of(adjacencyList);
+
+    // when
+    ComponentIndex index = ComponentIndex.build(snapshot);
+
+    // then
+    Assertions.assertThat(index.componentCount()).isEqualTo(5);
+    Assertions.assertThat(index.hasCycle()).isFalse();
+    Assertions
+      .assertThat(index.mayReach(id(snapshot, "a"), id(snapshot, "c")))
+      .isTrue();
+    Assertions
+      .assertThat(index.mayReach(id(snapshot, "a"), id(snapshot, "y")))
+      .isFalse();
+    Assertions
+      .assertThat(index.mayReach(id(snapshot, "x"), id(snapshot, "c")))
+      .isFalse();
+  }
+
+  @Test
+  void givenManyComponents_lazyIndex_skipsClosureBuiltInBackground() {
+    // given
+    Map<Vertex, Map<Vertex, Edge>> adjacencyList = new LinkedHashMap<>();
+    int chainLength = ComponentIndex.MAX_LAZY_CLOSURE_COMPONENTS + 1;
+    for (int i = 1; i < chainLength; i++) {
+      addEdge(adjacencyList, "v" + (i - 1), "v" + i);
+    }
+    GraphSnapshot snapshot = GraphSnapshot.of(adjacencyList);
+
+    // when
+    ComponentIndex lazy = ComponentIndex.build(snapshot);
+    ComponentIndex background = ComponentIndex.build(
+      snapshot,
+      ComponentIndex.MAX_BACKGROUND_CLOSURE_COMPONENTS
+    );
+
+    // then
+    Assertions.assertThat(lazy.componentCount()).isEqualTo(chainLength);
+    Assertions.assertThat(lazy.hasClosure()).isFalse();
+    Assertions.assertThat(background.hasClosure()).isTrue();
+    int first = id(snapshot, "v0");
+    int last = id(snapshot, "v" + (chainLength - 1));
+    Assertions.assertThat(lazy.mayReach(first, last)).isTrue();
+    Assertions.assertThat(background.mayReach(first, last)).isTrue();
+    Assertions.assertThat(lazy.mayReach(last, first)).isFalse();
+    Assertions.assertThat(background.mayReach(last, first)).isFalse();
+  }
+
+  // ### H E L P E R ###
+
+  private static int id(GraphSnapshot snapshot, String label) {
+    return snapshot.idOf(Vertex.with(label));
+  }
+
+  private static void addEdge(
+    Map<Vertex, Map<Vertex, Edge>> adjacencyList,
+    String source,
+    String destination
+  ) {
+    Edge edge = new Edge(Vertex.with(source), Vertex.with(destination), 1);
+    adjacencyList
+      .computeIfAbsent(edge.getSource(), k -> new LinkedHashMap<>())
+      .put(edge.getDestination(), edge);
+  }
+
+  private static Map<Vertex, Map<Vertex, Edge>> createSpaceHighways() {
+    Map<Vertex, Map<Vertex, Edge>> adjacencyList = new LinkedHashMap<>();
+    List
+      .of(
+        new Edge(Vertex.with("Solar System"), Vertex.with("Alpha Centauri"), 5),
+        new Edge(Vertex.with("Solar System"), Vertex.with("Betelgeuse"), 5),
+        new Edge(Vertex.with("Solar System"), Vertex.with("Vega"), 7),
+        new Edge(Vertex.with("Alpha Centauri"), Vertex.with("Sirius"), 4),
+        new Edge(Vertex.with("Betelgeuse"), Vertex.with("Sirius"), 8),
+        new Edge(Vertex.with("Betelgeuse"), Vertex.with("Vega"), 6),
+        new Edge(Vertex.with("Sirius"), Vertex.with("Betelgeuse"), 8),
+        new Edge(Vertex.with("Sirius"), Vertex.with("Vega"), 2),
+        new Edge(Vertex.with("Vega"), Vertex.with("Alpha Centauri"), 3)
+      )
+      .forEach(
+        edge ->
+          adjacencyList
+            .computeIfAbsent(edge.getSource(), k -> new LinkedHashMap<>())
+            .put(edge.getDestination(), edge)
+      );
+    return adjacencyList;
+  }
+}
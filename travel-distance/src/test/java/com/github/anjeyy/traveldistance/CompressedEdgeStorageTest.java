@@ -0,0 +1,313 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CompressedEdgeStorageTest {
+
+  @Test
+  void givenRandomEdges_decodedEdges_matchSortedHeapStorage() {
+    // given
+    HeapEdgeStorage heap = fillRandomly(
+      new HeapEdgeStorage(500, 5_000),
+      new Random(38)
+    );
+    CompressedEdgeStorage compressed = fillRandomly(
+      new CompressedEdgeStorage(500, 5_000),
+      new Random(38)
+    );
+
+    // when
+    compressed.seal();
+
+    // then
+    for (int vertex = 0; vertex < heap.vertexCount(); vertex++) {
+      Assertions
+        .assertThat(compressed.edgeEnd(vertex))
+        .isEqualTo(heap.edgeEnd(vertex));
+      List<int[]> heapEdges = edgesOf(heap, vertex);
+      heapEdges.sort(Comparator.comparingInt(edge -> edge[0])); // stable
+      Assertions
+        .assertThat(edgesOf(compressed, vertex))
+        .usingElementComparator(Arrays::compare)
+        .containsExactlyElementsOf(heapEdges);
+    }
+  }
+
+  @Test
+  void givenRandomAccess_targets_matchSequentialDecoding() {
+    // given
+    Random random = new Random(7);
+    CompressedEdgeStorage compressed = fillRandomly(
+      new CompressedEdgeStorage(100, 1_000),
+      random
+    );
+    compressed.seal();
+    int[] sequential = new int[compressed.edgeCount()];
+    for (int e = 0; e < sequential.length; e++) {
+      sequential[e] = compressed.target(e);
+    }
+
+    for (int round = 0; round < 10_000; round++) {
+      // when
+      int e = random.nextInt(sequential.length);
+
+      // then
+      Assertions.assertThat(compressed.target(e)).isEqualTo(sequential[e]);
+    }
+  }
+
+  @Test
+  void givenInterleavedRows_targetRows_matchSingleTargets() {
+    // given
+    Random random = new Random(19);
+    CompressedEdgeStorage compressed = fillRandomly(
+      new CompressedEdgeStorage(100, 2_000),
+      random
+    );
+    HeapEdgeStorage heap = fillRandomly(
+      new HeapEdgeStorage(100, 2_000),
+      new Random(19)
+    );
+    compressed.seal();
+    TargetRows compressedRows = new TargetRows();
+    TargetRows heapRows = new TargetRows();
+
+    for (int round = 0; round < 1_000; round++) {
+      // when
+      int depth = random.nextInt(4);
+      int vertex = random.nextInt(compressed.vertexCount());
+      compressedRows.decode(compressed, depth, vertex);
+      heapRows.decode(heap, depth, vertex);
+
+      // then
+      for (
+        int e = compressed.edgeStart(vertex);
+        e < compressed.edgeEnd(vertex);
+        e++
+      ) {
+        Assertions
+          .assertThat(compressedRows.target(depth, e))
+          .isEqualTo(compressed.target(e));
+        Assertions
+          .assertThat(heapRows.target(depth, e))
+          .isEqualTo(heap.target(e));
+      }
+    }
+  }
+
+  @Test
+  void givenWeightOutsideBitWidth_weightsAreRepacked() {
+    // given
+    CompressedEdgeStorage compressed = fillRandomly(
+      new CompressedEdgeStorage(50, 200),
+      new Random(3)
+    );
+    compressed.seal();
+    int[] expected = new int[compressed.edgeCount()];
+    for (int e = 0; e < expected.length; e++) {
+      expected[e] = compressed.weight(e);
+    }
+
+    // when
+    compressed.setWeight(17, Integer.MIN_VALUE);
+    compressed.setWeight(42, Integer.MAX_VALUE);
+    compressed.setWeight(43, 5);
+    expected[17] = Integer.MIN_VALUE;
+    expected[42] = Integer.MAX_VALUE;
+    expected[43] = 5;
+
+    // then
+    for (int e = 0; e < expected.length; e++) {
+      Assertions.assertThat(compressed.weight(e)).isEqualTo(expected[e]);
+    }
+  }
+
+  @Test
+  void givenLocalGraph_compressedEdges_useLessMemory() {
+    // given
+    int vertexCount = 10_000;
+    int degree = 8;
+    CompressedEdgeStorage compressed = new CompressedEdgeStorage(
+      vertexCount,
+      vertexCount * degree
+    );
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      compressed.setEdgeStart(vertex, vertex * degree);
+      for (int i = 0; i < degree; i++) {
+        int e = vertex * degree + i;
+        compressed.setTarget(e, (vertex + 1 + i * 3) % vertexCount);
+        compressed.setWeight(e, 1 + (e % 60));
+      }
+    }
+    compressed.setEdgeStart(vertexCount, vertexCount * degree);
+
+    // when
+    compressed.seal();
+
+    // then
+    long heapBytes =
+      (long) Integer.BYTES * (vertexCount + 1 + 2 * vertexCount * degree);
+    Assertions.assertThat(compressed.usedBytes()).isLessThan(heapBytes / 2);
+  }
+
+  @Test
+  void givenShuffledTargets_sortedGaps_fitIntoSingleBytes() {
+    // given
+    int vertexCount = 1_000;
+    int degree = 100;
+    Random random = new Random(5);
+    CompressedEdgeStorage compressed = new CompressedEdgeStorage(
+      vertexCount,
+      vertexCount * degree
+    );
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      compressed.setEdgeStart(vertex, vertex * degree);
+      List<Integer> targets = new ArrayList<>();
+      for (int i = 1; i <= degree; i++) {
+        targets.add((vertex + i) % vertexCount);
+      }
+      Collections.shuffle(targets, random);
+      for (int i = 0; i < degree; i++) {
+        int e = vertex * degree + i;
+        compressed.setTarget(e, targets.get(i));
+        compressed.setWeight(e, 1 + random.nextInt(60));
+      }
+    }
+    compressed.setEdgeStart(vertexCount, vertexCount * degree);
+
+    // when
+    compressed.seal();
+
+    // then
+    long heapBytes =
+      (long) Integer.BYTES * (vertexCount + 1 + 2 * vertexCount * degree);
+    Assertions.assertThat(compressed.usedBytes()).isLessThan(heapBytes / 4);
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      for (
+        int e = compressed.edgeStart(vertex) + 1;
+        e < compressed.edgeEnd(vertex);
+        e++
+      ) {
+        Assertions
+          .assertThat(compressed.target(e))
+          .isGreaterThan(compressed.target(e - 1));
+      }
+    }
+  }
+
+  @Test
+  void givenCompressedGraph_routes_matchHeapGraph() {
+    // given
+    DirectedWeightedGraph heapGraph = DirectedWeightedGraph.create(
+      WritableEdgeStorage.Backend.HEAP
+    );
+    DirectedWeightedGraph compressedGraph = DirectedWeightedGraph.create(
+      WritableEdgeStorage.Backend.COMPRESSED
+    );
+    Random random = new Random(11);
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      vertices.add(Vertex.with("v" + i));
+    }
+    for (int i = 0; i < 60; i++) {
+      Vertex source = vertices.get(random.nextInt(vertices.size()));
+      Vertex destination = vertices.get(random.nextInt(vertices.size()));
+      int weight = 1 + random.nextInt(20);
+      if (!source.equals(destination)) {
+        heapGraph.addEdge(new Edge(source, destination, weight));
+        compressedGraph.addEdge(new Edge(source, destination, weight));
+      }
+    }
+    heapGraph.compact();
+    compressedGraph.compact();
+
+    // when + then
+    for (Vertex source : vertices) {
+      for (Vertex destination : vertices) {
+        Assertions
+          .assertThat(
+            compressedGraph.calculateShortestRoute(source, destination)
+          )
+          .isEqualTo(heapGraph.calculateShortestRoute(source, destination));
+        // routes of equal travel time are listed in neighbor order, which is sorted by the compressed storage
+        Assertions
+          .assertThat(
+            linesOf(
+              compressedGraph.determineAndDisplayRoutesWithMaxTime(
+                source,
+                destination,
+                30
+              )
+            )
+          )
+          .containsExactlyInAnyOrderElementsOf(
+            linesOf(
+              heapGraph.determineAndDisplayRoutesWithMaxTime(
+                source,
+                destination,
+                30
+              )
+            )
+          );
+      }
+    }
+    Assertions.assertThat(compressedGraph.isReleased()).isTrue();
+    Assertions.assertThat(heapGraph.isReleased()).isFalse();
+  }
+
+  @Test
+  void givenUnsealedStorage_readingThrowsException() {
+    // given
+    CompressedEdgeStorage compressed = new CompressedEdgeStorage(1, 0);
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(() -> compressed.weight(0))
+      .isExactlyInstanceOf(IllegalStateException.class)
+      .hasMessage("Compressed edges have to be sealed before reading them.");
+  }
+
+  // ### H E L P E R ###
+
+  private static <S extends WritableEdgeStorage> S fillRandomly(
+    S storage,
+    Random random
+  ) {
+    int vertexCount = storage.vertexCount();
+    int edgeCount = storage.edgeCount();
+    int maxDegree = 2 * edgeCount / vertexCount;
+    int position = 0;
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      storage.setEdgeStart(vertex, position);
+      int degree = vertex == vertexCount - 1
+        ? edgeCount - position
+        : Math.min(edgeCount - position, random.nextInt(maxDegree + 1));
+      for (int i = 0; i < degree; i++) {
+        storage.setTarget(position, random.nextInt(vertexCount));
+        storage.setWeight(position, random.nextInt(1_000) - 100);
+        position++;
+      }
+    }
+    storage.setEdgeStart(vertexCount, position);
+    return storage;
+  }
+
+  private static List<int[]> edgesOf(EdgeStorage storage, int vertex) {
+    List<int[]> edges = new ArrayList<>();
+    for (int e = storage.edgeStart(vertex); e < storage.edgeEnd(vertex); e++) {
+      edges.add(new int[] { storage.target(e), storage.weight(e) });
+    }
+    return edges;
+  }
+
+  private static List<String> linesOf(String routes) {
+    return List.of(routes.split("\n"));
+  }
+}
@@ -0,0 +1,20 @@
+package com.github.anjeyy.traveldistance;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+
+/**
+ * Runs every test of {@link DirectedWeightedGraphTest} on graphs with a {@link DenseEdgeStorage}.
+ */
+class DenseDirectedWeightedGraphTest extends DirectedWeightedGraphTest {
+
+  @BeforeAll
+  static void useDenseStorage() {
+    System.setProperty(WritableEdgeStorage.Backend.PROPERTY, "dense");
+  }
+
+  @AfterAll
+  static void clearStorage() {
+    System.clearProperty(WritableEdgeStorage.Backend.PROPERTY);
+  }
+}
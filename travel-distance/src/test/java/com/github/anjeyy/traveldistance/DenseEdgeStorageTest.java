@@ -0,0 +1,131 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.Test;
+
+class DenseEdgeStorageTest {
+
+  private static final Vertex SOLAR_SYSTEM = Vertex.with("Solar System");
+  private static final Vertex ALPHA_CENTAURI = Vertex.with("Alpha Centauri");
+  private static final Vertex SIRIUS = Vertex.with("Sirius");
+  private static final Vertex VEGA = Vertex.with("Vega");
+
+  @Test
+  void givenFill_isDense_onlyBeyondHalfOfAllPossibleEdges() {
+    // given
+    int vertexCount = 10; // 90 possible edges without self-references
+
+    // when + then
+    Assertions.assertThat(DenseEdgeStorage.isDense(vertexCount, 45)).isFalse();
+    Assertions.assertThat(DenseEdgeStorage.isDense(vertexCount, 46)).isTrue();
+    Assertions.assertThat(DenseEdgeStorage.isDense(1, 0)).isFalse();
+    Assertions
+      .assertThat(
+        DenseEdgeStorage.isDense(DenseEdgeStorage.MAX_VERTICES + 1, 1 << 30)
+      )
+      .isFalse();
+  }
+
+  @Test
+  void givenSealedStorage_edgeIndex_isFoundInMatrix() {
+    // given
+    WritableEdgeStorage storage = new DenseEdgeStorage(3, 3);
+    storage.setEdgeStart(0, 0);
+    storage.setEdgeStart(1, 2);
+    storage.setEdgeStart(2, 3);
+    storage.setEdgeStart(3, 3);
+    storage.setTarget(0, 2);
+    storage.setTarget(1, 1);
+    storage.setTarget(2, 0);
+
+    // when
+    storage.seal();
+
+    // then
+    Assertions.assertThat(storage.edgeIndex(0, 2)).isEqualTo(0);
+    Assertions.assertThat(storage.edgeIndex(0, 1)).isEqualTo(1);
+    Assertions.assertThat(storage.edgeIndex(1, 0)).isEqualTo(2);
+    Assertions
+      .assertThat(storage.edgeIndex(2, 0))
+      .isEqualTo(EdgeStorage.NO_EDGE);
+    Assertions
+      .assertThat(storage.edgeIndex(1, 2))
+      .isEqualTo(EdgeStorage.NO_EDGE);
+  }
+
+  @Test
+  void givenGrowingAndShrinkingGraph_autoBackend_switchesStorage() {
+    // given
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create(
+      WritableEdgeStorage.Backend.AUTO
+    );
+    graph.addEdge(new Edge(SOLAR_SYSTEM, ALPHA_CENTAURI, 5));
+    graph.addEdge(new Edge(ALPHA_CENTAURI, SIRIUS, 4));
+    graph.addEdge(new Edge(SIRIUS, VEGA, 2));
+    boolean sparseBefore = graph.snapshot().isDense();
+
+    // when
+    graph.addEdge(new Edge(VEGA, SOLAR_SYSTEM, 1));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, SIRIUS, 8));
+    graph.addEdge(new Edge(SIRIUS, SOLAR_SYSTEM, 3));
+    graph.addEdge(new Edge(ALPHA_CENTAURI, VEGA, 6)); // 7 of 12 possible edges
+    boolean denseAfterGrowing = graph.snapshot().isDense();
+    String denseTravelTime = graph.travelTimeForGivenRoute(
+      List.of(SOLAR_SYSTEM, ALPHA_CENTAURI, VEGA, SOLAR_SYSTEM)
+    );
+    graph.removeEdge(new Edge(ALPHA_CENTAURI, VEGA, 6));
+
+    // then
+    Assertions.assertThat(sparseBefore).isFalse();
+    Assertions.assertThat(denseAfterGrowing).isTrue();
+    Assertions.assertThat(denseTravelTime).isEqualTo("12 hours");
+    Assertions.assertThat(graph.snapshot().isDense()).isFalse();
+  }
+
+  @Test
+  void givenDenseGraph_changedWeight_isMirroredToMatrix() {
+    // given
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create(
+      WritableEdgeStorage.Backend.DENSE
+    );
+    graph.addEdge(new Edge(SOLAR_SYSTEM, SIRIUS, 5));
+    graph.addEdge(new Edge(SIRIUS, VEGA, 2));
+    graph.snapshot();
+
+    // when
+    graph.getEdge(SIRIUS, VEGA).setWeight(7);
+
+    // then
+    Assertions
+      .assertThat(
+        graph.travelTimeForGivenRoute(List.of(SOLAR_SYSTEM, SIRIUS, VEGA))
+      )
+      .isEqualTo("12 hours");
+    Assertions
+      .assertThat(graph.travelTimeForGivenRoute(List.of(VEGA, SIRIUS)))
+      .isEqualTo("NO SUCH ROUTE");
+    Assertions
+      .assertThat(
+        graph.travelTimeForGivenRoute(List.of(SOLAR_SYSTEM, ALPHA_CENTAURI))
+      )
+      .isEqualTo("NO SUCH ROUTE");
+  }
+
+  @Test
+  void givenTooManyVertices_throwsException() {
+    // given
+    int vertexCount = DenseEdgeStorage.MAX_VERTICES + 1;
+
+    // when
+    ThrowableAssert.ThrowingCallable expectedThrow = () ->
+      new DenseEdgeStorage(vertexCount, 0);
+
+    // then
+    Assertions
+      .assertThatThrownBy(expectedThrow)
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessageStartingWith("Please provide at most 4096 vertices");
+  }
+}
@@ -1,6 +1,13 @@
 package com.github.anjeyy.traveldistance;
 
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
 import org.assertj.core.api.ThrowableAssert;
@@ -211,6 +218,45 @@ class DirectedWeightedGraphTest {
     Assertions.assertThat(actual).isNotBlank().isEqualTo(expected);
   }
 
+  @Test
+  void givenGraph_findRoutesWithMaxStops_returnsVertexIds() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    GraphSnapshot snapshot = graph.snapshot();
+
+    // when
+    RouteList actual = graph.findRoutesWithMaxStops(
+      Vertex.with("Sirius"),
+      Vertex.with("Sirius"),
+      3,
+      QueryBudget.unlimited()
+    );
+
+    // then
+    Assertions.assertThat(actual.routeCount()).isEqualTo(2);
+    Assertions.assertThat(actual.isTruncated()).isFalse();
+    Assertions.assertThat(actual.routeLength(1)).isEqualTo(4);
+    Assertions
+      .assertThat(snapshot.vertexOf(actual.vertexId(1, 1)))
+      .isEqualTo(Vertex.with("Vega"));
+    Assertions
+      .assertThat(actual.route(0))
+      .containsExactly(
+        Vertex.with("Sirius"),
+        Vertex.with("Betelgeuse"),
+        Vertex.with("Sirius")
+      );
+    Assertions
+      .assertThat(actual)
+      .hasToString(
+        graph.determineAndDisplayRoutesWithMaxStops(
+          Vertex.with("Sirius"),
+          Vertex.with("Sirius"),
+          3
+        )
+      );
+  }
+
   @Test
   void givenGraph_withOneMaxStop_findsRoute() {
     // given
@@ -287,6 +333,56 @@ class DirectedWeightedGraphTest {
     Assertions.assertThat(actual).isNotBlank().isEqualTo(expected);
   }
 
+  @ParameterizedTest
+  @ValueSource(ints = { 0, 1, 2, 4, 6 })
+  void givenRandomGraph_withExactInBetweenStops_equalsFilteredMaxStopRoutes(
+    int exactStops
+  ) {
+    // given
+    Random random = new Random(42);
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    for (int i = 0; i < 40; i++) {
+      int source = random.nextInt(10);
+      int destination = (source + 1 + random.nextInt(9)) % 10;
+      graph.addEdge(
+        new Edge(
+          Vertex.with("v" + source),
+          Vertex.with("v" + destination),
+          1 + random.nextInt(9)
+        )
+      );
+    }
+    int totalStops = exactStops + 2;
+
+    for (int destination = 0; destination < 10; destination++) {
+      // when
+      String actual = graph.determineAndDisplayRoutesWithExactlyStops(
+        Vertex.with("v0"),
+        Vertex.with("v" + destination),
+        exactStops
+      );
+      String maxStopRoutes = graph.determineAndDisplayRoutesWithMaxStops(
+        Vertex.with("v0"),
+        Vertex.with("v" + destination),
+        totalStops
+      );
+      List<String> expectedRoutes = new ArrayList<>();
+      for (String line : maxStopRoutes.split("\n")) {
+        if (line.startsWith("[") && line.split("], ").length == totalStops) {
+          expectedRoutes.add(line);
+        }
+      }
+
+      // then
+      String expected = expectedRoutes.isEmpty()
+        ? "NO SUCH ROUTE"
+        : expectedRoutes.size() +
+        " routes: \n" +
+        String.join("\n", expectedRoutes);
+      Assertions.assertThat(actual).isEqualTo(expected);
+    }
+  }
+
   @Test
   void givenGraph_withInvalidExactRoutes_findsNoRoutes() {
     // given
@@ -304,6 +400,84 @@ class DirectedWeightedGraphTest {
     Assertions.assertThat(actual).isNotBlank().isEqualTo(expected);
   }
 
+  @Test
+  void givenEvenCycle_withHugeEvenExactHops_findsNoRouteViaPeriod() {
+    // given
+    Vertex vega = Vertex.with("Vega");
+    Vertex sirius = Vertex.with("Sirius");
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    graph.addEdge(new Edge(vega, sirius, 1));
+    graph.addEdge(new Edge(sirius, vega, 1));
+
+    // when
+    String actual = graph.determineAndDisplayRoutesWithExactlyStops(
+      vega,
+      sirius,
+      Integer.MAX_VALUE - 2 // an even amount of hops never ends at the other vertex
+    );
+
+    // then
+    Assertions.assertThat(actual).isEqualTo("NO SUCH ROUTE");
+  }
+
+  @Test
+  void givenHugeExactStops_withTimeout_returnsInTime() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    QueryBudget budget = QueryBudget
+      .unlimited()
+      .withTimeout(Duration.ofMillis(50));
+
+    // when
+    long start = System.nanoTime();
+    String actual = graph.determineAndDisplayRoutesWithExactlyStops(
+      Vertex.with("Sirius"),
+      Vertex.with("Sirius"),
+      Integer.MAX_VALUE - 1,
+      budget
+    );
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    // then
+    Assertions.assertThat(actual).contains("(TRUNCATED: deadline exceeded)");
+    Assertions.assertThat(elapsed).isLessThan(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void givenInterruptedThread_computingExactHopReachability_isCancelled() {
+    // given
+    int ringSize = 2_000;
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    for (int i = 0; i < ringSize; i++) {
+      graph.addEdge(
+        new Edge(
+          Vertex.with("v" + i),
+          Vertex.with("v" + ((i + 1) % ringSize)),
+          1
+        )
+      );
+    }
+
+    // when
+    Thread.currentThread().interrupt();
+    ThrowableAssert.ThrowingCallable expectedThrow = () ->
+      graph.determineAndDisplayRoutesWithExactlyStops(
+        Vertex.with("v0"),
+        Vertex.with("v1"),
+        Integer.MAX_VALUE - 1 // not reachable, only the reachability is computed
+      );
+
+    // then
+    try {
+      Assertions
+        .assertThatThrownBy(expectedThrow)
+        .isInstanceOf(CancellationException.class)
+        .hasMessage("Query was cancelled by interruption.");
+    } finally {
+      Thread.interrupted(); // clear flag for subsequent tests
+    }
+  }
+
   @ParameterizedTest
   @MethodSource("shortestPathRoutes")
   void givenGraphWithValidVertices_calculateShortestRoute_correctly(
@@ -337,12 +511,51 @@ class DirectedWeightedGraphTest {
   }
 
   @Test
-  void givenGraphWithNegativeWeights_findShortestPath_throwsException() {
+  void givenGraphWithNegativeWeights_findShortestPath_correctly() {
+    // given
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    Vertex a = Vertex.with("a");
+    Vertex b = Vertex.with("b");
+    graph.addEdge(new Edge(a, b, -4));
+
+    // when
+    String actual = graph.calculateShortestRoute(a, b);
+
+    // then
+    Assertions.assertThat(actual).isEqualTo("-4 hours");
+  }
+
+  @Test
+  void givenGraphWithNegativeDetour_findShortestPath_prefersDetour() {
+    // given
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    Vertex a = Vertex.with("a");
+    Vertex b = Vertex.with("b");
+    Vertex c = Vertex.with("c");
+    Vertex d = Vertex.with("d");
+    graph.addEdge(new Edge(a, b, 2));
+    graph.addEdge(new Edge(b, d, 2));
+    graph.addEdge(new Edge(a, c, 5));
+    graph.addEdge(new Edge(c, d, -3));
+    graph.addEdge(new Edge(d, a, 1));
+
+    // when
+    String actual = graph.calculateShortestRoute(a, d);
+    String roundTrip = graph.calculateShortestRoute(a, a);
+
+    // then
+    Assertions.assertThat(actual).isEqualTo("2 hours");
+    Assertions.assertThat(roundTrip).isEqualTo("3 hours");
+  }
+
+  @Test
+  void givenGraphWithNegativeCycle_findShortestPath_throwsException() {
     // given
     DirectedWeightedGraph graph = DirectedWeightedGraph.create();
     Vertex a = Vertex.with("a");
     Vertex b = Vertex.with("b");
     graph.addEdge(new Edge(a, b, -4));
+    graph.addEdge(new Edge(b, a, 3));
 
     // when
     ThrowableAssert.ThrowingCallable expectedThrow = () ->
@@ -354,10 +567,42 @@ class DirectedWeightedGraphTest {
       .isInstanceOf(IllegalStateException.class)
       .hasMessage(
         "This Graph is in a non-appropriate state.\n" +
-        "No shortest path findings can be determined due to negative weights."
+        "No shortest path findings can be determined due to negative cycles."
       );
   }
 
+  @Test
+  void givenChangedWeights_findShortestPath_tracksNegativeWeights() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Vertex solarSystem = Vertex.with("Solar System");
+    Vertex sirius = Vertex.with("Sirius");
+    Edge betelgeuseToVega = new Edge(
+      Vertex.with("Betelgeuse"),
+      Vertex.with("Vega"),
+      6
+    );
+    graph.removeEdge(betelgeuseToVega);
+    graph.addEdge(betelgeuseToVega);
+
+    // when
+    betelgeuseToVega.setWeight(-5);
+    String withNegativeWeight = graph.calculateShortestRoute(
+      solarSystem,
+      sirius
+    );
+    betelgeuseToVega.setWeight(6);
+    String withPositiveWeight = graph.calculateShortestRoute(
+      solarSystem,
+      sirius
+    );
+
+    // then
+    Assertions.assertThat(withNegativeWeight).isEqualTo("7 hours");
+    Assertions.assertThat(graph.hasNegativeWeights()).isFalse();
+    Assertions.assertThat(withPositiveWeight).isEqualTo("9 hours");
+  }
+
   @Test
   void givenGraphWithNotReachableDestination_findShortestPath_throwsException() {
     // given
@@ -436,8 +681,832 @@ class DirectedWeightedGraphTest {
     Assertions.assertThat(actual).isNotBlank().isEqualTo(expected);
   }
 
+  @Test
+  void givenBudgetWithMaxResults_determineRoutesByTime_returnsTruncatedRoutes() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    QueryBudget budget = QueryBudget.unlimited().withMaxResults(2);
+
+    // when
+    String actual = graph.determineAndDisplayRoutesWithMaxTime(
+      Vertex.with("Sirius"),
+      Vertex.with("Sirius"),
+      30,
+      budget
+    );
+    String expected =
+      "2 routes (TRUNCATED: max results reached): \n" +
+      "[[Vertex: sirius], [Vertex: betelgeuse], [Vertex: sirius]]\n" +
+      "[[Vertex: sirius], [Vertex: vega], [Vertex: alpha centauri], [Vertex: sirius]]";
+
+    // then
+    Assertions.assertThat(actual).isNotBlank().isEqualTo(expected);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 1, 5, 9, 17, 30, 45 })
+  void givenGraph_countRoutesByTime_equalsEnumeratedRouteCount(int maxTime) {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    List<String> labels = List.of("Solar System", "Sirius", "Vega");
+
+    for (String source : labels) {
+      for (String destination : labels) {
+        // when
+        String enumerated = graph.determineAndDisplayRoutesWithMaxTime(
+          Vertex.with(source),
+          Vertex.with(destination),
+          maxTime
+        );
+        String counted = graph.countAndDisplayRoutesWithMaxTime(
+          Vertex.with(source),
+          Vertex.with(destination),
+          maxTime
+        );
+
+        // then
+        Assertions
+          .assertThat(counted)
+          .isEqualTo(enumerated.split(":")[0]);
+      }
+    }
+  }
+
+  @Test
+  void givenCompleteGraph_countRoutesByTime_exceedsLongRange() {
+    // given
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    int vertexCount = 4;
+    for (int source = 0; source < vertexCount; source++) {
+      for (int destination = 0; destination < vertexCount; destination++) {
+        if (source != destination) {
+          graph.addEdge(
+            new Edge(
+              Vertex.with("v" + source),
+              Vertex.with("v" + destination),
+              1
+            )
+          );
+        }
+      }
+    }
+
+    // when
+    BigInteger actual = graph.countRoutesWithMaxTime(
+      Vertex.with("v0"),
+      Vertex.with("v0"),
+      100
+    );
+    // closed walks of length l inside a complete graph: ((n-1)^l + (n-1)(-1)^l) / n
+    BigInteger expected = BigInteger.ZERO;
+    BigInteger n = BigInteger.valueOf(vertexCount);
+    BigInteger degree = BigInteger.valueOf(vertexCount - 1L);
+    for (int length = 1; length < 100; length++) {
+      BigInteger alternating = length % 2 == 0 ? degree : degree.negate();
+      expected =
+        expected.add(degree.pow(length).add(alternating).divide(n));
+    }
+
+    // then
+    Assertions
+      .assertThat(actual)
+      .isGreaterThan(BigInteger.valueOf(Long.MAX_VALUE))
+      .isEqualTo(expected);
+  }
+
+  @Test
+  void givenZeroWeight_countRoutesByTime_countsEnumeratedRoutes() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph.addEdge(
+      new Edge(Vertex.with("Solar System"), Vertex.with("Sirius"), 0)
+    );
+
+    // when
+    String enumerated = graph.determineAndDisplayRoutesWithMaxTime(
+      Vertex.with("Solar System"),
+      Vertex.with("Sirius"),
+      20
+    );
+    String counted = graph.countAndDisplayRoutesWithMaxTime(
+      Vertex.with("Solar System"),
+      Vertex.with("Sirius"),
+      20
+    );
+
+    // then
+    Assertions.assertThat(counted).isEqualTo(enumerated.split(":")[0]);
+  }
+
+  @Test
+  void givenBudgetWithExactResultCount_determineRoutesWithMaxStops_isNotTruncated() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    QueryBudget budget = QueryBudget.unlimited().withMaxResults(2);
+
+    // when
+    String actual = graph.determineAndDisplayRoutesWithMaxStops(
+      Vertex.with("Sirius"),
+      Vertex.with("Sirius"),
+      3,
+      budget
+    );
+
+    // then
+    Assertions.assertThat(actual).startsWith("2 routes: ");
+  }
+
+  @Test
+  void givenBudgetWithMaxExpandedStates_determineRoutesWithMaxStops_returnsTruncatedRoutes() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    QueryBudget budget = QueryBudget.unlimited().withMaxExpandedStates(1);
+
+    // when
+    String actual = graph.determineAndDisplayRoutesWithMaxStops(
+      Vertex.with("Sirius"),
+      Vertex.with("Sirius"),
+      3,
+      budget
+    );
+
+    // then
+    Assertions
+      .assertThat(actual)
+      .isEqualTo("NO SUCH ROUTE (TRUNCATED: max expanded states reached)");
+  }
+
+  @Test
+  void givenInterruptedThread_determineRoutesWithMaxStops_isCancelled() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    Thread.currentThread().interrupt();
+    ThrowableAssert.ThrowingCallable expectedThrow = () ->
+      graph.determineAndDisplayRoutesWithMaxStops(
+        Vertex.with("Sirius"),
+        Vertex.with("Sirius"),
+        20
+      );
+
+    // then
+    try {
+      Assertions
+        .assertThatThrownBy(expectedThrow)
+        .isInstanceOf(CancellationException.class)
+        .hasMessage("Query was cancelled by interruption.");
+    } finally {
+      Thread.interrupted(); // clear flag for subsequent tests
+    }
+  }
+
+  @Test
+  void givenBudgetWithTimeout_determineRoutesWithMaxStops_returnsInTime() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    QueryBudget budget = QueryBudget
+      .unlimited()
+      .withTimeout(Duration.ofMillis(50));
+
+    // when
+    long start = System.nanoTime();
+    String actual = graph.determineAndDisplayRoutesWithMaxStops(
+      Vertex.with("Sirius"),
+      Vertex.with("Sirius"),
+      1_000,
+      budget
+    );
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+    // then
+    Assertions.assertThat(actual).contains("(TRUNCATED: ");
+    Assertions.assertThat(elapsed).isLessThan(Duration.ofSeconds(5));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 1, 4, 10 })
+  void givenGraph_enumeratingDepthFirst_equalsBreadthFirst(int limit) {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Vertex sirius = Vertex.with("Sirius");
+    Vertex vega = Vertex.with("Vega");
+    QueryBudget budget = QueryBudget.unlimited();
+
+    // when
+    RouteList breadthByStops = graph.findRoutesWithMaxStops(
+      sirius,
+      vega,
+      limit,
+      budget,
+      false
+    );
+    RouteList depthByStops = graph.findRoutesWithMaxStops(
+      sirius,
+      vega,
+      limit,
+      budget,
+      true
+    );
+    RouteList breadthByTime = graph.findRoutesWithMaxTime(
+      sirius,
+      sirius,
+      limit * 10,
+      budget,
+      false
+    );
+    RouteList depthByTime = graph.findRoutesWithMaxTime(
+      sirius,
+      sirius,
+      limit * 10,
+      budget,
+      true
+    );
+
+    // then
+    Assertions
+      .assertThat(depthByStops)
+      .hasToString(breadthByStops.toString());
+    Assertions
+      .assertThat(depthByTime)
+      .hasToString(breadthByTime.toString());
+  }
+
+  @Test
+  void givenSameThread_searchState_isReusedUnlessNested() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    SearchState first = graph.acquireSearchState(5);
+    SearchState nested = graph.acquireSearchState(5);
+    nested.release();
+    first.release();
+
+    // when
+    SearchState second = graph.acquireSearchState(5);
+    second.release();
+
+    // then
+    Assertions.assertThat(second).isSameAs(first);
+    Assertions.assertThat(nested).isNotSameAs(first);
+  }
+
+  @Test
+  void givenOtherThread_searchState_isNotShared() throws Exception {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    SearchState own = graph.acquireSearchState(5);
+    own.release();
+
+    // when
+    SearchState other = CompletableFuture
+      .supplyAsync(() -> graph.acquireSearchState(5))
+      .get();
+    SearchState again = graph.acquireSearchState(5);
+    again.release();
+
+    // then
+    Assertions.assertThat(other).isNotSameAs(own);
+    Assertions.assertThat(again).isSameAs(own);
+  }
+
+  @Test
+  void givenEdges_addingInBulk_equalsAddingOneByOne() {
+    // given
+    DirectedWeightedGraph expected = constructSpaceHighways();
+    expected.calculateShortestRoute(Vertex.with("Sirius"), Vertex.with("Vega"));
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    graph.addEdge(new Edge(Vertex.with("Sirius"), Vertex.with("Vega"), 2));
+    graph.registerHotSource(Vertex.with("Solar System"));
+    graph.calculateShortestRoute(Vertex.with("Sirius"), Vertex.with("Vega"));
+
+    // when
+    graph.addEdges(createEdges()); // Sirius to Vega is skipped
+
+    // then
+    Assertions.assertThat(graph).isEqualTo(expected);
+    Assertions.assertThat(graph.inDegree(Vertex.with("Vega"))).isEqualTo(3);
+    Assertions
+      .assertThat(
+        graph.calculateShortestRoute(
+          Vertex.with("Solar System"),
+          Vertex.with("Sirius")
+        )
+      )
+      .isEqualTo("9 hours");
+  }
+
+  @Test
+  void givenGraph_addingAndRemovingEdges_maintainsDegrees() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Vertex vega = Vertex.with("Vega");
+    Vertex sirius = Vertex.with("Sirius");
+
+    // when
+    graph.removeEdge(new Edge(sirius, vega, 2));
+
+    // then
+    Assertions.assertThat(graph.inDegree(vega)).isEqualTo(2);
+    Assertions.assertThat(graph.outDegree(sirius)).isEqualTo(1);
+    Assertions.assertThat(graph.outDegree(vega)).isEqualTo(1);
+    Assertions
+      .assertThat(graph.calculateShortestRoute(sirius, vega))
+      .isEqualTo("14 hours");
+  }
+
+  @Test
+  void givenGraph_removingVertex_removesIncomingEdges() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    graph.removeVertex(Vertex.with("Vega"));
+
+    // then
+    Assertions.assertThat(graph.inDegree(Vertex.with("Vega"))).isZero();
+    Assertions.assertThat(graph.outDegree(Vertex.with("Sirius"))).isEqualTo(1);
+    Assertions
+      .assertThat(
+        graph.calculateShortestRoute(
+          Vertex.with("Sirius"),
+          Vertex.with("Alpha Centauri")
+        )
+      )
+      .isEqualTo("NO SUCH ROUTE");
+  }
+
+  @Test
+  void givenAcyclicComponent_determineRoutesFromVertexToItself_findsNoRoute() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    String actual = graph.determineAndDisplayRoutesWithMaxStops(
+      Vertex.with("Solar System"),
+      Vertex.with("Solar System"),
+      10
+    );
+
+    // then
+    Assertions.assertThat(actual).isEqualTo("NO SUCH ROUTE");
+  }
+
+  @Test
+  void givenBatchOfMutations_applyingBatch_changesAllEdges() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Vertex solarSystem = Vertex.with("Solar System");
+    Vertex alphaCentauri = Vertex.with("Alpha Centauri");
+    Vertex sirius = Vertex.with("Sirius");
+    List<Mutation> mutations = List.of(
+      Mutation.removeEdge(solarSystem, alphaCentauri),
+      Mutation.changeWeight(solarSystem, Vertex.with("Vega"), 1),
+      Mutation.addEdge(solarSystem, sirius, 20)
+    );
+
+    // when
+    graph.apply(mutations);
+
+    // then
+    Assertions.assertThat(graph.getEdge(solarSystem, alphaCentauri)).isNull();
+    Assertions.assertThat(graph.inDegree(alphaCentauri)).isEqualTo(1);
+    Assertions.assertThat(graph.outDegree(solarSystem)).isEqualTo(3);
+    Assertions
+      .assertThat(graph.calculateShortestRoute(solarSystem, sirius))
+      .isEqualTo("8 hours");
+  }
+
+  @Test
+  void givenFailingMutation_applyingBatch_rollsBackWholeBatch() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    DirectedWeightedGraph untouchedGraph = constructSpaceHighways();
+    Vertex solarSystem = Vertex.with("Solar System");
+    Vertex vega = Vertex.with("Vega");
+    List<Mutation> mutations = List.of(
+      Mutation.removeEdge(solarSystem, Vertex.with("Alpha Centauri")),
+      Mutation.changeWeight(solarSystem, vega, -1),
+      Mutation.addEdge(vega, solarSystem, 1),
+      Mutation.removeEdge(vega, Vertex.with("Betelgeuse")) // not existent
+    );
+
+    // when
+    ThrowableAssert.ThrowingCallable expectedThrow = () ->
+      graph.apply(mutations);
+
+    // then
+    Assertions
+      .assertThatThrownBy(expectedThrow)
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageStartingWith("Edge does not exist, mutation not applicable");
+    Assertions.assertThat(graph).isEqualTo(untouchedGraph);
+    Assertions
+      .assertThat(graph.getEdge(solarSystem, vega).getWeight())
+      .isEqualTo(7);
+    Assertions.assertThat(graph.hasNegativeWeights()).isFalse();
+    Assertions.assertThat(graph.inDegree(solarSystem)).isZero();
+    Assertions
+      .assertThat(
+        graph.calculateShortestRoute(solarSystem, Vertex.with("Sirius"))
+      )
+      .isEqualTo("9 hours");
+  }
+
+  @ParameterizedTest
+  @MethodSource("hopConstrainedRoutes")
+  void givenGraph_findShortestPathWithMaxStops_displaysRoute(
+    String source,
+    String destination,
+    int maxStops,
+    String expected
+  ) {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    String actual = graph.calculateShortestRouteWithMaxStops(
+      Vertex.with(source),
+      Vertex.with(destination),
+      maxStops
+    );
+
+    // then
+    Assertions.assertThat(actual).isEqualTo(expected);
+  }
+
+  private static Stream<Arguments> hopConstrainedRoutes() {
+    return Stream.of(
+      Arguments.of(
+        "Solar System",
+        "Vega",
+        1,
+        "7 hours: [[Vertex: solar system], [Vertex: vega]]"
+      ),
+      Arguments.of("Solar System", "Sirius", 1, "NO SUCH ROUTE"),
+      Arguments.of(
+        "Solar System",
+        "Sirius",
+        2,
+        "9 hours: [[Vertex: solar system], [Vertex: alpha centauri], [Vertex: sirius]]"
+      ),
+      Arguments.of(
+        "Sirius",
+        "Sirius",
+        2,
+        "16 hours: [[Vertex: sirius], [Vertex: betelgeuse], [Vertex: sirius]]"
+      ),
+      Arguments.of(
+        "Sirius",
+        "Sirius",
+        30,
+        "9 hours: [[Vertex: sirius], [Vertex: vega], [Vertex: alpha centauri], [Vertex: sirius]]"
+      ),
+      Arguments.of("Alpha Centauri", "Solar System", 5, "NO SUCH ROUTE")
+    );
+  }
+
+  @Test
+  void givenGraph_shortestRouteWithMaxStops_returnsTravelTimeAndRoute() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    TravelTime actual = graph.shortestRouteWithMaxStops(
+      Vertex.with("Solar System"),
+      Vertex.with("Sirius"),
+      2,
+      QueryBudget.unlimited()
+    );
+    TravelTime missing = graph.shortestRouteWithMaxStops(
+      Vertex.with("Solar System"),
+      Vertex.with("Sirius"),
+      1,
+      QueryBudget.unlimited()
+    );
+
+    // then
+    Assertions.assertThat(actual.exists()).isTrue();
+    Assertions.assertThat(actual.getHours()).isEqualTo(9);
+    Assertions
+      .assertThat(actual.route())
+      .containsExactly(
+        Vertex.with("Solar System"),
+        Vertex.with("Alpha Centauri"),
+        Vertex.with("Sirius")
+      );
+    Assertions.assertThat(missing.exists()).isFalse();
+    Assertions.assertThat(missing.getHours()).isEqualTo(TravelTime.NO_ROUTE);
+  }
+
+  @Test
+  void givenNegativeCycle_findShortestPathWithMaxStops_boundsRoute() {
+    // given
+    Vertex a = Vertex.with("a");
+    Vertex b = Vertex.with("b");
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    graph.addEdge(new Edge(a, b, -1));
+    graph.addEdge(new Edge(b, a, -1));
+
+    // when
+    String actual = graph.calculateShortestRouteWithMaxStops(a, a, 4);
+
+    // then
+    Assertions
+      .assertThat(actual)
+      .isEqualTo(
+        "-4 hours: [[Vertex: a], [Vertex: b], [Vertex: a], [Vertex: b], [Vertex: a]]"
+      );
+  }
+
+  @Test
+  void givenRandomGraphs_findShortestPathWithMaxStops_matchesEnumeration() {
+    Random random = new Random(32);
+    for (int round = 0; round < 50; round++) {
+      // given
+      DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+      List<Vertex> vertices = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        vertices.add(Vertex.with("v" + i));
+      }
+      for (int i = 0; i < 20; i++) {
+        Vertex source = vertices.get(random.nextInt(vertices.size()));
+        Vertex destination = vertices.get(random.nextInt(vertices.size()));
+        if (!source.equals(destination)) {
+          graph.addEdge(new Edge(source, destination, random.nextInt(20) - 5));
+        }
+      }
+      Vertex source = vertices.get(random.nextInt(vertices.size()));
+      Vertex destination = vertices.get(random.nextInt(vertices.size()));
+      int maxStops = 1 + random.nextInt(5);
+
+      // when
+      String actual = graph.calculateShortestRouteWithMaxStops(
+        source,
+        destination,
+        maxStops
+      );
+
+      // then
+      Integer expected = enumerateShortestTravelTime(
+        graph,
+        source,
+        destination,
+        maxStops,
+        0
+      );
+      if (expected == null) {
+        Assertions.assertThat(actual).isEqualTo("NO SUCH ROUTE");
+      } else {
+        Assertions.assertThat(actual).startsWith(expected + " hours: ");
+      }
+    }
+  }
+
+  private static Integer enumerateShortestTravelTime(
+    DirectedWeightedGraph graph,
+    Vertex vertex,
+    Vertex destination,
+    int remainingStops,
+    int travelTime
+  ) {
+    Integer best = null;
+    for (Edge edge : graph.outgoingEdges(vertex)) {
+      int newTravelTime = travelTime + edge.getWeight();
+      if (edge.getDestination().equals(destination)) {
+        best = best == null ? newTravelTime : Math.min(best, newTravelTime);
+      }
+      if (remainingStops > 1) {
+        Integer candidate = enumerateShortestTravelTime(
+          graph,
+          edge.getDestination(),
+          destination,
+          remainingStops - 1,
+          newTravelTime
+        );
+        if (candidate != null) {
+          best = best == null ? candidate : Math.min(best, candidate);
+        }
+      }
+    }
+    return best;
+  }
+
+  @Test
+  void givenGraph_determineReachableWithin_displaysArrivalOrder() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    String actual = graph.determineAndDisplayReachableWithin(
+      Vertex.with("Sirius"),
+      9
+    );
+
+    // then
+    Assertions
+      .assertThat(actual)
+      .isEqualTo(
+        "4 reachable: \n" +
+        "[Vertex: sirius]: 0 hours\n" +
+        "[Vertex: vega]: 2 hours\n" +
+        "[Vertex: alpha centauri]: 5 hours\n" +
+        "[Vertex: betelgeuse]: 8 hours"
+      );
+  }
+
+  @Test
+  void givenGraph_findReachableWithin_returnsArrivals() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    ReachableVertices actual = graph.findReachableWithin(
+      Vertex.with("Sirius"),
+      9,
+      QueryBudget.unlimited()
+    );
+
+    // then
+    Assertions.assertThat(actual.size()).isEqualTo(4);
+    Assertions
+      .assertThat(actual.vertex(2))
+      .isEqualTo(Vertex.with("Alpha Centauri"));
+    Assertions.assertThat(actual.arrival(2)).isEqualTo(5);
+    Assertions.assertThat(actual.isTruncated()).isFalse();
+  }
+
+  @Test
+  void givenNegativeWeight_streamReachableWithin_emitsArrivalOrder() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph
+      .getEdge(Vertex.with("Vega"), Vertex.with("Alpha Centauri"))
+      .setWeight(-1);
+    graph
+      .getEdge(Vertex.with("Solar System"), Vertex.with("Alpha Centauri"))
+      .setWeight(9);
+    List<Integer> travelTimes = new ArrayList<>();
+    List<Vertex> vertices = new ArrayList<>();
+
+    // when
+    boolean complete = graph.streamReachableWithin(
+      Vertex.with("Solar System"),
+      8,
+      QueryBudget.unlimited(),
+      (vertex, travelTime) -> {
+        vertices.add(vertex);
+        travelTimes.add(travelTime);
+      }
+    );
+
+    // then
+    Assertions.assertThat(complete).isTrue();
+    Assertions.assertThat(travelTimes).containsExactly(0, 5, 6, 7);
+    Assertions
+      .assertThat(vertices)
+      .containsExactly(
+        Vertex.with("Solar System"),
+        Vertex.with("Betelgeuse"),
+        Vertex.with("Alpha Centauri"),
+        Vertex.with("Vega")
+      );
+  }
+
+  @Test
+  void givenBudgetWithMaxExpandedStates_determineReachableWithin_isTruncated() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    QueryBudget budget = QueryBudget.unlimited().withMaxExpandedStates(2);
+
+    // when
+    String actual = graph.determineAndDisplayReachableWithin(
+      Vertex.with("Sirius"),
+      9,
+      budget
+    );
+
+    // then
+    Assertions
+      .assertThat(actual)
+      .startsWith("2 reachable (TRUNCATED: max expanded states reached): ");
+  }
+
+  @Test
+  void givenNegativeTime_determineReachableWithin_throwsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    ThrowableAssert.ThrowingCallable expectedThrow = () ->
+      graph.determineAndDisplayReachableWithin(Vertex.with("Sirius"), -1);
+
+    // then
+    Assertions
+      .assertThatThrownBy(expectedThrow)
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Please provide max time >=0.");
+  }
+
   // ### H E L P E R ###
 
+  @Test
+  void givenPendingBackgroundIndexes_queries_answerWithFallback() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    List<Runnable> pendingBuilds = new ArrayList<>();
+    List<String> readyIndexes = new ArrayList<>();
+    CompletableFuture<Void> built = graph.buildIndexesInBackground(
+      pendingBuilds::add,
+      (index, readyCount, totalCount, elapsedNanos) ->
+        readyIndexes.add(index + " " + readyCount + "/" + totalCount)
+    );
+
+    // when
+    String beforeBuild = graph.determineAndDisplayRoutesWithMaxStops(
+      Vertex.with("Sirius"),
+      Vertex.with("Sirius"),
+      3
+    );
+    GraphStatistics fallbackStatistics = graph.statistics();
+    boolean cachedBeforeBuild = graph.statistics() == fallbackStatistics;
+    pendingBuilds.forEach(Runnable::run);
+    String afterBuild = graph.determineAndDisplayRoutesWithMaxStops(
+      Vertex.with("Sirius"),
+      Vertex.with("Sirius"),
+      3
+    );
+
+    // then
+    Assertions.assertThat(beforeBuild).isEqualTo(afterBuild);
+    Assertions.assertThat(fallbackStatistics.isCyclic()).isTrue();
+    Assertions.assertThat(cachedBeforeBuild).isTrue();
+    Assertions.assertThat(graph.statistics()).isNotSameAs(fallbackStatistics);
+    Assertions.assertThat(built).isCompleted();
+    Assertions
+      .assertThat(readyIndexes)
+      .containsExactlyInAnyOrder(
+        "components 1/3",
+        "statistics 2/3",
+        "potentials 3/3"
+      )
+      .containsSubsequence("components 1/3", "statistics 2/3");
+  }
+
+  @Test
+  void givenFailingBackgroundBuild_future_failsAndQueriesStillAnswer() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    List<Runnable> pendingBuilds = new ArrayList<>();
+    CompletableFuture<Void> built = graph.buildIndexesInBackground(
+      pendingBuilds::add,
+      (index, readyCount, totalCount, elapsedNanos) -> {
+        throw new IllegalStateException("Listener failed for " + index);
+      }
+    );
+
+    // when
+    pendingBuilds.forEach(Runnable::run);
+    String actual = graph.calculateShortestRoute(
+      Vertex.with("Solar System"),
+      Vertex.with("Sirius")
+    );
+
+    // then
+    Assertions
+      .assertThat(built)
+      .isCompletedExceptionally()
+      .failsWithin(Duration.ZERO)
+      .withThrowableOfType(ExecutionException.class)
+      .withRootCauseInstanceOf(IllegalStateException.class);
+    Assertions.assertThat(actual).isEqualTo("9 hours");
+  }
+
+  @Test
+  void givenModificationDuringBackgroundBuild_outdatedIndexes_areDiscarded() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    List<Runnable> pendingBuilds = new ArrayList<>();
+    List<String> readyIndexes = new ArrayList<>();
+    graph.buildIndexesInBackground(
+      pendingBuilds::add,
+      (index, readyCount, totalCount, elapsedNanos) -> readyIndexes.add(index)
+    );
+
+    // when
+    graph.addEdge(
+      new Edge(Vertex.with("Sirius"), Vertex.with("Solar System"), 1)
+    );
+    pendingBuilds.forEach(Runnable::run);
+    String actual = graph.calculateShortestRoute(
+      Vertex.with("Vega"),
+      Vertex.with("Solar System")
+    );
+
+    // then
+    Assertions.assertThat(readyIndexes).isEmpty();
+    Assertions.assertThat(actual).isEqualTo("8 hours");
+  }
+
   private DirectedWeightedGraph constructSpaceHighways() {
     DirectedWeightedGraph graph = DirectedWeightedGraph.create();
     createEdges().forEach(graph::addEdge);
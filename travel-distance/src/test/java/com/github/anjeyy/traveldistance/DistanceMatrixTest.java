@@ -0,0 +1,300 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.Test;
+
+class DistanceMatrixTest {
+
+  private static final Vertex SOLAR_SYSTEM = Vertex.with("Solar System");
+  private static final Vertex ALPHA_CENTAURI = Vertex.with("Alpha Centauri");
+  private static final Vertex SIRIUS = Vertex.with("Sirius");
+  private static final Vertex BETELGEUSE = Vertex.with("Betelgeuse");
+  private static final Vertex VEGA = Vertex.with("Vega");
+  private static final List<Vertex> STAR_SYSTEMS = List.of(
+    SOLAR_SYSTEM,
+    ALPHA_CENTAURI,
+    SIRIUS,
+    BETELGEUSE,
+    VEGA
+  );
+
+  @Test
+  void givenAllStarSystems_matrixMatchesShortestRoutes() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    DistanceMatrix matrix = graph.calculateTravelTimeMatrix(
+      STAR_SYSTEMS,
+      STAR_SYSTEMS
+    );
+
+    // then
+    assertMatchesShortestRoutes(graph, matrix);
+    Assertions.assertThat(matrix.travelTime(0, 2)).isEqualTo(9);
+    Assertions.assertThat(matrix.travelTime(2, 2)).isEqualTo(9); // round trip
+    Assertions
+      .assertThat(matrix.travelTime(1, 0))
+      .isEqualTo(DistanceMatrix.NO_ROUTE);
+    Assertions.assertThat(matrix.isTruncated()).isFalse();
+  }
+
+  @Test
+  void givenUnknownAndDuplicatedVertices_matrixContainsEveryColumn() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Vertex unknown = Vertex.with("Andromeda");
+
+    // when
+    DistanceMatrix matrix = graph.calculateTravelTimeMatrix(
+      List.of(unknown, SOLAR_SYSTEM),
+      List.of(SIRIUS, unknown, SIRIUS)
+    );
+
+    // then
+    Assertions.assertThat(matrix.rowCount()).isEqualTo(2);
+    Assertions.assertThat(matrix.columnCount()).isEqualTo(3);
+    Assertions
+      .assertThat(matrix.travelTime(0, 0))
+      .isEqualTo(DistanceMatrix.NO_ROUTE);
+    Assertions
+      .assertThat(matrix.travelTime(1, 1))
+      .isEqualTo(DistanceMatrix.NO_ROUTE);
+    Assertions.assertThat(matrix.travelTime(1, 0)).isEqualTo(9);
+    Assertions.assertThat(matrix.travelTime(1, 2)).isEqualTo(9);
+  }
+
+  @Test
+  void givenHotSourceAndNegativeWeight_matrixMatchesShortestRoutes() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph.registerHotSource(SIRIUS);
+
+    // when
+    DistanceMatrix hotSourceMatrix = graph.calculateTravelTimeMatrix(
+      STAR_SYSTEMS,
+      STAR_SYSTEMS
+    );
+    graph.getEdge(SIRIUS, VEGA).setWeight(-2);
+    DistanceMatrix negativeMatrix = graph.calculateTravelTimeMatrix(
+      STAR_SYSTEMS,
+      STAR_SYSTEMS
+    );
+
+    // then
+    assertMatchesShortestRoutes(graph, negativeMatrix);
+    Assertions.assertThat(hotSourceMatrix.travelTime(2, 4)).isEqualTo(2);
+    Assertions.assertThat(negativeMatrix.travelTime(2, 4)).isEqualTo(-2);
+  }
+
+  @Test
+  void givenRandomGraphs_matrixMatchesShortestRoutes() {
+    Random random = new Random(31);
+    for (int round = 0; round < 20; round++) {
+      // given
+      DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+      List<Vertex> vertices = new ArrayList<>();
+      for (int i = 0; i < 30; i++) {
+        vertices.add(Vertex.with("v" + i));
+      }
+      for (int i = 0; i < 90; i++) {
+        Vertex source = vertices.get(random.nextInt(vertices.size()));
+        Vertex destination = vertices.get(random.nextInt(vertices.size()));
+        if (!source.equals(destination)) {
+          graph.addEdge(new Edge(source, destination, 1 + random.nextInt(20)));
+        }
+      }
+
+      // when
+      DistanceMatrix matrix = graph.calculateTravelTimeMatrix(
+        vertices.subList(0, 10),
+        vertices.subList(5, 30)
+      );
+
+      // then
+      assertMatchesShortestRoutes(graph, matrix);
+    }
+  }
+
+  @Test
+  void givenExpansionLimit_matrixIsTruncated() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    QueryBudget budget = QueryBudget.unlimited().withMaxExpandedStates(1);
+
+    // when
+    DistanceMatrix matrix = graph.calculateTravelTimeMatrix(
+      List.of(SOLAR_SYSTEM),
+      List.of(SIRIUS),
+      budget
+    );
+
+    // then
+    Assertions.assertThat(matrix.isTruncated()).isTrue();
+    Assertions.assertThat(matrix.toString()).contains("(TRUNCATED)");
+  }
+
+  @Test
+  void givenNoTargets_throwsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> graph.calculateTravelTimeMatrix(STAR_SYSTEMS, List.of())
+      )
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Please provide at least one source and one target.");
+  }
+
+  @Test
+  void givenMatrixMode_displaysEveryPair() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    String actual = Mode.TRAVEL_TIME_MATRIX.compute(
+      graph,
+      "Solar System, Alpha Centauri; Sirius, Solar System"
+    );
+
+    // then
+    Assertions
+      .assertThat(actual)
+      .isEqualTo(
+        "2x2 travel times: \n" +
+        SOLAR_SYSTEM +
+        " -> " +
+        SIRIUS +
+        ": 9 hours\n" +
+        SOLAR_SYSTEM +
+        " -> " +
+        SOLAR_SYSTEM +
+        ": NO SUCH ROUTE\n" +
+        ALPHA_CENTAURI +
+        " -> " +
+        SIRIUS +
+        ": 4 hours\n" +
+        ALPHA_CENTAURI +
+        " -> " +
+        SOLAR_SYSTEM +
+        ": NO SUCH ROUTE"
+      );
+  }
+
+  @Test
+  void givenMatrixModeWithoutTargets_throwsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> Mode.TRAVEL_TIME_MATRIX.compute(graph, "Solar System, Sirius")
+      )
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("need sources and targets separated by ';'");
+  }
+
+  @Test
+  void givenNegativeWeight_allPairsMatchShortestRoutes() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph.getEdge(SIRIUS, VEGA).setWeight(-2);
+
+    // when
+    DistanceMatrix matrix = graph.calculateAllPairsTravelTimes();
+
+    // then
+    assertMatchesShortestRoutes(graph, matrix);
+    Assertions.assertThat(matrix.rowCount()).isEqualTo(STAR_SYSTEMS.size());
+    Assertions.assertThat(matrix.getTargets()).isEqualTo(matrix.getSources());
+  }
+
+  @Test
+  void givenDenseRandomGraph_allPairsMatchTravelTimeMatrix() {
+    // given
+    Random random = new Random(17);
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < 150; i++) {
+      vertices.add(Vertex.with("v" + i));
+    }
+    for (Vertex source : vertices) {
+      for (Vertex destination : vertices) {
+        if (!source.equals(destination) && random.nextInt(10) < 6) {
+          graph.addEdge(new Edge(source, destination, 1 + random.nextInt(50)));
+        }
+      }
+    }
+
+    // when
+    DistanceMatrix scalar = graph.calculateAllPairsTravelTimes(
+      MinPlusKernel.SCALAR
+    );
+    DistanceMatrix preferred = graph.calculateAllPairsTravelTimes();
+
+    // then
+    DistanceMatrix expected = graph.calculateTravelTimeMatrix(
+      scalar.getSources(),
+      scalar.getTargets()
+    );
+    Assertions.assertThat(scalar.toString()).isEqualTo(expected.toString());
+    Assertions.assertThat(preferred.toString()).isEqualTo(expected.toString());
+  }
+
+  @Test
+  void givenNegativeCycle_allPairsThrowsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph.getEdge(SIRIUS, VEGA).setWeight(-8);
+
+    // when
+    ThrowableAssert.ThrowingCallable expectedThrow =
+      graph::calculateAllPairsTravelTimes;
+
+    // then
+    Assertions
+      .assertThatThrownBy(expectedThrow)
+      .isExactlyInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("negative cycles");
+  }
+
+  private static void assertMatchesShortestRoutes(
+    DirectedWeightedGraph graph,
+    DistanceMatrix matrix
+  ) {
+    for (int row = 0; row < matrix.rowCount(); row++) {
+      for (int column = 0; column < matrix.columnCount(); column++) {
+        String expected = graph.calculateShortestRoute(
+          matrix.getSources().get(row),
+          matrix.getTargets().get(column)
+        );
+        int travelTime = matrix.travelTime(row, column);
+        String actual = travelTime == DistanceMatrix.NO_ROUTE
+          ? "NO SUCH ROUTE"
+          : travelTime + " hours";
+        Assertions.assertThat(actual).isEqualTo(expected);
+      }
+    }
+  }
+
+  private static DirectedWeightedGraph constructSpaceHighways() {
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    graph.addEdge(new Edge(SOLAR_SYSTEM, ALPHA_CENTAURI, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, BETELGEUSE, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, VEGA, 7));
+    graph.addEdge(new Edge(ALPHA_CENTAURI, SIRIUS, 4));
+    graph.addEdge(new Edge(BETELGEUSE, SIRIUS, 8));
+    graph.addEdge(new Edge(BETELGEUSE, VEGA, 6));
+    graph.addEdge(new Edge(SIRIUS, BETELGEUSE, 8));
+    graph.addEdge(new Edge(SIRIUS, VEGA, 2));
+    graph.addEdge(new Edge(VEGA, ALPHA_CENTAURI, 3));
+    return graph;
+  }
+}
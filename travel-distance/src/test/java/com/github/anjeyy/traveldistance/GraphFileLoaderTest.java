@@ -0,0 +1,173 @@
+package com.github.anjeyy.traveldistance;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class GraphFileLoaderTest {
+
+  @TempDir
+  Path directory;
+
+  @ParameterizedTest
+  @ValueSource(ints = { 1, 7, 64, GraphFileLoader.DEFAULT_CHUNK_BYTES })
+  void givenAnyChunkSize_loadedGraph_equalsSequentiallyBuiltGraph(
+    int chunkBytes
+  ) throws IOException {
+    // given
+    Random random = new Random(39);
+    StringBuilder content = new StringBuilder();
+    DirectedWeightedGraph expected = DirectedWeightedGraph.create();
+    for (int i = 0; i < 300; i++) {
+      int source = random.nextInt(40);
+      int destination = (source + 1 + random.nextInt(39)) % 40;
+      int weight = random.nextInt(100) - 10;
+      content.append(
+        String.format("  Star %d ,star %d,%d\r\n", source, destination, weight)
+      );
+      if (i % 50 == 0) {
+        content.append("\n   \n");
+      }
+      expected.addEdge(
+        new Edge(
+          Vertex.with("star " + source),
+          Vertex.with("star " + destination),
+          weight
+        )
+      );
+    }
+    content.append("Star 0, Star 39, 1"); // no trailing newline
+    expected.addEdge(
+      new Edge(Vertex.with("star 0"), Vertex.with("star 39"), 1)
+    );
+    Path graphFile = write(content.toString());
+
+    // when
+    DirectedWeightedGraph actual = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, actual, chunkBytes);
+
+    // then
+    Assertions.assertThat(actual.toString()).isEqualTo(expected.toString());
+  }
+
+  @Test
+  void givenSpaceHighwayFile_loadsAllEdges() throws IOException {
+    // given
+    Path graphFile = Path.of("src/main/resources/space-highway.graph");
+
+    // when
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph, 16);
+
+    // then
+    Assertions
+      .assertThat(
+        graph.calculateShortestRoute(
+          Vertex.with("Solar System"),
+          Vertex.with("Sirius")
+        )
+      )
+      .isEqualTo("9 hours");
+  }
+
+  @Test
+  void givenUtf8Labels_loadsCaseInsensitiveVertices() throws IOException {
+    // given
+    Path graphFile = write("Ærø, Škoda, 3\næRØ, Öland, 4\n");
+
+    // when
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph, 4);
+
+    // then
+    Assertions
+      .assertThat(graph.getEdge(Vertex.with("ærø"), Vertex.with("öland")))
+      .isNotNull();
+    Assertions.assertThat(graph.outDegree(Vertex.with("ÆRØ"))).isEqualTo(2);
+  }
+
+  @Test
+  void givenMalformedLine_throwsException() throws IOException {
+    // given
+    Path graphFile = write("a, b, 1\na, b\n");
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () ->
+          GraphFileLoader.load(graphFile, DirectedWeightedGraph.create(), 3)
+      )
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageEndingWith("but instead it was: a, b");
+  }
+
+  @Test
+  void givenInvalidWeight_throwsNumberFormatException() throws IOException {
+    // given
+    Path graphFile = write("a, b, 1x\n");
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> GraphFileLoader.load(graphFile, DirectedWeightedGraph.create())
+      )
+      .isInstanceOf(NumberFormatException.class)
+      .hasMessage("For input string: \"1x\"");
+  }
+
+  @Test
+  void givenRecording_load_emitsEventPerPhase() throws IOException {
+    // given
+    Path graphFile = write("A, B, 1\nB, C, 2\nC, A, 3\n");
+    Path recordingFile = directory.resolve("load.jfr");
+
+    // when
+    try (Recording recording = new Recording()) {
+      recording.enable(GraphLoadEvent.NAME).withThreshold(Duration.ZERO);
+      recording.start();
+      GraphFileLoader.load(graphFile, DirectedWeightedGraph.create(), 8);
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+    List<RecordedEvent> actual = RecordingFile.readAllEvents(recordingFile);
+
+    // then
+    Assertions
+      .assertThat(actual)
+      .extracting(event -> event.getString("phase"))
+      .containsExactly(
+        GraphLoadEvent.SPLIT,
+        GraphLoadEvent.PARSE,
+        GraphLoadEvent.MERGE
+      );
+    Assertions
+      .assertThat(actual)
+      .allSatisfy(
+        event -> {
+          Assertions
+            .assertThat(event.getString("file"))
+            .isEqualTo(graphFile.toString());
+          Assertions.assertThat(event.getInt("chunks")).isGreaterThan(1);
+        }
+      );
+    Assertions.assertThat(actual.get(2).getLong("edges")).isEqualTo(3);
+  }
+
+  private Path write(String content) throws IOException {
+    Path graphFile = directory.resolve("test.graph");
+    Files.write(graphFile, content.getBytes(StandardCharsets.UTF_8));
+    return graphFile;
+  }
+}
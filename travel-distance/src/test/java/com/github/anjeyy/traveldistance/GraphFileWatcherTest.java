@@ -0,0 +1,270 @@
+package com.github.anjeyy.traveldistance;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class GraphFileWatcherTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void givenChangedFile_reload_appliesOnlyDelta() throws IOException {
+    // given
+    Path graphFile = write("A, B, 1\nB, C, 2\nC, D, 3\n");
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph);
+    GraphFileWatcher watcher = GraphFileWatcher.of(
+      graphFile,
+      graph,
+      new ReentrantReadWriteLock()
+    );
+    Files.write(
+      graphFile,
+      "  a,b,1  \nB, C, 5\n\nD, A, 4\n".getBytes(StandardCharsets.UTF_8)
+    );
+
+    // when
+    List<Mutation> delta = watcher.reload();
+
+    // then
+    Vertex a = Vertex.with("A");
+    Vertex b = Vertex.with("B");
+    Vertex c = Vertex.with("C");
+    Vertex d = Vertex.with("D");
+    Assertions
+      .assertThat(delta)
+      .containsExactlyInAnyOrder(
+        Mutation.changeWeight(b, c, 5),
+        Mutation.addEdge(d, a, 4),
+        Mutation.removeEdge(c, d)
+      );
+    Assertions.assertThat(graph.getEdge(a, b).getWeight()).isEqualTo(1);
+    Assertions.assertThat(graph.getEdge(b, c).getWeight()).isEqualTo(5);
+    Assertions.assertThat(graph.getEdge(d, a).getWeight()).isEqualTo(4);
+    Assertions.assertThat(graph.getEdge(c, d)).isNull();
+  }
+
+  @Test
+  void givenUnchangedEdges_reload_returnsEmptyDelta() throws IOException {
+    // given
+    Path graphFile = write("A, B, 1\nB, C, 2\n");
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph);
+    GraphFileWatcher watcher = GraphFileWatcher.of(
+      graphFile,
+      graph,
+      new ReentrantReadWriteLock()
+    );
+    Files.write(
+      graphFile,
+      "B,C,2\r\nA , B , 1".getBytes(StandardCharsets.UTF_8)
+    );
+
+    // when
+    List<Mutation> delta = watcher.reload();
+
+    // then
+    Assertions.assertThat(delta).isEmpty();
+  }
+
+  @Test
+  void givenMalformedLine_reload_keepsGraphAndRetriesLater()
+    throws IOException {
+    // given
+    Path graphFile = write("A, B, 1\n");
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph);
+    GraphFileWatcher watcher = GraphFileWatcher.of(
+      graphFile,
+      graph,
+      new ReentrantReadWriteLock()
+    );
+    Files.write(graphFile, "A, B, 2\nB, C".getBytes(StandardCharsets.UTF_8));
+
+    // when
+    Throwable thrown = Assertions.catchThrowable(watcher::reload);
+    Files.write(
+      graphFile,
+      "A, B, 2\nB, C, 3".getBytes(StandardCharsets.UTF_8)
+    );
+    List<Mutation> delta = watcher.reload();
+
+    // then
+    Assertions
+      .assertThat(thrown)
+      .isExactlyInstanceOf(IllegalArgumentException.class);
+    Assertions.assertThat(delta).hasSize(2);
+    Assertions
+      .assertThat(graph.getEdge(Vertex.with("A"), Vertex.with("B")).getWeight())
+      .isEqualTo(2);
+  }
+
+  @Test
+  void givenAppendedDuplicate_reload_skipsItAndAppliesLaterEdits()
+    throws IOException {
+    // given
+    Path graphFile = write("A, B, 1\nB, C, 2\n");
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph);
+    GraphFileWatcher watcher = GraphFileWatcher.of(
+      graphFile,
+      graph,
+      new ReentrantReadWriteLock()
+    );
+    Vertex a = Vertex.with("A");
+    Vertex b = Vertex.with("B");
+    Vertex c = Vertex.with("C");
+    Vertex d = Vertex.with("D");
+
+    // when
+    append(graphFile, "A, B, 5\nC, D, 3\n");
+    List<Mutation> duplicateDelta = watcher.reload();
+    append(graphFile, "D, A, 4\n");
+    List<Mutation> appendDelta = watcher.reload();
+    Files.write(
+      graphFile,
+      "A, B, 1\nB, C, 7\nA, B, 5\nC, D, 3\nD, A, 4\n".getBytes(
+          StandardCharsets.UTF_8
+        )
+    );
+    List<Mutation> editDelta = watcher.reload();
+
+    // then
+    Assertions
+      .assertThat(duplicateDelta)
+      .containsExactly(Mutation.addEdge(c, d, 3));
+    Assertions.assertThat(appendDelta).containsExactly(Mutation.addEdge(d, a, 4));
+    Assertions
+      .assertThat(editDelta)
+      .containsExactly(Mutation.changeWeight(b, c, 7));
+    Assertions.assertThat(graph.getEdge(a, b).getWeight()).isEqualTo(1);
+    Assertions.assertThat(graph.getEdge(b, c).getWeight()).isEqualTo(7);
+    Assertions.assertThat(graph.getEdge(d, a).getWeight()).isEqualTo(4);
+  }
+
+  @Test
+  void givenMalformedAppendedLine_reload_retriesFromSameLine()
+    throws IOException {
+    // given
+    Path graphFile = write("A, B, 1\n");
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph);
+    GraphFileWatcher watcher = GraphFileWatcher.of(
+      graphFile,
+      graph,
+      new ReentrantReadWriteLock()
+    );
+    append(graphFile, "B, C");
+
+    // when
+    Throwable thrown = Assertions.catchThrowable(watcher::reload);
+    append(graphFile, ", 3\n");
+    List<Mutation> delta = watcher.reload();
+
+    // then
+    Assertions
+      .assertThat(thrown)
+      .isExactlyInstanceOf(IllegalArgumentException.class);
+    Assertions
+      .assertThat(delta)
+      .containsExactly(
+        Mutation.addEdge(Vertex.with("B"), Vertex.with("C"), 3)
+      );
+  }
+
+  @Test
+  void givenRemovedDefiningLine_reload_letsDuplicateTakeOver()
+    throws IOException {
+    // given
+    Path graphFile = write("A, B, 1\nA, B, 5\nB, C, 2\n");
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph);
+    List<String> skippedLines = new ArrayList<>();
+    GraphFileWatcher watcher = GraphFileWatcher.of(
+      graphFile,
+      graph,
+      new ReentrantReadWriteLock(),
+      new GraphFileWatcher.ReloadListener() {
+        @Override
+        public void skipped(Path reloadedFile, String line) {
+          skippedLines.add(line);
+        }
+      }
+    );
+    Vertex a = Vertex.with("A");
+    Vertex b = Vertex.with("B");
+
+    // when
+    append(graphFile, "A, B, 7\n");
+    List<Mutation> duplicateDelta = watcher.reload();
+    Files.write(
+      graphFile,
+      "A, B, 5\nB, C, 2\nA, B, 7\n".getBytes(StandardCharsets.UTF_8)
+    );
+    List<Mutation> removeDelta = watcher.reload();
+
+    // then
+    Assertions.assertThat(duplicateDelta).isEmpty();
+    Assertions.assertThat(skippedLines).containsExactly("A, B, 7");
+    Assertions
+      .assertThat(removeDelta)
+      .containsExactly(Mutation.changeWeight(a, b, 5));
+    Assertions.assertThat(graph.getEdge(a, b).getWeight()).isEqualTo(5);
+  }
+
+  @Test
+  void givenGraphModifiedByOthers_reload_resynchronizesWithWholeFile()
+    throws IOException {
+    // given
+    Path graphFile = write("A, B, 1\nB, C, 2\n");
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph);
+    GraphFileWatcher watcher = GraphFileWatcher.of(
+      graphFile,
+      graph,
+      new ReentrantReadWriteLock()
+    );
+    Vertex a = Vertex.with("A");
+    Vertex b = Vertex.with("B");
+    Vertex c = Vertex.with("C");
+    Vertex d = Vertex.with("D");
+    graph.apply(List.of(Mutation.removeEdge(a, b)));
+
+    // when
+    Files.write(
+      graphFile,
+      "B, C, 2\nC, D, 3\n".getBytes(StandardCharsets.UTF_8)
+    );
+    List<Mutation> delta = watcher.reload();
+
+    // then
+    Assertions.assertThat(delta).containsExactly(Mutation.addEdge(c, d, 3));
+    Assertions.assertThat(graph.getEdge(a, b)).isNull();
+    Assertions.assertThat(graph.getEdge(c, d).getWeight()).isEqualTo(3);
+  }
+
+  private static void append(Path graphFile, String content)
+    throws IOException {
+    Files.write(
+      graphFile,
+      content.getBytes(StandardCharsets.UTF_8),
+      StandardOpenOption.APPEND
+    );
+  }
+
+  private Path write(String content) throws IOException {
+    Path graphFile = directory.resolve("graph.txt");
+    Files.write(graphFile, content.getBytes(StandardCharsets.UTF_8));
+    return graphFile;
+  }
+}
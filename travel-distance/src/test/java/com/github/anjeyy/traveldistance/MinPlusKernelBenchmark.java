@@ -0,0 +1,120 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the scalar and the vector {@link MinPlusKernel} on random dense graphs, not part of the test run.
+ * <pre>
+ *   mvn test-compile
+ *   java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes \
+ *     com.github.anjeyy.traveldistance.MinPlusKernelBenchmark [vertices] [fill in percent]
+ * </pre>
+ * Reports the median of several runs for a single min-plus tile product and for all pairs travel times.
+ */
+final class MinPlusKernelBenchmark {
+
+  private static final int WARMUPS = 3;
+  private static final int RUNS = 7;
+
+  private MinPlusKernelBenchmark() {
+    throw new UnsupportedOperationException(
+      String.format("No instance of '%s' allowed.", getClass())
+    );
+  }
+
+  public static void main(String[] args) {
+    int vertexCount = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+    int fillPercent = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+    GraphSnapshot snapshot = randomGraph(vertexCount, fillPercent).snapshot();
+
+    Map<String, MinPlusKernel> kernels = MinPlusKernel
+      .vector()
+      .map(vector -> Map.of("scalar", MinPlusKernel.SCALAR, "vector", vector))
+      .orElseGet(() -> Map.of("scalar", MinPlusKernel.SCALAR));
+    if (kernels.size() == 1) {
+      System.out.println(
+        "Vector kernel is not available, add '--add-modules jdk.incubator.vector' on JDK 17+."
+      );
+    }
+    System.out.printf(
+      "%d vertices, %d edges, %d processors%n",
+      snapshot.vertexCount(),
+      snapshot.edgeCount(),
+      Runtime.getRuntime().availableProcessors()
+    );
+
+    int[] tileInput = AllPairsTravelTimes.compute(
+      snapshot,
+      MinPlusKernel.SCALAR
+    );
+    for (String name : List.of("scalar", "vector")) {
+      MinPlusKernel kernel = kernels.get(name);
+      if (kernel == null) {
+        continue;
+      }
+      double tileMillis = median(
+        () -> {
+          int[] matrix = tileInput.clone();
+          // rows and columns beyond the first tile via the pivots of the first tile, phase 3 of Floyd-Warshall
+          kernel.relax(
+            matrix,
+            vertexCount,
+            AllPairsTravelTimes.TILE,
+            vertexCount,
+            AllPairsTravelTimes.TILE,
+            vertexCount,
+            0,
+            AllPairsTravelTimes.TILE
+          );
+        }
+      );
+      double allPairsMillis = median(
+        () -> AllPairsTravelTimes.compute(snapshot, kernel)
+      );
+      System.out.printf(
+        "%-6s tile product %8.2f ms, all pairs %8.2f ms%n",
+        name,
+        tileMillis,
+        allPairsMillis
+      );
+    }
+  }
+
+  private static double median(Runnable benchmark) {
+    for (int warmup = 0; warmup < WARMUPS; warmup++) {
+      benchmark.run();
+    }
+    double[] millis = new double[RUNS];
+    for (int run = 0; run < RUNS; run++) {
+      long start = System.nanoTime();
+      benchmark.run();
+      millis[run] = (System.nanoTime() - start) / 1_000_000.0;
+    }
+    Arrays.sort(millis);
+    return millis[RUNS / 2];
+  }
+
+  private static DirectedWeightedGraph randomGraph(
+    int vertexCount,
+    int fillPercent
+  ) {
+    Random random = new Random(42);
+    List<Vertex> vertices = new ArrayList<>(vertexCount);
+    for (int i = 0; i < vertexCount; i++) {
+      vertices.add(Vertex.with("v" + i));
+    }
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    for (Vertex source : vertices) {
+      for (Vertex destination : vertices) {
+        if (!source.equals(destination) && random.nextInt(100) < fillPercent) {
+          graph.addEdge(new Edge(source, destination, 1 + random.nextInt(100)));
+        }
+      }
+    }
+    return graph;
+  }
+}
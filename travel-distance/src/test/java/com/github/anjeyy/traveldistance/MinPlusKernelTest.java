@@ -0,0 +1,99 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.Optional;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.Assumptions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MinPlusKernelTest {
+
+  @AfterEach
+  void clearProperty() {
+    System.clearProperty(MinPlusKernel.PROPERTY);
+  }
+
+  @Test
+  void givenTile_scalarKernel_relaxesViaPivots() {
+    // given
+    int i = MinPlusKernel.INFINITY;
+    int[] matrix = { i, 2, i, i, i, 3, 1, i, i }; // 0 -> 1 -> 2 -> 0
+
+    // when
+    MinPlusKernel.SCALAR.relax(matrix, 3, 0, 3, 0, 3, 0, 3);
+
+    // then
+    Assertions.assertThat(matrix).containsExactly(6, 2, 5, 4, 6, 3, 1, 3, 6);
+  }
+
+  @Test
+  void givenRandomMatrices_vectorKernel_equalsScalarKernel() {
+    Optional<MinPlusKernel> vector = MinPlusKernel.vector();
+    Assumptions.assumeThat(vector).isPresent();
+
+    Random random = new Random(7);
+    for (int round = 0; round < 50; round++) {
+      // given
+      int stride = 1 + random.nextInt(90);
+      int[] matrix = new int[stride * stride];
+      for (int index = 0; index < matrix.length; index++) {
+        matrix[index] =
+          random.nextInt(3) == 0
+            ? MinPlusKernel.INFINITY
+            : random.nextInt(200) - 20;
+      }
+      int[] expected = matrix.clone();
+      int from = random.nextInt(stride);
+      int to = from + random.nextInt(stride - from + 1);
+      int pivot = random.nextInt(stride);
+
+      // when
+      MinPlusKernel.SCALAR.relax(
+        expected,
+        stride,
+        0,
+        stride,
+        from,
+        to,
+        pivot,
+        stride
+      );
+      vector.get().relax(matrix, stride, 0, stride, from, to, pivot, stride);
+
+      // then
+      Assertions.assertThat(matrix).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  void givenScalarProperty_returnsScalarKernel() {
+    // given
+    System.setProperty(MinPlusKernel.PROPERTY, " Scalar ");
+
+    // when
+    MinPlusKernel actual = MinPlusKernel.fromSystemProperties();
+
+    // then
+    Assertions.assertThat(actual).isSameAs(MinPlusKernel.SCALAR);
+  }
+
+  @Test
+  void givenUnknownProperty_throwsException() {
+    // given
+    System.setProperty(MinPlusKernel.PROPERTY, "quantum");
+
+    // when
+    ThrowableAssert.ThrowingCallable expectedThrow =
+      MinPlusKernel::fromSystemProperties;
+
+    // then
+    Assertions
+      .assertThatThrownBy(expectedThrow)
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessage(
+        "Please provide one of 'scalar' or 'vector' as kernel, yours was: quantum"
+      );
+  }
+}
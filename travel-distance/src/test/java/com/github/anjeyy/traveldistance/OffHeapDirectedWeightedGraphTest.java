@@ -0,0 +1,21 @@
+package com.github.anjeyy.traveldistance;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+
+/**
+ * Runs every test of {@link DirectedWeightedGraphTest} on graphs with an {@link OffHeapEdgeStorage}, which
+ * replaces the hashed edges between modifications.
+ */
+class OffHeapDirectedWeightedGraphTest extends DirectedWeightedGraphTest {
+
+  @BeforeAll
+  static void useOffHeapStorage() {
+    System.setProperty(WritableEdgeStorage.Backend.PROPERTY, "off-heap");
+  }
+
+  @AfterAll
+  static void clearStorage() {
+    System.clearProperty(WritableEdgeStorage.Backend.PROPERTY);
+  }
+}
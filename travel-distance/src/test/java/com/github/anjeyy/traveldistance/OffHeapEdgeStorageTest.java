@@ -0,0 +1,255 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class OffHeapEdgeStorageTest {
+
+  private static final Vertex SOLAR_SYSTEM = Vertex.with("Solar System");
+  private static final Vertex ALPHA_CENTAURI = Vertex.with("Alpha Centauri");
+  private static final Vertex SIRIUS = Vertex.with("Sirius");
+  private static final Vertex BETELGEUSE = Vertex.with("Betelgeuse");
+  private static final Vertex VEGA = Vertex.with("Vega");
+  private static final List<Vertex> STAR_SYSTEMS = List.of(
+    SOLAR_SYSTEM,
+    ALPHA_CENTAURI,
+    SIRIUS,
+    BETELGEUSE,
+    VEGA
+  );
+
+  @ParameterizedTest
+  @EnumSource(WritableEdgeStorage.Backend.class)
+  void givenBackend_storedEdges_areReadBack(
+    WritableEdgeStorage.Backend backend
+  ) {
+    // given
+    WritableEdgeStorage storage = backend.allocate(2, 3);
+
+    // when
+    storage.setEdgeStart(0, 0);
+    storage.setEdgeStart(1, 2);
+    storage.setEdgeStart(2, 3);
+    storage.setTarget(0, 0); // targets ascending, the compressed storage sorts them
+    storage.setTarget(1, 1);
+    storage.setTarget(2, 0);
+    storage.setWeight(0, 7);
+    storage.setWeight(1, -3);
+    storage.setWeight(2, Integer.MAX_VALUE);
+    storage.seal();
+
+    // then
+    Assertions.assertThat(storage.vertexCount()).isEqualTo(2);
+    Assertions.assertThat(storage.edgeCount()).isEqualTo(3);
+    Assertions.assertThat(storage.edgeStart(1)).isEqualTo(2);
+    Assertions.assertThat(storage.edgeEnd(1)).isEqualTo(3);
+    Assertions.assertThat(storage.target(1)).isEqualTo(1);
+    Assertions.assertThat(storage.weight(1)).isEqualTo(-3);
+    Assertions.assertThat(storage.weight(2)).isEqualTo(Integer.MAX_VALUE);
+  }
+
+  @ParameterizedTest
+  @EnumSource(WritableEdgeStorage.Backend.class)
+  void givenBackend_shortestRoutes_matchHeapGraph(
+    WritableEdgeStorage.Backend backend
+  ) {
+    // given
+    DirectedWeightedGraph heapGraph = constructSpaceHighways(
+      WritableEdgeStorage.Backend.HEAP
+    );
+    DirectedWeightedGraph graph = constructSpaceHighways(backend);
+
+    // when
+    String before = graph.calculateShortestRoute(SOLAR_SYSTEM, SIRIUS);
+    graph.getEdge(ALPHA_CENTAURI, SIRIUS).setWeight(-1); // mirrored to storage
+    heapGraph.getEdge(ALPHA_CENTAURI, SIRIUS).setWeight(-1);
+
+    // then
+    Assertions.assertThat(before).isEqualTo("9 hours");
+    for (Vertex source : STAR_SYSTEMS) {
+      for (Vertex destination : STAR_SYSTEMS) {
+        Assertions
+          .assertThat(graph.calculateShortestRoute(source, destination))
+          .isEqualTo(heapGraph.calculateShortestRoute(source, destination));
+      }
+    }
+  }
+
+  @Test
+  void givenPrimaryEdgeStore_compact_releasesHashedEdgesTillModified() {
+    // given
+    DirectedWeightedGraph heapGraph = constructSpaceHighways(
+      WritableEdgeStorage.Backend.HEAP
+    );
+    DirectedWeightedGraph graph = constructSpaceHighways(
+      WritableEdgeStorage.Backend.OFF_HEAP
+    );
+
+    // when
+    heapGraph.compact();
+    String beforeCompaction = graph.calculateShortestRoute(
+      SOLAR_SYSTEM,
+      SIRIUS
+    );
+    boolean releasedByQuery = graph.isReleased();
+    graph.compact();
+    boolean releasedByCompaction = graph.isReleased();
+    graph.addEdge(new Edge(SOLAR_SYSTEM, SIRIUS, 1));
+    String afterModification = graph.calculateShortestRoute(
+      SOLAR_SYSTEM,
+      SIRIUS
+    );
+
+    // then
+    Assertions.assertThat(heapGraph.isReleased()).isFalse();
+    Assertions.assertThat(beforeCompaction).isEqualTo("9 hours");
+    Assertions.assertThat(releasedByQuery).isFalse();
+    Assertions.assertThat(releasedByCompaction).isTrue();
+    Assertions.assertThat(afterModification).isEqualTo("1 hours");
+    Assertions.assertThat(graph.isReleased()).isFalse();
+    Assertions.assertThat(graph.inDegree(SIRIUS)).isEqualTo(3);
+    Assertions.assertThat(graph.outDegree(SOLAR_SYSTEM)).isEqualTo(4);
+    Assertions.assertThat(graph).isEqualTo(constructWithShortcut());
+  }
+
+  @Test
+  void givenCompactedGraph_identityMethods_keepHashedEdgesReleased() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways(
+      WritableEdgeStorage.Backend.MAPPED
+    );
+    graph.compact();
+
+    // when
+    boolean equal = graph.equals(
+      constructSpaceHighways(WritableEdgeStorage.Backend.HEAP)
+    );
+    int hashCode = graph.hashCode();
+    String text = graph.toString();
+
+    // then
+    Assertions.assertThat(equal).isTrue();
+    Assertions
+      .assertThat(hashCode)
+      .isEqualTo(
+        constructSpaceHighways(WritableEdgeStorage.Backend.HEAP).hashCode()
+      );
+    Assertions
+      .assertThat(text)
+      .contains("[Edge: 'solar system' --(5)-> 'alpha centauri']");
+    Assertions.assertThat(graph.isReleased()).isTrue();
+  }
+
+  @Test
+  void givenCompactedGraph_edgeHandedOutBefore_isDetached() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways(
+      WritableEdgeStorage.Backend.MAPPED
+    );
+    Edge alphaCentauriToSirius = graph.getEdge(ALPHA_CENTAURI, SIRIUS);
+    graph.compact();
+
+    // when
+    alphaCentauriToSirius.setWeight(10);
+    String whileReleased = graph.calculateShortestRoute(SOLAR_SYSTEM, SIRIUS);
+    Edge rebuiltEdge = graph.getEdge(ALPHA_CENTAURI, SIRIUS);
+    rebuiltEdge.setWeight(-1);
+    String afterRebuild = graph.calculateShortestRoute(SOLAR_SYSTEM, SIRIUS);
+
+    // then
+    Assertions.assertThat(whileReleased).isEqualTo("9 hours");
+    Assertions.assertThat(rebuiltEdge).isNotSameAs(alphaCentauriToSirius);
+    Assertions.assertThat(graph.hasNegativeWeights()).isTrue();
+    Assertions.assertThat(afterRebuild).isEqualTo("4 hours");
+  }
+
+  @Test
+  void givenEdgeHandedOutBeforeCompaction_removedAndAddedAgain_staysDetached() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways(
+      WritableEdgeStorage.Backend.OFF_HEAP
+    );
+    Edge staleEdge = graph.getEdge(ALPHA_CENTAURI, SIRIUS);
+    graph.compact();
+
+    // when
+    graph.removeEdge(new Edge(ALPHA_CENTAURI, SIRIUS, 4));
+    graph.addEdge(new Edge(ALPHA_CENTAURI, SIRIUS, 7));
+    staleEdge.setWeight(1);
+
+    // then
+    Assertions
+      .assertThat(graph.getEdge(ALPHA_CENTAURI, SIRIUS).getWeight())
+      .isEqualTo(7);
+    Assertions
+      .assertThat(graph.calculateShortestRoute(SOLAR_SYSTEM, SIRIUS))
+      .isEqualTo("12 hours");
+  }
+
+  @Test
+  void givenEmptyGraph_offHeapSnapshot_hasNoEdges() {
+    // given
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create(
+      WritableEdgeStorage.Backend.MAPPED
+    );
+
+    // when
+    GraphSnapshot snapshot = graph.snapshot();
+
+    // then
+    Assertions.assertThat(snapshot.vertexCount()).isZero();
+    Assertions.assertThat(snapshot.edgeCount()).isZero();
+  }
+
+  @Test
+  void givenSystemProperty_backend_isParsed() {
+    String property = WritableEdgeStorage.Backend.PROPERTY;
+    try {
+      // given
+      System.setProperty(property, "off-heap");
+
+      // when
+      WritableEdgeStorage.Backend backend = WritableEdgeStorage.Backend
+        .fromSystemProperties();
+
+      // then
+      Assertions
+        .assertThat(backend)
+        .isEqualTo(WritableEdgeStorage.Backend.OFF_HEAP);
+      System.setProperty(property, "disk");
+      Assertions
+        .assertThatThrownBy(WritableEdgeStorage.Backend::fromSystemProperties)
+        .isExactlyInstanceOf(IllegalArgumentException.class)
+        .hasMessageEndingWith("yours was: disk");
+    } finally {
+      System.clearProperty(property);
+    }
+  }
+
+  private static DirectedWeightedGraph constructWithShortcut() {
+    DirectedWeightedGraph graph = constructSpaceHighways(
+      WritableEdgeStorage.Backend.HEAP
+    );
+    graph.addEdge(new Edge(SOLAR_SYSTEM, SIRIUS, 1));
+    return graph;
+  }
+
+  private static DirectedWeightedGraph constructSpaceHighways(
+    WritableEdgeStorage.Backend backend
+  ) {
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create(backend);
+    graph.addEdge(new Edge(SOLAR_SYSTEM, ALPHA_CENTAURI, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, BETELGEUSE, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, VEGA, 7));
+    graph.addEdge(new Edge(ALPHA_CENTAURI, SIRIUS, 4));
+    graph.addEdge(new Edge(BETELGEUSE, SIRIUS, 8));
+    graph.addEdge(new Edge(BETELGEUSE, VEGA, 6));
+    graph.addEdge(new Edge(SIRIUS, BETELGEUSE, 8));
+    graph.addEdge(new Edge(SIRIUS, VEGA, 2));
+    graph.addEdge(new Edge(VEGA, ALPHA_CENTAURI, 3));
+    return graph;
+  }
+}
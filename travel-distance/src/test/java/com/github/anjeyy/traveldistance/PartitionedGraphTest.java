@@ -0,0 +1,236 @@
+package com.github.anjeyy.traveldistance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PartitionedGraphTest {
+
+  private static final Vertex SOLAR_SYSTEM = Vertex.with("Solar System");
+  private static final Vertex ALPHA_CENTAURI = Vertex.with("Alpha Centauri");
+  private static final Vertex SIRIUS = Vertex.with("Sirius");
+  private static final Vertex BETELGEUSE = Vertex.with("Betelgeuse");
+  private static final Vertex VEGA = Vertex.with("Vega");
+  private static final List<Vertex> STAR_SYSTEMS = List.of(
+    SOLAR_SYSTEM,
+    ALPHA_CENTAURI,
+    SIRIUS,
+    BETELGEUSE,
+    VEGA
+  );
+
+  @ParameterizedTest
+  @ValueSource(ints = { 1, 2, 3, 5, 7 })
+  void givenLocalWorkers_shortestRoutes_matchUnpartitionedGraph(
+    int shardCount
+  ) throws IOException {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    try (
+      PartitionedGraph partitionedGraph = PartitionedGraph.partition(
+        graph,
+        shardCount,
+        LocalShardWorker::of
+      )
+    ) {
+      // then
+      Assertions
+        .assertThat(partitionedGraph.shardCount())
+        .isEqualTo(shardCount);
+      assertMatchesUnpartitionedGraph(graph, partitionedGraph, STAR_SYSTEMS);
+    }
+  }
+
+  @Test
+  void givenRandomGraphs_shortestRoutes_matchUnpartitionedGraph()
+    throws IOException {
+    Random random = new Random(34);
+    for (int round = 0; round < 20; round++) {
+      // given
+      DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+      List<Vertex> vertices = new ArrayList<>();
+      for (int i = 0; i < 25; i++) {
+        vertices.add(Vertex.with("v" + i));
+      }
+      for (int i = 0; i < 60; i++) {
+        Vertex source = vertices.get(random.nextInt(vertices.size()));
+        Vertex destination = vertices.get(random.nextInt(vertices.size()));
+        if (!source.equals(destination)) {
+          graph.addEdge(new Edge(source, destination, random.nextInt(10)));
+        }
+      }
+
+      // when
+      try (
+        PartitionedGraph partitionedGraph = PartitionedGraph.partition(
+          graph,
+          1 + random.nextInt(6),
+          LocalShardWorker::of
+        )
+      ) {
+        // then
+        assertMatchesUnpartitionedGraph(graph, partitionedGraph, vertices);
+      }
+    }
+  }
+
+  @Test
+  void givenSocketWorkers_shortestRoutes_matchUnpartitionedGraph()
+    throws IOException {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    List<ShardServer> servers = new ArrayList<>();
+    PartitionedGraph.WorkerFactory factory = shard -> {
+      ShardServer server = ShardServer.start(LocalShardWorker.of(shard));
+      servers.add(server);
+      return SocketShardWorker.connect(server.getPort());
+    };
+
+    // when
+    try (
+      PartitionedGraph partitionedGraph = PartitionedGraph.partition(
+        graph,
+        2,
+        factory
+      )
+    ) {
+      // then
+      assertMatchesUnpartitionedGraph(graph, partitionedGraph, STAR_SYSTEMS);
+      List<PartitionedGraph.ShardStatistics> statistics = partitionedGraph
+        .statistics();
+      Assertions.assertThat(statistics).hasSize(2);
+      Assertions
+        .assertThat(statistics)
+        .allSatisfy(
+          s -> {
+            Assertions.assertThat(s.getEstimatedMemory()).isPositive();
+            Assertions.assertThat(s.getMessageCount()).isPositive();
+            Assertions.assertThat(s.getBoundaryVertexCount()).isPositive();
+          }
+        );
+    } finally {
+      servers.forEach(ShardServer::close);
+    }
+  }
+
+  @Test
+  void givenWorkerProcesses_shortestRoutes_matchUnpartitionedGraph()
+    throws IOException {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    try (
+      PartitionedGraph partitionedGraph = PartitionedGraph.partition(
+        graph,
+        2,
+        SocketShardWorker::spawn
+      )
+    ) {
+      // then
+      assertMatchesUnpartitionedGraph(graph, partitionedGraph, STAR_SYSTEMS);
+    }
+  }
+
+  @Test
+  void givenQueries_statistics_countMessagesPerShard() throws IOException {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    try (
+      PartitionedGraph partitionedGraph = PartitionedGraph.partition(
+        graph,
+        2,
+        LocalShardWorker::of
+      )
+    ) {
+      long before = totalMessages(partitionedGraph);
+
+      // when
+      partitionedGraph.calculateShortestRoute(SOLAR_SYSTEM, SIRIUS);
+      long after = totalMessages(partitionedGraph);
+
+      // then
+      Assertions
+        .assertThat(after - before)
+        .isEqualTo(2 * 2 + 2 * 2); // two requests, two memory queries
+      Assertions.assertThat(partitionedGraph.cutEdgeCount()).isPositive();
+    }
+  }
+
+  @Test
+  void givenNegativeWeight_partition_throwsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph.getEdge(SIRIUS, VEGA).setWeight(-1);
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> PartitionedGraph.partition(graph, 2, LocalShardWorker::of)
+      )
+      .isExactlyInstanceOf(IllegalStateException.class)
+      .hasMessage("Partitioned execution requires non-negative weights.");
+  }
+
+  @Test
+  void givenInvalidShardCount_partition_throwsException() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> PartitionedGraph.partition(graph, 0, LocalShardWorker::of)
+      )
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Please provide shard count >0.");
+  }
+
+  private static long totalMessages(PartitionedGraph partitionedGraph) {
+    return partitionedGraph
+      .statistics()
+      .stream()
+      .mapToLong(PartitionedGraph.ShardStatistics::getMessageCount)
+      .sum();
+  }
+
+  private static void assertMatchesUnpartitionedGraph(
+    DirectedWeightedGraph graph,
+    PartitionedGraph partitionedGraph,
+    List<Vertex> vertices
+  ) {
+    for (Vertex source : vertices) {
+      for (Vertex destination : vertices) {
+        String expected = graph.calculateShortestRoute(source, destination);
+        Assertions
+          .assertThat(
+            partitionedGraph.calculateShortestRoute(source, destination)
+          )
+          .as("%s -> %s", source, destination)
+          .isEqualTo(expected);
+      }
+    }
+  }
+
+  private static DirectedWeightedGraph constructSpaceHighways() {
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    graph.addEdge(new Edge(SOLAR_SYSTEM, ALPHA_CENTAURI, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, BETELGEUSE, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, VEGA, 7));
+    graph.addEdge(new Edge(ALPHA_CENTAURI, SIRIUS, 4));
+    graph.addEdge(new Edge(BETELGEUSE, SIRIUS, 8));
+    graph.addEdge(new Edge(BETELGEUSE, VEGA, 6));
+    graph.addEdge(new Edge(SIRIUS, BETELGEUSE, 8));
+    graph.addEdge(new Edge(SIRIUS, VEGA, 2));
+    graph.addEdge(new Edge(VEGA, ALPHA_CENTAURI, 3));
+    return graph;
+  }
+}
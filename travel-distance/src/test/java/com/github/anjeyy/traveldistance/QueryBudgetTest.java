@@ -0,0 +1,75 @@
+package com.github.anjeyy.traveldistance;
+
+import java.time.Duration;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class QueryBudgetTest {
+
+  @ParameterizedTest
+  @ValueSource(ints = { -1, 0 })
+  void givenInvalidMaxResults_creatingBudget_throwsException(int maxResults) {
+    // when
+    ThrowableAssert.ThrowingCallable expectedThrow = () ->
+      QueryBudget.unlimited().withMaxResults(maxResults);
+
+    // then
+    Assertions
+      .assertThatThrownBy(expectedThrow)
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Please provide max results >0.");
+  }
+
+  @Test
+  void givenZeroTimeout_creatingBudget_throwsException() {
+    // when
+    ThrowableAssert.ThrowingCallable expectedThrow = () ->
+      QueryBudget.unlimited().withTimeout(Duration.ZERO);
+
+    // then
+    Assertions
+      .assertThatThrownBy(expectedThrow)
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Please provide a timeout >0.");
+  }
+
+  @Test
+  void givenExpansionLimit_trackingExpansions_stopsAtLimit() {
+    // given
+    BudgetTracker tracker = QueryBudget
+      .unlimited()
+      .withMaxExpandedStates(3)
+      .start();
+
+    // when
+    int expanded = 0;
+    while (tracker.tryExpand()) {
+      expanded++;
+    }
+
+    // then
+    Assertions.assertThat(expanded).isEqualTo(3);
+    Assertions
+      .assertThat(tracker.getTruncation())
+      .isEqualTo(BudgetTracker.Truncation.EXPANSION_LIMIT_REACHED);
+  }
+
+  @Test
+  void givenUnlimitedBudget_trackingExpansions_isNeverTruncated() {
+    // given
+    BudgetTracker tracker = QueryBudget.unlimited().start();
+
+    // when
+    for (int i = 0; i < 10_000; i++) {
+      tracker.tryExpand();
+      tracker.tryAcceptResult();
+    }
+
+    // then
+    Assertions.assertThat(tracker.isTruncated()).isFalse();
+    Assertions.assertThat(tracker.flag("7 hours")).isEqualTo("7 hours");
+  }
+}
@@ -0,0 +1,86 @@
+package com.github.anjeyy.traveldistance;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class QueryEventTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void givenRecording_query_emitsEventWithWork() throws IOException {
+    // given
+    DirectedWeightedGraph graph = constructGraph();
+    Path recordingFile = directory.resolve("query.jfr");
+
+    // when
+    String result;
+    try (Recording recording = new Recording()) {
+      recording.enable(QueryEvent.NAME).withThreshold(Duration.ZERO);
+      recording.start();
+      result = Mode.FIND_ROUTES_WITH_MAX_STOPS.compute(graph, "a, c, 3");
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+    List<RecordedEvent> actual = RecordingFile.readAllEvents(recordingFile);
+
+    // then
+    Assertions.assertThat(result).startsWith("2 routes");
+    Assertions.assertThat(actual).hasSize(1);
+    RecordedEvent event = actual.get(0);
+    Assertions.assertThat(event.getInt("mode")).isEqualTo(2);
+    Assertions
+      .assertThat(event.getString("modeName"))
+      .isEqualTo("FIND_ROUTES_WITH_MAX_STOPS");
+    Assertions.assertThat(event.getString("arguments")).contains("limit=3");
+    Assertions.assertThat(event.getLong("resultSize")).isEqualTo(2);
+    Assertions.assertThat(event.getLong("expandedStates")).isPositive();
+    Assertions.assertThat(event.getBoolean("truncated")).isFalse();
+  }
+
+  @Test
+  void givenRecording_explain_stillObservesActualWork()
+    throws IOException {
+    // given
+    DirectedWeightedGraph graph = constructGraph();
+    Query query = new QueryParser()
+      .parse(Mode.TRAVEL_TIME_SHORTEST_PATH, "a, c");
+
+    // when
+    String actual;
+    try (Recording recording = new Recording()) {
+      recording.enable(QueryEvent.NAME).withThreshold(Duration.ZERO);
+      recording.start();
+      actual =
+        Mode.TRAVEL_TIME_SHORTEST_PATH.explain(
+          graph,
+          query,
+          QueryBudget.unlimited()
+        );
+      recording.stop();
+    }
+
+    // then
+    Assertions
+      .assertThat(actual)
+      .startsWith("2 hours")
+      .containsPattern("actual [1-9]\\d* states");
+  }
+
+  private static DirectedWeightedGraph constructGraph() {
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    graph.addEdge(new Edge(Vertex.with("a"), Vertex.with("b"), 1));
+    graph.addEdge(new Edge(Vertex.with("b"), Vertex.with("c"), 1));
+    graph.addEdge(new Edge(Vertex.with("a"), Vertex.with("c"), 5));
+    return graph;
+  }
+}
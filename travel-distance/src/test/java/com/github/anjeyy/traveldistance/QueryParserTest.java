@@ -0,0 +1,160 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class QueryParserTest {
+
+  private static final Vertex SOLAR_SYSTEM = Vertex.with("Solar System");
+  private static final Vertex SIRIUS = Vertex.with("Sirius");
+  private static final Vertex VEGA = Vertex.with("Vega");
+
+  @Test
+  void givenPairWithLimit_parsesVerticesAndLimit() {
+    // given
+    QueryParser parser = new QueryParser();
+
+    // when
+    Query query = parser.parse(
+      Mode.FIND_ROUTES_WITH_MAX_STOPS,
+      "  Solar System ,SIRIUS,  -12 "
+    );
+
+    // then
+    Assertions
+      .assertThat(query.getMode())
+      .isEqualTo(Mode.FIND_ROUTES_WITH_MAX_STOPS);
+    Assertions.assertThat(query.source()).isEqualTo(SOLAR_SYSTEM);
+    Assertions.assertThat(query.destination()).isEqualTo(SIRIUS);
+    Assertions.assertThat(query.getLimit()).isEqualTo(-12);
+  }
+
+  @Test
+  void givenRoute_skipsBlankVertices() {
+    // given
+    QueryParser parser = new QueryParser();
+
+    // when
+    Query query = parser.parse(
+      Mode.TRAVEL_TIME_CERTAIN_ROUTE,
+      "Solar System, , Sirius,Vega,"
+    );
+
+    // then
+    Assertions
+      .assertThat(query.vertices())
+      .containsExactly(SOLAR_SYSTEM, SIRIUS, VEGA);
+  }
+
+  @Test
+  void givenMatrix_splitsSourcesAndTargets() {
+    // given
+    QueryParser parser = new QueryParser();
+
+    // when
+    Query query = parser.parse(
+      Mode.TRAVEL_TIME_MATRIX,
+      "Solar System, Sirius; Vega"
+    );
+
+    // then
+    Assertions
+      .assertThat(query.sources())
+      .containsExactly(SOLAR_SYSTEM, SIRIUS);
+    Assertions.assertThat(query.targets()).containsExactly(VEGA);
+  }
+
+  @Test
+  void givenKnownLabelInAnyCase_reusesVertexInstance() {
+    // given
+    QueryParser parser = new QueryParser();
+    Vertex first = parser
+      .parse(Mode.TRAVEL_TIME_SHORTEST_PATH, "Solar System, Vega")
+      .source();
+
+    // when
+    Vertex second = parser
+      .parse(Mode.TRAVEL_TIME_SHORTEST_PATH, "Vega, SOLAR system")
+      .destination();
+
+    // then
+    Assertions.assertThat(second).isSameAs(first).isEqualTo(SOLAR_SYSTEM);
+  }
+
+  @Test
+  void givenManyDistinctLabels_resolvesEveryVertex() {
+    // given
+    QueryParser parser = new QueryParser();
+
+    for (int round = 0; round < 2; round++) {
+      for (int i = 0; i < 1_000; i++) {
+        // when
+        Query query = parser.parse(
+          Mode.REACHABLE_WITH_MAX_TIME,
+          "Star " + i + ", " + i
+        );
+
+        // then
+        Assertions
+          .assertThat(query.source())
+          .isEqualTo(Vertex.with("star " + i));
+        Assertions.assertThat(query.getLimit()).isEqualTo(i);
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "Sirius", "Sirius, Vega", "Sirius, Vega, 3, 4" })
+  void givenWrongAmountOfArguments_throwsException(String rawInput) {
+    // given
+    QueryParser parser = new QueryParser();
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> parser.parse(Mode.TRAVEL_TIME_WITH_MAX_TIME, rawInput)
+      )
+      .isExactlyInstanceOf(IllegalArgumentException.class)
+      .hasMessage(
+        "MODE 'TRAVEL_TIME_WITH_MAX_TIME' need source, destination and maxTime parameters. Yours was: '" +
+        rawInput +
+        "'."
+      );
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = { "", "-", "12a", "2147483648", "-2147483649" })
+  void givenInvalidLimit_throwsNumberFormatException(String limit) {
+    // given
+    QueryParser parser = new QueryParser();
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(
+        () -> parser.parse(Mode.REACHABLE_WITH_MAX_TIME, "Sirius, " + limit)
+      )
+      .isExactlyInstanceOf(NumberFormatException.class);
+  }
+
+  @Test
+  void givenIntegerBounds_parsesLikeInteger() {
+    // given
+    QueryParser parser = new QueryParser();
+
+    // when
+    int max = parser
+      .parse(Mode.REACHABLE_WITH_MAX_TIME, "Sirius, +2147483647")
+      .getLimit();
+    int min = parser
+      .parse(Mode.REACHABLE_WITH_MAX_TIME, "Sirius, -2147483648")
+      .getLimit();
+
+    // then
+    Assertions
+      .assertThat(List.of(max, min))
+      .containsExactly(Integer.MAX_VALUE, Integer.MIN_VALUE);
+  }
+}
@@ -0,0 +1,332 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class QueryPlannerTest {
+
+  private final QueryParser parser = new QueryParser();
+
+  @Test
+  void givenCyclicGraph_planRouteCount_choosesDynamicProgram() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Query query = parser.parse(
+      Mode.COUNT_ROUTES_WITH_MAX_TIME,
+      "sirius, sirius, 300"
+    );
+
+    // when
+    QueryPlan plan = QueryPlanner.plan(graph, query, QueryBudget.unlimited());
+
+    // then
+    Assertions
+      .assertThat(plan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.DYNAMIC_PROGRAM_COUNT);
+    Assertions.assertThat(plan.getEstimatedWork()).isEqualTo(300L * 5);
+  }
+
+  @Test
+  void givenAcyclicGraphWithHugeTime_planRouteCount_choosesEnumeration() {
+    // given
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    graph.addEdge(new Edge(Vertex.with("a"), Vertex.with("b"), 1));
+    graph.addEdge(new Edge(Vertex.with("b"), Vertex.with("c"), 1));
+    graph.addEdge(new Edge(Vertex.with("a"), Vertex.with("c"), 1));
+    Query query = parser.parse(
+      Mode.COUNT_ROUTES_WITH_MAX_TIME,
+      "a, c, 1000000"
+    );
+
+    // when
+    QueryPlan plan = QueryPlanner.plan(graph, query, QueryBudget.unlimited());
+    String result = Mode.COUNT_ROUTES_WITH_MAX_TIME.execute(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+
+    // then
+    Assertions
+      .assertThat(plan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.ENUMERATION_COUNT);
+    Assertions.assertThat(result).isEqualTo("2 routes");
+  }
+
+  @Test
+  void givenZeroWeight_planRouteCount_choosesEnumeration() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph.addEdge(new Edge(Vertex.with("Vega"), Vertex.with("Sirius"), 0));
+    Query query = parser.parse(
+      Mode.COUNT_ROUTES_WITH_MAX_TIME,
+      "sirius, sirius, 30"
+    );
+
+    // when
+    QueryPlan plan = QueryPlanner.plan(graph, query, QueryBudget.unlimited());
+
+    // then
+    Assertions
+      .assertThat(plan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.ENUMERATION_COUNT);
+    Assertions
+      .assertThat(plan.getReason())
+      .isEqualTo("dynamic program requires positive weights");
+  }
+
+  @Test
+  void givenHotSource_planShortestPath_choosesLookup() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Query query = parser.parse(
+      Mode.TRAVEL_TIME_SHORTEST_PATH,
+      "solar system, sirius"
+    );
+    QueryPlan livePlan = QueryPlanner.plan(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+
+    // when
+    graph.registerHotSource(Vertex.with("Solar System"));
+    QueryPlan hotPlan = QueryPlanner.plan(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+
+    // then
+    Assertions
+      .assertThat(livePlan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.DIJKSTRA);
+    Assertions
+      .assertThat(hotPlan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.HOT_SOURCE_LOOKUP);
+  }
+
+  @Test
+  void givenCachedAllPairs_planShortestPath_choosesLookupTillModified() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Query query = parser.parse(
+      Mode.TRAVEL_TIME_SHORTEST_PATH,
+      "solar system, sirius"
+    );
+    String searched = Mode.TRAVEL_TIME_SHORTEST_PATH.execute(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+
+    // when
+    graph.calculateAllPairsTravelTimes();
+    QueryPlan cachedPlan = QueryPlanner.plan(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+    String lookedUp = Mode.TRAVEL_TIME_SHORTEST_PATH.execute(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+    graph.addEdge(
+      new Edge(Vertex.with("Solar System"), Vertex.with("Sirius"), 1)
+    );
+    QueryPlan modifiedPlan = QueryPlanner.plan(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+
+    // then
+    Assertions
+      .assertThat(cachedPlan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.ALL_PAIRS_LOOKUP);
+    Assertions.assertThat(lookedUp).isEqualTo(searched);
+    Assertions
+      .assertThat(modifiedPlan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.DIJKSTRA);
+  }
+
+  @Test
+  void givenAllSourcesOfCompleteGraph_planMatrix_searchesRowsTillAllPairsAreBuilt() {
+    // given
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    List<String> names = List.of("a", "b", "c", "d", "e", "f");
+    for (int i = 0; i < names.size(); i++) {
+      for (int j = 0; j < names.size(); j++) {
+        if (i != j) {
+          graph.addEdge(
+            new Edge(
+              Vertex.with(names.get(i)),
+              Vertex.with(names.get(j)),
+              1 + (i * 7 + j * 3) % 10
+            )
+          );
+        }
+      }
+    }
+    Query query = parser.parse(
+      Mode.TRAVEL_TIME_MATRIX,
+      "a, b, c, d, e, f; a, b, c, d, e, f"
+    );
+    String searched = graph
+      .calculateTravelTimeMatrix(query.sources(), query.targets())
+      .toString();
+
+    // when
+    QueryPlan searchPlan = QueryPlanner.plan(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+    Mode.TRAVEL_TIME_MATRIX.execute(graph, query, QueryBudget.unlimited());
+    boolean builtByQuery = graph.hasAllPairsTravelTimes();
+    graph.calculateAllPairsTravelTimes();
+    QueryPlan lookupPlan = QueryPlanner.plan(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+    String actual = Mode.TRAVEL_TIME_MATRIX.execute(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+
+    // then
+    Assertions
+      .assertThat(searchPlan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.DIJKSTRA_ROWS);
+    Assertions.assertThat(builtByQuery).isFalse();
+    Assertions
+      .assertThat(lookupPlan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.ALL_PAIRS_LOOKUP);
+    Assertions.assertThat(actual).isEqualTo(searched);
+  }
+
+  @Test
+  void givenSingleSource_planMatrix_searchesRows() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Query query = parser.parse(
+      Mode.TRAVEL_TIME_MATRIX,
+      "sirius; vega, solar system"
+    );
+
+    // when
+    QueryPlan plan = QueryPlanner.plan(graph, query, QueryBudget.unlimited());
+
+    // then
+    Assertions
+      .assertThat(plan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.DIJKSTRA_ROWS);
+    Assertions.assertThat(graph.hasAllPairsTravelTimes()).isFalse();
+  }
+
+  @Test
+  void givenHugeEnumeration_planMaxStops_choosesDepthFirstUnlessResultsAreLimited() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Query query = parser.parse(
+      Mode.FIND_ROUTES_WITH_MAX_STOPS,
+      "sirius, sirius, 40"
+    );
+
+    // when
+    QueryPlan unlimitedPlan = QueryPlanner.plan(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+    QueryPlan limitedPlan = QueryPlanner.plan(
+      graph,
+      query,
+      QueryBudget.unlimited().withMaxResults(10)
+    );
+
+    // then
+    Assertions
+      .assertThat(unlimitedPlan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.DFS_ENUMERATION);
+    Assertions
+      .assertThat(limitedPlan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.BFS_ENUMERATION);
+  }
+
+  @Test
+  void givenSmallBudget_plan_warnsAboutTruncation() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Query query = parser.parse(
+      Mode.FIND_ROUTES_WITH_MAX_STOPS,
+      "sirius, sirius, 20"
+    );
+
+    // when
+    QueryPlan plan = QueryPlanner.plan(
+      graph,
+      query,
+      QueryBudget.unlimited().withMaxExpandedStates(100)
+    );
+
+    // then
+    Assertions
+      .assertThat(plan.getStrategy())
+      .isEqualTo(QueryPlan.Strategy.BFS_ENUMERATION);
+    Assertions
+      .assertThat(plan.getReason())
+      .endsWith(
+        "estimate exceeds the budget of 100 expanded states, result may be truncated"
+      );
+  }
+
+  @Test
+  void givenQuery_explain_comparesEstimatedWithActualWork() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    Query query = parser.parse(
+      Mode.COUNT_ROUTES_WITH_MAX_TIME,
+      "sirius, sirius, 30"
+    );
+
+    // when
+    String actual = Mode.COUNT_ROUTES_WITH_MAX_TIME.explain(
+      graph,
+      query,
+      QueryBudget.unlimited()
+    );
+
+    // then
+    Assertions
+      .assertThat(actual)
+      .startsWith(
+        "7 routes\n" +
+        "PLAN: DYNAMIC_PROGRAM_COUNT - dynamic program over (travel time, vertex)\n" +
+        "REASON: fewer estimated states than enumerating with "
+      )
+      .containsPattern("WORK: estimated 150 states, actual [1-9]\\d* states");
+  }
+
+  private static DirectedWeightedGraph constructSpaceHighways() {
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    List
+      .of(
+        new Edge(Vertex.with("Solar System"), Vertex.with("Alpha Centauri"), 5),
+        new Edge(Vertex.with("Solar System"), Vertex.with("Betelgeuse"), 5),
+        new Edge(Vertex.with("Solar System"), Vertex.with("Vega"), 7),
+        new Edge(Vertex.with("Alpha Centauri"), Vertex.with("Sirius"), 4),
+        new Edge(Vertex.with("Betelgeuse"), Vertex.with("Sirius"), 8),
+        new Edge(Vertex.with("Betelgeuse"), Vertex.with("Vega"), 6),
+        new Edge(Vertex.with("Sirius"), Vertex.with("Betelgeuse"), 8),
+        new Edge(Vertex.with("Sirius"), Vertex.with("Vega"), 2),
+        new Edge(Vertex.with("Vega"), Vertex.with("Alpha Centauri"), 3)
+      )
+      .forEach(graph::addEdge);
+    return graph;
+  }
+}
@@ -0,0 +1,78 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.Test;
+
+class RouteListTest {
+
+  private final GraphSnapshot snapshot = GraphSnapshot.of(
+    Map.of(
+      Vertex.with("a"),
+      Map.of(Vertex.with("b"), new Edge(Vertex.with("a"), Vertex.with("b"), 1))
+    )
+  );
+
+  @Test
+  void givenReversedRoute_build_storesRouteFromSource() {
+    // given
+    RouteList.Builder builder = new RouteList.Builder(snapshot);
+    builder.append(0);
+    builder.append(1);
+    builder.endRoute();
+    builder.append(1);
+    builder.append(0);
+    builder.append(1);
+    builder.endReversedRoute();
+
+    // when
+    RouteList actual = builder.build(null);
+
+    // then
+    Assertions.assertThat(actual.routeCount()).isEqualTo(2);
+    Assertions.assertThat(actual.routeLength(1)).isEqualTo(3);
+    Assertions.assertThat(actual.vertexId(1, 0)).isEqualTo(1);
+    Assertions.assertThat(actual.vertexId(1, 2)).isEqualTo(1);
+    Assertions
+      .assertThat(actual)
+      .hasToString(
+        "2 routes: \n" +
+        "[[Vertex: a], [Vertex: b]]\n" +
+        "[[Vertex: b], [Vertex: a], [Vertex: b]]"
+      );
+  }
+
+  @Test
+  void givenTruncation_emptyRoutes_areFlagged() {
+    // when
+    RouteList actual = RouteList.empty(
+      BudgetTracker.Truncation.RESULT_LIMIT_REACHED
+    );
+
+    // then
+    Assertions.assertThat(actual.routeCount()).isZero();
+    Assertions.assertThat(actual.isTruncated()).isTrue();
+    Assertions
+      .assertThat(actual)
+      .hasToString("NO SUCH ROUTE (TRUNCATED: max results reached)");
+  }
+
+  @Test
+  void givenPositionOutsideRoute_vertexId_throwsException() {
+    // given
+    RouteList.Builder builder = new RouteList.Builder(snapshot);
+    builder.append(0);
+    builder.endRoute();
+    RouteList routes = builder.build(null);
+
+    // when
+    ThrowableAssert.ThrowingCallable expectedThrow = () ->
+      routes.vertexId(0, 1);
+
+    // then
+    Assertions
+      .assertThatThrownBy(expectedThrow)
+      .isInstanceOf(IndexOutOfBoundsException.class);
+  }
+}
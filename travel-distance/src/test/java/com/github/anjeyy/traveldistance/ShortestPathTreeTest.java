@@ -0,0 +1,234 @@
+package com.github.anjeyy.traveldistance;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.api.ThrowableAssert;
+import org.junit.jupiter.api.Test;
+
+class ShortestPathTreeTest {
+
+  private static final Vertex SOLAR_SYSTEM = Vertex.with("Solar System");
+  private static final Vertex ALPHA_CENTAURI = Vertex.with("Alpha Centauri");
+  private static final Vertex SIRIUS = Vertex.with("Sirius");
+  private static final Vertex BETELGEUSE = Vertex.with("Betelgeuse");
+  private static final Vertex VEGA = Vertex.with("Vega");
+
+  @Test
+  void givenHotSource_changingWeights_repairsTree() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph.registerHotSource(SOLAR_SYSTEM);
+
+    // when
+    graph.getEdge(ALPHA_CENTAURI, SIRIUS).setWeight(10); // tree edge worsened
+    String worsened = graph.calculateShortestRoute(SOLAR_SYSTEM, SIRIUS);
+    graph.getEdge(SOLAR_SYSTEM, BETELGEUSE).setWeight(1); // improved
+    String improved = graph.calculateShortestRoute(SOLAR_SYSTEM, SIRIUS);
+
+    // then
+    Assertions.assertThat(worsened).isEqualTo("13 hours");
+    Assertions.assertThat(improved).isEqualTo("9 hours");
+    ShortestPathTree tree = graph.hotSourceTree(SOLAR_SYSTEM);
+    Assertions.assertThat(tree.parentOf(SIRIUS)).isEqualTo(BETELGEUSE);
+  }
+
+  @Test
+  void givenHotSource_removingTreeEdge_reattachesSubtree() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph.registerHotSource(SOLAR_SYSTEM);
+
+    // when
+    graph.removeEdge(new Edge(SOLAR_SYSTEM, ALPHA_CENTAURI, 5));
+
+    // then
+    ShortestPathTree tree = graph.hotSourceTree(SOLAR_SYSTEM);
+    Assertions.assertThat(tree.distanceTo(ALPHA_CENTAURI)).isEqualTo(10);
+    Assertions.assertThat(tree.distanceTo(SIRIUS)).isEqualTo(13);
+    Assertions.assertThat(tree.parentOf(ALPHA_CENTAURI)).isEqualTo(VEGA);
+  }
+
+  @Test
+  void givenHotSource_removingVertex_detachesUnreachableVertices() {
+    // given
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    Vertex a = Vertex.with("a");
+    Vertex b = Vertex.with("b");
+    Vertex c = Vertex.with("c");
+    graph.addEdge(new Edge(a, b, 1));
+    graph.addEdge(new Edge(b, c, 1));
+    graph.registerHotSource(a);
+
+    // when
+    graph.removeVertex(b);
+
+    // then
+    ShortestPathTree tree = graph.hotSourceTree(a);
+    Assertions.assertThat(tree.distanceTo(b)).isNull();
+    Assertions.assertThat(tree.distanceTo(c)).isNull();
+    Assertions.assertThat(tree.size()).isEqualTo(1);
+    Assertions
+      .assertThat(graph.calculateShortestRoute(a, c))
+      .isEqualTo("NO SUCH ROUTE");
+  }
+
+  @Test
+  void givenHotSource_roundTrip_matchesDijkstra() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+
+    // when
+    String withoutTree = graph.calculateShortestRoute(SIRIUS, SIRIUS);
+    graph.registerHotSource(SIRIUS);
+    String withTree = graph.calculateShortestRoute(SIRIUS, SIRIUS);
+
+    // then
+    Assertions.assertThat(withTree).isEqualTo(withoutTree).isEqualTo("9 hours");
+  }
+
+  @Test
+  void givenRandomMutations_repairingTree_equalsRebuiltTree() {
+    // given
+    Random random = new Random(42);
+    int vertexCount = 30;
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < vertexCount; i++) {
+      vertices.add(Vertex.with("v" + i));
+    }
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    for (int i = 0; i < 90; i++) {
+      addRandomEdge(graph, vertices, random);
+    }
+    Vertex source = vertices.get(0);
+    graph.registerHotSource(source);
+
+    for (int round = 0; round < 500; round++) {
+      // when
+      Vertex from = vertices.get(random.nextInt(vertexCount));
+      Vertex to = vertices.get(random.nextInt(vertexCount));
+      Edge edge = graph.getEdge(from, to);
+      int operation = random.nextInt(3);
+      if (edge == null) {
+        addRandomEdge(graph, vertices, random);
+      } else if (operation == 0) {
+        graph.removeEdge(edge);
+      } else {
+        edge.setWeight(1 + random.nextInt(20));
+      }
+
+      // then
+      ShortestPathTree repaired = graph.hotSourceTree(source);
+      ShortestPathTree rebuilt = ShortestPathTree.build(graph, source);
+      for (Vertex vertex : vertices) {
+        Assertions
+          .assertThat(repaired.distanceTo(vertex))
+          .as("distance to %s in round %d", vertex, round)
+          .isEqualTo(rebuilt.distanceTo(vertex));
+      }
+    }
+  }
+
+  @Test
+  void givenRandomBatches_repairingTreeOncePerBatch_equalsRebuiltTree() {
+    // given
+    Random random = new Random(7);
+    int vertexCount = 30;
+    List<Vertex> vertices = new ArrayList<>();
+    for (int i = 0; i < vertexCount; i++) {
+      vertices.add(Vertex.with("v" + i));
+    }
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    for (int i = 0; i < 90; i++) {
+      addRandomEdge(graph, vertices, random);
+    }
+    Vertex source = vertices.get(0);
+    graph.registerHotSource(source);
+
+    for (int round = 0; round < 100; round++) {
+      // when
+      List<Mutation> batch = new ArrayList<>();
+      Set<List<Vertex>> touched = new HashSet<>();
+      for (int i = 0; i < 10; i++) {
+        Vertex from = vertices.get(random.nextInt(vertexCount));
+        Vertex to = vertices.get(random.nextInt(vertexCount));
+        if (from.equals(to) || !touched.add(List.of(from, to))) {
+          continue;
+        }
+        int weight = 1 + random.nextInt(20);
+        if (graph.getEdge(from, to) == null) {
+          batch.add(Mutation.addEdge(from, to, weight));
+        } else if (random.nextBoolean()) {
+          batch.add(Mutation.removeEdge(from, to));
+        } else {
+          batch.add(Mutation.changeWeight(from, to, weight));
+        }
+      }
+      graph.apply(batch);
+
+      // then
+      ShortestPathTree repaired = graph.hotSourceTree(source);
+      ShortestPathTree rebuilt = ShortestPathTree.build(graph, source);
+      for (Vertex vertex : vertices) {
+        Assertions
+          .assertThat(repaired.distanceTo(vertex))
+          .as("distance to %s in round %d", vertex, round)
+          .isEqualTo(rebuilt.distanceTo(vertex));
+      }
+    }
+  }
+
+  @Test
+  void givenHotSource_failingBatch_keepsTree() {
+    // given
+    DirectedWeightedGraph graph = constructSpaceHighways();
+    graph.registerHotSource(SOLAR_SYSTEM);
+    List<Mutation> batch = List.of(
+      Mutation.removeEdge(SOLAR_SYSTEM, ALPHA_CENTAURI),
+      Mutation.removeEdge(SIRIUS, SOLAR_SYSTEM)
+    );
+
+    // when
+    ThrowableAssert.ThrowingCallable expectedThrow = () -> graph.apply(batch);
+
+    // then
+    Assertions
+      .assertThatThrownBy(expectedThrow)
+      .isInstanceOf(IllegalArgumentException.class);
+    ShortestPathTree tree = graph.hotSourceTree(SOLAR_SYSTEM);
+    Assertions.assertThat(tree.distanceTo(ALPHA_CENTAURI)).isEqualTo(5);
+    Assertions.assertThat(tree.parentOf(ALPHA_CENTAURI)).isEqualTo(SOLAR_SYSTEM);
+    Assertions.assertThat(tree.distanceTo(SIRIUS)).isEqualTo(9);
+  }
+
+  // ### H E L P E R ###
+
+  private static void addRandomEdge(
+    DirectedWeightedGraph graph,
+    List<Vertex> vertices,
+    Random random
+  ) {
+    Vertex from = vertices.get(random.nextInt(vertices.size()));
+    Vertex to = vertices.get(random.nextInt(vertices.size()));
+    if (!from.equals(to)) {
+      graph.addEdge(new Edge(from, to, 1 + random.nextInt(20)));
+    }
+  }
+
+  private static DirectedWeightedGraph constructSpaceHighways() {
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    graph.addEdge(new Edge(SOLAR_SYSTEM, ALPHA_CENTAURI, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, BETELGEUSE, 5));
+    graph.addEdge(new Edge(SOLAR_SYSTEM, VEGA, 7));
+    graph.addEdge(new Edge(ALPHA_CENTAURI, SIRIUS, 4));
+    graph.addEdge(new Edge(BETELGEUSE, SIRIUS, 8));
+    graph.addEdge(new Edge(BETELGEUSE, VEGA, 6));
+    graph.addEdge(new Edge(SIRIUS, BETELGEUSE, 8));
+    graph.addEdge(new Edge(SIRIUS, VEGA, 2));
+    graph.addEdge(new Edge(VEGA, ALPHA_CENTAURI, 3));
+    return graph;
+  }
+}
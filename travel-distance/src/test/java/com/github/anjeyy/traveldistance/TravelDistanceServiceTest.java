@@ -0,0 +1,397 @@
+package com.github.anjeyy.traveldistance;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TravelDistanceServiceTest {
+
+  @Test
+  void givenGraphFile_query_completesWithResult(@TempDir Path directory)
+    throws Exception {
+    // given
+    Path graphFile = directory.resolve("space-highway.graph");
+    Files.write(
+      graphFile,
+      List.of(
+        "Solar System, Alpha Centauri, 5",
+        "Alpha Centauri, Sirius, 4",
+        "Solar System, Sirius, 12"
+      )
+    );
+
+    // when
+    QueryResult actual;
+    try (
+      TravelDistanceService service = TravelDistanceService.load(
+        graphFile,
+        2,
+        4,
+        TravelDistanceService.Saturation.REJECT
+      )
+    ) {
+      actual =
+        service.query(4, "solar system, sirius").get(5, TimeUnit.SECONDS);
+    }
+
+    // then
+    Assertions.assertThat(actual.getMode()).isEqualTo(4);
+    Assertions.assertThat(actual.getText()).isEqualTo("9 hours");
+    Assertions.assertThat(actual.isTruncated()).isFalse();
+    Assertions.assertThat(actual.getExpandedStates()).isPositive();
+  }
+
+  @Test
+  void givenSmallBudget_query_reportsTruncation() throws Exception {
+    // given
+    QueryBudget budget = QueryBudget.unlimited().withMaxExpandedStates(3);
+
+    // when
+    QueryResult actual;
+    try (
+      TravelDistanceService service = TravelDistanceService.of(
+        constructSpaceHighways(),
+        budget,
+        1,
+        1,
+        TravelDistanceService.Saturation.REJECT
+      )
+    ) {
+      actual =
+        service.query(2, "sirius, sirius, 10").get(5, TimeUnit.SECONDS);
+    }
+
+    // then
+    Assertions.assertThat(actual.isTruncated()).isTrue();
+    Assertions.assertThat(actual.getText()).contains("TRUNCATED");
+  }
+
+  @Test
+  void givenInvalidArguments_query_failsFuture() throws Exception {
+    try (
+      TravelDistanceService service = TravelDistanceService.of(
+        constructSpaceHighways(),
+        QueryBudget.unlimited(),
+        1,
+        1,
+        TravelDistanceService.Saturation.REJECT
+      )
+    ) {
+      // when
+      CompletableFuture<QueryResult> actual = service.query(4, "sirius");
+
+      // then
+      Assertions
+        .assertThatThrownBy(() -> actual.get(5, TimeUnit.SECONDS))
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalArgumentException.class);
+      Assertions
+        .assertThatThrownBy(() -> service.query(6, "sirius"))
+        .isInstanceOf(IllegalArgumentException.class);
+    }
+  }
+
+  @Test
+  void givenFailingError_submit_failsFutureAndKeepsServing() throws Exception {
+    try (
+      TravelDistanceService service = TravelDistanceService.of(
+        constructSpaceHighways(),
+        QueryBudget.unlimited(),
+        1,
+        1,
+        TravelDistanceService.Saturation.REJECT
+      )
+    ) {
+      // when
+      CompletableFuture<Object> overflowing = service.submit(
+        () -> {
+          throw new StackOverflowError();
+        }
+      );
+      CompletableFuture<Object> exhausting = service.submit(
+        () -> {
+          throw new OutOfMemoryError("Thrown by test.");
+        }
+      );
+
+      // then
+      Assertions
+        .assertThatThrownBy(() -> overflowing.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(StackOverflowError.class);
+      Assertions
+        .assertThatThrownBy(() -> exhausting.get(5, TimeUnit.SECONDS))
+        .hasCauseInstanceOf(OutOfMemoryError.class);
+      Assertions
+        .assertThat(
+          service
+            .query(4, "solar system, sirius")
+            .get(5, TimeUnit.SECONDS)
+            .getText()
+        )
+        .isEqualTo("9 hours");
+    }
+  }
+
+  @Test
+  void givenSaturatedService_query_isRejected() throws Exception {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    try (
+      TravelDistanceService service = TravelDistanceService.of(
+        constructSpaceHighways(),
+        QueryBudget.unlimited(),
+        1,
+        1,
+        TravelDistanceService.Saturation.REJECT
+      )
+    ) {
+      CompletableFuture<Boolean> running = service.submit(
+        () -> release.await(5, TimeUnit.SECONDS)
+      );
+      CompletableFuture<QueryResult> queued = service.query(
+        4,
+        "solar system, sirius"
+      );
+
+      // when
+      CompletableFuture<QueryResult> rejected = service.query(
+        4,
+        "solar system, sirius"
+      );
+      release.countDown();
+
+      // then
+      Assertions
+        .assertThatThrownBy(rejected::join)
+        .hasCauseInstanceOf(RejectedExecutionException.class)
+        .hasMessageContaining("Service is saturated");
+      Assertions.assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+      Assertions
+        .assertThat(queued.get(5, TimeUnit.SECONDS).getText())
+        .isEqualTo("9 hours");
+    }
+  }
+
+  @Test
+  void givenSaturatedService_query_isThrottled() throws Exception {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    try (
+      TravelDistanceService service = TravelDistanceService.of(
+        constructSpaceHighways(),
+        QueryBudget.unlimited(),
+        1,
+        0,
+        TravelDistanceService.Saturation.THROTTLE
+      )
+    ) {
+      service.submit(() -> release.await(5, TimeUnit.SECONDS));
+
+      // when
+      CompletableFuture<CompletableFuture<QueryResult>> submitted =
+        CompletableFuture.supplyAsync(
+          () -> service.query(4, "solar system, sirius")
+        );
+
+      // then
+      Assertions
+        .assertThatThrownBy(() -> submitted.get(100, TimeUnit.MILLISECONDS))
+        .isInstanceOf(TimeoutException.class);
+      release.countDown();
+      Assertions
+        .assertThat(
+          submitted
+            .get(5, TimeUnit.SECONDS)
+            .get(5, TimeUnit.SECONDS)
+            .getText()
+        )
+        .isEqualTo("9 hours");
+    }
+  }
+
+  @Test
+  void givenClosedService_query_isRejected() {
+    // given
+    TravelDistanceService service = TravelDistanceService.of(
+      constructSpaceHighways(),
+      QueryBudget.unlimited(),
+      1,
+      1,
+      TravelDistanceService.Saturation.REJECT
+    );
+
+    // when
+    service.close();
+    CompletableFuture<QueryResult> actual = service.query(
+      4,
+      "solar system, sirius"
+    );
+
+    // then
+    Assertions
+      .assertThatThrownBy(actual::join)
+      .hasCauseInstanceOf(RejectedExecutionException.class)
+      .hasMessageContaining("already closed");
+  }
+
+  @Test
+  void givenQueries_typedAccessors_exposeAnswers() throws Exception {
+    try (
+      TravelDistanceService service = TravelDistanceService.of(
+        constructSpaceHighways(),
+        QueryBudget.unlimited(),
+        2,
+        8,
+        TravelDistanceService.Saturation.REJECT
+      )
+    ) {
+      // when
+      QueryResult shortest = service
+        .query(4, "solar system, sirius")
+        .get(5, TimeUnit.SECONDS);
+      QueryResult unreachable = service
+        .query(4, "sirius, solar system")
+        .get(5, TimeUnit.SECONDS);
+      QueryResult routes = service
+        .query(2, "solar system, sirius, 2")
+        .get(5, TimeUnit.SECONDS);
+      QueryResult withStops = service
+        .query(8, "solar system, sirius, 2")
+        .get(5, TimeUnit.SECONDS);
+      QueryResult matrix = service
+        .query(7, "solar system, sirius; sirius, solar system")
+        .get(5, TimeUnit.SECONDS);
+      QueryResult reachable = service
+        .query(9, "sirius, 5")
+        .get(5, TimeUnit.SECONDS);
+      QueryResult count = service
+        .query(10, "sirius, sirius, 30")
+        .get(5, TimeUnit.SECONDS);
+
+      // then
+      Assertions.assertThat(shortest.getTravelTime()).hasValue(9);
+      Assertions.assertThat(unreachable.getTravelTime()).isEmpty();
+      Assertions
+        .assertThat(routes.getRoutes())
+        .containsExactly(
+          List.of("solar system", "alpha centauri", "sirius"),
+          List.of("solar system", "betelgeuse", "sirius")
+        );
+      Assertions.assertThat(withStops.getTravelTime()).hasValue(9);
+      Assertions
+        .assertThat(withStops.getRoutes())
+        .containsExactly(List.of("solar system", "alpha centauri", "sirius"));
+      Assertions
+        .assertThat(matrix.getTravelTimeMatrix())
+        .isEqualTo(
+          new int[][] {
+            { 9, QueryResult.NO_ROUTE },
+            { 9, QueryResult.NO_ROUTE },
+          }
+        );
+      Assertions
+        .assertThat(reachable.getReachableVertices())
+        .containsExactly("sirius", "vega", "alpha centauri");
+      Assertions
+        .assertThat(reachable.getArrivalTimes())
+        .containsExactly(0, 2, 5);
+      Assertions.assertThat(count.getRouteCount()).isEqualTo(7);
+      Assertions
+        .assertThatThrownBy(shortest::getRoutes)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Mode 4 does not answer with routes.");
+    }
+  }
+
+  @Test
+  void givenHotSource_queryingWhileReloading_answersEitherVersion(
+    @TempDir Path directory
+  ) throws Exception {
+    // given
+    List<String> slowVersion = List.of(
+      "Solar System, Alpha Centauri, 5",
+      "Alpha Centauri, Sirius, 4",
+      "Solar System, Sirius, 12"
+    );
+    List<String> fastVersion = List.of(
+      "Solar System, Alpha Centauri, 5",
+      "Alpha Centauri, Sirius, 4",
+      "Solar System, Sirius, 7",
+      "Sirius, Vega, -1" // drops the hot source trees, rebuilt by the next queries
+    );
+    Path graphFile = directory.resolve("space-highway.graph");
+    Files.write(graphFile, slowVersion);
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    GraphFileLoader.load(graphFile, graph);
+    graph.registerHotSource(Vertex.with("Solar System"));
+    graph.registerHotSource(Vertex.with("Alpha Centauri"));
+
+    // when
+    List<CompletableFuture<QueryResult>> results = new ArrayList<>();
+    try (
+      TravelDistanceService service = TravelDistanceService.of(
+        graph,
+        QueryBudget.unlimited(),
+        4,
+        16,
+        TravelDistanceService.Saturation.THROTTLE
+      )
+    ) {
+      GraphFileWatcher watcher = service.watch(graphFile);
+      for (int reload = 0; reload < 50; reload++) {
+        for (int query = 0; query < 20; query++) {
+          results.add(service.query(4, "solar system, sirius"));
+          results.add(service.query(4, "alpha centauri, sirius"));
+        }
+        Files.write(graphFile, reload % 2 == 0 ? fastVersion : slowVersion);
+        watcher.reload();
+      }
+      CompletableFuture
+        .allOf(results.toArray(new CompletableFuture<?>[0]))
+        .get(30, TimeUnit.SECONDS);
+    }
+
+    // then
+    for (CompletableFuture<QueryResult> result : results) {
+      Assertions
+        .assertThat(result.join().getText())
+        .isIn("4 hours", "7 hours", "9 hours");
+    }
+    Assertions
+      .assertThat(
+        graph.calculateShortestRoute(
+          Vertex.with("Solar System"),
+          Vertex.with("Sirius")
+        )
+      )
+      .isEqualTo("9 hours");
+  }
+
+  private static DirectedWeightedGraph constructSpaceHighways() {
+    DirectedWeightedGraph graph = DirectedWeightedGraph.create();
+    List
+      .of(
+        new Edge(Vertex.with("Solar System"), Vertex.with("Alpha Centauri"), 5),
+        new Edge(Vertex.with("Solar System"), Vertex.with("Betelgeuse"), 5),
+        new Edge(Vertex.with("Solar System"), Vertex.with("Vega"), 7),
+        new Edge(Vertex.with("Alpha Centauri"), Vertex.with("Sirius"), 4),
+        new Edge(Vertex.with("Betelgeuse"), Vertex.with("Sirius"), 8),
+        new Edge(Vertex.with("Betelgeuse"), Vertex.with("Vega"), 6),
+        new Edge(Vertex.with("Sirius"), Vertex.with("Betelgeuse"), 8),
+        new Edge(Vertex.with("Sirius"), Vertex.with("Vega"), 2),
+        new Edge(Vertex.with("Vega"), Vertex.with("Alpha Centauri"), 3)
+      )
+      .forEach(graph::addEdge);
+    return graph;
+  }
+}
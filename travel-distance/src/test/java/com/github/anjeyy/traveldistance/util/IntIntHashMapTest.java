@@ -0,0 +1,67 @@
+package com.github.anjeyy.traveldistance.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class IntIntHashMapTest {
+
+  @Test
+  void givenFreeKey_isStoredSeparately() {
+    // given
+    IntIntHashMap map = new IntIntHashMap();
+
+    // when
+    map.put(0, 7);
+    map.put(0, 8);
+
+    // then
+    Assertions.assertThat(map.containsKey(0)).isTrue();
+    Assertions.assertThat(map.get(0, -1)).isEqualTo(8);
+    Assertions.assertThat(map.size()).isEqualTo(1);
+  }
+
+  @Test
+  void givenClearedMap_isEmpty() {
+    // given
+    IntIntHashMap map = new IntIntHashMap();
+    map.put(0, 1);
+    map.put(42, 2);
+
+    // when
+    map.clear();
+
+    // then
+    Assertions.assertThat(map.isEmpty()).isTrue();
+    Assertions.assertThat(map.containsKey(0)).isFalse();
+    Assertions.assertThat(map.get(42, -1)).isEqualTo(-1);
+  }
+
+  @Test
+  void givenRandomOperations_behavesLikeHashMap() {
+    // given
+    Random random = new Random(36);
+    IntIntHashMap map = new IntIntHashMap(2);
+    Map<Integer, Integer> expected = new HashMap<>();
+
+    for (int round = 0; round < 10_000; round++) {
+      // when
+      int key = random.nextInt(2_000) - 1_000;
+      int value = random.nextInt();
+      map.put(key, value);
+      expected.put(key, value);
+
+      // then
+      int probe = random.nextInt(2_000) - 1_000;
+      Assertions
+        .assertThat(map.get(probe, Integer.MIN_VALUE))
+        .isEqualTo(expected.getOrDefault(probe, Integer.MIN_VALUE));
+      Assertions
+        .assertThat(map.containsKey(probe))
+        .isEqualTo(expected.containsKey(probe));
+    }
+    Assertions.assertThat(map.size()).isEqualTo(expected.size());
+  }
+}
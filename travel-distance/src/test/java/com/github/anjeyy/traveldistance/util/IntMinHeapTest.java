@@ -0,0 +1,89 @@
+package com.github.anjeyy.traveldistance.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class IntMinHeapTest {
+
+  @Test
+  void givenContainedKey_offerOnlyDecreasesPriority() {
+    // given
+    IntMinHeap heap = new IntMinHeap(4);
+    heap.offer(1, 10);
+    heap.offer(2, 5);
+
+    // when
+    boolean increased = heap.offer(1, 20);
+    boolean decreased = heap.offer(1, 3);
+
+    // then
+    Assertions.assertThat(increased).isFalse();
+    Assertions.assertThat(decreased).isTrue();
+    Assertions.assertThat(heap.size()).isEqualTo(2);
+    Assertions.assertThat(heap.peekPriority()).isEqualTo(3);
+    Assertions.assertThat(heap.poll()).isEqualTo(1);
+    Assertions.assertThat(heap.contains(1)).isFalse();
+    Assertions.assertThat(heap.poll()).isEqualTo(2);
+    Assertions.assertThat(heap.isEmpty()).isTrue();
+  }
+
+  @Test
+  void givenEmptyHeap_pollThrowsException() {
+    // given
+    IntMinHeap heap = new IntMinHeap(1);
+
+    // when + then
+    Assertions
+      .assertThatThrownBy(heap::poll)
+      .isExactlyInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void givenClearedHeap_keysCanBeOfferedAgain() {
+    // given
+    IntMinHeap heap = new IntMinHeap(2);
+    heap.offer(0, 1);
+    heap.offer(1, 2);
+
+    // when
+    heap.clear();
+    heap.ensureKeyCapacity(8);
+    heap.offer(7, 9);
+
+    // then
+    Assertions.assertThat(heap.contains(0)).isFalse();
+    Assertions.assertThat(heap.size()).isEqualTo(1);
+    Assertions.assertThat(heap.poll()).isEqualTo(7);
+  }
+
+  @Test
+  void givenRandomDecreaseKeys_pollsInPriorityOrder() {
+    // given
+    Random random = new Random(36);
+    int keyCapacity = 500;
+    IntMinHeap heap = new IntMinHeap(keyCapacity);
+    Map<Integer, Integer> expected = new HashMap<>();
+
+    // when
+    for (int round = 0; round < 5_000; round++) {
+      int key = random.nextInt(keyCapacity);
+      int priority = random.nextInt(100_000);
+      heap.offer(key, priority);
+      expected.merge(key, priority, Math::min);
+    }
+
+    // then
+    int previousPriority = Integer.MIN_VALUE;
+    while (!heap.isEmpty()) {
+      int priority = heap.peekPriority();
+      int key = heap.poll();
+      Assertions.assertThat(priority).isGreaterThanOrEqualTo(previousPriority);
+      Assertions.assertThat(expected.remove(key)).isEqualTo(priority);
+      previousPriority = priority;
+    }
+    Assertions.assertThat(expected).isEmpty();
+  }
+}
@@ -0,0 +1,66 @@
+package com.github.anjeyy.traveldistance.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StampedIntArrayTest {
+
+  @Test
+  void givenClearedArray_previousEntriesAreAbsent() {
+    // given
+    StampedIntArray array = new StampedIntArray(4);
+    array.put(0, 7);
+    array.put(3, -1);
+
+    // when
+    array.clear();
+    array.put(3, 5);
+
+    // then
+    Assertions.assertThat(array.containsKey(0)).isFalse();
+    Assertions.assertThat(array.get(0, -1)).isEqualTo(-1);
+    Assertions.assertThat(array.get(3, -1)).isEqualTo(5);
+  }
+
+  @Test
+  void givenKeyBeyondCapacity_arrayGrows() {
+    // given
+    StampedIntArray array = new StampedIntArray(0);
+
+    // when
+    array.put(100, 42);
+
+    // then
+    Assertions.assertThat(array.get(100, -1)).isEqualTo(42);
+    Assertions.assertThat(array.containsKey(99)).isFalse();
+    Assertions.assertThat(array.containsKey(1_000)).isFalse();
+  }
+
+  @Test
+  void givenRandomOperations_behavesLikeHashMap() {
+    // given
+    Random random = new Random(50);
+    StampedIntArray array = new StampedIntArray(8);
+    Map<Integer, Integer> expected = new HashMap<>();
+
+    for (int round = 0; round < 10_000; round++) {
+      // when
+      int key = random.nextInt(64);
+      if (random.nextInt(100) == 0) {
+        array.clear();
+        expected.clear();
+      } else {
+        array.put(key, round);
+        expected.put(key, round);
+      }
+
+      // then
+      Assertions
+        .assertThat(array.get(key, -1))
+        .isEqualTo(expected.getOrDefault(key, -1));
+    }
+  }
+}
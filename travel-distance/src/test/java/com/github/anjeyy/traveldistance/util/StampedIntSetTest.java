@@ -0,0 +1,44 @@
+package com.github.anjeyy.traveldistance.util;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StampedIntSetTest {
+
+  @Test
+  void givenAddedValues_setReportsChanges() {
+    // given
+    StampedIntSet set = new StampedIntSet(2);
+
+    // when
+    boolean first = set.set(1);
+    boolean second = set.set(1);
+    boolean grown = set.set(70);
+
+    // then
+    Assertions.assertThat(first).isTrue();
+    Assertions.assertThat(second).isFalse();
+    Assertions.assertThat(grown).isTrue();
+    Assertions.assertThat(set.get(70)).isTrue();
+    Assertions.assertThat(set.get(0)).isFalse();
+  }
+
+  @Test
+  void givenClearedSet_valuesAreRemoved() {
+    // given
+    StampedIntSet set = new StampedIntSet(8);
+    set.set(3);
+    set.set(5);
+
+    // when
+    set.clear(3);
+    boolean beforeClear = set.get(5);
+    set.clear();
+
+    // then
+    Assertions.assertThat(set.get(3)).isFalse();
+    Assertions.assertThat(beforeClear).isTrue();
+    Assertions.assertThat(set.get(5)).isFalse();
+    Assertions.assertThat(set.set(5)).isTrue();
+  }
+}